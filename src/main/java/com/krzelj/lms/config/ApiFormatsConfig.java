@@ -0,0 +1,33 @@
+package com.krzelj.lms.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.http.converter.autoconfigure.ServerHttpMessageConvertersCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.JacksonCborHttpMessageConverter;
+import org.springframework.http.converter.smile.JacksonSmileHttpMessageConverter;
+import tools.jackson.databind.JacksonModule;
+import tools.jackson.dataformat.cbor.CBORMapper;
+import tools.jackson.dataformat.smile.SmileMapper;
+
+/**
+ * Registers CBOR ({@code application/cbor}) and Smile ({@code application/x-jackson-smile}) alongside JSON,
+ * so API clients can pick a binary representation through the {@code Accept} header.
+ */
+@Configuration
+public class ApiFormatsConfig {
+
+    @Bean
+    public SmileMapper smileMapper(ObjectProvider<JacksonModule> modules) {
+        return SmileMapper.builder()
+                .addModules(modules.orderedStream().toList())
+                .build();
+    }
+
+    @Bean
+    public ServerHttpMessageConvertersCustomizer binaryApiFormatsCustomizer(CBORMapper cborMapper, SmileMapper smileMapper) {
+        return converters -> converters
+                .withCborConverter(new JacksonCborHttpMessageConverter(cborMapper))
+                .withSmileConverter(new JacksonSmileHttpMessageConverter(smileMapper));
+    }
+}
@@ -1,15 +1,22 @@
 package com.krzelj.lms.domain;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.Instant;
 import java.util.HashSet;
@@ -17,7 +24,12 @@ import java.util.Objects;
 import java.util.Set;
 
 @Entity
-@Table(name = "assignments")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "assignments")
+@Table(
+        name = "assignments",
+        indexes = @Index(name = "idx_assignments_course_updated_at", columnList = "course_id, updated_at")
+)
 public class Assignment {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -39,6 +51,16 @@ public class Assignment {
     @Column(name = "max_points", nullable = false)
     private int maxPoints = 100;
 
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    @UpdateTimestamp
+    @ColumnDefault("current_timestamp")
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
     @OneToMany(mappedBy = "assignment", fetch = FetchType.LAZY)
     private Set<Submission> submissions = new HashSet<>();
 
@@ -100,6 +122,14 @@ public class Assignment {
         return submissions;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
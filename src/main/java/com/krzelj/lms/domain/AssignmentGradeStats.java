@@ -0,0 +1,95 @@
+package com.krzelj.lms.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.MapsId;
+import jakarta.persistence.OneToOne;
+import jakarta.persistence.Table;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.util.Objects;
+
+// Per-assignment grade rollup maintained incrementally by GradeStatsJdbcRepository.
+@Entity
+@Table(name = "assignment_grade_stats")
+public class AssignmentGradeStats {
+    @Id
+    @Column(name = "assignment_id")
+    private Long assignmentId;
+
+    @MapsId
+    @OneToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "assignment_id")
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Assignment assignment;
+
+    @ColumnDefault("0")
+    @Column(name = "submissions_count", nullable = false)
+    private long submissionsCount;
+
+    @ColumnDefault("0")
+    @Column(name = "graded_count", nullable = false)
+    private long gradedCount;
+
+    @ColumnDefault("0")
+    @Column(name = "points_sum", nullable = false)
+    private long pointsSum;
+
+    @ColumnDefault("0")
+    @Column(name = "points_sum_squares", nullable = false)
+    private long pointsSumSquares;
+
+    @Column(name = "min_points")
+    private Integer minPoints;
+
+    @Column(name = "max_points")
+    private Integer maxPoints;
+
+    protected AssignmentGradeStats() {
+    }
+
+    public Long getAssignmentId() {
+        return assignmentId;
+    }
+
+    public long getSubmissionsCount() {
+        return submissionsCount;
+    }
+
+    public long getGradedCount() {
+        return gradedCount;
+    }
+
+    public long getPointsSum() {
+        return pointsSum;
+    }
+
+    public long getPointsSumSquares() {
+        return pointsSumSquares;
+    }
+
+    public Integer getMinPoints() {
+        return minPoints;
+    }
+
+    public Integer getMaxPoints() {
+        return maxPoints;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof AssignmentGradeStats that)) return false;
+        return assignmentId != null && Objects.equals(assignmentId, that.assignmentId);
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+}
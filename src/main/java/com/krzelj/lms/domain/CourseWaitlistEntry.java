@@ -0,0 +1,79 @@
+package com.krzelj.lms.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+import java.time.Instant;
+import java.util.Objects;
+
+@Entity
+@Table(
+        name = "course_waitlist",
+        uniqueConstraints = @UniqueConstraint(
+                name = "uk_course_waitlist_course_student",
+                columnNames = {"course_id", "student_id"}
+        ),
+        indexes = @Index(name = "idx_course_waitlist_course_id", columnList = "course_id, id")
+)
+public class CourseWaitlistEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "course_id", nullable = false)
+    private Course course;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "student_id", nullable = false)
+    private User student;
+
+    @Column(name = "requested_at", nullable = false)
+    private Instant requestedAt;
+
+    protected CourseWaitlistEntry() {
+    }
+
+    public CourseWaitlistEntry(Course course, User student, Instant requestedAt) {
+        this.course = course;
+        this.student = student;
+        this.requestedAt = requestedAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Course getCourse() {
+        return course;
+    }
+
+    public User getStudent() {
+        return student;
+    }
+
+    public Instant getRequestedAt() {
+        return requestedAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof CourseWaitlistEntry that)) return false;
+        return id != null && Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+}
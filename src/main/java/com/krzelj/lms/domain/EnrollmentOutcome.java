@@ -0,0 +1,6 @@
+package com.krzelj.lms.domain;
+
+public enum EnrollmentOutcome {
+    ENROLLED,
+    WAITLISTED
+}
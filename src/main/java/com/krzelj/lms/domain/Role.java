@@ -1,5 +1,6 @@
 package com.krzelj.lms.domain;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
@@ -9,8 +10,14 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
 import jakarta.persistence.UniqueConstraint;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Immutable;
 
 @Entity
+@Immutable
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY, region = "roles")
 @Table(
         name = "roles",
         uniqueConstraints = @UniqueConstraint(name = "uk_roles_name", columnNames = "name")
@@ -40,9 +47,5 @@ public class Role {
     public RoleName getName() {
         return name;
     }
-
-    public void setName(RoleName name) {
-        this.name = name;
-    }
 }
 
@@ -6,10 +6,14 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
 import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.Instant;
 import java.util.Objects;
@@ -20,9 +24,16 @@ import java.util.Objects;
         uniqueConstraints = @UniqueConstraint(
                 name = "uk_submissions_assignment_student",
                 columnNames = {"assignment_id", "student_id"}
-        )
+        ),
+        indexes = {
+                @Index(name = "idx_submissions_student_updated_at", columnList = "student_id, updated_at"),
+                @Index(name = "idx_submissions_assignment_updated_at", columnList = "assignment_id, updated_at")
+        }
 )
 public class Submission {
+
+    public static final int MAX_CONTENT_LENGTH = 10000;
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -48,9 +59,19 @@ public class Submission {
     @JoinColumn(name = "graded_by_id")
     private User gradedBy;
 
-    @Column(name = "content_text", length = 10000)
+    @Column(name = "content_text", length = MAX_CONTENT_LENGTH)
     private String contentText;
 
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    @UpdateTimestamp
+    @ColumnDefault("current_timestamp")
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
     protected Submission() {
     }
 
@@ -121,6 +142,14 @@ public class Submission {
         this.contentText = contentText;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -0,0 +1,7 @@
+package com.krzelj.lms.domain;
+
+public enum SyncEntityType {
+    COURSE,
+    ASSIGNMENT,
+    SUBMISSION
+}
@@ -0,0 +1,88 @@
+package com.krzelj.lms.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+import java.time.Instant;
+import java.util.Objects;
+
+@Entity
+@Table(
+        name = "sync_tombstones",
+        indexes = @Index(name = "idx_sync_tombstones_deleted_at", columnList = "deleted_at")
+)
+public class SyncTombstone {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entity_type", nullable = false, length = 32)
+    private SyncEntityType entityType;
+
+    @Column(name = "entity_id", nullable = false)
+    private Long entityId;
+
+    @Column(name = "course_id", nullable = false)
+    private Long courseId;
+
+    @Column(name = "student_id")
+    private Long studentId;
+
+    @Column(name = "deleted_at", nullable = false)
+    private Instant deletedAt;
+
+    protected SyncTombstone() {
+    }
+
+    public SyncTombstone(SyncEntityType entityType, Long entityId, Long courseId, Long studentId, Instant deletedAt) {
+        this.entityType = entityType;
+        this.entityId = entityId;
+        this.courseId = courseId;
+        this.studentId = studentId;
+        this.deletedAt = deletedAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public SyncEntityType getEntityType() {
+        return entityType;
+    }
+
+    public Long getEntityId() {
+        return entityId;
+    }
+
+    public Long getCourseId() {
+        return courseId;
+    }
+
+    public Long getStudentId() {
+        return studentId;
+    }
+
+    public Instant getDeletedAt() {
+        return deletedAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof SyncTombstone that)) return false;
+        return id != null && Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+}
@@ -1,19 +1,60 @@
 package com.krzelj.lms.repository;
 
 import com.krzelj.lms.domain.Assignment;
+import com.krzelj.lms.repository.dto.AssignmentVersion;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 
 public interface AssignmentRepository extends JpaRepository<Assignment, Long> {
+    String BY_COURSE_CACHE_REGION = "assignments-by-course";
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = BY_COURSE_CACHE_REGION)
+    })
     List<Assignment> findByCourseIdOrderByDueAtAsc(Long courseId);
 
     @Query("select a from Assignment a left join fetch a.course where a.id = :id")
     java.util.Optional<Assignment> findByIdWithCourse(@Param("id") Long id);
 
+    @Query("select a from Assignment a join fetch a.course c where a.id in :ids and c.id = :courseId")
+    List<Assignment> findAllByIdWithCourse(@Param("courseId") Long courseId, @Param("ids") Collection<Long> ids);
+
+    @Query("""
+            select new com.krzelj.lms.repository.dto.AssignmentVersion(a.version, c.version)
+            from Assignment a
+            join a.course c
+            where a.id = :id
+            """)
+    java.util.Optional<AssignmentVersion> findVersionById(@Param("id") Long id);
+
+    @Query("""
+            select a
+            from Assignment a
+            join fetch a.course
+            where a.course.id in :courseIds
+              and (a.updatedAt > :since or a.course.id in :newCourseIds)
+            """)
+    List<Assignment> findChangedForSync(@Param("courseIds") Collection<Long> courseIds,
+                                        @Param("newCourseIds") Collection<Long> newCourseIds,
+                                        @Param("since") Instant since);
+
+    @Query("""
+            select a
+            from Assignment a
+            join fetch a.course
+            where a.updatedAt > :since
+            """)
+    List<Assignment> findChangedSince(@Param("since") Instant since);
+
     @Query("""
             select a
             from Assignment a
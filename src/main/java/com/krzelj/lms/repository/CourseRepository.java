@@ -1,10 +1,18 @@
 package com.krzelj.lms.repository;
 
 import com.krzelj.lms.domain.Course;
+import com.krzelj.lms.repository.dto.CatalogCourse;
+import com.krzelj.lms.repository.dto.CourseSummary;
+import com.krzelj.lms.repository.dto.RosterEntry;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -34,6 +42,57 @@ public interface CourseRepository extends JpaRepository<Course, Long> {
             """)
     Optional<Course> findByIdWithInstructor(@Param("id") Long id);
 
+    @Query("""
+            select c
+            from Course c
+            left join fetch c.instructor
+            where c.id in :ids
+            """)
+    List<Course> findAllByIdWithInstructor(@Param("ids") Collection<Long> ids);
+
+    @Query("""
+            select new com.krzelj.lms.repository.dto.CatalogCourse(
+                c.id, c.code, c.title, c.description, c.createdAt,
+                i.id, i.username, c.capacity
+            )
+            from Course c
+            left join c.instructor i
+            order by c.id asc
+            """)
+    List<CatalogCourse> findCatalog();
+
+    @Query("select c.id from Course c where c.instructor.id = :userId")
+    List<Long> findIdsByInstructorId(@Param("userId") Long userId);
+
+    @Query("select c.id from Course c join c.students s where s.id = :userId")
+    List<Long> findIdsByStudentId(@Param("userId") Long userId);
+
+    @Query("""
+            select c
+            from Course c
+            left join fetch c.instructor
+            where c.id in :courseIds
+              and (c.updatedAt > :since or c.id in :newCourseIds)
+            """)
+    List<Course> findChangedForSync(@Param("courseIds") Collection<Long> courseIds,
+                                    @Param("newCourseIds") Collection<Long> newCourseIds,
+                                    @Param("since") Instant since);
+
+    @Query("""
+            select c
+            from Course c
+            left join fetch c.instructor
+            where c.updatedAt > :since
+            """)
+    List<Course> findChangedSince(@Param("since") Instant since);
+
+    @Query("select c.version from Course c where c.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    @Modifying
+    @Query("update Course c set c.version = c.version + 1, c.updatedAt = :now where c.instructor.id = :instructorId")
+    int touchByInstructorId(@Param("instructorId") Long instructorId, @Param("now") Instant now);
+
     @Query("""
             select c
             from Course c
@@ -51,5 +110,34 @@ public interface CourseRepository extends JpaRepository<Course, Long> {
             where s.id = :studentId
             """)
     List<Course> findCoursesForStudent(@Param("studentId") Long studentId);
-}
 
+    @Query("""
+            select new com.krzelj.lms.repository.dto.CourseSummary(
+                c.id, c.code, c.title, c.description, c.createdAt,
+                i.id, i.username,
+                (select count(cs) from Course c2 join c2.students cs where c2.id = c.id),
+                c.capacity
+            )
+            from Course c
+            join c.instructor i
+            where c.id = :id
+            """)
+    Optional<CourseSummary> findSummaryById(@Param("id") Long id);
+
+    boolean existsByIdAndStudentsId(Long courseId, Long studentId);
+
+    @Query(value = """
+            select new com.krzelj.lms.repository.dto.RosterEntry(s.id, s.username, s.email)
+            from Course c
+            join c.students s
+            where c.id = :courseId
+            order by s.username asc
+            """,
+            countQuery = """
+            select count(s)
+            from Course c
+            join c.students s
+            where c.id = :courseId
+            """)
+    Page<RosterEntry> findRosterByCourseId(@Param("courseId") Long courseId, Pageable pageable);
+}
@@ -0,0 +1,97 @@
+package com.krzelj.lms.repository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Whitelist of API fields for one entity, mapped to the JPQL path that produces each field and the join it needs.
+ * Used to build sparse-fieldset queries that select only the columns a client asked for.
+ */
+public final class FieldProjection {
+
+    public static final String ID = "id";
+
+    private final String from;
+    private final Map<String, Column> columns = new LinkedHashMap<>();
+
+    private record Column(String path, String join) {
+    }
+
+    private FieldProjection(String from) {
+        this.from = from;
+    }
+
+    static FieldProjection from(String from) {
+        return new FieldProjection(from);
+    }
+
+    FieldProjection field(String name, String path) {
+        return field(name, path, null);
+    }
+
+    FieldProjection field(String name, String path, String join) {
+        columns.put(name, new Column(path, join));
+        return this;
+    }
+
+    public Set<String> fieldNames() {
+        return Collections.unmodifiableSet(columns.keySet());
+    }
+
+    /**
+     * Parses a comma-separated {@code fields} parameter into the requested field names in declaration order.
+     * {@code id} is always included.
+     *
+     * @throws IllegalArgumentException if a field is not part of this projection
+     */
+    public List<String> parse(String fields) {
+        Set<String> requested = new LinkedHashSet<>();
+        requested.add(ID);
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!columns.containsKey(name)) {
+                throw new IllegalArgumentException("Unknown field: " + name);
+            }
+            requested.add(name);
+        }
+        List<String> ordered = new ArrayList<>();
+        for (String name : columns.keySet()) {
+            if (requested.contains(name)) {
+                ordered.add(name);
+            }
+        }
+        return ordered;
+    }
+
+    String jpql(List<String> fields, String where, String orderBy) {
+        StringBuilder select = new StringBuilder();
+        Set<String> joins = new LinkedHashSet<>();
+        for (String name : fields) {
+            Column column = columns.get(name);
+            if (column == null) {
+                throw new IllegalArgumentException("Unknown field: " + name);
+            }
+            if (!select.isEmpty()) {
+                select.append(", ");
+            }
+            select.append(column.path());
+            if (column.join() != null) {
+                joins.add(column.join());
+            }
+        }
+        StringBuilder jpql = new StringBuilder("select ").append(select).append(" from ").append(from);
+        joins.forEach(join -> jpql.append(' ').append(join));
+        if (where != null) {
+            jpql.append(" where ").append(where);
+        }
+        return jpql.append(" order by ").append(orderBy).toString();
+    }
+}
@@ -2,11 +2,20 @@ package com.krzelj.lms.repository;
 
 import com.krzelj.lms.domain.Role;
 import com.krzelj.lms.domain.RoleName;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import java.util.Optional;
 
 public interface RoleRepository extends JpaRepository<Role, Long> {
+    String BY_NAME_CACHE_REGION = "roles-by-name";
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = BY_NAME_CACHE_REGION)
+    })
     Optional<Role> findByName(RoleName name);
 }
 
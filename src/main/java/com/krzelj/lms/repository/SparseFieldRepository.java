@@ -0,0 +1,93 @@
+package com.krzelj.lms.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import org.springframework.stereotype.Repository;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+public class SparseFieldRepository {
+
+    public static final FieldProjection COURSES = FieldProjection.from("Course c")
+            .field("id", "c.id")
+            .field("code", "c.code")
+            .field("title", "c.title")
+            .field("description", "c.description")
+            .field("instructorId", "c.instructor.id")
+            .field("instructorName", "i.username", "left join c.instructor i")
+            .field("createdAt", "c.createdAt")
+            .field("capacity", "c.capacity");
+
+    public static final FieldProjection ASSIGNMENTS = FieldProjection.from("Assignment a")
+            .field("id", "a.id")
+            .field("courseId", "a.course.id")
+            .field("courseTitle", "c.title", "join a.course c")
+            .field("title", "a.title")
+            .field("description", "a.description")
+            .field("dueAt", "a.dueAt")
+            .field("maxPoints", "a.maxPoints");
+
+    public static final FieldProjection SUBMISSIONS = FieldProjection.from("Submission s")
+            .field("id", "s.id")
+            .field("assignmentId", "s.assignment.id")
+            .field("assignmentTitle", "a.title", "join s.assignment a")
+            .field("studentId", "s.student.id")
+            .field("studentName", "st.username", "join s.student st")
+            .field("submittedAt", "s.submittedAt")
+            .field("gradePoints", "s.gradePoints")
+            .field("gradedAt", "s.gradedAt")
+            .field("gradedById", "g.id", "left join s.gradedBy g")
+            .field("gradedByName", "g.username", "left join s.gradedBy g")
+            .field("contentText", "s.contentText");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public List<Map<String, Object>> findCatalogCourses(List<String> fields) {
+        return find(COURSES.jpql(fields, null, "c.id asc"), fields, Map.of());
+    }
+
+    public List<Map<String, Object>> findCoursesByInstructorId(Long instructorId, List<String> fields) {
+        return find(COURSES.jpql(fields, "c.instructor.id = :instructorId", "c.id asc"),
+                fields, Map.of("instructorId", instructorId));
+    }
+
+    public List<Map<String, Object>> findCoursesForStudent(Long studentId, List<String> fields) {
+        String where = "c.id in (select sc.id from Course sc join sc.students e where e.id = :studentId)";
+        return find(COURSES.jpql(fields, where, "c.id asc"), fields, Map.of("studentId", studentId));
+    }
+
+    public List<Map<String, Object>> findAssignmentsByCourseId(Long courseId, List<String> fields) {
+        return find(ASSIGNMENTS.jpql(fields, "a.course.id = :courseId", "a.dueAt asc, a.id asc"),
+                fields, Map.of("courseId", courseId));
+    }
+
+    public List<Map<String, Object>> findSubmissionsByAssignmentId(Long assignmentId, List<String> fields) {
+        return find(SUBMISSIONS.jpql(fields, "s.assignment.id = :assignmentId", "s.submittedAt asc, s.id asc"),
+                fields, Map.of("assignmentId", assignmentId));
+    }
+
+    public List<Map<String, Object>> findSubmissionsByStudentId(Long studentId, List<String> fields) {
+        return find(SUBMISSIONS.jpql(fields, "s.student.id = :studentId", "s.submittedAt desc, s.id desc"),
+                fields, Map.of("studentId", studentId));
+    }
+
+    private List<Map<String, Object>> find(String jpql, List<String> fields, Map<String, Object> parameters) {
+        TypedQuery<Tuple> query = entityManager.createQuery(jpql, Tuple.class);
+        parameters.forEach(query::setParameter);
+        return query.getResultList().stream()
+                .map(tuple -> {
+                    Map<String, Object> row = new LinkedHashMap<>();
+                    for (int i = 0; i < fields.size(); i++) {
+                        row.put(fields.get(i), tuple.get(i));
+                    }
+                    return row;
+                })
+                .toList();
+    }
+}
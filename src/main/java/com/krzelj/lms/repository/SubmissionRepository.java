@@ -5,6 +5,8 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,6 +15,41 @@ public interface SubmissionRepository extends JpaRepository<Submission, Long> {
 
     List<Submission> findByAssignmentIdOrderBySubmittedAtAsc(Long assignmentId);
 
+    @Query("""
+            select s from Submission s
+            join fetch s.assignment
+            join fetch s.student
+            left join fetch s.gradedBy
+            where s.id = :id
+            """)
+    Optional<Submission> findByIdWithDetails(@Param("id") Long id);
+
+    @Query("""
+            select s from Submission s
+            join fetch s.assignment
+            join fetch s.student
+            left join fetch s.gradedBy
+            where s.id in :ids
+              and s.assignment.id = :assignmentId
+            """)
+    List<Submission> findAllByIdWithDetails(@Param("assignmentId") Long assignmentId, @Param("ids") Collection<Long> ids);
+
+    @Query("""
+            select s from Submission s
+            join fetch s.assignment a
+            join fetch s.student
+            left join fetch s.gradedBy
+            where (s.student.id = :userId or a.course.id in :taughtCourseIds)
+              and (s.updatedAt > :since or a.course.id in :newCourseIds)
+            """)
+    List<Submission> findChangedForSync(@Param("userId") Long userId,
+                                        @Param("taughtCourseIds") Collection<Long> taughtCourseIds,
+                                        @Param("newCourseIds") Collection<Long> newCourseIds,
+                                        @Param("since") Instant since);
+
+    @Query("select s.version from Submission s where s.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
     @Query("""
             select s from Submission s
             left join fetch s.student
@@ -0,0 +1,54 @@
+package com.krzelj.lms.repository;
+
+import com.krzelj.lms.domain.SyncEntityType;
+import com.krzelj.lms.domain.SyncTombstone;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface SyncTombstoneRepository extends JpaRepository<SyncTombstone, Long> {
+
+    @Query("""
+            select t
+            from SyncTombstone t
+            where t.deletedAt > :since
+              and ((t.entityType = :assignmentType and t.courseId in :courseIds)
+                or (t.entityType = :submissionType and (t.studentId = :userId or t.courseId in :taughtCourseIds)))
+            order by t.deletedAt asc
+            """)
+    List<SyncTombstone> findForUserSince(@Param("userId") Long userId,
+                                         @Param("courseIds") Collection<Long> courseIds,
+                                         @Param("taughtCourseIds") Collection<Long> taughtCourseIds,
+                                         @Param("assignmentType") SyncEntityType assignmentType,
+                                         @Param("submissionType") SyncEntityType submissionType,
+                                         @Param("since") Instant since);
+
+    @Query("""
+            select t
+            from SyncTombstone t
+            where t.deletedAt > :since
+              and t.entityType in :types
+            order by t.deletedAt asc
+            """)
+    List<SyncTombstone> findByTypesSince(@Param("types") Collection<SyncEntityType> types,
+                                         @Param("since") Instant since);
+
+    @Modifying
+    @Query(value = """
+            insert into sync_tombstones (entity_type, entity_id, course_id, student_id, deleted_at)
+            select 'SUBMISSION', s.id, a.course_id, s.student_id, :deletedAt
+            from submissions s
+            join assignments a on a.id = s.assignment_id
+            where s.student_id = :studentId
+            """, nativeQuery = true)
+    int recordSubmissionsOfStudent(@Param("studentId") Long studentId, @Param("deletedAt") Instant deletedAt);
+
+    @Modifying
+    @Query("delete from SyncTombstone t where t.deletedAt < :cutoff")
+    int deleteOlderThan(@Param("cutoff") Instant cutoff);
+}
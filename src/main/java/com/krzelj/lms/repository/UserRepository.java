@@ -1,8 +1,11 @@
 package com.krzelj.lms.repository;
 
 import com.krzelj.lms.domain.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.util.Optional;
@@ -13,6 +16,11 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     Optional<User> findByUsername(String username);
 
+    // Reads the stored username: without the hint an auto flush would first write a pending rename of the same user.
+    @Query("SELECT u.username FROM User u WHERE u.id = :id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "COMMIT"))
+    Optional<String> findUsernameById(@Param("id") Long id);
+
     Optional<User> findByEmail(String email);
 
     Optional<User> findByEmailOrUsername(String email, String username);
@@ -0,0 +1,7 @@
+package com.krzelj.lms.repository.dto;
+
+public record AssignmentVersion(
+        Long version,
+        Long courseVersion
+) {
+}
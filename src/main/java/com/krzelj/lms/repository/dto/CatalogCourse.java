@@ -0,0 +1,15 @@
+package com.krzelj.lms.repository.dto;
+
+import java.time.Instant;
+
+public record CatalogCourse(
+        Long id,
+        String code,
+        String title,
+        String description,
+        Instant createdAt,
+        Long instructorId,
+        String instructorUsername,
+        Integer capacity
+) {
+}
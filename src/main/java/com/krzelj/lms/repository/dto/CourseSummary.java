@@ -0,0 +1,16 @@
+package com.krzelj.lms.repository.dto;
+
+import java.time.Instant;
+
+public record CourseSummary(
+        Long id,
+        String code,
+        String title,
+        String description,
+        Instant createdAt,
+        Long instructorId,
+        String instructorUsername,
+        long studentCount,
+        Integer capacity
+) {
+}
@@ -0,0 +1,8 @@
+package com.krzelj.lms.repository.dto;
+
+public record RosterEntry(
+        Long studentId,
+        String username,
+        String email
+) {
+}
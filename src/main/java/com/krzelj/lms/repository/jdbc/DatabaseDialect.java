@@ -0,0 +1,33 @@
+package com.krzelj.lms.repository.jdbc;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+
+public enum DatabaseDialect {
+    POSTGRESQL,
+    H2,
+    OTHER;
+
+    public static DatabaseDialect of(JdbcTemplate jdbcTemplate) {
+        DataSource dataSource = jdbcTemplate.getDataSource();
+        if (dataSource == null) {
+            return OTHER;
+        }
+        try {
+            String productName = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+            if ("PostgreSQL".equalsIgnoreCase(productName)) {
+                return POSTGRESQL;
+            }
+            if ("H2".equalsIgnoreCase(productName)) {
+                return H2;
+            }
+            return OTHER;
+        } catch (MetaDataAccessException e) {
+            return OTHER;
+        }
+    }
+}
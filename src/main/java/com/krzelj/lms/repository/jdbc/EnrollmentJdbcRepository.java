@@ -0,0 +1,312 @@
+package com.krzelj.lms.repository.jdbc;
+
+import com.krzelj.lms.repository.jdbc.dto.EnrollmentBatchResult;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+@Repository
+public class EnrollmentJdbcRepository {
+    static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final String conflictClause;
+
+    public EnrollmentJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.conflictClause = DatabaseDialect.of(jdbcTemplate) == DatabaseDialect.POSTGRESQL
+                ? "on conflict (course_id, student_id) do nothing"
+                : "";
+    }
+
+    /**
+     * Enrolls up to {@code seats} of the given students in input order and puts the remaining ones on the waitlist.
+     */
+    public EnrollmentBatchResult enrollByIds(long courseId, Collection<Long> studentIds, int seats) {
+        return enroll(courseId, studentIds, seats, "u.id = ?", PreparedStatement::setLong,
+                "select u.id from users u where u.id in (:values)", Long.class);
+    }
+
+    public EnrollmentBatchResult enrollByUsernames(long courseId, Collection<String> usernames, int seats) {
+        return enroll(courseId, usernames, seats, "u.username = ?", PreparedStatement::setString,
+                "select u.username from users u where u.username in (:values)", String.class);
+    }
+
+    public EnrollmentBatchResult enrollByEmails(long courseId, Collection<String> emails, int seats) {
+        return enroll(courseId, emails, seats, "u.email = ?", PreparedStatement::setString,
+                "select u.email from users u where u.email in (:values)", String.class);
+    }
+
+    /**
+     * Free seats of a course that must already be locked; {@link Integer#MAX_VALUE} if it has no capacity.
+     */
+    public int remainingSeats(long courseId) {
+        return jdbcTemplate.queryForObject("select capacity, enrolled_count from courses where id = ?",
+                (rs, rowNum) -> {
+                    int capacity = rs.getInt(1);
+                    return rs.wasNull() ? Integer.MAX_VALUE : Math.max(0, capacity - rs.getInt(2));
+                }, courseId);
+    }
+
+    public boolean lockCourse(long courseId) {
+        List<Long> ids = jdbcTemplate.queryForList(
+                "select id from courses where id = ? for update", Long.class, courseId);
+        return !ids.isEmpty();
+    }
+
+    public boolean tryTakeSeat(long courseId) {
+        return jdbcTemplate.update("""
+                update courses
+                set enrolled_count = enrolled_count + 1
+                where id = ?
+                  and (capacity is null or enrolled_count < capacity)
+                """, courseId) == 1;
+    }
+
+    public void releaseSeat(long courseId) {
+        jdbcTemplate.update("""
+                update courses
+                set enrolled_count = enrolled_count - 1
+                where id = ? and enrolled_count > 0
+                """, courseId);
+    }
+
+    public void addSeats(long courseId, int seats) {
+        if (seats <= 0) {
+            return;
+        }
+        jdbcTemplate.update("update courses set enrolled_count = enrolled_count + ? where id = ?", seats, courseId);
+    }
+
+    public List<Long> findCourseIdsForStudent(long studentId) {
+        return jdbcTemplate.queryForList(
+                "select course_id from course_students where student_id = ? order by course_id", Long.class, studentId);
+    }
+
+    public void releaseSeatsForStudent(long studentId) {
+        jdbcTemplate.update("""
+                update courses
+                set enrolled_count = enrolled_count - 1
+                where enrolled_count > 0
+                  and id in (select cs.course_id from course_students cs where cs.student_id = ?)
+                """, studentId);
+    }
+
+    public void updateCapacity(long courseId, Integer capacity) {
+        jdbcTemplate.update("update courses set capacity = ?, version = version + 1, updated_at = ? where id = ?",
+                capacity, Timestamp.from(Instant.now()), courseId);
+    }
+
+    public boolean isEnrolled(long courseId, long studentId) {
+        Integer count = jdbcTemplate.queryForObject(
+                "select count(*) from course_students where course_id = ? and student_id = ?",
+                Integer.class, courseId, studentId);
+        return count != null && count > 0;
+    }
+
+    public boolean insertEnrollment(long courseId, long studentId) {
+        try {
+            return jdbcTemplate.update(insertSelect("u.id = ?"), courseId, studentId, courseId) == 1;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    public boolean deleteEnrollment(long courseId, long studentId) {
+        return jdbcTemplate.update(
+                "delete from course_students where course_id = ? and student_id = ?", courseId, studentId) == 1;
+    }
+
+    public boolean addToWaitlist(long courseId, long studentId, Instant requestedAt) {
+        String sql = """
+                insert into course_waitlist (course_id, student_id, requested_at)
+                select ?, u.id, ?
+                from users u
+                where u.id = ?
+                  and not exists (
+                      select 1 from course_students cs
+                      where cs.course_id = ? and cs.student_id = u.id
+                  )
+                  and not exists (
+                      select 1 from course_waitlist w
+                      where w.course_id = ? and w.student_id = u.id
+                  )
+                %s
+                """.formatted(conflictClause);
+        try {
+            return jdbcTemplate.update(sql, courseId, Timestamp.from(requestedAt), studentId, courseId, courseId) == 1;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    public boolean removeFromWaitlist(long courseId, long studentId) {
+        return jdbcTemplate.update(
+                "delete from course_waitlist where course_id = ? and student_id = ?", courseId, studentId) == 1;
+    }
+
+    public void removeEnrolledFromWaitlist(long courseId) {
+        jdbcTemplate.update("""
+                delete from course_waitlist
+                where course_id = ?
+                  and student_id in (select cs.student_id from course_students cs where cs.course_id = ?)
+                """, courseId, courseId);
+    }
+
+    public Optional<Long> nextWaitlisted(long courseId) {
+        List<Long> head = jdbcTemplate.queryForList("""
+                select student_id
+                from course_waitlist
+                where course_id = ?
+                order by id
+                limit 1
+                """, Long.class, courseId);
+        return head.stream().findFirst();
+    }
+
+    public int waitlistPosition(long courseId, long studentId) {
+        Integer position = jdbcTemplate.queryForObject("""
+                select count(*)
+                from course_waitlist w
+                where w.course_id = ?
+                  and w.id <= (
+                      select own.id from course_waitlist own
+                      where own.course_id = ? and own.student_id = ?
+                  )
+                """, Integer.class, courseId, courseId, studentId);
+        return position == null ? 0 : position;
+    }
+
+    private String insertSelect(String userPredicate) {
+        return """
+                insert into course_students (course_id, student_id)
+                select ?, u.id
+                from users u
+                where %s
+                  and not exists (
+                      select 1 from course_students cs
+                      where cs.course_id = ? and cs.student_id = u.id
+                  )
+                %s
+                """.formatted(userPredicate, conflictClause);
+    }
+
+    private String waitlistInsertSelect(String userPredicate) {
+        return """
+                insert into course_waitlist (course_id, student_id, requested_at)
+                select ?, u.id, ?
+                from users u
+                where %s
+                  and not exists (
+                      select 1 from course_students cs
+                      where cs.course_id = ? and cs.student_id = u.id
+                  )
+                  and not exists (
+                      select 1 from course_waitlist w
+                      where w.course_id = ? and w.student_id = u.id
+                  )
+                %s
+                """.formatted(userPredicate, conflictClause);
+    }
+
+    @FunctionalInterface
+    private interface ValueBinder<T> {
+        void bind(PreparedStatement ps, int index, T value) throws SQLException;
+    }
+
+    private <T> EnrollmentBatchResult enroll(long courseId,
+                                             Collection<T> values,
+                                             int seats,
+                                             String userPredicate,
+                                             ValueBinder<T> binder,
+                                             String existingLookupSql,
+                                             Class<T> valueType) {
+        if (values.isEmpty()) {
+            return EnrollmentBatchResult.empty();
+        }
+
+        List<T> distinct = new ArrayList<>(new LinkedHashSet<>(values));
+        int duplicates = values.size() - distinct.size();
+
+        // Each slice is no larger than the seats still free, so inserts that succeed can never overbook the course.
+        String insertSql = insertSelect(userPredicate);
+        int inserted = 0;
+        int next = 0;
+        List<T> missed = new ArrayList<>();
+        while (next < distinct.size() && inserted < seats) {
+            int sliceSize = Math.min(Math.min(seats - inserted, BATCH_SIZE), distinct.size() - next);
+            List<T> slice = distinct.subList(next, next + sliceSize);
+            inserted += countInserted(jdbcTemplate.batchUpdate(insertSql, slice, BATCH_SIZE, (ps, value) -> {
+                ps.setLong(1, courseId);
+                binder.bind(ps, 2, value);
+                ps.setLong(3, courseId);
+            }), slice, missed);
+            next += slice.size();
+        }
+
+        int waitlisted = 0;
+        if (next < distinct.size()) {
+            List<T> overflow = distinct.subList(next, distinct.size());
+            Timestamp requestedAt = Timestamp.from(Instant.now());
+            waitlisted = countInserted(jdbcTemplate.batchUpdate(waitlistInsertSelect(userPredicate), overflow, BATCH_SIZE,
+                    (ps, value) -> {
+                        ps.setLong(1, courseId);
+                        ps.setTimestamp(2, requestedAt);
+                        binder.bind(ps, 3, value);
+                        ps.setLong(4, courseId);
+                        ps.setLong(5, courseId);
+                    }), overflow, missed);
+        }
+
+        if (missed.isEmpty()) {
+            return new EnrollmentBatchResult(inserted, duplicates, 0, waitlisted);
+        }
+
+        Set<T> known = new HashSet<>();
+        for (int from = 0; from < missed.size(); from += BATCH_SIZE) {
+            List<T> chunk = missed.subList(from, Math.min(from + BATCH_SIZE, missed.size()));
+            known.addAll(namedParameterJdbcTemplate.queryForList(existingLookupSql, Map.of("values", chunk), valueType));
+        }
+
+        int alreadyEnrolled = 0;
+        for (T value : missed) {
+            if (known.contains(value)) {
+                alreadyEnrolled++;
+            }
+        }
+
+        return new EnrollmentBatchResult(inserted, duplicates + alreadyEnrolled, missed.size() - alreadyEnrolled, waitlisted);
+    }
+
+    private static <T> int countInserted(int[][] updateCounts, List<T> values, List<T> missed) {
+        int inserted = 0;
+        int index = 0;
+        for (int[] batch : updateCounts) {
+            for (int count : batch) {
+                if (count > 0) {
+                    inserted++;
+                } else {
+                    missed.add(values.get(index));
+                }
+                index++;
+            }
+        }
+        return inserted;
+    }
+}
@@ -0,0 +1,105 @@
+package com.krzelj.lms.repository.jdbc;
+
+import com.krzelj.lms.repository.jdbc.dto.GradebookExportRow;
+import com.krzelj.lms.repository.jdbc.dto.SubmissionExportRow;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.function.Consumer;
+
+// Forward-only, read-only cursors with a bounded fetch size: rows are handed to the consumer one at a time and
+// never collected. PostgreSQL only honours the fetch size inside a transaction (autocommit off).
+@Repository
+public class ExportJdbcRepository {
+    private final JdbcTemplate jdbcTemplate;
+    private final int fetchSize;
+
+    public ExportJdbcRepository(JdbcTemplate jdbcTemplate,
+                                @Value("${app.export.fetch-size:500}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.fetchSize = fetchSize;
+    }
+
+    public void streamSubmissionsForAssignment(long assignmentId, Consumer<SubmissionExportRow> consumer) {
+        String sql = """
+                select
+                    s.id, s.assignment_id, a.title as assignment_title,
+                    s.student_id, st.username as student_name,
+                    s.submitted_at, s.grade_points, s.graded_at,
+                    s.graded_by_id, g.username as graded_by_name,
+                    s.content_text
+                from submissions s
+                join assignments a on a.id = s.assignment_id
+                join users st on st.id = s.student_id
+                left join users g on g.id = s.graded_by_id
+                where s.assignment_id = ?
+                order by s.submitted_at, s.id
+                """;
+
+        jdbcTemplate.query(cursor(sql, assignmentId), rs -> {
+            consumer.accept(new SubmissionExportRow(
+                    rs.getLong("id"),
+                    rs.getLong("assignment_id"),
+                    rs.getString("assignment_title"),
+                    rs.getLong("student_id"),
+                    rs.getString("student_name"),
+                    instant(rs, "submitted_at"),
+                    rs.getObject("grade_points", Integer.class),
+                    instant(rs, "graded_at"),
+                    rs.getObject("graded_by_id", Long.class),
+                    rs.getString("graded_by_name"),
+                    rs.getString("content_text")
+            ));
+        });
+    }
+
+    public void streamGradebookForCourse(long courseId, Consumer<GradebookExportRow> consumer) {
+        String sql = """
+                select
+                    st.id as student_id, st.username as student_name,
+                    a.id as assignment_id, a.title as assignment_title, a.max_points,
+                    s.id as submission_id, s.submitted_at, s.grade_points, s.graded_at
+                from course_students cs
+                join users st on st.id = cs.student_id
+                join assignments a on a.course_id = cs.course_id
+                left join submissions s on s.assignment_id = a.id and s.student_id = st.id
+                where cs.course_id = ?
+                order by st.username, st.id, a.due_at, a.id
+                """;
+
+        jdbcTemplate.query(cursor(sql, courseId), rs -> {
+            consumer.accept(new GradebookExportRow(
+                    rs.getLong("student_id"),
+                    rs.getString("student_name"),
+                    rs.getLong("assignment_id"),
+                    rs.getString("assignment_title"),
+                    rs.getInt("max_points"),
+                    rs.getObject("submission_id", Long.class),
+                    instant(rs, "submitted_at"),
+                    rs.getObject("grade_points", Integer.class),
+                    instant(rs, "graded_at")
+            ));
+        });
+    }
+
+    private PreparedStatementCreator cursor(String sql, long id) {
+        return con -> {
+            PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            ps.setLong(1, id);
+            return ps;
+        };
+    }
+
+    private static Instant instant(ResultSet rs, String column) throws SQLException {
+        Timestamp ts = rs.getTimestamp(column);
+        return ts == null ? null : ts.toInstant();
+    }
+}
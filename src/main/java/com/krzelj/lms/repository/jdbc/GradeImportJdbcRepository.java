@@ -1,35 +1,77 @@
 package com.krzelj.lms.repository.jdbc;
 
+import com.krzelj.lms.repository.jdbc.dto.GradeImportOutcome;
+import com.krzelj.lms.repository.jdbc.dto.GradeImportResult;
 import com.krzelj.lms.repository.jdbc.dto.GradeImportRow;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.sql.PreparedStatement;
 import java.sql.Timestamp;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Repository
 public class GradeImportJdbcRepository {
+    static final int BATCH_SIZE = 500;
+    static final int STAGING_BATCH_SIZE = 1000;
+
     private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final GradeStatsJdbcRepository gradeStatsJdbcRepository;
+    private final DatabaseDialect dialect;
 
-    public GradeImportJdbcRepository(JdbcTemplate jdbcTemplate) {
+    public GradeImportJdbcRepository(JdbcTemplate jdbcTemplate, GradeStatsJdbcRepository gradeStatsJdbcRepository) {
         this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.gradeStatsJdbcRepository = gradeStatsJdbcRepository;
+        this.dialect = DatabaseDialect.of(jdbcTemplate);
     }
 
+    @Transactional
     public int[][] batchUpdateGrades(List<GradeImportRow> rows, long gradedByUserId, Instant gradedAt) {
+        Map<Long, Map<Long, Integer>> previousGrades = findCurrentGrades(rows);
+        int[][] counts = updateGrades(rows, gradedByUserId, gradedAt);
+        gradeStatsJdbcRepository.applyAll(gradeDeltas(rows, previousGrades));
+        return counts;
+    }
+
+    /**
+     * Like {@link #batchUpdateGrades} but leaves {@code assignment_grade_stats} alone, for imports that split
+     * disjoint rows across concurrent transactions and rebuild the statistics once at the end.
+     */
+    @Transactional
+    public int[][] batchUpdateGradesWithoutStats(List<GradeImportRow> rows, long gradedByUserId, Instant gradedAt) {
+        return updateGrades(rows, gradedByUserId, gradedAt);
+    }
+
+    private int[][] updateGrades(List<GradeImportRow> rows, long gradedByUserId, Instant gradedAt) {
         String sql = """
                 update submissions
                 set grade_points = ?,
                     graded_at = ?,
-                    graded_by_id = ?
+                    graded_by_id = ?,
+                    version = version + 1,
+                    updated_at = ?
                 where assignment_id = ?
                   and student_id = ?
                 """;
 
         Timestamp gradedAtTs = gradedAt == null ? null : Timestamp.from(gradedAt);
+        Timestamp updatedAtTs = Timestamp.from(Instant.now());
 
-        return jdbcTemplate.batchUpdate(sql, rows, 500, (PreparedStatement ps, GradeImportRow row) -> {
+        return jdbcTemplate.batchUpdate(sql, rows, BATCH_SIZE, (PreparedStatement ps, GradeImportRow row) -> {
             if (row.gradePoints() == null) {
                 ps.setNull(1, java.sql.Types.INTEGER);
             } else {
@@ -41,9 +83,238 @@ public class GradeImportJdbcRepository {
                 ps.setTimestamp(2, gradedAtTs);
             }
             ps.setLong(3, gradedByUserId);
-            ps.setLong(4, row.assignmentId());
-            ps.setLong(5, row.studentId());
+            ps.setTimestamp(4, updatedAtTs);
+            ps.setLong(5, row.assignmentId());
+            ps.setLong(6, row.studentId());
         });
     }
-}
 
+    /**
+     * Loads the rows into a transaction-scoped staging table, classifies them set-based and applies the accepted
+     * ones with one statement ({@code UPDATE ... FROM} on PostgreSQL, {@code MERGE ... USING} elsewhere). Grades
+     * outside {@code [0, max_points]} are rejected; when several rows target the same submission the last one wins.
+     */
+    @Transactional
+    public GradeImportResult importGradesViaStaging(List<GradeImportRow> rows, long gradedByUserId, Instant gradedAt) {
+        return importViaStaging(rows, gradedByUserId, gradedAt, false);
+    }
+
+    /**
+     * Like {@link #importGradesViaStaging} but also creates the submission for enrolled students who never
+     * submitted (e.g. paper exams), in the same single pass ({@code INSERT ... ON CONFLICT} on PostgreSQL,
+     * {@code MERGE ... WHEN NOT MATCHED THEN INSERT} elsewhere).
+     */
+    @Transactional
+    public GradeImportResult upsertGradesViaStaging(List<GradeImportRow> rows, long gradedByUserId, Instant gradedAt) {
+        return importViaStaging(rows, gradedByUserId, gradedAt, true);
+    }
+
+    private GradeImportResult importViaStaging(List<GradeImportRow> rows, long gradedByUserId, Instant gradedAt, boolean upsert) {
+        GradeImportOutcome[] outcomes = new GradeImportOutcome[rows.size()];
+        Map<List<Long>, Integer> lastRowBySubmission = new HashMap<>();
+        for (int i = 0; i < rows.size(); i++) {
+            Integer previous = lastRowBySubmission.put(List.of(rows.get(i).assignmentId(), rows.get(i).studentId()), i);
+            if (previous != null) {
+                outcomes[previous] = GradeImportOutcome.SUPERSEDED;
+            }
+        }
+        List<Integer> staged = new ArrayList<>(lastRowBySubmission.size());
+        Set<Long> assignmentIds = new LinkedHashSet<>();
+        for (int i = 0; i < rows.size(); i++) {
+            if (outcomes[i] == null) {
+                staged.add(i);
+                assignmentIds.add(rows.get(i).assignmentId());
+            }
+        }
+
+        createStagingTable();
+        jdbcTemplate.batchUpdate(
+                "insert into grade_import_staging (row_no, assignment_id, student_id, grade_points) values (?, ?, ?, ?)",
+                staged, STAGING_BATCH_SIZE, (PreparedStatement ps, Integer rowNo) -> {
+                    GradeImportRow row = rows.get(rowNo);
+                    ps.setInt(1, rowNo);
+                    ps.setLong(2, row.assignmentId());
+                    ps.setLong(3, row.studentId());
+                    if (row.gradePoints() == null) {
+                        ps.setNull(4, java.sql.Types.INTEGER);
+                    } else {
+                        ps.setInt(4, row.gradePoints());
+                    }
+                });
+
+        jdbcTemplate.update(classifyStagedRowsSql(upsert));
+        jdbcTemplate.query("select g.row_no, g.outcome from grade_import_staging g",
+                (RowCallbackHandler) rs -> outcomes[rs.getInt(1)] = GradeImportOutcome.valueOf(rs.getString(2)));
+
+        Timestamp gradedAtTs = gradedAt == null ? null : Timestamp.from(gradedAt);
+        Timestamp updatedAtTs = Timestamp.from(Instant.now());
+        if (upsert && dialect != DatabaseDialect.POSTGRESQL) {
+            jdbcTemplate.update(applyStagedGradesSql(true),
+                    gradedAtTs, gradedByUserId, updatedAtTs, gradedAtTs, gradedByUserId, updatedAtTs);
+        } else {
+            jdbcTemplate.update(applyStagedGradesSql(upsert), gradedAtTs, gradedByUserId, updatedAtTs);
+        }
+        jdbcTemplate.update("delete from grade_import_staging");
+
+        gradeStatsJdbcRepository.rebuildForAssignments(assignmentIds.stream().mapToLong(Long::longValue).toArray());
+        return new GradeImportResult(Arrays.asList(outcomes));
+    }
+
+    private void createStagingTable() {
+        String columns = """
+                (row_no integer not null, assignment_id bigint not null, student_id bigint not null,
+                 grade_points integer, outcome varchar(16))""";
+        switch (dialect) {
+            case POSTGRESQL -> jdbcTemplate.execute("create temporary table if not exists grade_import_staging " + columns + " on commit drop");
+            case H2 -> jdbcTemplate.execute("create local temporary table if not exists grade_import_staging " + columns + " on commit drop transactional");
+            case OTHER -> jdbcTemplate.execute("create local temporary table if not exists grade_import_staging " + columns + " on commit delete rows");
+        }
+        jdbcTemplate.update("delete from grade_import_staging");
+    }
+
+    private static String classifyStagedRowsSql(boolean upsert) {
+        String missingSubmission = upsert
+                ? """
+                  case
+                      when g.grade_points is null then 'NO_SUBMISSION'
+                      when not exists (
+                          select 1 from assignments a
+                          join course_students cs on cs.course_id = a.course_id
+                          where a.id = g.assignment_id and cs.student_id = g.student_id
+                      ) then 'NOT_ENROLLED'
+                      when g.grade_points < 0 or g.grade_points > (select a.max_points from assignments a where a.id = g.assignment_id) then 'OUT_OF_RANGE'
+                      else 'CREATED'
+                  end"""
+                : "'NO_SUBMISSION'";
+        return """
+                update grade_import_staging g
+                set outcome = case
+                    when not exists (
+                        select 1 from submissions s where s.assignment_id = g.assignment_id and s.student_id = g.student_id
+                    ) then %s
+                    when g.grade_points is not null
+                         and (g.grade_points < 0 or g.grade_points > (select a.max_points from assignments a where a.id = g.assignment_id))
+                        then 'OUT_OF_RANGE'
+                    else 'UPDATED'
+                end
+                """.formatted(missingSubmission);
+    }
+
+    private String applyStagedGradesSql(boolean upsert) {
+        if (dialect == DatabaseDialect.POSTGRESQL) {
+            if (upsert) {
+                return """
+                        insert into submissions as s
+                            (assignment_id, student_id, grade_points, graded_at, graded_by_id, version, updated_at)
+                        select g.assignment_id, g.student_id, g.grade_points, ?, ?, 0, ?
+                        from grade_import_staging g
+                        where g.outcome in ('UPDATED', 'CREATED')
+                        on conflict (assignment_id, student_id) do update set
+                            grade_points = excluded.grade_points,
+                            graded_at = excluded.graded_at,
+                            graded_by_id = excluded.graded_by_id,
+                            version = s.version + 1,
+                            updated_at = excluded.updated_at
+                        """;
+            }
+            return """
+                    update submissions s
+                    set grade_points = g.grade_points,
+                        graded_at = ?,
+                        graded_by_id = ?,
+                        version = s.version + 1,
+                        updated_at = ?
+                    from grade_import_staging g
+                    where s.assignment_id = g.assignment_id
+                      and s.student_id = g.student_id
+                      and g.outcome = 'UPDATED'
+                    """;
+        }
+        String merge = """
+                merge into submissions s
+                using (
+                    select g.assignment_id, g.student_id, g.grade_points
+                    from grade_import_staging g
+                    where g.outcome in ('UPDATED', 'CREATED')
+                ) g
+                on (s.assignment_id = g.assignment_id and s.student_id = g.student_id)
+                when matched then update set
+                    grade_points = g.grade_points,
+                    graded_at = ?,
+                    graded_by_id = ?,
+                    version = s.version + 1,
+                    updated_at = ?
+                """;
+        if (!upsert) {
+            return merge;
+        }
+        return merge + """
+                when not matched then insert
+                    (assignment_id, student_id, grade_points, graded_at, graded_by_id, version, updated_at)
+                    values (g.assignment_id, g.student_id, g.grade_points, ?, ?, 0, ?)
+                """;
+    }
+
+    public Map<String, Long> findUserIdsByUsernames(Collection<String> usernames) {
+        return findUserIds("username", usernames);
+    }
+
+    public Map<String, Long> findUserIdsByEmails(Collection<String> emails) {
+        return findUserIds("email", emails);
+    }
+
+    private Map<String, Long> findUserIds(String column, Collection<String> values) {
+        Map<String, Long> ids = new HashMap<>();
+        List<String> distinct = List.copyOf(new LinkedHashSet<>(values));
+        for (int from = 0; from < distinct.size(); from += BATCH_SIZE) {
+            namedParameterJdbcTemplate.query(
+                    "select u." + column + ", u.id from users u where u." + column + " in (:values)",
+                    Map.of("values", distinct.subList(from, Math.min(from + BATCH_SIZE, distinct.size()))),
+                    (RowCallbackHandler) rs -> ids.put(rs.getString(1), rs.getLong(2)));
+        }
+        return ids;
+    }
+
+    // assignment id -> student id -> grade (null when ungraded); students without a submission are absent.
+    // The rows are locked until the import commits, so a concurrent gradeSubmission cannot change a grade between
+    // this read and the update and leave the delta computed from a stale previous value.
+    private Map<Long, Map<Long, Integer>> findCurrentGrades(List<GradeImportRow> rows) {
+        Map<Long, Set<Long>> studentsByAssignment = new LinkedHashMap<>();
+        for (GradeImportRow row : rows) {
+            studentsByAssignment.computeIfAbsent(row.assignmentId(), id -> new LinkedHashSet<>()).add(row.studentId());
+        }
+
+        Map<Long, Map<Long, Integer>> grades = new HashMap<>();
+        studentsByAssignment.forEach((assignmentId, studentIds) -> {
+            Map<Long, Integer> current = grades.computeIfAbsent(assignmentId, id -> new HashMap<>());
+            List<Long> ids = new ArrayList<>(studentIds);
+            for (int from = 0; from < ids.size(); from += BATCH_SIZE) {
+                namedParameterJdbcTemplate.query(
+                        """
+                                select s.student_id, s.grade_points
+                                from submissions s
+                                where s.assignment_id = :assignmentId and s.student_id in (:studentIds)
+                                order by s.id
+                                for update
+                                """,
+                        Map.of("assignmentId", assignmentId, "studentIds", ids.subList(from, Math.min(from + BATCH_SIZE, ids.size()))),
+                        (RowCallbackHandler) rs -> current.put(rs.getLong(1), (Integer) rs.getObject(2)));
+            }
+        });
+        return grades;
+    }
+
+    private static Map<Long, GradeStatsDelta> gradeDeltas(List<GradeImportRow> rows, Map<Long, Map<Long, Integer>> grades) {
+        Map<Long, GradeStatsDelta> deltas = new LinkedHashMap<>();
+        for (GradeImportRow row : rows) {
+            Map<Long, Integer> current = grades.get(row.assignmentId());
+            if (!current.containsKey(row.studentId())) {
+                continue;
+            }
+            Integer previous = current.put(row.studentId(), row.gradePoints());
+            deltas.computeIfAbsent(row.assignmentId(), id -> new GradeStatsDelta())
+                    .gradeChanged(previous, row.gradePoints());
+        }
+        return deltas;
+    }
+}
@@ -0,0 +1,73 @@
+package com.krzelj.lms.repository.jdbc;
+
+// Accumulates the effect of submission and grade changes on one assignment's rollup row.
+public final class GradeStatsDelta {
+
+    private long submissions;
+    private long graded;
+    private long sum;
+    private long sumSquares;
+    private Integer addedMin;
+    private Integer addedMax;
+    private Integer removedMin;
+    private Integer removedMax;
+
+    public GradeStatsDelta submissionAdded() {
+        submissions++;
+        return this;
+    }
+
+    public GradeStatsDelta gradeChanged(Integer oldPoints, Integer newPoints) {
+        if (oldPoints != null) {
+            graded--;
+            sum -= oldPoints;
+            sumSquares -= (long) oldPoints * oldPoints;
+            removedMin = removedMin == null ? oldPoints : Math.min(removedMin, oldPoints);
+            removedMax = removedMax == null ? oldPoints : Math.max(removedMax, oldPoints);
+        }
+        if (newPoints != null) {
+            graded++;
+            sum += newPoints;
+            sumSquares += (long) newPoints * newPoints;
+            addedMin = addedMin == null ? newPoints : Math.min(addedMin, newPoints);
+            addedMax = addedMax == null ? newPoints : Math.max(addedMax, newPoints);
+        }
+        return this;
+    }
+
+    public boolean isEmpty() {
+        return submissions == 0 && graded == 0 && sum == 0 && sumSquares == 0 && addedMin == null && removedMin == null;
+    }
+
+    long submissions() {
+        return submissions;
+    }
+
+    long graded() {
+        return graded;
+    }
+
+    long sum() {
+        return sum;
+    }
+
+    long sumSquares() {
+        return sumSquares;
+    }
+
+    Integer addedMin() {
+        return addedMin;
+    }
+
+    Integer addedMax() {
+        return addedMax;
+    }
+
+    Integer removedMin() {
+        return removedMin;
+    }
+
+    Integer removedMax() {
+        return removedMax;
+    }
+}
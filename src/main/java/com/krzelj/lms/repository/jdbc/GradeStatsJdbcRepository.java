@@ -0,0 +1,119 @@
+package com.krzelj.lms.repository.jdbc;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Arrays;
+import java.util.Map;
+
+// Maintains assignment_grade_stats. Counts and sums are applied as deltas; min/max only fall back to a
+// per-assignment scan when a grade equal to the current extreme is removed or lowered.
+@Repository
+public class GradeStatsJdbcRepository {
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabaseDialect dialect;
+
+    public GradeStatsJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dialect = DatabaseDialect.of(jdbcTemplate);
+    }
+
+    public void apply(long assignmentId, GradeStatsDelta delta) {
+        if (delta.isEmpty()) {
+            return;
+        }
+        ensureRow(assignmentId);
+        jdbcTemplate.update("""
+                update assignment_grade_stats
+                set submissions_count = submissions_count + ?,
+                    graded_count = graded_count + ?,
+                    points_sum = points_sum + ?,
+                    points_sum_squares = points_sum_squares + ?,
+                    min_points = coalesce(least(min_points, cast(? as integer)), min_points, cast(? as integer)),
+                    max_points = coalesce(greatest(max_points, cast(? as integer)), max_points, cast(? as integer))
+                where assignment_id = ?
+                """,
+                delta.submissions(), delta.graded(), delta.sum(), delta.sumSquares(),
+                delta.addedMin(), delta.addedMin(), delta.addedMax(), delta.addedMax(), assignmentId);
+
+        if (delta.removedMin() != null) {
+            jdbcTemplate.update("""
+                    update assignment_grade_stats
+                    set min_points = (select min(s.grade_points) from submissions s where s.assignment_id = ?),
+                        max_points = (select max(s.grade_points) from submissions s where s.assignment_id = ?)
+                    where assignment_id = ?
+                      and (min_points is null or min_points >= ? or max_points <= ?)
+                    """,
+                    assignmentId, assignmentId, assignmentId, delta.removedMin(), delta.removedMax());
+        }
+    }
+
+    public void applyAll(Map<Long, GradeStatsDelta> deltas) {
+        deltas.forEach(this::apply);
+    }
+
+    // Recomputes the row in place rather than delete + insert. The row is locked by its own statement first: under
+    // PostgreSQL READ COMMITTED an update that waits for the lock keeps the snapshot it started with, so recomputing
+    // in the same statement could overwrite a delta committed while it waited. Rows are locked in id order so two
+    // rebuilds cannot deadlock.
+    @Transactional
+    public void rebuildForAssignments(long... assignmentIds) {
+        long[] ordered = assignmentIds.clone();
+        Arrays.sort(ordered);
+        for (long assignmentId : ordered) {
+            ensureRow(assignmentId);
+            jdbcTemplate.queryForList("select assignment_id from assignment_grade_stats where assignment_id = ? for update",
+                    Long.class, assignmentId);
+            jdbcTemplate.update("""
+                    update assignment_grade_stats
+                    set (submissions_count, graded_count, points_sum, points_sum_squares, min_points, max_points) = (
+                        select
+                            count(s.id),
+                            count(s.grade_points),
+                            coalesce(sum(s.grade_points), 0),
+                            coalesce(sum(cast(s.grade_points as bigint) * s.grade_points), 0),
+                            min(s.grade_points),
+                            max(s.grade_points)
+                        from submissions s
+                        where s.assignment_id = ?
+                    )
+                    where assignment_id = ?
+                    """, assignmentId, assignmentId);
+        }
+    }
+
+    public void rebuildForCourse(long courseId) {
+        rebuildForAssignments(jdbcTemplate.queryForList("select a.id from assignments a where a.course_id = ?", Long.class, courseId)
+                .stream().mapToLong(Long::longValue).toArray());
+    }
+
+    // Creates the zero row if the assignment exists; a no-op for unknown assignments.
+    private void ensureRow(long assignmentId) {
+        switch (dialect) {
+            case POSTGRESQL -> jdbcTemplate.update("""
+                    insert into assignment_grade_stats (assignment_id)
+                    select a.id from assignments a where a.id = ?
+                    on conflict (assignment_id) do nothing
+                    """, assignmentId);
+            case H2 -> {
+                try {
+                    jdbcTemplate.update("""
+                            merge into assignment_grade_stats g
+                            using (select a.id from assignments a where a.id = ?) a
+                            on (g.assignment_id = a.id)
+                            when not matched then insert (assignment_id) values (a.id)
+                            """, assignmentId);
+                } catch (DuplicateKeyException e) {
+                    // a concurrent transaction inserted the row first, which is all this needs
+                }
+            }
+            case OTHER -> jdbcTemplate.update("""
+                    insert into assignment_grade_stats (assignment_id)
+                    select a.id from assignments a
+                    where a.id = ? and not exists (select 1 from assignment_grade_stats where assignment_id = ?)
+                    """, assignmentId, assignmentId);
+        }
+    }
+}
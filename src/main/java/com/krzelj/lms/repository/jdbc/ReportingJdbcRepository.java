@@ -1,44 +1,150 @@
 package com.krzelj.lms.repository.jdbc;
 
 import com.krzelj.lms.repository.jdbc.dto.AssignmentGradeReportRow;
+import com.krzelj.lms.repository.jdbc.dto.CourseIdRange;
+import com.krzelj.lms.repository.jdbc.dto.GradeCount;
+import com.krzelj.lms.repository.jdbc.dto.GradebookAssignment;
+import com.krzelj.lms.repository.jdbc.dto.GradebookStudent;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Repository;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 
 @Repository
 public class ReportingJdbcRepository {
+    static final int IN_CHUNK_SIZE = 500;
+
     private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
 
     public ReportingJdbcRepository(JdbcTemplate jdbcTemplate) {
         this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
     }
 
     public List<AssignmentGradeReportRow> assignmentGradeReportForCourse(long courseId) {
+        return assignmentGradeReport("a.course_id = :courseId", Map.of("courseId", courseId));
+    }
+
+    public List<AssignmentGradeReportRow> assignmentGradeReportForCourseRange(long fromCourseId, long toCourseId) {
+        return assignmentGradeReport("a.course_id between :fromCourseId and :toCourseId",
+                Map.of("fromCourseId", fromCourseId, "toCourseId", toCourseId));
+    }
+
+    public List<AssignmentGradeReportRow> assignmentGradeReportForCourses(Collection<Long> courseIds) {
+        List<Long> ids = List.copyOf(courseIds);
+        List<AssignmentGradeReportRow> rows = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += IN_CHUNK_SIZE) {
+            rows.addAll(assignmentGradeReport("a.course_id in (:courseIds)",
+                    Map.of("courseIds", ids.subList(from, Math.min(from + IN_CHUNK_SIZE, ids.size())))));
+        }
+        rows.sort(Comparator.comparingLong(AssignmentGradeReportRow::courseId)
+                .thenComparingLong(AssignmentGradeReportRow::assignmentId));
+        return rows;
+    }
+
+    public Optional<CourseIdRange> findCourseIdRange() {
+        return jdbcTemplate.query("select min(c.id), max(c.id) from courses c", (rs, rowNum) -> {
+            long min = rs.getLong(1);
+            return rs.wasNull() ? null : new CourseIdRange(min, rs.getLong(2));
+        }).stream().filter(Objects::nonNull).findFirst();
+    }
+
+    private List<AssignmentGradeReportRow> assignmentGradeReport(String where, Map<String, ?> params) {
         String sql = """
                 select
                     a.id as assignment_id,
                     a.course_id as course_id,
-                    count(s.id) as submissions_count,
-                    count(s.grade_points) as graded_count,
-                    avg(s.grade_points) as average_points
+                    coalesce(g.submissions_count, 0) as submissions_count,
+                    coalesce(g.graded_count, 0) as graded_count,
+                    coalesce(g.points_sum, 0) as points_sum,
+                    coalesce(g.points_sum_squares, 0) as points_sum_squares,
+                    g.min_points as min_points,
+                    g.max_points as max_points
                 from assignments a
-                left join submissions s on s.assignment_id = a.id
-                where a.course_id = ?
-                group by a.id, a.course_id
-                order by a.id
-                """;
+                left join assignment_grade_stats g on g.assignment_id = a.id
+                where %s
+                order by a.course_id, a.id
+                """.formatted(where);
 
-        RowMapper<AssignmentGradeReportRow> mapper = (rs, rowNum) -> new AssignmentGradeReportRow(
+        RowMapper<AssignmentGradeReportRow> mapper = (rs, rowNum) -> AssignmentGradeReportRow.fromSums(
                 rs.getLong("assignment_id"),
                 rs.getLong("course_id"),
                 rs.getLong("submissions_count"),
                 rs.getLong("graded_count"),
-                (Double) rs.getObject("average_points")
+                rs.getLong("points_sum"),
+                rs.getLong("points_sum_squares"),
+                (Integer) rs.getObject("min_points"),
+                (Integer) rs.getObject("max_points")
         );
 
-        return jdbcTemplate.query(sql, mapper, courseId);
+        return namedParameterJdbcTemplate.query(sql, params, mapper);
     }
-}
 
+    public List<GradebookStudent> findGradebookStudents(long courseId) {
+        String sql = """
+                select u.id, u.username
+                from course_students cs
+                join users u on u.id = cs.student_id
+                where cs.course_id = ?
+                order by u.username, u.id
+                """;
+        return jdbcTemplate.query(sql, (rs, rowNum) -> new GradebookStudent(rs.getLong("id"), rs.getString("username")), courseId);
+    }
+
+    public List<GradebookAssignment> findGradebookAssignments(long courseId) {
+        String sql = """
+                select a.id, a.title, a.max_points
+                from assignments a
+                where a.course_id = ?
+                order by a.due_at, a.id
+                """;
+        return jdbcTemplate.query(sql, (rs, rowNum) -> new GradebookAssignment(
+                rs.getLong("id"),
+                rs.getString("title"),
+                rs.getInt("max_points")
+        ), courseId);
+    }
+
+    public Optional<Integer> findAssignmentMaxPoints(long assignmentId) {
+        return jdbcTemplate.query("select a.max_points from assignments a where a.id = ?",
+                (rs, rowNum) -> rs.getInt(1), assignmentId).stream().findFirst();
+    }
+
+    public List<GradeCount> findGradeCountsForAssignment(long assignmentId) {
+        String sql = """
+                select s.grade_points, count(*) as grade_count
+                from submissions s
+                where s.assignment_id = ?
+                  and s.grade_points is not null
+                group by s.grade_points
+                """;
+        return jdbcTemplate.query(sql, (rs, rowNum) -> new GradeCount(rs.getInt(1), rs.getInt(2)), assignmentId);
+    }
+
+    public void forEachGradeInCourse(long courseId, GradeCellHandler handler) {
+        String sql = """
+                select s.student_id, s.assignment_id, s.grade_points
+                from submissions s
+                join assignments a on a.id = s.assignment_id
+                where a.course_id = ?
+                  and s.grade_points is not null
+                """;
+        jdbcTemplate.query(sql, rs -> {
+            handler.accept(rs.getLong(1), rs.getLong(2), rs.getInt(3));
+        }, courseId);
+    }
+
+    @FunctionalInterface
+    public interface GradeCellHandler {
+        void accept(long studentId, long assignmentId, int gradePoints);
+    }
+}
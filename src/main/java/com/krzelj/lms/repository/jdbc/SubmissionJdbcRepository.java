@@ -0,0 +1,175 @@
+package com.krzelj.lms.repository.jdbc;
+
+import com.krzelj.lms.repository.jdbc.dto.BufferedSubmission;
+import com.krzelj.lms.repository.jdbc.dto.SubmissionUpsertResult;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+// Creates or resubmits a submission in one statement, relying on uk_submissions_assignment_student instead of a
+// find-then-save. PostgreSQL uses insert ... on conflict; other databases use merge, which is retried when a
+// concurrent insert of the same (assignment, student) wins the race.
+@Repository
+public class SubmissionJdbcRepository {
+    static final int BATCH_SIZE = 500;
+    private static final int MERGE_ATTEMPTS = 3;
+
+    private static final RowMapper<SubmissionUpsertResult> UPSERT_RESULT =
+            (rs, rowNum) -> new SubmissionUpsertResult(rs.getLong("id"), rs.getLong("version"));
+
+    private static final String POSTGRES_UPSERT = """
+            insert into submissions as s (assignment_id, student_id, submitted_at, content_text, version, updated_at)
+            select a.id, u.id, ?, ?, 0, ?
+            from assignments a
+            join users u on u.id = ?
+            where a.id = ?
+            on conflict (assignment_id, student_id) do update
+            set submitted_at = excluded.submitted_at,
+                content_text = excluded.content_text,
+                version = s.version + 1,
+                updated_at = excluded.updated_at
+            """;
+
+    private static final String MERGE = """
+            merge into submissions s
+            using (
+                select a.id as assignment_id, u.id as student_id
+                from assignments a
+                join users u on u.id = ?
+                where a.id = ?
+            ) g
+            on (s.assignment_id = g.assignment_id and s.student_id = g.student_id)
+            when matched then update
+                set submitted_at = ?, content_text = ?, version = s.version + 1, updated_at = ?
+            when not matched then insert (assignment_id, student_id, submitted_at, content_text, version, updated_at)
+                values (g.assignment_id, g.student_id, ?, ?, 0, ?)
+            """;
+
+    private static final String POSTGRES_BATCH_UPSERT = """
+            insert into submissions as s (assignment_id, student_id, submitted_at, content_text, version, updated_at)
+            select a.id, u.id, v.submitted_at, v.content_text, 0, ?
+            from (values %s) v (assignment_id, student_id, submitted_at, content_text)
+            join assignments a on a.id = v.assignment_id
+            join users u on u.id = v.student_id
+            on conflict (assignment_id, student_id) do update
+            set submitted_at = excluded.submitted_at,
+                content_text = excluded.content_text,
+                version = s.version + 1,
+                updated_at = excluded.updated_at
+            where s.submitted_at is null or s.submitted_at <= excluded.submitted_at
+            returning s.assignment_id, s.version
+            """;
+
+    private static final String BATCH_MERGE = """
+            merge into submissions s
+            using (
+                select a.id as assignment_id, u.id as student_id, v.submitted_at, v.content_text
+                from (values %s) v (assignment_id, student_id, submitted_at, content_text)
+                join assignments a on a.id = v.assignment_id
+                join users u on u.id = v.student_id
+            ) g
+            on (s.assignment_id = g.assignment_id and s.student_id = g.student_id)
+            when matched and (s.submitted_at is null or s.submitted_at <= g.submitted_at) then update
+                set submitted_at = g.submitted_at, content_text = g.content_text, version = s.version + 1, updated_at = ?
+            when not matched then insert (assignment_id, student_id, submitted_at, content_text, version, updated_at)
+                values (g.assignment_id, g.student_id, g.submitted_at, g.content_text, 0, ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final GradeStatsJdbcRepository gradeStatsJdbcRepository;
+    private final DatabaseDialect dialect;
+
+    public SubmissionJdbcRepository(JdbcTemplate jdbcTemplate, GradeStatsJdbcRepository gradeStatsJdbcRepository) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.gradeStatsJdbcRepository = gradeStatsJdbcRepository;
+        this.dialect = DatabaseDialect.of(jdbcTemplate);
+    }
+
+    /**
+     * Empty if the assignment or the student does not exist.
+     */
+    public Optional<SubmissionUpsertResult> upsertSubmission(long assignmentId, long studentId, String contentText,
+                                                             Instant submittedAt) {
+        Timestamp submittedAtTs = Timestamp.from(submittedAt);
+        Timestamp updatedAtTs = Timestamp.from(Instant.now());
+        if (dialect == DatabaseDialect.POSTGRESQL) {
+            return first(jdbcTemplate.query(POSTGRES_UPSERT + "returning s.id, s.version", UPSERT_RESULT,
+                    submittedAtTs, contentText, updatedAtTs, studentId, assignmentId));
+        }
+
+        String sql = "select id, version from final table (" + MERGE + ")";
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return first(jdbcTemplate.query(sql, UPSERT_RESULT, studentId, assignmentId,
+                        submittedAtTs, contentText, updatedAtTs, submittedAtTs, contentText, updatedAtTs));
+            } catch (DuplicateKeyException e) {
+                if (attempt == MERGE_ATTEMPTS) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Stores buffered submissions, one multi-row upsert per {@link #BATCH_SIZE} rows, and adds the newly created
+     * ones to {@code assignment_grade_stats} in the same transaction. An existing row is only overwritten by a
+     * submission accepted at or after its {@code submitted_at}, so replaying an older log entry never undoes a newer
+     * submit. Rows whose assignment or student no longer exists are skipped. Each (assignment, student) may appear
+     * only once. Content is bound without a length so that an oversized value fails instead of being truncated.
+     */
+    @Transactional
+    public void batchUpsertSubmissions(List<BufferedSubmission> submissions) {
+        Timestamp updatedAtTs = Timestamp.from(Instant.now());
+        Map<Long, GradeStatsDelta> deltas = new LinkedHashMap<>();
+        for (int from = 0; from < submissions.size(); from += BATCH_SIZE) {
+            List<BufferedSubmission> chunk = submissions.subList(from, Math.min(from + BATCH_SIZE, submissions.size()));
+            String values = String.join(", ", Collections.nCopies(chunk.size(),
+                    "(cast(? as bigint), cast(? as bigint), cast(? as timestamp with time zone), cast(? as varchar))"));
+            String sql = dialect == DatabaseDialect.POSTGRESQL
+                    ? POSTGRES_BATCH_UPSERT.formatted(values)
+                    : "select assignment_id, version from final table (" + BATCH_MERGE.formatted(values) + ")";
+
+            List<Object> args = new ArrayList<>(chunk.size() * 4 + 2);
+            if (dialect == DatabaseDialect.POSTGRESQL) {
+                args.add(updatedAtTs);
+            }
+            for (BufferedSubmission submission : chunk) {
+                args.add(submission.assignmentId());
+                args.add(submission.studentId());
+                args.add(Timestamp.from(submission.acceptedAt()));
+                args.add(submission.contentText());
+            }
+            if (dialect != DatabaseDialect.POSTGRESQL) {
+                args.add(updatedAtTs);
+                args.add(updatedAtTs);
+            }
+            jdbcTemplate.query(sql, (RowCallbackHandler) rs -> {
+                if (rs.getLong("version") == 0) {
+                    deltas.computeIfAbsent(rs.getLong("assignment_id"), id -> new GradeStatsDelta()).submissionAdded();
+                }
+            }, args.toArray());
+        }
+        gradeStatsJdbcRepository.applyAll(deltas);
+    }
+
+    public List<Long> findAssignmentIdsForStudent(long studentId) {
+        return jdbcTemplate.queryForList(
+                "select distinct s.assignment_id from submissions s where s.student_id = ?", Long.class, studentId);
+    }
+
+    private static Optional<SubmissionUpsertResult> first(List<SubmissionUpsertResult> rows) {
+        return rows.stream().findFirst();
+    }
+}
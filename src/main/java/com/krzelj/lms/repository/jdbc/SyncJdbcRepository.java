@@ -0,0 +1,37 @@
+package com.krzelj.lms.repository.jdbc;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Optional;
+
+@Repository
+public class SyncJdbcRepository {
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabaseDialect dialect;
+
+    public SyncJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dialect = DatabaseDialect.of(jdbcTemplate);
+    }
+
+    /**
+     * Start time of the oldest other transaction that has written and not yet committed. Rows it commits later carry
+     * an updated_at no earlier than this. Empty when there is none or the database does not expose it.
+     */
+    public Optional<Instant> findOldestOpenWriteStart() {
+        if (dialect != DatabaseDialect.POSTGRESQL) {
+            return Optional.empty();
+        }
+        Timestamp oldest = jdbcTemplate.queryForObject("""
+                select min(xact_start)
+                from pg_stat_activity
+                where backend_xid is not null
+                  and datname = current_database()
+                  and pid <> pg_backend_pid()
+                """, Timestamp.class);
+        return Optional.ofNullable(oldest).map(Timestamp::toInstant);
+    }
+}
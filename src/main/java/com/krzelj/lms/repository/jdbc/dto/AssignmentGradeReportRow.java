@@ -5,7 +5,20 @@ public record AssignmentGradeReportRow(
         long courseId,
         long submissionsCount,
         long gradedCount,
-        Double averagePoints
+        Double averagePoints,
+        Double stdDevPoints,
+        Integer minPoints,
+        Integer maxPoints
 ) {
-}
 
+    public static AssignmentGradeReportRow fromSums(long assignmentId, long courseId, long submissionsCount, long gradedCount,
+                                                    long pointsSum, long pointsSumSquares, Integer minPoints, Integer maxPoints) {
+        if (gradedCount == 0) {
+            return new AssignmentGradeReportRow(assignmentId, courseId, submissionsCount, 0, null, null, null, null);
+        }
+        double average = (double) pointsSum / gradedCount;
+        double variance = Math.max(0.0, (double) pointsSumSquares / gradedCount - average * average);
+        return new AssignmentGradeReportRow(assignmentId, courseId, submissionsCount, gradedCount,
+                average, Math.sqrt(variance), minPoints, maxPoints);
+    }
+}
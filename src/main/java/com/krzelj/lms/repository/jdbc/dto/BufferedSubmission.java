@@ -0,0 +1,18 @@
+package com.krzelj.lms.repository.jdbc.dto;
+
+import java.time.Instant;
+
+/**
+ * A submission acknowledged by the write-behind buffer but possibly not yet stored in {@code submissions}.
+ *
+ * @param sequence position in the local write log; a higher sequence wins for the same (assignment, student)
+ * @param acceptedAt time the submission was accepted, stored as {@code submitted_at}
+ */
+public record BufferedSubmission(
+        long sequence,
+        long assignmentId,
+        long studentId,
+        String contentText,
+        Instant acceptedAt
+) {
+}
@@ -0,0 +1,25 @@
+package com.krzelj.lms.repository.jdbc.dto;
+
+public record EnrollmentBatchResult(
+        int inserted,
+        int duplicates,
+        int invalid,
+        int waitlisted
+) {
+    public static EnrollmentBatchResult empty() {
+        return new EnrollmentBatchResult(0, 0, 0, 0);
+    }
+
+    public EnrollmentBatchResult plus(EnrollmentBatchResult other) {
+        return new EnrollmentBatchResult(
+                inserted + other.inserted,
+                duplicates + other.duplicates,
+                invalid + other.invalid,
+                waitlisted + other.waitlisted
+        );
+    }
+
+    public int total() {
+        return inserted + duplicates + invalid + waitlisted;
+    }
+}
@@ -0,0 +1,7 @@
+package com.krzelj.lms.repository.jdbc.dto;
+
+public record GradeCount(
+        int gradePoints,
+        int count
+) {
+}
@@ -0,0 +1,11 @@
+package com.krzelj.lms.repository.jdbc.dto;
+
+public enum GradeImportOutcome {
+    UPDATED,
+    CREATED,
+    NO_SUBMISSION,
+    NOT_ENROLLED,
+    OUT_OF_RANGE,
+    // A later row in the same import targets the same submission.
+    SUPERSEDED
+}
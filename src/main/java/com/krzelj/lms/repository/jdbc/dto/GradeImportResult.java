@@ -0,0 +1,20 @@
+package com.krzelj.lms.repository.jdbc.dto;
+
+import java.util.List;
+
+/**
+ * @param outcomes one entry per input row, in input order
+ */
+public record GradeImportResult(
+        List<GradeImportOutcome> outcomes
+) {
+    public int count(GradeImportOutcome outcome) {
+        int count = 0;
+        for (GradeImportOutcome o : outcomes) {
+            if (o == outcome) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,8 @@
+package com.krzelj.lms.repository.jdbc.dto;
+
+public record GradebookAssignment(
+        long id,
+        String title,
+        int maxPoints
+) {
+}
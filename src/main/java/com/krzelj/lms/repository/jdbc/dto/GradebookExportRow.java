@@ -0,0 +1,16 @@
+package com.krzelj.lms.repository.jdbc.dto;
+
+import java.time.Instant;
+
+public record GradebookExportRow(
+        long studentId,
+        String studentName,
+        long assignmentId,
+        String assignmentTitle,
+        int maxPoints,
+        Long submissionId,
+        Instant submittedAt,
+        Integer gradePoints,
+        Instant gradedAt
+) {
+}
@@ -0,0 +1,18 @@
+package com.krzelj.lms.repository.jdbc.dto;
+
+import java.time.Instant;
+
+public record SubmissionExportRow(
+        long id,
+        long assignmentId,
+        String assignmentTitle,
+        long studentId,
+        String studentName,
+        Instant submittedAt,
+        Integer gradePoints,
+        Instant gradedAt,
+        Long gradedById,
+        String gradedByName,
+        String contentText
+) {
+}
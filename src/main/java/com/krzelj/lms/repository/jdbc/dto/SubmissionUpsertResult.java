@@ -0,0 +1,13 @@
+package com.krzelj.lms.repository.jdbc.dto;
+
+/**
+ * @param version row version after the statement; {@code 0} means the statement inserted the row
+ */
+public record SubmissionUpsertResult(
+        long id,
+        long version
+) {
+    public boolean created() {
+        return version == 0;
+    }
+}
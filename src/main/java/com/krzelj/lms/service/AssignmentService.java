@@ -2,13 +2,18 @@ package com.krzelj.lms.service;
 
 import com.krzelj.lms.domain.Assignment;
 import com.krzelj.lms.domain.Course;
+import com.krzelj.lms.domain.SyncEntityType;
 import com.krzelj.lms.repository.AssignmentRepository;
 import com.krzelj.lms.repository.CourseRepository;
+import com.krzelj.lms.repository.dto.AssignmentVersion;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Service
 @Transactional
@@ -16,10 +21,18 @@ public class AssignmentService {
 
     private final AssignmentRepository assignmentRepository;
     private final CourseRepository courseRepository;
+    private final CourseContentVersions courseContentVersions;
+    private final SyncService syncService;
+    private final GradeDistributionCache gradeDistributionCache;
 
-    public AssignmentService(AssignmentRepository assignmentRepository, CourseRepository courseRepository) {
+    public AssignmentService(AssignmentRepository assignmentRepository, CourseRepository courseRepository,
+                             CourseContentVersions courseContentVersions, SyncService syncService,
+                             GradeDistributionCache gradeDistributionCache) {
         this.assignmentRepository = assignmentRepository;
         this.courseRepository = courseRepository;
+        this.courseContentVersions = courseContentVersions;
+        this.syncService = syncService;
+        this.gradeDistributionCache = gradeDistributionCache;
     }
 
     @Transactional(readOnly = true)
@@ -34,26 +47,52 @@ public class AssignmentService {
                 .orElseThrow(() -> new IllegalArgumentException("Assignment not found: " + id));
     }
 
+    @Transactional(readOnly = true)
+    public BatchResult<Assignment> getByIdsWithCourse(Long courseId, Collection<Long> ids) {
+        return BatchResult.load(ids, chunk -> assignmentRepository.findAllByIdWithCourse(courseId, chunk), Assignment::getId);
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<AssignmentVersion> findVersion(Long id) {
+        return assignmentRepository.findVersionById(id);
+    }
+
     @Transactional(readOnly = true)
     public List<Assignment> findForCourse(Long courseId) {
         return assignmentRepository.findByCourseIdOrderByDueAtAsc(courseId);
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public long listVersion(Long courseId) {
+        return courseContentVersions.current(courseId);
+    }
+
     public Assignment createAssignment(Long courseId, String title, String description, Instant dueAt, int maxPoints) {
         Course course = courseRepository.findById(courseId)
                 .orElseThrow(() -> new IllegalArgumentException("Course not found: " + courseId));
         Assignment assignment = new Assignment(course, title, dueAt);
         assignment.setDescription(description);
         assignment.setMaxPoints(maxPoints);
+        courseContentVersions.bump(courseId);
         return assignmentRepository.save(assignment);
     }
 
     public Assignment save(Assignment assignment) {
+        courseContentVersions.bump(assignment.getCourse().getId());
+        if (assignment.getId() != null) {
+            gradeDistributionCache.invalidate(assignment.getId());
+        }
         return assignmentRepository.save(assignment);
     }
 
     public void delete(Long id) {
-        assignmentRepository.deleteById(id);
+        assignmentRepository.findById(id).ifPresent(assignment -> {
+            Long courseId = assignment.getCourse().getId();
+            courseContentVersions.bump(courseId);
+            syncService.recordDeletion(SyncEntityType.ASSIGNMENT, id, courseId, null);
+            gradeDistributionCache.invalidate(id);
+            assignmentRepository.delete(assignment);
+        });
     }
 }
 
@@ -0,0 +1,41 @@
+package com.krzelj.lms.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+public record BatchResult<T>(List<T> found, List<Long> notFound) {
+
+    static final int MAX_IDS = 1000;
+    static final int IN_CHUNK_SIZE = 500;
+
+    // Loads ids through an IN-list query in chunks of IN_CHUNK_SIZE and returns the hits in request order.
+    static <T> BatchResult<T> load(Collection<Long> ids, Function<List<Long>, List<T>> query, Function<T, Long> idOf) {
+        List<Long> distinct = new ArrayList<>(new LinkedHashSet<>(ids));
+        if (distinct.size() > MAX_IDS) {
+            throw new IllegalArgumentException("Too many ids: " + distinct.size() + " (max " + MAX_IDS + ")");
+        }
+
+        Map<Long, T> byId = new LinkedHashMap<>();
+        for (int from = 0; from < distinct.size(); from += IN_CHUNK_SIZE) {
+            List<Long> chunk = distinct.subList(from, Math.min(from + IN_CHUNK_SIZE, distinct.size()));
+            query.apply(chunk).forEach(item -> byId.put(idOf.apply(item), item));
+        }
+
+        List<T> found = new ArrayList<>(byId.size());
+        List<Long> notFound = new ArrayList<>();
+        for (Long id : distinct) {
+            T item = byId.get(id);
+            if (item != null) {
+                found.add(item);
+            } else {
+                notFound.add(id);
+            }
+        }
+        return new BatchResult<>(found, notFound);
+    }
+}
@@ -0,0 +1,25 @@
+package com.krzelj.lms.service;
+
+import java.util.List;
+
+/**
+ * Aggregated outcome of a chunked grade import. {@code importId} is set while failed chunks can still be retried.
+ */
+public record ChunkedGradeImportResult(String importId, int totalRows, int updated, int superseded, List<Chunk> chunks) {
+
+    /**
+     * @param rows rows applied by the chunk after de-duplication
+     * @param updated rows that matched an existing submission
+     * @param error failure message, or {@code null} if the chunk committed
+     */
+    public record Chunk(int index, int rows, int updated, String error) {
+
+        public boolean failed() {
+            return error != null;
+        }
+    }
+
+    public List<Chunk> failedChunks() {
+        return chunks.stream().filter(Chunk::failed).toList();
+    }
+}
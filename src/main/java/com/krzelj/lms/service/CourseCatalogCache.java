@@ -0,0 +1,79 @@
+package com.krzelj.lms.service;
+
+import com.krzelj.lms.repository.dto.CatalogCourse;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+// Snapshot of the public catalog, tagged with the version it was loaded for. Concurrent misses on
+// the same version share one load; a bump after commit makes the next read reload.
+@Component
+public class CourseCatalogCache {
+
+    private record Snapshot(long version, List<CatalogCourse> courses) {
+    }
+
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+    private final ConcurrentMap<Long, CompletableFuture<List<CatalogCourse>>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong loads = new AtomicLong();
+
+    public List<CatalogCourse> get(Supplier<List<CatalogCourse>> loader) {
+        long current = version.get();
+        Snapshot cached = snapshot.get();
+        if (cached != null && cached.version() == current) {
+            return cached.courses();
+        }
+
+        CompletableFuture<List<CatalogCourse>> load = new CompletableFuture<>();
+        CompletableFuture<List<CatalogCourse>> existing = inFlight.putIfAbsent(current, load);
+        if (existing != null) {
+            return await(existing);
+        }
+
+        try {
+            loads.incrementAndGet();
+            List<CatalogCourse> courses = List.copyOf(loader.get());
+            Snapshot loaded = new Snapshot(current, courses);
+            snapshot.accumulateAndGet(loaded,
+                    (prev, next) -> prev == null || next.version() >= prev.version() ? next : prev);
+            load.complete(courses);
+            return courses;
+        } catch (RuntimeException e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(current, load);
+        }
+    }
+
+    public void invalidate() {
+        AfterCommit.run(version::incrementAndGet);
+    }
+
+    public long version() {
+        return version.get();
+    }
+
+    public long loadCount() {
+        return loads.get();
+    }
+
+    private static List<CatalogCourse> await(CompletableFuture<List<CatalogCourse>> load) {
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.krzelj.lms.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Per-course version of the assignment list, bumped after commit whenever an assignment or its course changes.
+@Component
+public class CourseContentVersions {
+
+    private final ConcurrentMap<Long, AtomicLong> versions = new ConcurrentHashMap<>();
+
+    public long current(Long courseId) {
+        AtomicLong version = versions.get(courseId);
+        return version == null ? 0L : version.get();
+    }
+
+    public void bump(Long courseId) {
+        AfterCommit.run(() -> versions.computeIfAbsent(courseId, id -> new AtomicLong()).incrementAndGet());
+    }
+}
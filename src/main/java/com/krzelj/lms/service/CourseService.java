@@ -1,13 +1,22 @@
 package com.krzelj.lms.service;
 
 import com.krzelj.lms.domain.Course;
+import com.krzelj.lms.domain.SyncEntityType;
 import com.krzelj.lms.domain.User;
 import com.krzelj.lms.repository.CourseRepository;
 import com.krzelj.lms.repository.UserRepository;
+import com.krzelj.lms.repository.dto.CatalogCourse;
+import com.krzelj.lms.repository.dto.CourseSummary;
+import com.krzelj.lms.repository.dto.RosterEntry;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Service
 @Transactional
@@ -15,10 +24,20 @@ public class CourseService {
 
     private final CourseRepository courseRepository;
     private final UserRepository userRepository;
-
-    public CourseService(CourseRepository courseRepository, UserRepository userRepository) {
+    private final EntityCacheService entityCacheService;
+    private final CourseCatalogCache courseCatalogCache;
+    private final CourseContentVersions courseContentVersions;
+    private final SyncService syncService;
+
+    public CourseService(CourseRepository courseRepository, UserRepository userRepository,
+                         EntityCacheService entityCacheService, CourseCatalogCache courseCatalogCache,
+                         CourseContentVersions courseContentVersions, SyncService syncService) {
         this.courseRepository = courseRepository;
         this.userRepository = userRepository;
+        this.entityCacheService = entityCacheService;
+        this.courseCatalogCache = courseCatalogCache;
+        this.courseContentVersions = courseContentVersions;
+        this.syncService = syncService;
     }
 
     @Transactional(readOnly = true)
@@ -26,25 +45,42 @@ public class CourseService {
         return courseRepository.findAllWithInstructor();
     }
 
+    // SUPPORTS keeps cache hits from opening a transaction; the repository runs its own on a miss.
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<CatalogCourse> findCatalog() {
+        return courseCatalogCache.get(courseRepository::findCatalog);
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public long catalogVersion() {
+        return courseCatalogCache.version();
+    }
+
     @Transactional(readOnly = true)
     public Course getById(Long id) {
-        Course course = courseRepository.findByIdWithInstructorAndStudents(id)
-                .orElseGet(() -> courseRepository.findByIdWithInstructor(id)
-                        .orElseThrow(() -> new IllegalArgumentException("Course not found: " + id)));
+        return courseRepository.findByIdWithInstructor(id)
+                .orElseThrow(() -> new IllegalArgumentException("Course not found: " + id));
+    }
 
-        if (course.getInstructor() != null) {
-            course.getInstructor().getUsername();
-            course.getInstructor().getId();
-        }
-        if (course.getStudents() != null) {
-            course.getStudents().size();
-            course.getStudents().forEach(student -> {
-                student.getId();
-                student.getUsername();
-            });
-        }
-        
-        return course;
+    @Transactional(readOnly = true)
+    public BatchResult<Course> getByIds(Collection<Long> ids) {
+        return BatchResult.load(ids, courseRepository::findAllByIdWithInstructor, Course::getId);
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<Long> findVersion(Long id) {
+        return courseRepository.findVersionById(id);
+    }
+
+    @Transactional(readOnly = true)
+    public CourseSummary getSummary(Long id) {
+        return courseRepository.findSummaryById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Course not found: " + id));
+    }
+
+    @Transactional(readOnly = true)
+    public Page<RosterEntry> findRoster(Long courseId, Pageable pageable) {
+        return courseRepository.findRosterByCourseId(courseId, pageable);
     }
 
     @Transactional(readOnly = true)
@@ -62,49 +98,30 @@ public class CourseService {
                 .orElseThrow(() -> new IllegalArgumentException("Instructor not found: " + instructorId));
         Course course = new Course(code, title, instructor);
         course.setDescription(description);
-        return courseRepository.save(course);
+        Course saved = courseRepository.save(course);
+        courseCatalogCache.invalidate();
+        courseContentVersions.bump(saved.getId());
+        return saved;
     }
 
     public Course save(Course course) {
+        courseCatalogCache.invalidate();
+        if (course.getId() != null) {
+            courseContentVersions.bump(course.getId());
+        }
         return courseRepository.save(course);
     }
 
     public void delete(Long id) {
         courseRepository.deleteById(id);
-    }
-
-    public void enrollStudent(Long courseId, Long studentId) {
-        Course course = courseRepository.findById(courseId)
-                .orElseThrow(() -> new IllegalArgumentException("Course not found: " + courseId));
-        User student = userRepository.findById(studentId)
-                .orElseThrow(() -> new IllegalArgumentException("Student not found: " + studentId));
-        
-        if (course.getStudents().contains(student)) {
-            throw new IllegalArgumentException("Student is already enrolled in this course");
-        }
-        
-        course.getStudents().add(student);
-        courseRepository.save(course);
-    }
-
-    public void unenrollStudent(Long courseId, Long studentId) {
-        Course course = courseRepository.findById(courseId)
-                .orElseThrow(() -> new IllegalArgumentException("Course not found: " + courseId));
-        User student = userRepository.findById(studentId)
-                .orElseThrow(() -> new IllegalArgumentException("Student not found: " + studentId));
-        
-        course.getStudents().remove(student);
-        courseRepository.save(course);
+        syncService.recordDeletion(SyncEntityType.COURSE, id, id, null);
+        courseCatalogCache.invalidate();
+        courseContentVersions.bump(id);
+        entityCacheService.evictCourseCascade(id);
     }
 
     @Transactional(readOnly = true)
     public boolean isStudentEnrolled(Long courseId, Long studentId) {
-        Course course = courseRepository.findByIdWithInstructorAndStudents(courseId)
-                .orElseGet(() -> courseRepository.findByIdWithInstructor(courseId)
-                        .orElseThrow(() -> new IllegalArgumentException("Course not found: " + courseId)));
-        User student = userRepository.findById(studentId)
-                .orElseThrow(() -> new IllegalArgumentException("Student not found: " + studentId));
-        return course.getStudents() != null && course.getStudents().contains(student);
+        return courseRepository.existsByIdAndStudentsId(courseId, studentId);
     }
 }
-
@@ -0,0 +1,221 @@
+package com.krzelj.lms.service;
+
+import com.krzelj.lms.domain.EnrollmentOutcome;
+import com.krzelj.lms.repository.UserRepository;
+import com.krzelj.lms.repository.jdbc.EnrollmentJdbcRepository;
+import com.krzelj.lms.repository.jdbc.dto.EnrollmentBatchResult;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+@Service
+@Transactional
+public class EnrollmentService {
+
+    static final int IMPORT_CHUNK_SIZE = 500;
+
+    private static final Set<String> HEADER_NAMES = Set.of("id", "studentid", "student_id", "username", "email", "student");
+
+    private final EnrollmentJdbcRepository enrollmentJdbcRepository;
+    private final UserRepository userRepository;
+    private final EntityCacheService entityCacheService;
+    private final CourseCatalogCache courseCatalogCache;
+
+    public EnrollmentService(EnrollmentJdbcRepository enrollmentJdbcRepository, UserRepository userRepository,
+                             EntityCacheService entityCacheService, CourseCatalogCache courseCatalogCache) {
+        this.enrollmentJdbcRepository = enrollmentJdbcRepository;
+        this.userRepository = userRepository;
+        this.entityCacheService = entityCacheService;
+        this.courseCatalogCache = courseCatalogCache;
+    }
+
+    public EnrollmentOutcome enrollStudent(Long courseId, Long studentId) {
+        if (!userRepository.existsById(studentId)) {
+            throw new IllegalArgumentException("Student not found: " + studentId);
+        }
+        lockCourse(courseId);
+
+        if (enrollmentJdbcRepository.tryTakeSeat(courseId)) {
+            if (!enrollmentJdbcRepository.insertEnrollment(courseId, studentId)) {
+                throw new IllegalArgumentException("Student is already enrolled in this course");
+            }
+            enrollmentJdbcRepository.removeFromWaitlist(courseId, studentId);
+            return EnrollmentOutcome.ENROLLED;
+        }
+
+        if (enrollmentJdbcRepository.isEnrolled(courseId, studentId)) {
+            throw new IllegalArgumentException("Student is already enrolled in this course");
+        }
+        if (!enrollmentJdbcRepository.addToWaitlist(courseId, studentId, Instant.now())) {
+            throw new IllegalArgumentException("Student is already on the waitlist for this course");
+        }
+        return EnrollmentOutcome.WAITLISTED;
+    }
+
+    public void unenrollStudent(Long courseId, Long studentId) {
+        lockCourse(courseId);
+
+        if (enrollmentJdbcRepository.deleteEnrollment(courseId, studentId)) {
+            enrollmentJdbcRepository.releaseSeat(courseId);
+            promoteWaitlisted(courseId);
+        } else {
+            enrollmentJdbcRepository.removeFromWaitlist(courseId, studentId);
+        }
+    }
+
+    public void updateCapacity(Long courseId, Integer capacity) {
+        if (capacity != null && capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1");
+        }
+        lockCourse(courseId);
+        enrollmentJdbcRepository.updateCapacity(courseId, capacity);
+        courseCatalogCache.invalidate();
+        promoteWaitlisted(courseId);
+    }
+
+    @Transactional(readOnly = true)
+    public int waitlistPosition(Long courseId, Long studentId) {
+        return enrollmentJdbcRepository.waitlistPosition(courseId, studentId);
+    }
+
+    /**
+     * Fills the free seats of the course from the head of its waitlist.
+     */
+    public void promoteFromWaitlist(Long courseId) {
+        lockCourse(courseId);
+        promoteWaitlisted(courseId);
+    }
+
+    private void promoteWaitlisted(Long courseId) {
+        Optional<Long> next;
+        while ((next = enrollmentJdbcRepository.nextWaitlisted(courseId)).isPresent()) {
+            Long studentId = next.get();
+            if (!enrollmentJdbcRepository.tryTakeSeat(courseId)) {
+                return;
+            }
+            enrollmentJdbcRepository.removeFromWaitlist(courseId, studentId);
+            if (!enrollmentJdbcRepository.insertEnrollment(courseId, studentId)) {
+                enrollmentJdbcRepository.releaseSeat(courseId);
+            }
+        }
+    }
+
+    public EnrollmentBatchResult enrollStudents(Long courseId, List<Long> studentIds) {
+        lockCourse(courseId);
+        List<Long> ids = new ArrayList<>(studentIds.size());
+        int invalid = 0;
+        for (Long studentId : studentIds) {
+            if (studentId == null) {
+                invalid++;
+            } else {
+                ids.add(studentId);
+            }
+        }
+        EnrollmentBatchResult result = enrollmentJdbcRepository.enrollByIds(courseId, ids,
+                enrollmentJdbcRepository.remainingSeats(courseId));
+        syncSeats(courseId, result);
+        return result.plus(new EnrollmentBatchResult(0, 0, invalid, 0));
+    }
+
+    public EnrollmentBatchResult importRoster(Long courseId, Reader csv) {
+        lockCourse(courseId);
+        int seats = enrollmentJdbcRepository.remainingSeats(courseId);
+        RosterChunk chunk = new RosterChunk();
+        EnrollmentBatchResult result = EnrollmentBatchResult.empty();
+        boolean firstRow = true;
+
+        try (BufferedReader reader = new BufferedReader(csv)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String trimmed = line.trim();
+                if (trimmed.isEmpty()) continue;
+                String value = firstColumn(trimmed);
+                if (firstRow) {
+                    firstRow = false;
+                    if (HEADER_NAMES.contains(value.toLowerCase())) continue;
+                }
+                chunk.add(value);
+                if (chunk.size() >= IMPORT_CHUNK_SIZE) {
+                    result = result.plus(flush(courseId, chunk, seats - result.inserted()));
+                    chunk = new RosterChunk();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read roster CSV", e);
+        }
+
+        result = result.plus(flush(courseId, chunk, seats - result.inserted()));
+        syncSeats(courseId, result);
+        return result;
+    }
+
+    private EnrollmentBatchResult flush(Long courseId, RosterChunk chunk, int seats) {
+        EnrollmentBatchResult result = enrollmentJdbcRepository.enrollByIds(courseId, chunk.ids, seats);
+        result = result.plus(enrollmentJdbcRepository.enrollByUsernames(courseId, chunk.usernames,
+                seats - result.inserted()));
+        result = result.plus(enrollmentJdbcRepository.enrollByEmails(courseId, chunk.emails,
+                seats - result.inserted()));
+        return result.plus(new EnrollmentBatchResult(0, 0, chunk.invalid, 0));
+    }
+
+    // The batch inserts never exceed the seats that were free under the course lock, so this cannot overbook.
+    private void syncSeats(Long courseId, EnrollmentBatchResult result) {
+        if (result.inserted() > 0) {
+            enrollmentJdbcRepository.addSeats(courseId, result.inserted());
+            enrollmentJdbcRepository.removeEnrolledFromWaitlist(courseId);
+        }
+    }
+
+    private void lockCourse(Long courseId) {
+        if (!enrollmentJdbcRepository.lockCourse(courseId)) {
+            throw new IllegalArgumentException("Course not found: " + courseId);
+        }
+        entityCacheService.evictCourse(courseId);
+    }
+
+    private static String firstColumn(String line) {
+        int comma = line.indexOf(',');
+        String value = comma >= 0 ? line.substring(0, comma) : line;
+        value = value.trim();
+        if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+            value = value.substring(1, value.length() - 1).trim();
+        }
+        return value;
+    }
+
+    private static final class RosterChunk {
+        private final List<Long> ids = new ArrayList<>();
+        private final List<String> usernames = new ArrayList<>();
+        private final List<String> emails = new ArrayList<>();
+        private int invalid;
+
+        void add(String value) {
+            if (value.isEmpty()) {
+                invalid++;
+            } else if (value.chars().allMatch(Character::isDigit)) {
+                try {
+                    ids.add(Long.parseLong(value));
+                } catch (NumberFormatException e) {
+                    invalid++;
+                }
+            } else if (value.indexOf('@') >= 0) {
+                emails.add(value);
+            } else {
+                usernames.add(value);
+            }
+        }
+
+        int size() {
+            return ids.size() + usernames.size() + emails.size() + invalid;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.krzelj.lms.service;
+
+import com.krzelj.lms.domain.Assignment;
+import com.krzelj.lms.domain.Course;
+import com.krzelj.lms.repository.AssignmentRepository;
+import com.krzelj.lms.web.api.dto.CacheStatisticsResponse;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.stereotype.Service;
+
+// JDBC writes and database cascades bypass Hibernate, so the affected regions are evicted after commit.
+@Service
+public class EntityCacheService {
+
+    private final SessionFactory sessionFactory;
+
+    public EntityCacheService(EntityManagerFactory entityManagerFactory) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+    }
+
+    public void evictCourse(Long courseId) {
+        AfterCommit.run(() -> cache().evictEntityData(Course.class, courseId));
+    }
+
+    public void evictCourses() {
+        AfterCommit.run(() -> cache().evictEntityData(Course.class));
+    }
+
+    public void evictCourseCascade(Long courseId) {
+        AfterCommit.run(() -> {
+            Cache cache = cache();
+            cache.evictEntityData(Course.class, courseId);
+            cache.evictEntityData(Assignment.class);
+            cache.evictQueryRegion(AssignmentRepository.BY_COURSE_CACHE_REGION);
+        });
+    }
+
+    public void evictAll() {
+        Cache cache = cache();
+        cache.evictAllRegions();
+        cache.evictQueryRegions();
+    }
+
+    public CacheStatisticsResponse statistics() {
+        return CacheStatisticsResponse.from(sessionFactory.getStatistics());
+    }
+
+    public void resetStatistics() {
+        sessionFactory.getStatistics().clear();
+    }
+
+    private Cache cache() {
+        return sessionFactory.getCache();
+    }
+}
@@ -0,0 +1,37 @@
+package com.krzelj.lms.service;
+
+import java.util.Locale;
+
+public enum ExportFormat {
+    NDJSON("application/x-ndjson"),
+    CSV("text/csv");
+
+    private final String mediaType;
+
+    ExportFormat(String mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public String mediaType() {
+        return mediaType;
+    }
+
+    public String fileName(String baseName) {
+        return baseName + "." + name().toLowerCase(Locale.ROOT);
+    }
+
+    // An explicit ?format= wins; otherwise text/csv in Accept selects CSV and everything else gets NDJSON.
+    public static ExportFormat resolve(String format, String accept) {
+        if (format != null) {
+            try {
+                return valueOf(format.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unsupported export format: " + format);
+            }
+        }
+        if (accept != null && accept.contains(CSV.mediaType)) {
+            return CSV;
+        }
+        return NDJSON;
+    }
+}
@@ -0,0 +1,122 @@
+package com.krzelj.lms.service;
+
+import com.krzelj.lms.repository.jdbc.ExportJdbcRepository;
+import com.krzelj.lms.repository.jdbc.dto.GradebookExportRow;
+import com.krzelj.lms.repository.jdbc.dto.SubmissionExportRow;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+@Service
+@Transactional(readOnly = true)
+public class ExportService {
+
+    static final int BUFFER_SIZE = 64 * 1024;
+
+    private record Column<T>(String header, Function<T, Object> value) {
+    }
+
+    private static final List<Column<SubmissionExportRow>> SUBMISSION_COLUMNS = List.of(
+            new Column<>("id", SubmissionExportRow::id),
+            new Column<>("assignmentId", SubmissionExportRow::assignmentId),
+            new Column<>("assignmentTitle", SubmissionExportRow::assignmentTitle),
+            new Column<>("studentId", SubmissionExportRow::studentId),
+            new Column<>("studentName", SubmissionExportRow::studentName),
+            new Column<>("submittedAt", SubmissionExportRow::submittedAt),
+            new Column<>("gradePoints", SubmissionExportRow::gradePoints),
+            new Column<>("gradedAt", SubmissionExportRow::gradedAt),
+            new Column<>("gradedById", SubmissionExportRow::gradedById),
+            new Column<>("gradedByName", SubmissionExportRow::gradedByName),
+            new Column<>("contentText", SubmissionExportRow::contentText)
+    );
+
+    private static final List<Column<GradebookExportRow>> GRADEBOOK_COLUMNS = List.of(
+            new Column<>("studentId", GradebookExportRow::studentId),
+            new Column<>("studentName", GradebookExportRow::studentName),
+            new Column<>("assignmentId", GradebookExportRow::assignmentId),
+            new Column<>("assignmentTitle", GradebookExportRow::assignmentTitle),
+            new Column<>("maxPoints", GradebookExportRow::maxPoints),
+            new Column<>("submissionId", GradebookExportRow::submissionId),
+            new Column<>("submittedAt", GradebookExportRow::submittedAt),
+            new Column<>("gradePoints", GradebookExportRow::gradePoints),
+            new Column<>("gradedAt", GradebookExportRow::gradedAt)
+    );
+
+    private final ExportJdbcRepository exportJdbcRepository;
+    private final JsonMapper jsonMapper;
+
+    public ExportService(ExportJdbcRepository exportJdbcRepository, JsonMapper jsonMapper) {
+        this.exportJdbcRepository = exportJdbcRepository;
+        this.jsonMapper = jsonMapper;
+    }
+
+    public void exportSubmissions(long assignmentId, ExportFormat format, OutputStream out) {
+        export(format, SUBMISSION_COLUMNS, out,
+                writer -> exportJdbcRepository.streamSubmissionsForAssignment(assignmentId, writer));
+    }
+
+    public void exportGradebook(long courseId, ExportFormat format, OutputStream out) {
+        export(format, GRADEBOOK_COLUMNS, out,
+                writer -> exportJdbcRepository.streamGradebookForCourse(courseId, writer));
+    }
+
+    private <T> void export(ExportFormat format, List<Column<T>> columns, OutputStream out,
+                            Consumer<Consumer<T>> source) {
+        BufferedOutputStream buffer = new BufferedOutputStream(out, BUFFER_SIZE);
+        try {
+            if (format == ExportFormat.CSV) {
+                writeCsvLine(buffer, columns.stream().map(column -> (Object) column.header()).toList());
+                source.accept(row -> writeCsvLine(buffer, columns.stream().map(column -> column.value().apply(row)).toList()));
+            } else {
+                source.accept(row -> writeNdjsonLine(buffer, row));
+            }
+            buffer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write export", e);
+        }
+    }
+
+    private void writeNdjsonLine(OutputStream out, Object row) {
+        try {
+            out.write(jsonMapper.writeValueAsBytes(row));
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write export", e);
+        }
+    }
+
+    private static void writeCsvLine(OutputStream out, List<Object> values) {
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                line.append(',');
+            }
+            Object value = values.get(i);
+            if (value != null) {
+                line.append(csvField(value.toString()));
+            }
+        }
+        line.append("\r\n");
+        try {
+            out.write(line.toString().getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write export", e);
+        }
+    }
+
+    static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,27 @@
+package com.krzelj.lms.service;
+
+import java.util.List;
+
+/**
+ * Outcome of a CSV grade import. {@code errors} holds at most {@link GradeCsvImportService#MAX_REPORTED_ERRORS}
+ * entries; {@code rejected} always counts every rejected line.
+ */
+public record GradeCsvImportReport(long linesRead, int updated, int created, int rejected,
+                                   List<LineError> errors, boolean errorsTruncated) {
+
+    public enum Reason {
+        MISSING_COLUMN,
+        INVALID_POINTS,
+        UNKNOWN_STUDENT,
+        NO_SUBMISSION,
+        NOT_ENROLLED,
+        OUT_OF_RANGE,
+        DUPLICATE
+    }
+
+    public record LineError(long line, String value, Reason reason) {
+    }
+
+    public record Progress(long linesRead, int updated, int created, int rejected) {
+    }
+}
@@ -0,0 +1,362 @@
+package com.krzelj.lms.service;
+
+import com.krzelj.lms.repository.AssignmentRepository;
+import com.krzelj.lms.repository.jdbc.GradeImportJdbcRepository;
+import com.krzelj.lms.repository.jdbc.dto.GradeImportOutcome;
+import com.krzelj.lms.repository.jdbc.dto.GradeImportResult;
+import com.krzelj.lms.repository.jdbc.dto.GradeImportRow;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Streams a grade CSV for one assignment line by line and imports it in chunks of
+ * {@code app.grading.csv-import.chunk-size} lines, each chunk resolving usernames and emails with batched lookups
+ * and committing through the staged grade import. Memory use does not depend on the file size.
+ * <p>
+ * Without a header the columns are {@code student,points}, where the student is an id, an email (contains
+ * {@code @}) or a username. A header may name the student column {@code studentId}, {@code username},
+ * {@code email} or {@code student}, and the points column {@code points}, {@code grade} or {@code score}.
+ * The delimiter (comma, semicolon, tab or whitespace) is taken from the first line. Quoted fields must not
+ * span lines. When a student appears twice, the last line wins.
+ */
+@Service
+public class GradeCsvImportService {
+
+    static final int MAX_REPORTED_ERRORS = 1000;
+
+    private static final Set<String> ID_HEADERS = Set.of("id", "studentid", "student_id");
+    private static final Set<String> USERNAME_HEADERS = Set.of("username", "user");
+    private static final Set<String> EMAIL_HEADERS = Set.of("email", "e-mail");
+    private static final Set<String> POINTS_HEADERS = Set.of("points", "grade", "gradepoints", "grade_points", "score");
+
+    private enum Identity { ID, USERNAME, EMAIL, AUTO }
+
+    private record Columns(int student, Identity identity, int points) {
+        static final Columns DEFAULT = new Columns(0, Identity.AUTO, 1);
+    }
+
+    private record PendingLine(long line, String value, Identity identity, int points) {
+    }
+
+    private final GradeImportJdbcRepository gradeImportJdbcRepository;
+    private final AssignmentRepository assignmentRepository;
+    private final GradeDistributionCache gradeDistributionCache;
+    private final JsonMapper jsonMapper;
+    private final int chunkSize;
+
+    public GradeCsvImportService(GradeImportJdbcRepository gradeImportJdbcRepository,
+                                 AssignmentRepository assignmentRepository,
+                                 GradeDistributionCache gradeDistributionCache,
+                                 JsonMapper jsonMapper,
+                                 @Value("${app.grading.csv-import.chunk-size:1000}") int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("app.grading.csv-import.chunk-size must be at least 1");
+        }
+        this.gradeImportJdbcRepository = gradeImportJdbcRepository;
+        this.assignmentRepository = assignmentRepository;
+        this.gradeDistributionCache = gradeDistributionCache;
+        this.jsonMapper = jsonMapper;
+        this.chunkSize = chunkSize;
+    }
+
+    public void checkAssignment(long assignmentId) {
+        if (!assignmentRepository.existsById(assignmentId)) {
+            throw new IllegalArgumentException("Assignment not found: " + assignmentId);
+        }
+    }
+
+    /**
+     * Imports the CSV, reporting progress after every committed chunk. A failure leaves earlier chunks committed.
+     *
+     * @param upsert also create submissions for enrolled students who never submitted
+     */
+    public GradeCsvImportReport importGrades(long assignmentId, Reader csv, long graderUserId, boolean upsert,
+                                             Consumer<GradeCsvImportReport.Progress> progress) {
+        checkAssignment(assignmentId);
+        ImportRun run = new ImportRun(assignmentId, graderUserId, upsert);
+        try (BufferedReader reader = new BufferedReader(csv)) {
+            Columns columns = null;
+            String delimiter = null;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                run.linesRead++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                List<String> fields;
+                if (columns == null) {
+                    delimiter = delimiterOf(line);
+                    fields = split(line, delimiter);
+                    columns = columnsFromHeader(fields);
+                    if (columns != null) {
+                        continue;
+                    }
+                    columns = Columns.DEFAULT;
+                } else {
+                    fields = split(line, delimiter);
+                }
+                run.add(fields, columns);
+                if (run.pending.size() >= chunkSize) {
+                    run.flush();
+                    progress.accept(run.progress());
+                }
+            }
+            run.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read grade CSV", e);
+        } finally {
+            gradeDistributionCache.invalidate(assignmentId);
+        }
+        return run.report();
+    }
+
+    /**
+     * Runs {@link #importGrades} and writes one NDJSON progress object per chunk followed by the report, or by
+     * an {@code error} object when the CSV cannot be read.
+     */
+    public void importGradesAsNdjson(long assignmentId, Reader csv, long graderUserId, boolean upsert, OutputStream out) {
+        GradeCsvImportReport report;
+        try {
+            report = importGrades(assignmentId, csv, graderUserId, upsert, progress -> writeLine(out, progress));
+        } catch (IllegalArgumentException e) {
+            writeLine(out, Map.of("error", e.getMessage()));
+            return;
+        }
+        writeLine(out, report);
+    }
+
+    private void writeLine(OutputStream out, Object value) {
+        try {
+            out.write(jsonMapper.writeValueAsBytes(value));
+            out.write('\n');
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write import progress", e);
+        }
+    }
+
+    private final class ImportRun {
+        private final long assignmentId;
+        private final long graderUserId;
+        private final boolean upsert;
+        private final List<PendingLine> pending = new ArrayList<>();
+        private final List<GradeCsvImportReport.LineError> errors = new ArrayList<>();
+        private long linesRead;
+        private int updated;
+        private int created;
+        private int rejected;
+
+        ImportRun(long assignmentId, long graderUserId, boolean upsert) {
+            this.assignmentId = assignmentId;
+            this.graderUserId = graderUserId;
+            this.upsert = upsert;
+        }
+
+        void add(List<String> fields, Columns columns) {
+            if (fields.size() <= Math.max(columns.student(), columns.points())) {
+                reject(linesRead, String.join(",", fields), GradeCsvImportReport.Reason.MISSING_COLUMN);
+                return;
+            }
+            String value = fields.get(columns.student());
+            Integer points = parsePoints(fields.get(columns.points()));
+            if (points == null) {
+                reject(linesRead, value, GradeCsvImportReport.Reason.INVALID_POINTS);
+                return;
+            }
+            Identity identity = columns.identity();
+            if (identity == Identity.AUTO) {
+                identity = !value.isEmpty() && value.chars().allMatch(Character::isDigit) ? Identity.ID
+                        : value.indexOf('@') >= 0 ? Identity.EMAIL
+                        : Identity.USERNAME;
+            }
+            pending.add(new PendingLine(linesRead, value, identity, points));
+        }
+
+        void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            List<String> usernames = new ArrayList<>();
+            List<String> emails = new ArrayList<>();
+            for (PendingLine line : pending) {
+                if (line.identity() == Identity.USERNAME) {
+                    usernames.add(line.value());
+                } else if (line.identity() == Identity.EMAIL) {
+                    emails.add(line.value());
+                }
+            }
+            Map<String, Long> byUsername = usernames.isEmpty() ? Map.of() : gradeImportJdbcRepository.findUserIdsByUsernames(usernames);
+            Map<String, Long> byEmail = emails.isEmpty() ? Map.of() : gradeImportJdbcRepository.findUserIdsByEmails(emails);
+
+            List<GradeImportRow> rows = new ArrayList<>(pending.size());
+            List<PendingLine> resolved = new ArrayList<>(pending.size());
+            for (PendingLine line : pending) {
+                Long studentId = switch (line.identity()) {
+                    case USERNAME -> byUsername.get(line.value());
+                    case EMAIL -> byEmail.get(line.value());
+                    default -> parseId(line.value());
+                };
+                if (studentId == null) {
+                    reject(line, GradeCsvImportReport.Reason.UNKNOWN_STUDENT);
+                } else {
+                    rows.add(new GradeImportRow(assignmentId, studentId, line.points()));
+                    resolved.add(line);
+                }
+            }
+            pending.clear();
+            if (rows.isEmpty()) {
+                return;
+            }
+
+            GradeImportResult result = upsert
+                    ? gradeImportJdbcRepository.upsertGradesViaStaging(rows, graderUserId, Instant.now())
+                    : gradeImportJdbcRepository.importGradesViaStaging(rows, graderUserId, Instant.now());
+            for (int i = 0; i < resolved.size(); i++) {
+                GradeImportOutcome outcome = result.outcomes().get(i);
+                switch (outcome) {
+                    case UPDATED -> updated++;
+                    case CREATED -> created++;
+                    case NO_SUBMISSION -> reject(resolved.get(i), GradeCsvImportReport.Reason.NO_SUBMISSION);
+                    case NOT_ENROLLED -> reject(resolved.get(i), GradeCsvImportReport.Reason.NOT_ENROLLED);
+                    case OUT_OF_RANGE -> reject(resolved.get(i), GradeCsvImportReport.Reason.OUT_OF_RANGE);
+                    case SUPERSEDED -> reject(resolved.get(i), GradeCsvImportReport.Reason.DUPLICATE);
+                }
+            }
+        }
+
+        private void reject(PendingLine line, GradeCsvImportReport.Reason reason) {
+            reject(line.line(), line.value(), reason);
+        }
+
+        private void reject(long line, String value, GradeCsvImportReport.Reason reason) {
+            rejected++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new GradeCsvImportReport.LineError(line, value, reason));
+            }
+        }
+
+        GradeCsvImportReport.Progress progress() {
+            return new GradeCsvImportReport.Progress(linesRead, updated, created, rejected);
+        }
+
+        GradeCsvImportReport report() {
+            return new GradeCsvImportReport(linesRead, updated, created, rejected, List.copyOf(errors), rejected > errors.size());
+        }
+    }
+
+    private static Integer parsePoints(String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Long parseId(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // A line with a field that parses as points is data, even if another field happens to match a column name,
+    // e.g. a student whose username is "student".
+    private static Columns columnsFromHeader(List<String> fields) {
+        for (String field : fields) {
+            if (parsePoints(field) != null) {
+                return null;
+            }
+        }
+        int student = -1;
+        Identity identity = null;
+        int points = -1;
+        for (int i = 0; i < fields.size(); i++) {
+            String name = fields.get(i).toLowerCase(Locale.ROOT);
+            if (student < 0) {
+                if (ID_HEADERS.contains(name)) {
+                    identity = Identity.ID;
+                } else if (USERNAME_HEADERS.contains(name)) {
+                    identity = Identity.USERNAME;
+                } else if (EMAIL_HEADERS.contains(name)) {
+                    identity = Identity.EMAIL;
+                } else if (name.equals("student")) {
+                    identity = Identity.AUTO;
+                }
+                if (identity != null) {
+                    student = i;
+                }
+            }
+            if (points < 0 && POINTS_HEADERS.contains(name)) {
+                points = i;
+            }
+        }
+        if (student < 0) {
+            return null;
+        }
+        if (points < 0) {
+            throw new IllegalArgumentException("CSV header has no points column");
+        }
+        return new Columns(student, identity, points);
+    }
+
+    private static String delimiterOf(String line) {
+        if (line.indexOf('\t') >= 0) {
+            return "\t";
+        }
+        if (line.indexOf(';') >= 0 && line.indexOf(',') < 0) {
+            return ";";
+        }
+        if (line.indexOf(',') < 0 && line.strip().indexOf(' ') >= 0) {
+            return " ";
+        }
+        return ",";
+    }
+
+    // Splits one CSV line, honouring double-quoted fields; fields are trimmed.
+    static List<String> split(String line, String delimiter) {
+        if (delimiter.equals(" ")) {
+            return List.of(line.strip().split("\\s+"));
+        }
+        char separator = delimiter.charAt(0);
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == separator) {
+                fields.add(field.toString().trim());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString().trim());
+        return fields;
+    }
+}
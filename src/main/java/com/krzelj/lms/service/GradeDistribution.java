@@ -0,0 +1,139 @@
+package com.krzelj.lms.service;
+
+import com.krzelj.lms.repository.jdbc.dto.GradeCount;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Immutable exact histogram of one assignment's grades with one bucket per point value. A prefix-sum array is
+ * built on construction so percentiles are a binary search; changes produce a new instance.
+ */
+public final class GradeDistribution {
+
+    public record Bucket(int lowerBound, int upperBound, int count) {
+    }
+
+    private final long assignmentId;
+    private final int maxPoints;
+    private final int low;
+    private final int[] counts;
+    private final int[] cumulative;
+    private final long sum;
+
+    private GradeDistribution(long assignmentId, int maxPoints, int low, int[] counts) {
+        this.assignmentId = assignmentId;
+        this.maxPoints = maxPoints;
+        this.low = low;
+        this.counts = counts;
+        this.cumulative = new int[counts.length];
+        long total = 0;
+        int running = 0;
+        for (int i = 0; i < counts.length; i++) {
+            running += counts[i];
+            cumulative[i] = running;
+            total += (long) counts[i] * (low + i);
+        }
+        this.sum = total;
+    }
+
+    public static GradeDistribution of(long assignmentId, int maxPoints, List<GradeCount> gradeCounts) {
+        int low = 0;
+        int high = Math.max(maxPoints, 0);
+        for (GradeCount gradeCount : gradeCounts) {
+            low = Math.min(low, gradeCount.gradePoints());
+            high = Math.max(high, gradeCount.gradePoints());
+        }
+        int[] counts = new int[high - low + 1];
+        for (GradeCount gradeCount : gradeCounts) {
+            counts[gradeCount.gradePoints() - low] += gradeCount.count();
+        }
+        return new GradeDistribution(assignmentId, maxPoints, low, counts);
+    }
+
+    public long assignmentId() {
+        return assignmentId;
+    }
+
+    public int maxPoints() {
+        return maxPoints;
+    }
+
+    public int gradedCount() {
+        return cumulative[cumulative.length - 1];
+    }
+
+    /**
+     * @return mean grade, or {@code NaN} if nothing is graded
+     */
+    public double mean() {
+        int graded = gradedCount();
+        return graded == 0 ? Double.NaN : (double) sum / graded;
+    }
+
+    /**
+     * Nearest-rank percentile.
+     *
+     * @param percentile in {@code [0, 100]}
+     * @return the grade at that percentile, or {@code null} if nothing is graded
+     */
+    public Integer percentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile out of range: " + percentile);
+        }
+        int graded = gradedCount();
+        if (graded == 0) {
+            return null;
+        }
+        int rank = Math.max(1, (int) Math.ceil(percentile / 100.0 * graded));
+        int from = 0;
+        int to = cumulative.length - 1;
+        while (from < to) {
+            int mid = (from + to) >>> 1;
+            if (cumulative[mid] < rank) {
+                from = mid + 1;
+            } else {
+                to = mid;
+            }
+        }
+        return low + from;
+    }
+
+    public Integer min() {
+        return percentile(0);
+    }
+
+    public Integer max() {
+        return percentile(100);
+    }
+
+    /**
+     * Groups grades into {@code bucketCount} equal-width buckets over {@code [0, maxPoints]}; grades outside that
+     * range are counted in the first or last bucket.
+     */
+    public List<Bucket> histogram(int bucketCount) {
+        int span = Math.max(maxPoints, 0) + 1;
+        if (bucketCount < 1 || bucketCount > span) {
+            throw new IllegalArgumentException("Bucket count must be between 1 and " + span + ": " + bucketCount);
+        }
+        List<Bucket> buckets = new ArrayList<>(bucketCount);
+        for (int bucket = 0; bucket < bucketCount; bucket++) {
+            int lower = (int) ((long) span * bucket / bucketCount);
+            int upper = (int) ((long) span * (bucket + 1) / bucketCount) - 1;
+            int from = bucket == 0 ? low : lower;
+            int to = bucket == bucketCount - 1 ? high() : upper;
+            buckets.add(new Bucket(lower, upper, countBetween(from, to)));
+        }
+        return buckets;
+    }
+
+    private int countBetween(int from, int to) {
+        int upperIndex = to - low;
+        int lowerIndex = from - low;
+        return cumulative[upperIndex] - (lowerIndex == 0 ? 0 : cumulative[lowerIndex - 1]);
+    }
+
+    private int high() {
+        return low + counts.length - 1;
+    }
+}
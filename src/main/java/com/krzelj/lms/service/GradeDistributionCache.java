@@ -0,0 +1,60 @@
+package com.krzelj.lms.service;
+
+import com.krzelj.lms.repository.jdbc.ReportingJdbcRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Per-assignment grade distributions, loaded lazily from the database. Every grade write evicts after commit so the
+// next read reloads; applying deltas instead would double-count a change that a concurrent load had already read.
+// A load that overlapped an eviction is returned to its caller but not cached, since it may predate the change.
+@Component
+public class GradeDistributionCache {
+
+    private final ReportingJdbcRepository reportingJdbcRepository;
+    private final ConcurrentMap<Long, GradeDistribution> distributions = new ConcurrentHashMap<>();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public GradeDistributionCache(ReportingJdbcRepository reportingJdbcRepository) {
+        this.reportingJdbcRepository = reportingJdbcRepository;
+    }
+
+    public GradeDistribution get(long assignmentId) {
+        GradeDistribution cached = distributions.get(assignmentId);
+        if (cached != null) {
+            return cached;
+        }
+        long generation = evictions.get();
+        GradeDistribution loaded = load(assignmentId);
+        GradeDistribution current = distributions.putIfAbsent(assignmentId, loaded);
+        if (current != null) {
+            return current;
+        }
+        if (evictions.get() != generation) {
+            distributions.remove(assignmentId, loaded);
+        }
+        return loaded;
+    }
+
+    public void invalidate(long assignmentId) {
+        AfterCommit.run(() -> evict(assignmentId));
+    }
+
+    public void invalidateAll(Collection<Long> assignmentIds) {
+        AfterCommit.run(() -> assignmentIds.forEach(this::evict));
+    }
+
+    private void evict(long assignmentId) {
+        evictions.incrementAndGet();
+        distributions.remove(assignmentId);
+    }
+
+    private GradeDistribution load(long assignmentId) {
+        int maxPoints = reportingJdbcRepository.findAssignmentMaxPoints(assignmentId)
+                .orElseThrow(() -> new IllegalArgumentException("Assignment not found: " + assignmentId));
+        return GradeDistribution.of(assignmentId, maxPoints, reportingJdbcRepository.findGradeCountsForAssignment(assignmentId));
+    }
+}
@@ -0,0 +1,186 @@
+package com.krzelj.lms.service;
+
+import com.krzelj.lms.repository.jdbc.dto.GradebookAssignment;
+import com.krzelj.lms.repository.jdbc.dto.GradebookStudent;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Dense student-by-assignment grade matrix for one course. Grades are stored row-major in a single {@code int[]}
+ * with {@link #MISSING} marking cells that have no graded submission; row and column aggregates are computed
+ * once when the matrix is sealed.
+ */
+public final class GradebookMatrix {
+
+    public static final int MISSING = Integer.MIN_VALUE;
+
+    private final long courseId;
+    private final long[] studentIds;
+    private final String[] studentNames;
+    private final long[] assignmentIds;
+    private final String[] assignmentTitles;
+    private final int[] maxPoints;
+    private final int[] grades;
+    private final LongIntIndex studentIndex;
+    private final LongIntIndex assignmentIndex;
+
+    private final int[] rowGraded;
+    private final long[] rowTotal;
+    private final long[] rowPossible;
+    private final int[] columnGraded;
+    private final long[] columnTotal;
+    private final int[] columnMin;
+    private final int[] columnMax;
+
+    public GradebookMatrix(long courseId, List<GradebookStudent> students, List<GradebookAssignment> assignments) {
+        this.courseId = courseId;
+        int rows = students.size();
+        int columns = assignments.size();
+
+        studentIds = new long[rows];
+        studentNames = new String[rows];
+        for (int i = 0; i < rows; i++) {
+            studentIds[i] = students.get(i).id();
+            studentNames[i] = students.get(i).username();
+        }
+        assignmentIds = new long[columns];
+        assignmentTitles = new String[columns];
+        maxPoints = new int[columns];
+        for (int j = 0; j < columns; j++) {
+            assignmentIds[j] = assignments.get(j).id();
+            assignmentTitles[j] = assignments.get(j).title();
+            maxPoints[j] = assignments.get(j).maxPoints();
+        }
+
+        studentIndex = new LongIntIndex(studentIds);
+        assignmentIndex = new LongIntIndex(assignmentIds);
+        grades = new int[Math.multiplyExact(rows, columns)];
+        Arrays.fill(grades, MISSING);
+
+        rowGraded = new int[rows];
+        rowTotal = new long[rows];
+        rowPossible = new long[rows];
+        columnGraded = new int[columns];
+        columnTotal = new long[columns];
+        columnMin = new int[columns];
+        columnMax = new int[columns];
+    }
+
+    /**
+     * Stores a grade; cells for students or assignments outside the axes (e.g. unenrolled students) are ignored.
+     */
+    public void put(long studentId, long assignmentId, int gradePoints) {
+        int row = studentIndex.indexOf(studentId);
+        int column = assignmentIndex.indexOf(assignmentId);
+        if (row != LongIntIndex.ABSENT && column != LongIntIndex.ABSENT) {
+            grades[row * assignmentIds.length + column] = gradePoints;
+        }
+    }
+
+    GradebookMatrix seal() {
+        Arrays.fill(columnMin, Integer.MAX_VALUE);
+        Arrays.fill(columnMax, Integer.MIN_VALUE);
+        int columns = assignmentIds.length;
+        for (int row = 0; row < studentIds.length; row++) {
+            int offset = row * columns;
+            for (int column = 0; column < columns; column++) {
+                int grade = grades[offset + column];
+                if (grade == MISSING) {
+                    continue;
+                }
+                rowGraded[row]++;
+                rowTotal[row] += grade;
+                rowPossible[row] += maxPoints[column];
+                columnGraded[column]++;
+                columnTotal[column] += grade;
+                columnMin[column] = Math.min(columnMin[column], grade);
+                columnMax[column] = Math.max(columnMax[column], grade);
+            }
+        }
+        return this;
+    }
+
+    public long courseId() {
+        return courseId;
+    }
+
+    public int studentCount() {
+        return studentIds.length;
+    }
+
+    public int assignmentCount() {
+        return assignmentIds.length;
+    }
+
+    public long studentId(int row) {
+        return studentIds[row];
+    }
+
+    public String studentName(int row) {
+        return studentNames[row];
+    }
+
+    public long assignmentId(int column) {
+        return assignmentIds[column];
+    }
+
+    public String assignmentTitle(int column) {
+        return assignmentTitles[column];
+    }
+
+    public int maxPoints(int column) {
+        return maxPoints[column];
+    }
+
+    /**
+     * @return the grade, or {@link #MISSING}
+     */
+    public int grade(int row, int column) {
+        return grades[row * assignmentIds.length + column];
+    }
+
+    public int gradedCount(int row) {
+        return rowGraded[row];
+    }
+
+    public long totalPoints(int row) {
+        return rowTotal[row];
+    }
+
+    public long possiblePoints(int row) {
+        return rowPossible[row];
+    }
+
+    /**
+     * @return total over possible points of graded work as a percentage, or {@code NaN} if nothing is graded
+     */
+    public double percent(int row) {
+        return rowPossible[row] == 0 ? Double.NaN : 100.0 * rowTotal[row] / rowPossible[row];
+    }
+
+    public int columnGradedCount(int column) {
+        return columnGraded[column];
+    }
+
+    /**
+     * @return average grade of the column, or {@code NaN} if nothing is graded
+     */
+    public double columnAverage(int column) {
+        return columnGraded[column] == 0 ? Double.NaN : (double) columnTotal[column] / columnGraded[column];
+    }
+
+    /**
+     * @return lowest grade of the column, or {@link #MISSING}
+     */
+    public int columnMin(int column) {
+        return columnGraded[column] == 0 ? MISSING : columnMin[column];
+    }
+
+    /**
+     * @return highest grade of the column, or {@link #MISSING}
+     */
+    public int columnMax(int column) {
+        return columnGraded[column] == 0 ? MISSING : columnMax[column];
+    }
+}
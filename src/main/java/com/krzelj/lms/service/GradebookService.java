@@ -0,0 +1,156 @@
+package com.krzelj.lms.service;
+
+import com.krzelj.lms.repository.jdbc.ReportingJdbcRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.function.IntFunction;
+
+@Service
+public class GradebookService {
+
+    private final ReportingJdbcRepository reportingJdbcRepository;
+    private final JsonMapper jsonMapper;
+
+    public GradebookService(ReportingJdbcRepository reportingJdbcRepository, JsonMapper jsonMapper) {
+        this.reportingJdbcRepository = reportingJdbcRepository;
+        this.jsonMapper = jsonMapper;
+    }
+
+    @Transactional(readOnly = true)
+    public GradebookMatrix build(long courseId) {
+        GradebookMatrix matrix = new GradebookMatrix(courseId,
+                reportingJdbcRepository.findGradebookStudents(courseId),
+                reportingJdbcRepository.findGradebookAssignments(courseId));
+        reportingJdbcRepository.forEachGradeInCourse(courseId, matrix::put);
+        return matrix.seal();
+    }
+
+    public void writeJson(GradebookMatrix matrix, OutputStream out) {
+        try (JsonGenerator json = jsonMapper.createGenerator(out)) {
+            json.writeStartObject();
+            json.writeNumberProperty("courseId", matrix.courseId());
+
+            json.writeName("assignments");
+            json.writeStartArray();
+            for (int column = 0; column < matrix.assignmentCount(); column++) {
+                json.writeStartObject();
+                json.writeNumberProperty("id", matrix.assignmentId(column));
+                json.writeStringProperty("title", matrix.assignmentTitle(column));
+                json.writeNumberProperty("maxPoints", matrix.maxPoints(column));
+                json.writeNumberProperty("graded", matrix.columnGradedCount(column));
+                writeDecimal(json, "average", matrix.columnAverage(column));
+                writeGrade(json, "min", matrix.columnMin(column));
+                writeGrade(json, "max", matrix.columnMax(column));
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+
+            json.writeName("students");
+            json.writeStartArray();
+            for (int row = 0; row < matrix.studentCount(); row++) {
+                json.writeStartObject();
+                json.writeNumberProperty("id", matrix.studentId(row));
+                json.writeStringProperty("username", matrix.studentName(row));
+                json.writeName("grades");
+                json.writeStartArray();
+                for (int column = 0; column < matrix.assignmentCount(); column++) {
+                    int grade = matrix.grade(row, column);
+                    if (grade == GradebookMatrix.MISSING) {
+                        json.writeNull();
+                    } else {
+                        json.writeNumber(grade);
+                    }
+                }
+                json.writeEndArray();
+                json.writeNumberProperty("graded", matrix.gradedCount(row));
+                json.writeNumberProperty("totalPoints", matrix.totalPoints(row));
+                json.writeNumberProperty("possiblePoints", matrix.possiblePoints(row));
+                writeDecimal(json, "percent", matrix.percent(row));
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+
+            json.writeEndObject();
+        }
+    }
+
+    public void writeCsv(GradebookMatrix matrix, OutputStream out) {
+        int columns = matrix.assignmentCount();
+        try {
+            Writer csv = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), ExportService.BUFFER_SIZE);
+            csv.write("studentId,studentName");
+            for (int column = 0; column < columns; column++) {
+                csv.write(',');
+                csv.write(ExportService.csvField(matrix.assignmentTitle(column)));
+            }
+            csv.write(",graded,totalPoints,possiblePoints,percent\r\n");
+
+            for (int row = 0; row < matrix.studentCount(); row++) {
+                csv.write(Long.toString(matrix.studentId(row)));
+                csv.write(',');
+                csv.write(ExportService.csvField(matrix.studentName(row)));
+                for (int column = 0; column < columns; column++) {
+                    csv.write(',');
+                    csv.write(grade(matrix.grade(row, column)));
+                }
+                csv.write(',' + Integer.toString(matrix.gradedCount(row))
+                        + ',' + matrix.totalPoints(row)
+                        + ',' + matrix.possiblePoints(row)
+                        + ',' + decimal(matrix.percent(row)) + "\r\n");
+            }
+
+            writeCsvAggregate(csv, "maxPoints", columns, column -> Integer.toString(matrix.maxPoints(column)));
+            writeCsvAggregate(csv, "graded", columns, column -> Integer.toString(matrix.columnGradedCount(column)));
+            writeCsvAggregate(csv, "average", columns, column -> decimal(matrix.columnAverage(column)));
+            writeCsvAggregate(csv, "min", columns, column -> grade(matrix.columnMin(column)));
+            writeCsvAggregate(csv, "max", columns, column -> grade(matrix.columnMax(column)));
+            csv.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write gradebook", e);
+        }
+    }
+
+    private static void writeCsvAggregate(Writer csv, String label, int columns, IntFunction<String> value) throws IOException {
+        csv.write(',');
+        csv.write(label);
+        for (int column = 0; column < columns; column++) {
+            csv.write(',');
+            csv.write(value.apply(column));
+        }
+        csv.write(",,,,\r\n");
+    }
+
+    private static void writeGrade(JsonGenerator json, String name, int grade) {
+        if (grade == GradebookMatrix.MISSING) {
+            json.writeNullProperty(name);
+        } else {
+            json.writeNumberProperty(name, grade);
+        }
+    }
+
+    private static void writeDecimal(JsonGenerator json, String name, double value) {
+        if (Double.isNaN(value)) {
+            json.writeNullProperty(name);
+        } else {
+            json.writeNumberProperty(name, Math.round(value * 100) / 100.0);
+        }
+    }
+
+    private static String grade(int grade) {
+        return grade == GradebookMatrix.MISSING ? "" : Integer.toString(grade);
+    }
+
+    private static String decimal(double value) {
+        return Double.isNaN(value) ? "" : Double.toString(Math.round(value * 100) / 100.0);
+    }
+}
@@ -0,0 +1,163 @@
+package com.krzelj.lms.service;
+
+import com.krzelj.lms.repository.jdbc.ReportingJdbcRepository;
+import com.krzelj.lms.repository.jdbc.dto.AssignmentGradeReportRow;
+import com.krzelj.lms.repository.jdbc.dto.CourseIdRange;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Grade report across all courses (or a subset). The course id space is split into contiguous partitions that are
+ * queried in parallel on a dedicated pool; its size is the report's connection budget, so a large report cannot
+ * drain the shared datasource. Partitions are written in course id order as soon as each one completes.
+ */
+@Service
+public class InstitutionReportService {
+
+    static final int MAX_PARTITIONS = 64;
+
+    public record Partition(int index, long fromCourseId, long toCourseId, List<Long> courseIds) {
+    }
+
+    private record PartitionResult(Partition partition, List<AssignmentGradeReportRow> rows, long nanos) {
+    }
+
+    private final ReportingJdbcRepository reportingJdbcRepository;
+    private final JsonMapper jsonMapper;
+    private final int defaultPartitions;
+    private final ExecutorService executor;
+
+    public InstitutionReportService(ReportingJdbcRepository reportingJdbcRepository,
+                                    JsonMapper jsonMapper,
+                                    @Value("${app.reporting.partitions:8}") int defaultPartitions,
+                                    @Value("${app.reporting.max-concurrent-queries:4}") int maxConcurrentQueries) {
+        this.reportingJdbcRepository = reportingJdbcRepository;
+        this.jsonMapper = jsonMapper;
+        this.defaultPartitions = defaultPartitions;
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("grade-report-");
+        threadFactory.setDaemon(true);
+        this.executor = Executors.newFixedThreadPool(maxConcurrentQueries, threadFactory);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * @param courseIds courses to include, or {@code null}/empty for every course
+     * @param partitions requested partition count, or {@code null} for the configured default
+     */
+    public List<Partition> plan(Collection<Long> courseIds, Integer partitions) {
+        int requested = partitions == null ? defaultPartitions : partitions;
+        if (requested < 1 || requested > MAX_PARTITIONS) {
+            throw new IllegalArgumentException("Partitions must be between 1 and " + MAX_PARTITIONS + ": " + requested);
+        }
+
+        List<Partition> plan = new ArrayList<>();
+        if (courseIds == null || courseIds.isEmpty()) {
+            CourseIdRange range = reportingJdbcRepository.findCourseIdRange().orElse(null);
+            if (range == null) {
+                return plan;
+            }
+            long span = range.toId() - range.fromId() + 1;
+            int count = (int) Math.min(requested, span);
+            for (int i = 0; i < count; i++) {
+                long from = range.fromId() + offset(span, count, i);
+                long to = range.fromId() + offset(span, count, i + 1) - 1;
+                plan.add(new Partition(i, from, to, null));
+            }
+            return plan;
+        }
+
+        List<Long> sorted = courseIds.stream().distinct().sorted().toList();
+        int count = Math.min(requested, sorted.size());
+        for (int i = 0; i < count; i++) {
+            List<Long> ids = sorted.subList((int) offset(sorted.size(), count, i), (int) offset(sorted.size(), count, i + 1));
+            plan.add(new Partition(i, ids.get(0), ids.get(ids.size() - 1), ids));
+        }
+        return plan;
+    }
+
+    public void writeReport(List<Partition> plan, OutputStream out) {
+        long started = System.nanoTime();
+        List<CompletableFuture<PartitionResult>> futures = plan.stream()
+                .map(partition -> CompletableFuture.supplyAsync(() -> run(partition), executor))
+                .toList();
+        try (JsonGenerator json = jsonMapper.createGenerator(out)) {
+            json.writeStartObject();
+            json.writeName("assignments");
+            json.writeStartArray();
+            List<PartitionResult> results = new ArrayList<>(futures.size());
+            for (CompletableFuture<PartitionResult> future : futures) {
+                PartitionResult result = await(future);
+                for (AssignmentGradeReportRow row : result.rows()) {
+                    json.writePOJO(row);
+                }
+                json.flush();
+                results.add(result);
+            }
+            json.writeEndArray();
+
+            json.writeName("partitions");
+            json.writeStartArray();
+            for (PartitionResult result : results) {
+                Partition partition = result.partition();
+                json.writeStartObject();
+                json.writeNumberProperty("index", partition.index());
+                json.writeNumberProperty("fromCourseId", partition.fromCourseId());
+                json.writeNumberProperty("toCourseId", partition.toCourseId());
+                json.writeNumberProperty("assignments", result.rows().size());
+                json.writeNumberProperty("millis", millis(result.nanos()));
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+            json.writeNumberProperty("elapsedMillis", millis(System.nanoTime() - started));
+            json.writeEndObject();
+        } catch (RuntimeException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw e;
+        }
+    }
+
+    private PartitionResult run(Partition partition) {
+        long started = System.nanoTime();
+        List<AssignmentGradeReportRow> rows = partition.courseIds() == null
+                ? reportingJdbcRepository.assignmentGradeReportForCourseRange(partition.fromCourseId(), partition.toCourseId())
+                : reportingJdbcRepository.assignmentGradeReportForCourses(partition.courseIds());
+        return new PartitionResult(partition, rows, System.nanoTime() - started);
+    }
+
+    // Start of slice i when splitting size items into count slices whose lengths differ by at most one.
+    private static long offset(long size, int count, int i) {
+        return i * (size / count) + Math.min(i, size % count);
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 10_000.0) / 100.0;
+    }
+
+    private static PartitionResult await(CompletableFuture<PartitionResult> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw e;
+        }
+    }
+}
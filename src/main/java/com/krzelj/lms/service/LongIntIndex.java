@@ -0,0 +1,45 @@
+package com.krzelj.lms.service;
+
+import java.util.Arrays;
+
+// Open-addressing long -> int map for id-to-position lookups without boxing. Built once, read-only afterwards.
+final class LongIntIndex {
+
+    static final int ABSENT = -1;
+
+    private final long[] keys;
+    private final int[] values;
+    private final int mask;
+
+    LongIntIndex(long[] ids) {
+        int capacity = Integer.highestOneBit(Math.max(2, ids.length * 2 - 1)) << 1;
+        keys = new long[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        Arrays.fill(values, ABSENT);
+        for (int i = 0; i < ids.length; i++) {
+            int slot = slot(ids[i]);
+            while (values[slot] != ABSENT && keys[slot] != ids[i]) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = ids[i];
+            values[slot] = i;
+        }
+    }
+
+    int indexOf(long id) {
+        int slot = slot(id);
+        while (values[slot] != ABSENT) {
+            if (keys[slot] == id) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return ABSENT;
+    }
+
+    private int slot(long id) {
+        long h = id * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
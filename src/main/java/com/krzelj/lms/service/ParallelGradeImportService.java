@@ -0,0 +1,176 @@
+package com.krzelj.lms.service;
+
+import com.krzelj.lms.repository.jdbc.GradeImportJdbcRepository;
+import com.krzelj.lms.repository.jdbc.GradeStatsJdbcRepository;
+import com.krzelj.lms.repository.jdbc.dto.GradeImportRow;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Bulk grade import split into chunks that a bounded pool commits in independent transactions. Rows are
+ * de-duplicated per submission first (the last row wins), so no two chunks touch the same submission and chunks
+ * cannot block each other; grade statistics are rebuilt once after all chunks finished. Chunks that fail are kept
+ * for {@code app.grading.bulk-import.retry-ttl-minutes} and can be retried without re-running committed ones.
+ * <p>
+ * Parallelism defaults to half of the Hikari pool and is capped so that one connection always stays free for
+ * regular requests.
+ */
+@Service
+public class ParallelGradeImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ParallelGradeImportService.class);
+
+    private record PendingImport(long gradedByUserId, Instant gradedAt, Map<Integer, List<GradeImportRow>> failedChunks,
+                                 Instant expiresAt) {
+    }
+
+    private final GradeImportJdbcRepository gradeImportJdbcRepository;
+    private final GradeStatsJdbcRepository gradeStatsJdbcRepository;
+    private final GradeDistributionCache gradeDistributionCache;
+    private final int chunkSize;
+    private final int parallelism;
+    private final Duration retryTtl;
+    private final ExecutorService executor;
+    private final Map<String, PendingImport> pendingImports = new ConcurrentHashMap<>();
+
+    public ParallelGradeImportService(GradeImportJdbcRepository gradeImportJdbcRepository,
+                                      GradeStatsJdbcRepository gradeStatsJdbcRepository,
+                                      GradeDistributionCache gradeDistributionCache,
+                                      @Value("${app.grading.bulk-import.chunk-size:1000}") int chunkSize,
+                                      @Value("${app.grading.bulk-import.parallelism:0}") int parallelism,
+                                      @Value("${spring.datasource.hikari.maximum-pool-size:10}") int connectionPoolSize,
+                                      @Value("${app.grading.bulk-import.retry-ttl-minutes:30}") long retryTtlMinutes) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("app.grading.bulk-import.chunk-size must be at least 1");
+        }
+        this.gradeImportJdbcRepository = gradeImportJdbcRepository;
+        this.gradeStatsJdbcRepository = gradeStatsJdbcRepository;
+        this.gradeDistributionCache = gradeDistributionCache;
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism(parallelism, connectionPoolSize);
+        this.retryTtl = Duration.ofMinutes(retryTtlMinutes);
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("grade-import-");
+        threadFactory.setDaemon(true);
+        this.executor = Executors.newFixedThreadPool(this.parallelism, threadFactory);
+    }
+
+    static int parallelism(int configured, int connectionPoolSize) {
+        int max = Math.max(1, connectionPoolSize - 1);
+        return configured > 0 ? Math.min(configured, max) : Math.max(1, Math.min(connectionPoolSize / 2, max));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public ChunkedGradeImportResult importGrades(List<GradeImportRow> rows, long gradedByUserId) {
+        purgeExpired();
+        Map<List<Long>, GradeImportRow> lastBySubmission = new LinkedHashMap<>();
+        for (GradeImportRow row : rows) {
+            List<Long> key = List.of(row.assignmentId(), row.studentId());
+            lastBySubmission.remove(key);
+            lastBySubmission.put(key, row);
+        }
+        List<GradeImportRow> distinct = new ArrayList<>(lastBySubmission.values());
+
+        Map<Integer, List<GradeImportRow>> chunks = new LinkedHashMap<>();
+        for (int from = 0, index = 0; from < distinct.size(); from += chunkSize, index++) {
+            chunks.put(index, distinct.subList(from, Math.min(from + chunkSize, distinct.size())));
+        }
+        return run(null, new PendingImport(gradedByUserId, Instant.now(), chunks, null), rows.size(),
+                rows.size() - distinct.size());
+    }
+
+    /**
+     * Re-runs the failed chunks of an earlier import; empty if the import is unknown, expired or already complete.
+     */
+    public Optional<ChunkedGradeImportResult> retryFailedChunks(String importId) {
+        purgeExpired();
+        PendingImport pending = pendingImports.remove(importId);
+        if (pending == null) {
+            return Optional.empty();
+        }
+        int rows = pending.failedChunks().values().stream().mapToInt(List::size).sum();
+        return Optional.of(run(importId, pending, rows, 0));
+    }
+
+    private ChunkedGradeImportResult run(String importId, PendingImport pending, int totalRows, int superseded) {
+        Map<Integer, CompletableFuture<ChunkedGradeImportResult.Chunk>> futures = new LinkedHashMap<>();
+        pending.failedChunks().forEach((index, chunk) -> futures.put(index,
+                CompletableFuture.supplyAsync(() -> applyChunk(index, chunk, pending), executor)));
+
+        List<ChunkedGradeImportResult.Chunk> results = new ArrayList<>(futures.size());
+        Map<Integer, List<GradeImportRow>> failed = new LinkedHashMap<>();
+        Set<Long> assignmentIds = new LinkedHashSet<>();
+        int updated = 0;
+        for (Map.Entry<Integer, CompletableFuture<ChunkedGradeImportResult.Chunk>> entry : futures.entrySet()) {
+            ChunkedGradeImportResult.Chunk result = entry.getValue().join();
+            results.add(result);
+            List<GradeImportRow> chunk = pending.failedChunks().get(entry.getKey());
+            if (result.failed()) {
+                failed.put(entry.getKey(), List.copyOf(chunk));
+            } else {
+                updated += result.updated();
+                chunk.forEach(row -> assignmentIds.add(row.assignmentId()));
+            }
+        }
+
+        if (!assignmentIds.isEmpty()) {
+            gradeDistributionCache.invalidateAll(assignmentIds);
+            // the grades are committed at this point, so a failed rebuild must not hide the chunk outcomes
+            try {
+                gradeStatsJdbcRepository.rebuildForAssignments(assignmentIds.stream().mapToLong(Long::longValue).toArray());
+            } catch (RuntimeException e) {
+                log.error("Rebuilding grade statistics for assignments {} failed after a bulk import", assignmentIds, e);
+            }
+        }
+        String retryId = null;
+        if (!failed.isEmpty()) {
+            retryId = importId != null ? importId : UUID.randomUUID().toString();
+            pendingImports.put(retryId, new PendingImport(pending.gradedByUserId(), pending.gradedAt(), failed,
+                    Instant.now().plus(retryTtl)));
+        }
+        return new ChunkedGradeImportResult(retryId, totalRows, updated, superseded, results);
+    }
+
+    private ChunkedGradeImportResult.Chunk applyChunk(int index, List<GradeImportRow> chunk, PendingImport pending) {
+        try {
+            int[][] counts = gradeImportJdbcRepository.batchUpdateGradesWithoutStats(chunk, pending.gradedByUserId(), pending.gradedAt());
+            int updated = 0;
+            for (int[] batch : counts) {
+                for (int count : batch) {
+                    updated += count;
+                }
+            }
+            return new ChunkedGradeImportResult.Chunk(index, chunk.size(), updated, null);
+        } catch (RuntimeException e) {
+            log.warn("Grade import chunk {} ({} rows) failed", index, chunk.size(), e);
+            return new ChunkedGradeImportResult.Chunk(index, chunk.size(), 0, e.getClass().getSimpleName());
+        }
+    }
+
+    private void purgeExpired() {
+        Instant now = Instant.now();
+        pendingImports.values().removeIf(pending -> pending.expiresAt().isBefore(now));
+    }
+}
@@ -0,0 +1,108 @@
+package com.krzelj.lms.service;
+
+import java.nio.file.Path;
+import java.time.Instant;
+
+public final class ReportJob {
+
+    private final String id;
+    private final String owner;
+    private final ReportJobType type;
+    private final String mediaType;
+    private final String fileName;
+    private final Path file;
+    private final Instant createdAt;
+    private volatile ReportJobStatus status = ReportJobStatus.QUEUED;
+    private volatile Instant startedAt;
+    private volatile Instant completedAt;
+    private volatile long sizeBytes;
+    private volatile String error;
+
+    ReportJob(String id, String owner, ReportJobType type, String mediaType, String fileName, Path file, Instant createdAt) {
+        this.id = id;
+        this.owner = owner;
+        this.type = type;
+        this.mediaType = mediaType;
+        this.fileName = fileName;
+        this.file = file;
+        this.createdAt = createdAt;
+    }
+
+    void started(Instant at) {
+        startedAt = at;
+        status = ReportJobStatus.RUNNING;
+    }
+
+    void completed(Instant at, long size) {
+        sizeBytes = size;
+        completedAt = at;
+        status = ReportJobStatus.COMPLETED;
+    }
+
+    void failed(Instant at, String message) {
+        error = message;
+        completedAt = at;
+        status = ReportJobStatus.FAILED;
+    }
+
+    public boolean isFinished() {
+        return status == ReportJobStatus.COMPLETED || status == ReportJobStatus.FAILED;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * @return username of the principal that submitted the job
+     */
+    public String getOwner() {
+        return owner;
+    }
+
+    public ReportJobType getType() {
+        return type;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    /**
+     * @return gzip-compressed result; only present once the job is {@link ReportJobStatus#COMPLETED}
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public ReportJobStatus getStatus() {
+        return status;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public Instant getCompletedAt() {
+        return completedAt;
+    }
+
+    /**
+     * @return compressed size in bytes
+     */
+    public long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
@@ -0,0 +1,239 @@
+package com.krzelj.lms.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Runs heavy grading reports off the request thread. Jobs execute on a bounded pool and write gzip-compressed
+ * results under {@code app.report-jobs.directory}; finished jobs and their files are purged after the TTL.
+ * Jobs belong to the principal that submitted them: only that user or an admin can see or download one, and only
+ * the same user's identical request that is still queued or running is answered with the existing job.
+ */
+@Service
+public class ReportJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReportJobService.class);
+
+    private record JobKey(String owner, ReportJobType type, Long courseId, List<Long> courseIds, Integer partitions, String format) {
+    }
+
+    private record Output(String mediaType, String fileName, Consumer<OutputStream> writer) {
+    }
+
+    private final InstitutionReportService institutionReportService;
+    private final GradebookService gradebookService;
+    private final ExportService exportService;
+    private final Path directory;
+    private final Duration ttl;
+    private final ThreadPoolExecutor executor;
+    private final ConcurrentMap<String, ReportJob> jobs = new ConcurrentHashMap<>();
+    private final ConcurrentMap<JobKey, ReportJob> inFlight = new ConcurrentHashMap<>();
+
+    public ReportJobService(InstitutionReportService institutionReportService,
+                            GradebookService gradebookService,
+                            ExportService exportService,
+                            @Value("${app.report-jobs.directory:${java.io.tmpdir}/lms-report-jobs}") String directory,
+                            @Value("${app.report-jobs.threads:2}") int threads,
+                            @Value("${app.report-jobs.queue-capacity:20}") int queueCapacity,
+                            @Value("${app.report-jobs.ttl-minutes:60}") long ttlMinutes) {
+        this.institutionReportService = institutionReportService;
+        this.gradebookService = gradebookService;
+        this.exportService = exportService;
+        this.directory = Path.of(directory);
+        this.ttl = Duration.ofMinutes(ttlMinutes);
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("report-job-");
+        threadFactory.setDaemon(true);
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory);
+        try {
+            Files.createDirectories(this.directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create report job directory " + directory, e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * @throws IllegalArgumentException if the request is invalid
+     * @throws IllegalStateException if the job queue is full
+     */
+    public ReportJob submit(String owner, ReportJobType type, Long courseId, Collection<Long> courseIds,
+                            Integer partitions, String format) {
+        if (type == null) {
+            throw new IllegalArgumentException("Report type is required");
+        }
+        JobKey key = new JobKey(owner, type, courseId,
+                courseIds == null ? List.of() : courseIds.stream().distinct().sorted().toList(),
+                partitions,
+                format == null ? null : format.toLowerCase(Locale.ROOT));
+        Output output = prepare(key);
+
+        return inFlight.computeIfAbsent(key, k -> {
+            String id = UUID.randomUUID().toString();
+            ReportJob job = new ReportJob(id, owner, type, output.mediaType(), output.fileName(),
+                    directory.resolve(id + ".gz"), Instant.now());
+            try {
+                executor.execute(() -> run(k, job, output));
+            } catch (RejectedExecutionException e) {
+                throw new IllegalStateException("Report job queue is full", e);
+            }
+            jobs.put(id, job);
+            return job;
+        });
+    }
+
+    /**
+     * @return the job if it exists and {@code requester} submitted it or is an admin
+     */
+    public Optional<ReportJob> find(String id, String requester, boolean admin) {
+        return Optional.ofNullable(jobs.get(id))
+                .filter(job -> admin || job.getOwner().equals(requester));
+    }
+
+    /**
+     * Copies a completed job's result, either as stored (gzip) or decompressed.
+     */
+    public void writeResult(ReportJob job, boolean gzip, OutputStream out) {
+        try (InputStream in = gzip ? Files.newInputStream(job.getFile()) : new GZIPInputStream(Files.newInputStream(job.getFile()), ExportService.BUFFER_SIZE)) {
+            in.transferTo(out);
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read report job " + job.getId(), e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.report-jobs.cleanup-fixed-delay-ms:300000}")
+    public void purgeExpired() {
+        Instant cutoff = Instant.now().minus(ttl);
+        jobs.values().removeIf(job -> {
+            if (!job.isFinished() || job.getCompletedAt().isAfter(cutoff)) {
+                return false;
+            }
+            deleteQuietly(job.getFile());
+            return true;
+        });
+        // Files left behind by a previous run have no job entry.
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(file -> !jobs.containsKey(jobId(file)) && lastModifiedBefore(file, cutoff))
+                    .forEach(ReportJobService::deleteQuietly);
+        } catch (IOException e) {
+            log.warn("Failed to list report job directory {}", directory, e);
+        }
+    }
+
+    private Output prepare(JobKey key) {
+        return switch (key.type()) {
+            case INSTITUTION_REPORT -> {
+                List<InstitutionReportService.Partition> plan =
+                        institutionReportService.plan(key.courseIds(), key.partitions());
+                yield new Output("application/json", "institution-grade-report.json",
+                        out -> institutionReportService.writeReport(plan, out));
+            }
+            case GRADEBOOK -> {
+                long courseId = requireCourse(key);
+                boolean csv = "csv".equals(key.format());
+                if (!csv && key.format() != null && !"json".equals(key.format())) {
+                    throw new IllegalArgumentException("Unsupported gradebook format: " + key.format());
+                }
+                yield new Output(csv ? "text/csv" : "application/json",
+                        "course-" + courseId + "-gradebook-matrix." + (csv ? "csv" : "json"),
+                        out -> {
+                            GradebookMatrix matrix = gradebookService.build(courseId);
+                            if (csv) {
+                                gradebookService.writeCsv(matrix, out);
+                            } else {
+                                gradebookService.writeJson(matrix, out);
+                            }
+                        });
+            }
+            case GRADEBOOK_EXPORT -> {
+                long courseId = requireCourse(key);
+                ExportFormat exportFormat = ExportFormat.resolve(key.format(), null);
+                yield new Output(exportFormat.mediaType(), exportFormat.fileName("course-" + courseId + "-gradebook"),
+                        out -> exportService.exportGradebook(courseId, exportFormat, out));
+            }
+        };
+    }
+
+    private void run(JobKey key, ReportJob job, Output output) {
+        Path partial = directory.resolve(job.getId() + ".tmp");
+        job.started(Instant.now());
+        try {
+            try (OutputStream out = new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(partial)), ExportService.BUFFER_SIZE)) {
+                output.writer().accept(out);
+            }
+            Files.move(partial, job.getFile(), StandardCopyOption.REPLACE_EXISTING);
+            job.completed(Instant.now(), Files.size(job.getFile()));
+        } catch (IOException | RuntimeException e) {
+            log.warn("Report job {} ({}) failed", job.getId(), job.getType(), e);
+            deleteQuietly(partial);
+            job.failed(Instant.now(), "Report generation failed");
+        } finally {
+            inFlight.remove(key, job);
+        }
+    }
+
+    private static long requireCourse(JobKey key) {
+        if (key.courseId() == null) {
+            throw new IllegalArgumentException("courseId is required for " + key.type());
+        }
+        return key.courseId();
+    }
+
+    private static String jobId(Path file) {
+        String name = file.getFileName().toString();
+        int dot = name.indexOf('.');
+        return dot < 0 ? name : name.substring(0, dot);
+    }
+
+    private static boolean lastModifiedBefore(Path file, Instant cutoff) {
+        try {
+            return Files.getLastModifiedTime(file).toInstant().isBefore(cutoff);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Failed to delete report job file {}", file, e);
+        }
+    }
+}
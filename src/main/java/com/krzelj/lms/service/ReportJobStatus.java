@@ -0,0 +1,8 @@
+package com.krzelj.lms.service;
+
+public enum ReportJobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,7 @@
+package com.krzelj.lms.service;
+
+public enum ReportJobType {
+    INSTITUTION_REPORT,
+    GRADEBOOK,
+    GRADEBOOK_EXPORT
+}
@@ -0,0 +1,133 @@
+package com.krzelj.lms.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Coalesces identical report computations keyed by (report, parameters): concurrent callers share the in-flight
+// load, and the result is reused for app.reporting.single-flight-ttl-ms after it completes. Failures are not kept.
+// Results are shared between callers and must not be mutated. Callers wait at most app.reporting.single-flight-wait-ms
+// for someone else's load; after that they load on their own and the stuck entry is no longer joined.
+@Component
+public class ReportSingleFlight {
+
+    public record Statistics(long loads, long inFlightHits, long cachedHits, long failures, long timeouts) {
+    }
+
+    private record Key(String report, Object parameters) {
+    }
+
+    private static final class Entry {
+        final CompletableFuture<Object> result = new CompletableFuture<>();
+        final long startedAtNanos = System.nanoTime();
+        volatile long completedAtNanos;
+
+        boolean isFresh(long now, long ttlNanos, long waitNanos) {
+            if (!result.isDone()) {
+                return now - startedAtNanos < waitNanos;
+            }
+            return !result.isCompletedExceptionally() && now - completedAtNanos < ttlNanos;
+        }
+    }
+
+    private static final class Counters {
+        final AtomicLong loads = new AtomicLong();
+        final AtomicLong inFlightHits = new AtomicLong();
+        final AtomicLong cachedHits = new AtomicLong();
+        final AtomicLong failures = new AtomicLong();
+        final AtomicLong timeouts = new AtomicLong();
+    }
+
+    private final long ttlNanos;
+    private final long waitNanos;
+    private final ConcurrentMap<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Counters> counters = new ConcurrentHashMap<>();
+
+    public ReportSingleFlight(@Value("${app.reporting.single-flight-ttl-ms:2000}") long ttlMillis,
+                              @Value("${app.reporting.single-flight-wait-ms:30000}") long waitMillis) {
+        if (waitMillis < 1) {
+            throw new IllegalArgumentException("app.reporting.single-flight-wait-ms must be at least 1");
+        }
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.waitNanos = TimeUnit.MILLISECONDS.toNanos(waitMillis);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(String report, Object parameters, Supplier<T> loader) {
+        Key key = new Key(report, parameters);
+        Counters stats = counters.computeIfAbsent(report, r -> new Counters());
+        Entry fresh = new Entry();
+        Entry entry = entries.compute(key, (k, existing) ->
+                existing != null && existing.isFresh(System.nanoTime(), ttlNanos, waitNanos) ? existing : fresh);
+
+        if (entry != fresh) {
+            (entry.result.isDone() ? stats.cachedHits : stats.inFlightHits).incrementAndGet();
+            long remaining = waitNanos - (System.nanoTime() - entry.startedAtNanos);
+            Optional<Object> shared = await(entry.result, remaining);
+            if (shared.isPresent()) {
+                return (T) shared.get();
+            }
+            stats.timeouts.incrementAndGet();
+        }
+
+        stats.loads.incrementAndGet();
+        purgeExpired();
+        try {
+            T value = loader.get();
+            fresh.completedAtNanos = System.nanoTime();
+            fresh.result.complete(value);
+            return value;
+        } catch (Throwable e) {
+            // Errors must reach the waiters too, otherwise they would block on a future nobody completes.
+            stats.failures.incrementAndGet();
+            entries.remove(key, fresh);
+            fresh.result.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    public Map<String, Statistics> statistics() {
+        Map<String, Statistics> snapshot = new TreeMap<>();
+        counters.forEach((report, stats) -> snapshot.put(report, new Statistics(
+                stats.loads.get(), stats.inFlightHits.get(), stats.cachedHits.get(), stats.failures.get(),
+                stats.timeouts.get())));
+        return snapshot;
+    }
+
+    private void purgeExpired() {
+        long now = System.nanoTime();
+        entries.values().removeIf(entry -> !entry.isFresh(now, ttlNanos, waitNanos));
+    }
+
+    // Empty when the load is still running after the remaining wait.
+    private static Optional<Object> await(CompletableFuture<Object> result, long remainingNanos) {
+        try {
+            return Optional.of(result.get(Math.max(remainingNanos, 0), TimeUnit.NANOSECONDS));
+        } catch (TimeoutException e) {
+            return Optional.empty();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a shared report load", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new CompletionException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.krzelj.lms.service;
+
+import com.krzelj.lms.repository.SparseFieldRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+
+@Service
+@Transactional(readOnly = true)
+public class SparseFieldService {
+
+    private final SparseFieldRepository sparseFieldRepository;
+
+    public SparseFieldService(SparseFieldRepository sparseFieldRepository) {
+        this.sparseFieldRepository = sparseFieldRepository;
+    }
+
+    public List<String> courseFields(String fields) {
+        return SparseFieldRepository.COURSES.parse(fields);
+    }
+
+    public List<String> assignmentFields(String fields) {
+        return SparseFieldRepository.ASSIGNMENTS.parse(fields);
+    }
+
+    public List<String> submissionFields(String fields) {
+        return SparseFieldRepository.SUBMISSIONS.parse(fields);
+    }
+
+    public List<Map<String, Object>> findCatalog(List<String> fields) {
+        return sparseFieldRepository.findCatalogCourses(fields);
+    }
+
+    public List<Map<String, Object>> findCoursesForInstructor(Long instructorId, List<String> fields) {
+        return sparseFieldRepository.findCoursesByInstructorId(instructorId, fields);
+    }
+
+    public List<Map<String, Object>> findCoursesForStudent(Long studentId, List<String> fields) {
+        return sparseFieldRepository.findCoursesForStudent(studentId, fields);
+    }
+
+    public List<Map<String, Object>> findAssignmentsForCourse(Long courseId, List<String> fields) {
+        return sparseFieldRepository.findAssignmentsByCourseId(courseId, fields);
+    }
+
+    public List<Map<String, Object>> findSubmissionsForAssignment(Long assignmentId, List<String> fields) {
+        return sparseFieldRepository.findSubmissionsByAssignmentId(assignmentId, fields);
+    }
+
+    public List<Map<String, Object>> findSubmissionsForStudent(Long studentId, List<String> fields) {
+        return sparseFieldRepository.findSubmissionsByStudentId(studentId, fields);
+    }
+}
@@ -0,0 +1,10 @@
+package com.krzelj.lms.service;
+
+import java.time.Instant;
+
+/**
+ * Acknowledgement of a submission accepted by the write-behind buffer. It is stored in {@code submissions} within
+ * a few milliseconds; {@code late} is judged against {@code acceptedAt}, not against the time it is stored.
+ */
+public record SubmissionReceipt(long assignmentId, long studentId, Instant acceptedAt, boolean late) {
+}
@@ -1,16 +1,22 @@
 package com.krzelj.lms.service;
 
-import com.krzelj.lms.domain.Assignment;
 import com.krzelj.lms.domain.Submission;
 import com.krzelj.lms.domain.User;
 import com.krzelj.lms.repository.AssignmentRepository;
 import com.krzelj.lms.repository.SubmissionRepository;
 import com.krzelj.lms.repository.UserRepository;
+import com.krzelj.lms.repository.jdbc.GradeStatsDelta;
+import com.krzelj.lms.repository.jdbc.GradeStatsJdbcRepository;
+import com.krzelj.lms.repository.jdbc.SubmissionJdbcRepository;
+import com.krzelj.lms.repository.jdbc.dto.SubmissionUpsertResult;
+import jakarta.persistence.EntityManager;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 @Service
@@ -20,13 +26,25 @@ public class SubmissionService {
     private final SubmissionRepository submissionRepository;
     private final AssignmentRepository assignmentRepository;
     private final UserRepository userRepository;
+    private final GradeStatsJdbcRepository gradeStatsJdbcRepository;
+    private final GradeDistributionCache gradeDistributionCache;
+    private final SubmissionJdbcRepository submissionJdbcRepository;
+    private final EntityManager entityManager;
 
     public SubmissionService(SubmissionRepository submissionRepository,
                              AssignmentRepository assignmentRepository,
-                             UserRepository userRepository) {
+                             UserRepository userRepository,
+                             GradeStatsJdbcRepository gradeStatsJdbcRepository,
+                             GradeDistributionCache gradeDistributionCache,
+                             SubmissionJdbcRepository submissionJdbcRepository,
+                             EntityManager entityManager) {
         this.submissionRepository = submissionRepository;
         this.assignmentRepository = assignmentRepository;
         this.userRepository = userRepository;
+        this.gradeStatsJdbcRepository = gradeStatsJdbcRepository;
+        this.gradeDistributionCache = gradeDistributionCache;
+        this.submissionJdbcRepository = submissionJdbcRepository;
+        this.entityManager = entityManager;
     }
 
     @Transactional(readOnly = true)
@@ -35,6 +53,22 @@ public class SubmissionService {
                 .orElseThrow(() -> new IllegalArgumentException("Submission not found: " + id));
     }
 
+    @Transactional(readOnly = true)
+    public Submission getByIdWithDetails(Long id) {
+        return submissionRepository.findByIdWithDetails(id)
+                .orElseThrow(() -> new IllegalArgumentException("Submission not found: " + id));
+    }
+
+    @Transactional(readOnly = true)
+    public BatchResult<Submission> getByIdsWithDetails(Long assignmentId, Collection<Long> ids) {
+        return BatchResult.load(ids, chunk -> submissionRepository.findAllByIdWithDetails(assignmentId, chunk), Submission::getId);
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<Long> findVersion(Long id) {
+        return submissionRepository.findVersionById(id);
+    }
+
     @Transactional(readOnly = true)
     public List<Submission> findForAssignment(Long assignmentId) {
         return submissionRepository.findByAssignmentIdOrderBySubmittedAtAsc(assignmentId);
@@ -56,19 +90,23 @@ public class SubmissionService {
     }
 
     public Submission submitWork(Long assignmentId, Long studentId, String contentText) {
-        Assignment assignment = assignmentRepository.findById(assignmentId)
-                .orElseThrow(() -> new IllegalArgumentException("Assignment not found: " + assignmentId));
-        User student = userRepository.findById(studentId)
-                .orElseThrow(() -> new IllegalArgumentException("Student not found: " + studentId));
-
-        Submission submission = submissionRepository
-                .findByAssignmentIdAndStudentId(assignmentId, studentId)
-                .orElseGet(() -> new Submission(assignment, student));
-
-        submission.setSubmittedAt(Instant.now());
-        submission.setContentText(contentText);
-
-        return submissionRepository.save(submission);
+        SubmissionUpsertResult result = submissionJdbcRepository
+                .upsertSubmission(assignmentId, studentId, contentText, Instant.now())
+                .orElseThrow(() -> assignmentRepository.existsById(assignmentId)
+                        ? new IllegalArgumentException("Student not found: " + studentId)
+                        : new IllegalArgumentException("Assignment not found: " + assignmentId));
+
+        Submission submission = submissionRepository.findByIdWithDetails(result.id())
+                .orElseThrow(() -> new IllegalStateException("Submission vanished after upsert: " + result.id()));
+        if (!Long.valueOf(result.version()).equals(submission.getVersion())) {
+            // the upsert bypassed the persistence context, which may still hold the previous version
+            entityManager.refresh(submission);
+        }
+        // last, so the hot rollup row is locked for as little of the transaction as possible
+        if (result.created()) {
+            gradeStatsJdbcRepository.apply(assignmentId, new GradeStatsDelta().submissionAdded());
+        }
+        return submission;
     }
 
     public Submission gradeSubmission(Long submissionId, Long graderUserId, Integer points) {
@@ -77,11 +115,18 @@ public class SubmissionService {
         User grader = userRepository.findById(graderUserId)
                 .orElseThrow(() -> new IllegalArgumentException("Grader not found: " + graderUserId));
 
+        Integer previousPoints = submission.getGradePoints();
         submission.setGradePoints(points);
         submission.setGradedAt(Instant.now());
         submission.setGradedBy(grader);
 
-        return submissionRepository.save(submission);
+        Submission saved = submissionRepository.saveAndFlush(submission);
+        Long assignmentId = submission.getAssignment().getId();
+        gradeStatsJdbcRepository.apply(assignmentId, new GradeStatsDelta().gradeChanged(previousPoints, points));
+        if (!Objects.equals(previousPoints, points)) {
+            gradeDistributionCache.invalidate(assignmentId);
+        }
+        return saved;
     }
 }
 
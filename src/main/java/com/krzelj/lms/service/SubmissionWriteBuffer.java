@@ -0,0 +1,356 @@
+package com.krzelj.lms.service;
+
+import com.krzelj.lms.domain.Assignment;
+import com.krzelj.lms.domain.Submission;
+import com.krzelj.lms.repository.AssignmentRepository;
+import com.krzelj.lms.repository.jdbc.SubmissionJdbcRepository;
+import com.krzelj.lms.repository.jdbc.dto.BufferedSubmission;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.NonTransientDataAccessException;
+import org.springframework.dao.NonTransientDataAccessResourceException;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind buffer for the submit burst around a deadline. Within {@code window-minutes} of an assignment's
+ * {@code dueAt}, a submission is acknowledged as soon as it is appended to a local log and the log is fsynced;
+ * concurrent appenders share one fsync. A flush on the buffer's own thread stores the buffered submissions in batched
+ * upserts every {@code flush-interval-ms} and truncates the log once everything in it is stored; it is not started
+ * while the buffer is disabled and never runs on the shared scheduler. On startup the log is replayed,
+ * so an acknowledged submission survives a crash. A batch that fails is retried row by row; a row the database
+ * rejects as such (constraint or data errors) is moved to {@code <log-file>.rejected} instead of blocking the rest.
+ * <p>
+ * {@code submitted_at} is the time the submission was accepted, not the time it reached the database.
+ */
+@Service
+public class SubmissionWriteBuffer {
+
+    private static final Logger log = LoggerFactory.getLogger(SubmissionWriteBuffer.class);
+    private static final Duration DUE_AT_CACHE_TTL = Duration.ofSeconds(30);
+
+    private record CachedDueAt(Instant dueAt, Instant expiresAt) {
+    }
+
+    private final SubmissionJdbcRepository submissionJdbcRepository;
+    private final AssignmentRepository assignmentRepository;
+    private final JsonMapper jsonMapper;
+    private final Duration window;
+    private final int maxBatch;
+    private final long flushIntervalMillis;
+    private final Path logFile;
+    private final Path rejectedFile;
+    private volatile boolean enabled;
+
+    private final Map<Long, CachedDueAt> dueAtByAssignment = new ConcurrentHashMap<>();
+    private final Queue<BufferedSubmission> pending = new ConcurrentLinkedQueue<>();
+    private final Object appendLock = new Object();
+    private final Object syncLock = new Object();
+    private final Object flushLock = new Object();
+
+    private FileChannel channel;
+    private ScheduledExecutorService flusher;
+    // guarded by appendLock; bytesWritten never goes back, not even when the log is truncated
+    private long nextSequence;
+    private long bytesWritten;
+    private long appended;
+    private long bytesTruncatedAt;
+    // guarded by syncLock
+    private long bytesSynced;
+    // guarded by flushLock
+    private long flushed;
+    private long rejected;
+
+    public SubmissionWriteBuffer(SubmissionJdbcRepository submissionJdbcRepository,
+                                 AssignmentRepository assignmentRepository,
+                                 JsonMapper jsonMapper,
+                                 @Value("${app.submissions.write-buffer.enabled:false}") boolean enabled,
+                                 @Value("${app.submissions.write-buffer.window-minutes:10}") long windowMinutes,
+                                 @Value("${app.submissions.write-buffer.max-batch:1000}") int maxBatch,
+                                 @Value("${app.submissions.write-buffer.flush-interval-ms:5}") long flushIntervalMillis,
+                                 @Value("${app.submissions.write-buffer.log-file:}") String logFile) {
+        if (maxBatch < 1) {
+            throw new IllegalArgumentException("app.submissions.write-buffer.max-batch must be at least 1");
+        }
+        if (flushIntervalMillis < 1) {
+            throw new IllegalArgumentException("app.submissions.write-buffer.flush-interval-ms must be at least 1");
+        }
+        if (enabled && logFile.isBlank()) {
+            throw new IllegalArgumentException("app.submissions.write-buffer.log-file must be set when the write buffer is enabled");
+        }
+        this.submissionJdbcRepository = submissionJdbcRepository;
+        this.assignmentRepository = assignmentRepository;
+        this.jsonMapper = jsonMapper;
+        this.enabled = enabled;
+        this.window = Duration.ofMinutes(windowMinutes);
+        this.maxBatch = maxBatch;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.logFile = logFile.isBlank() ? null : Path.of(logFile);
+        this.rejectedFile = logFile.isBlank() ? null : Path.of(logFile + ".rejected");
+    }
+
+    @PostConstruct
+    void recover() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        Files.createDirectories(logFile.toAbsolutePath().getParent());
+        byte[] content = Files.exists(logFile) ? Files.readAllBytes(logFile) : new byte[0];
+        int validLength = 0;
+        List<BufferedSubmission> recovered = new ArrayList<>();
+        for (int start = 0, end; (end = indexOf(content, (byte) '\n', start)) >= 0; start = end + 1) {
+            try {
+                recovered.add(jsonMapper.readValue(new String(content, start, end - start, StandardCharsets.UTF_8),
+                        BufferedSubmission.class));
+            } catch (JacksonException e) {
+                log.warn("Ignoring unreadable submission log tail at byte {} of {}", start, logFile);
+                break;
+            }
+            validLength = end + 1;
+        }
+
+        channel = FileChannel.open(logFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        channel.truncate(validLength);
+        channel.force(false);
+        bytesWritten = validLength;
+        bytesSynced = validLength;
+        appended = recovered.size();
+        nextSequence = recovered.stream().mapToLong(BufferedSubmission::sequence).max().orElse(0);
+        pending.addAll(recovered);
+        if (!recovered.isEmpty()) {
+            log.info("Replaying {} buffered submissions from {}", recovered.size(), logFile);
+            flush();
+        }
+
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("submission-flush-");
+        threadFactory.setDaemon(true);
+        flusher = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        flusher.scheduleWithFixedDelay(this::scheduledFlush, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() throws IOException {
+        if (channel == null) {
+            return;
+        }
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        channel.close();
+    }
+
+    /**
+     * Accepts the submission into the buffer if the assignment's deadline is near. Empty if the buffer is disabled,
+     * the assignment is unknown or not close to its deadline; the caller then stores the submission directly.
+     */
+    public Optional<SubmissionReceipt> tryAccept(long assignmentId, long studentId, String contentText) {
+        if (!enabled || contentText == null || contentText.length() > Submission.MAX_CONTENT_LENGTH) {
+            return Optional.empty();
+        }
+        Instant dueAt = dueAt(assignmentId);
+        Instant now = Instant.now();
+        if (dueAt == null || now.isBefore(dueAt.minus(window)) || now.isAfter(dueAt.plus(window))) {
+            return Optional.empty();
+        }
+
+        BufferedSubmission submission;
+        try {
+            submission = append(assignmentId, studentId, contentText);
+        } catch (IOException | UncheckedIOException e) {
+            enabled = false;
+            log.error("Submission write buffer disabled, appending to {} failed", logFile, e);
+            return Optional.empty();
+        }
+        pending.add(submission);
+        return Optional.of(new SubmissionReceipt(assignmentId, studentId, submission.acceptedAt(),
+                submission.acceptedAt().isAfter(dueAt)));
+    }
+
+    private Instant dueAt(long assignmentId) {
+        Instant now = Instant.now();
+        CachedDueAt cached = dueAtByAssignment.get(assignmentId);
+        if (cached == null || cached.expiresAt().isBefore(now)) {
+            Optional<Instant> dueAt = assignmentRepository.findById(assignmentId).map(Assignment::getDueAt);
+            if (dueAt.isEmpty()) {
+                dueAtByAssignment.remove(assignmentId);
+                return null;
+            }
+            cached = new CachedDueAt(dueAt.get(), now.plus(DUE_AT_CACHE_TTL));
+            dueAtByAssignment.put(assignmentId, cached);
+        }
+        return cached.dueAt();
+    }
+
+    private BufferedSubmission append(long assignmentId, long studentId, String contentText) throws IOException {
+        BufferedSubmission submission;
+        long end;
+        synchronized (appendLock) {
+            submission = new BufferedSubmission(++nextSequence, assignmentId, studentId, contentText, Instant.now());
+            ByteBuffer line = ByteBuffer.wrap((jsonMapper.writeValueAsString(submission) + "\n").getBytes(StandardCharsets.UTF_8));
+            while (line.hasRemaining()) {
+                channel.write(line);
+            }
+            bytesWritten += line.capacity();
+            end = bytesWritten;
+            appended++;
+        }
+        synchronized (syncLock) {
+            if (bytesSynced < end) {
+                long target;
+                synchronized (appendLock) {
+                    target = bytesWritten;
+                }
+                channel.force(false);
+                bytesSynced = target;
+            }
+        }
+        return submission;
+    }
+
+    // An exception escaping a scheduleWithFixedDelay task would cancel every later flush.
+    private void scheduledFlush() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Flushing the submission write buffer failed", e);
+        }
+    }
+
+    public void flush() {
+        if (channel == null) {
+            return;
+        }
+        synchronized (flushLock) {
+            List<BufferedSubmission> batch = new ArrayList<>(maxBatch);
+            while (true) {
+                batch.clear();
+                for (BufferedSubmission next; batch.size() < maxBatch && (next = pending.poll()) != null; ) {
+                    batch.add(next);
+                }
+                if (batch.isEmpty()) {
+                    break;
+                }
+                try {
+                    store(batch);
+                    flushed += batch.size();
+                } catch (RuntimeException e) {
+                    log.warn("Flushing {} buffered submissions failed, storing them one by one", batch.size(), e);
+                    if (!storeOneByOne(batch)) {
+                        return;
+                    }
+                }
+            }
+            truncateIfFlushed();
+        }
+    }
+
+    // Upserts and stats deltas commit together, so a failed batch leaves nothing behind and can simply be retried.
+    private void store(List<BufferedSubmission> batch) {
+        Map<List<Long>, BufferedSubmission> latest = new LinkedHashMap<>();
+        for (BufferedSubmission submission : batch) {
+            latest.merge(List.of(submission.assignmentId(), submission.studentId()), submission,
+                    (a, b) -> a.sequence() >= b.sequence() ? a : b);
+        }
+        submissionJdbcRepository.batchUpsertSubmissions(new ArrayList<>(latest.values()));
+    }
+
+    // False if some rows failed for a reason that may go away (e.g. the database is unreachable); they are queued
+    // again for the next flush. Rows rejected for their own content are set aside so they cannot block the queue.
+    private boolean storeOneByOne(List<BufferedSubmission> batch) {
+        List<BufferedSubmission> retry = new ArrayList<>();
+        for (BufferedSubmission submission : batch) {
+            try {
+                store(List.of(submission));
+                flushed++;
+            } catch (NonTransientDataAccessException e) {
+                if (e instanceof NonTransientDataAccessResourceException || !reject(submission, e)) {
+                    retry.add(submission);
+                } else {
+                    flushed++;
+                }
+            } catch (RuntimeException e) {
+                retry.add(submission);
+            }
+        }
+        pending.addAll(retry);
+        return retry.isEmpty();
+    }
+
+    private boolean reject(BufferedSubmission submission, RuntimeException cause) {
+        try {
+            Files.writeString(rejectedFile, jsonMapper.writeValueAsString(submission) + "\n", StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.SYNC);
+        } catch (IOException e) {
+            log.error("Writing rejected submission {} to {} failed, keeping it queued", submission.sequence(), rejectedFile, e);
+            return false;
+        }
+        rejected++;
+        log.error("Buffered submission {} of student {} for assignment {} was rejected and moved to {}",
+                submission.sequence(), submission.studentId(), submission.assignmentId(), rejectedFile, cause);
+        return true;
+    }
+
+    private void truncateIfFlushed() {
+        synchronized (appendLock) {
+            if (appended != flushed || bytesTruncatedAt == bytesWritten) {
+                return;
+            }
+            try {
+                channel.truncate(0);
+                bytesTruncatedAt = bytesWritten;
+            } catch (IOException e) {
+                log.warn("Truncating {} failed, stored submissions will be replayed again", logFile, e);
+            }
+        }
+    }
+
+    int pendingCount() {
+        return pending.size();
+    }
+
+    long rejectedCount() {
+        synchronized (flushLock) {
+            return rejected;
+        }
+    }
+
+    private static int indexOf(byte[] content, byte value, int from) {
+        for (int i = from; i < content.length; i++) {
+            if (content[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
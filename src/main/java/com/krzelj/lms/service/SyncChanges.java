@@ -0,0 +1,24 @@
+package com.krzelj.lms.service;
+
+import com.krzelj.lms.domain.Assignment;
+import com.krzelj.lms.domain.Course;
+import com.krzelj.lms.domain.Submission;
+import com.krzelj.lms.domain.SyncEntityType;
+
+import java.util.List;
+
+public record SyncChanges(
+        String token,
+        boolean fullResync,
+        List<Course> courses,
+        List<Assignment> assignments,
+        List<Submission> submissions,
+        List<Deletion> deleted
+) {
+    public record Deletion(SyncEntityType type, Long id) {
+    }
+
+    public boolean isEmpty() {
+        return courses.isEmpty() && assignments.isEmpty() && submissions.isEmpty() && deleted.isEmpty();
+    }
+}
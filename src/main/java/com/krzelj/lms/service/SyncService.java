@@ -0,0 +1,139 @@
+package com.krzelj.lms.service;
+
+import com.krzelj.lms.domain.Assignment;
+import com.krzelj.lms.domain.Course;
+import com.krzelj.lms.domain.RoleName;
+import com.krzelj.lms.domain.Submission;
+import com.krzelj.lms.domain.SyncEntityType;
+import com.krzelj.lms.domain.SyncTombstone;
+import com.krzelj.lms.domain.User;
+import com.krzelj.lms.repository.AssignmentRepository;
+import com.krzelj.lms.repository.CourseRepository;
+import com.krzelj.lms.repository.SubmissionRepository;
+import com.krzelj.lms.repository.SyncTombstoneRepository;
+import com.krzelj.lms.repository.jdbc.SyncJdbcRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+@Service
+@Transactional
+public class SyncService {
+
+    private static final Logger log = LoggerFactory.getLogger(SyncService.class);
+
+    // updated_at is taken at write time, not commit time, so a token never moves past the start of a write
+    // transaction that was still open when it was issued. The overlap only absorbs clock skew between app nodes.
+    static final Duration CLOCK_OVERLAP = Duration.ofSeconds(5);
+
+    private final CourseRepository courseRepository;
+    private final AssignmentRepository assignmentRepository;
+    private final SubmissionRepository submissionRepository;
+    private final SyncTombstoneRepository syncTombstoneRepository;
+    private final SyncJdbcRepository syncJdbcRepository;
+    private final Duration tombstoneRetention;
+
+    public SyncService(CourseRepository courseRepository,
+                       AssignmentRepository assignmentRepository,
+                       SubmissionRepository submissionRepository,
+                       SyncTombstoneRepository syncTombstoneRepository,
+                       SyncJdbcRepository syncJdbcRepository,
+                       @Value("${app.sync.tombstone-retention-days:30}") long tombstoneRetentionDays) {
+        this.courseRepository = courseRepository;
+        this.assignmentRepository = assignmentRepository;
+        this.submissionRepository = submissionRepository;
+        this.syncTombstoneRepository = syncTombstoneRepository;
+        this.syncJdbcRepository = syncJdbcRepository;
+        this.tombstoneRetention = Duration.ofDays(tombstoneRetentionDays);
+    }
+
+    @Transactional(readOnly = true)
+    public SyncChanges changesSince(User user, String token) {
+        Instant now = Instant.now();
+        Instant watermark = syncJdbcRepository.findOldestOpenWriteStart()
+                .filter(start -> start.isBefore(now))
+                .orElse(now);
+        boolean admin = user.getRoles().stream().anyMatch(role -> role.getName() == RoleName.ADMIN);
+
+        SyncToken previous = token == null || token.isBlank() ? SyncToken.initial() : SyncToken.decode(token);
+        boolean incremental = !previous.since().equals(Instant.EPOCH);
+        boolean expired = previous.since().isBefore(now.minus(tombstoneRetention));
+        boolean scopeChanged = admin != (previous.courseIds() == null);
+        boolean fullResync = incremental && (expired || scopeChanged);
+        if (fullResync) {
+            previous = SyncToken.initial();
+        }
+        Instant since = previous.since().equals(Instant.EPOCH) ? Instant.EPOCH : previous.since().minus(CLOCK_OVERLAP);
+
+        Set<Long> taught = new TreeSet<>(courseRepository.findIdsByInstructorId(user.getId()));
+
+        if (admin) {
+            List<SyncChanges.Deletion> deleted = toDeletions(
+                    syncTombstoneRepository.findByTypesSince(EnumSet.allOf(SyncEntityType.class), since));
+            return new SyncChanges(new SyncToken(watermark, null).encode(), fullResync,
+                    courseRepository.findChangedSince(since),
+                    assignmentRepository.findChangedSince(since),
+                    submissionRepository.findChangedForSync(user.getId(), taught, Set.of(), since),
+                    deleted);
+        }
+
+        Set<Long> visible = new TreeSet<>(taught);
+        visible.addAll(courseRepository.findIdsByStudentId(user.getId()));
+        Set<Long> added = new TreeSet<>(visible);
+        added.removeAll(previous.courseIds());
+
+        List<Course> courses = List.of();
+        List<Assignment> assignments = List.of();
+        if (!visible.isEmpty()) {
+            courses = courseRepository.findChangedForSync(visible, added, since);
+            assignments = assignmentRepository.findChangedForSync(visible, added, since);
+        }
+
+        List<SyncChanges.Deletion> deleted = new ArrayList<>();
+        for (Long courseId : previous.courseIds()) {
+            if (!visible.contains(courseId)) {
+                deleted.add(new SyncChanges.Deletion(SyncEntityType.COURSE, courseId));
+            }
+        }
+        deleted.addAll(toDeletions(syncTombstoneRepository.findForUserSince(
+                user.getId(), visible, taught, SyncEntityType.ASSIGNMENT, SyncEntityType.SUBMISSION, since)));
+
+        List<Submission> submissions = submissionRepository.findChangedForSync(user.getId(), taught, added, since);
+
+        return new SyncChanges(new SyncToken(watermark, visible).encode(), fullResync,
+                courses, assignments, submissions, deleted);
+    }
+
+    public void recordDeletion(SyncEntityType type, Long entityId, Long courseId, Long studentId) {
+        syncTombstoneRepository.save(new SyncTombstone(type, entityId, courseId, studentId, Instant.now()));
+    }
+
+    public void recordStudentDeletion(Long studentId) {
+        syncTombstoneRepository.recordSubmissionsOfStudent(studentId, Instant.now());
+    }
+
+    @Scheduled(cron = "${app.sync.tombstone-purge-cron:0 30 3 * * *}")
+    public void purgeExpiredTombstones() {
+        int purged = syncTombstoneRepository.deleteOlderThan(Instant.now().minus(tombstoneRetention));
+        if (purged > 0) {
+            log.info("Purged {} sync tombstones older than {} days", purged, tombstoneRetention.toDays());
+        }
+    }
+
+    private static List<SyncChanges.Deletion> toDeletions(List<SyncTombstone> tombstones) {
+        return tombstones.stream()
+                .map(t -> new SyncChanges.Deletion(t.getEntityType(), t.getEntityId()))
+                .toList();
+    }
+}
@@ -0,0 +1,51 @@
+package com.krzelj.lms.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+// Opaque cursor handed to sync clients: the server time of the last sync plus the course ids the caller
+// could see then, so courses that appear or disappear without a row change (enrollment) are still detected.
+// A null course id set means the caller sees every course (admins).
+public record SyncToken(Instant since, Set<Long> courseIds) {
+
+    private static final String PREFIX = "v1:";
+
+    public static SyncToken initial() {
+        return new SyncToken(Instant.EPOCH, Collections.emptySet());
+    }
+
+    public String encode() {
+        String ids = courseIds == null
+                ? "*"
+                : courseIds.stream().sorted().map(String::valueOf).collect(Collectors.joining(","));
+        String raw = PREFIX + since.toEpochMilli() + ":" + ids;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static SyncToken decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            if (!raw.startsWith(PREFIX)) {
+                throw new IllegalArgumentException("Invalid sync token");
+            }
+            String[] parts = raw.substring(PREFIX.length()).split(":", 2);
+            Instant since = Instant.ofEpochMilli(Long.parseLong(parts[0]));
+            String ids = parts.length > 1 ? parts[1] : "";
+            if ("*".equals(ids)) {
+                return new SyncToken(since, null);
+            }
+            Set<Long> courseIds = ids.isEmpty()
+                    ? Collections.emptySet()
+                    : Arrays.stream(ids.split(",")).map(Long::valueOf).collect(Collectors.toCollection(TreeSet::new));
+            return new SyncToken(since, courseIds);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid sync token", e);
+        }
+    }
+}
@@ -3,11 +3,16 @@ package com.krzelj.lms.service;
 import com.krzelj.lms.domain.Role;
 import com.krzelj.lms.domain.RoleName;
 import com.krzelj.lms.domain.User;
+import com.krzelj.lms.repository.CourseRepository;
 import com.krzelj.lms.repository.RoleRepository;
 import com.krzelj.lms.repository.UserRepository;
+import com.krzelj.lms.repository.jdbc.EnrollmentJdbcRepository;
+import com.krzelj.lms.repository.jdbc.GradeStatsJdbcRepository;
+import com.krzelj.lms.repository.jdbc.SubmissionJdbcRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -19,10 +24,33 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
-
-    public UserService(UserRepository userRepository, RoleRepository roleRepository) {
+    private final EnrollmentJdbcRepository enrollmentJdbcRepository;
+    private final EntityCacheService entityCacheService;
+    private final SyncService syncService;
+    private final SubmissionJdbcRepository submissionJdbcRepository;
+    private final GradeStatsJdbcRepository gradeStatsJdbcRepository;
+    private final GradeDistributionCache gradeDistributionCache;
+    private final CourseRepository courseRepository;
+    private final CourseCatalogCache courseCatalogCache;
+    private final EnrollmentService enrollmentService;
+
+    public UserService(UserRepository userRepository, RoleRepository roleRepository,
+                       EnrollmentJdbcRepository enrollmentJdbcRepository, EntityCacheService entityCacheService,
+                       SyncService syncService, SubmissionJdbcRepository submissionJdbcRepository,
+                       GradeStatsJdbcRepository gradeStatsJdbcRepository, GradeDistributionCache gradeDistributionCache,
+                       CourseRepository courseRepository, CourseCatalogCache courseCatalogCache,
+                       EnrollmentService enrollmentService) {
         this.userRepository = userRepository;
         this.roleRepository = roleRepository;
+        this.enrollmentJdbcRepository = enrollmentJdbcRepository;
+        this.entityCacheService = entityCacheService;
+        this.syncService = syncService;
+        this.submissionJdbcRepository = submissionJdbcRepository;
+        this.gradeStatsJdbcRepository = gradeStatsJdbcRepository;
+        this.gradeDistributionCache = gradeDistributionCache;
+        this.courseRepository = courseRepository;
+        this.courseCatalogCache = courseCatalogCache;
+        this.enrollmentService = enrollmentService;
     }
 
     @Transactional(readOnly = true)
@@ -46,11 +74,34 @@ public class UserService {
     }
 
     public User save(User user) {
-        return userRepository.save(user);
+        boolean renamed = isRenamed(user);
+        User saved = userRepository.save(user);
+        if (renamed) {
+            refreshCoursesOf(saved.getId());
+        }
+        return saved;
     }
 
     public void delete(Long id) {
+        List<Long> courseIds = enrollmentJdbcRepository.findCourseIdsForStudent(id);
+        enrollmentJdbcRepository.releaseSeatsForStudent(id);
+        entityCacheService.evictCourses();
+        syncService.recordStudentDeletion(id);
+        List<Long> assignmentIds = submissionJdbcRepository.findAssignmentIdsForStudent(id);
         userRepository.deleteById(id);
+        if (courseIds.isEmpty() && assignmentIds.isEmpty()) {
+            return;
+        }
+        // enrollments and submissions go with the user through their foreign keys, so the delete must reach the
+        // database before freed seats are handed out and the rollups of the affected assignments are recomputed
+        userRepository.flush();
+        for (Long courseId : courseIds) {
+            enrollmentService.promoteFromWaitlist(courseId);
+        }
+        if (!assignmentIds.isEmpty()) {
+            gradeStatsJdbcRepository.rebuildForAssignments(assignmentIds.stream().mapToLong(Long::longValue).toArray());
+            gradeDistributionCache.invalidateAll(assignmentIds);
+        }
     }
 
     public User assignRole(Long userId, RoleName roleName) {
@@ -85,12 +136,30 @@ public class UserService {
     }
 
     public User updateUserRoles(User user, Set<RoleName> roleNames) {
+        boolean renamed = isRenamed(user);
         Set<Role> roles = roleNames.stream()
                 .map(roleName -> roleRepository.findByName(roleName)
                         .orElseGet(() -> roleRepository.save(new Role(roleName))))
                 .collect(Collectors.toSet());
         user.setRoles(roles);
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        if (renamed) {
+            refreshCoursesOf(saved.getId());
+        }
+        return saved;
+    }
+
+    private boolean isRenamed(User user) {
+        return user.getId() != null && userRepository.findUsernameById(user.getId())
+                .filter(stored -> !stored.equals(user.getUsername()))
+                .isPresent();
+    }
+
+    // The catalog snapshot, its serialized bytes and the course ETags all carry the instructor's username.
+    private void refreshCoursesOf(Long instructorId) {
+        courseRepository.touchByInstructorId(instructorId, Instant.now());
+        entityCacheService.evictCourses();
+        courseCatalogCache.invalidate();
     }
 
     @Transactional(readOnly = true)
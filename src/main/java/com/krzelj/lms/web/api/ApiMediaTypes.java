@@ -0,0 +1,54 @@
+package com.krzelj.lms.web.api;
+
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+// The API representations registered in ApiFormatsConfig, in order of preference.
+final class ApiMediaTypes {
+
+    static final MediaType APPLICATION_SMILE = MediaType.valueOf("application/x-jackson-smile");
+    static final List<MediaType> SUPPORTED = List.of(MediaType.APPLICATION_JSON, MediaType.APPLICATION_CBOR, APPLICATION_SMILE);
+
+    private ApiMediaTypes() {
+    }
+
+    // Picks the highest-quality acceptable format; anything unparseable or unsupported falls back to JSON.
+    static MediaType negotiate(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return MediaType.APPLICATION_JSON;
+        }
+        List<MediaType> accepted;
+        try {
+            accepted = new ArrayList<>(MediaType.parseMediaTypes(accept));
+        } catch (InvalidMediaTypeException e) {
+            return MediaType.APPLICATION_JSON;
+        }
+        accepted.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+        for (MediaType candidate : accepted) {
+            if (candidate.getQualityValue() == 0) {
+                continue;
+            }
+            for (MediaType supported : SUPPORTED) {
+                if (candidate.includes(supported)) {
+                    return supported;
+                }
+            }
+        }
+        return MediaType.APPLICATION_JSON;
+    }
+
+    // Short name used to keep validators of different representations apart; empty for JSON.
+    static String tag(MediaType mediaType) {
+        if (mediaType.equals(MediaType.APPLICATION_CBOR)) {
+            return "cbor";
+        }
+        if (mediaType.equals(APPLICATION_SMILE)) {
+            return "smile";
+        }
+        return "";
+    }
+}
@@ -2,7 +2,9 @@ package com.krzelj.lms.web.api;
 
 import com.krzelj.lms.domain.Assignment;
 import com.krzelj.lms.service.AssignmentService;
+import com.krzelj.lms.service.SparseFieldService;
 import com.krzelj.lms.web.api.dto.AssignmentResponse;
+import com.krzelj.lms.web.api.dto.BatchResponse;
 import com.krzelj.lms.web.api.dto.CreateAssignmentRequest;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
@@ -14,7 +16,9 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -23,25 +27,61 @@ import java.util.List;
 public class AssignmentApiController {
 
     private final AssignmentService assignmentService;
+    private final SerializedResponseCache responseCache;
+    private final SparseFieldService sparseFieldService;
 
-    public AssignmentApiController(AssignmentService assignmentService) {
+    public AssignmentApiController(AssignmentService assignmentService, SerializedResponseCache responseCache,
+                                   SparseFieldService sparseFieldService) {
         this.assignmentService = assignmentService;
+        this.responseCache = responseCache;
+        this.sparseFieldService = sparseFieldService;
     }
 
     @GetMapping
-    public ResponseEntity<List<AssignmentResponse>> listAssignments(@PathVariable Long courseId) {
-        List<Assignment> assignments = assignmentService.findForCourse(courseId);
-        List<AssignmentResponse> response = assignments.stream()
-                .map(AssignmentResponse::from)
-                .toList();
-        return ResponseEntity.ok(response);
+    public ResponseEntity<byte[]> listAssignments(@PathVariable Long courseId,
+                                                  @RequestParam(required = false) String fields,
+                                                  WebRequest request) {
+        if (fields != null) {
+            List<String> selected;
+            try {
+                selected = sparseFieldService.assignmentFields(fields);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().build();
+            }
+            return responseCache.respond("assignments", List.of(courseId, selected), assignmentService.listVersion(courseId),
+                    () -> sparseFieldService.findAssignmentsForCourse(courseId, selected), request);
+        }
+        long version = assignmentService.listVersion(courseId);
+        return responseCache.respond("assignments", courseId, version, () -> {
+            List<Assignment> assignments = assignmentService.findForCourse(courseId);
+            return assignments.stream()
+                    .map(AssignmentResponse::from)
+                    .toList();
+        }, request);
+    }
+
+    @GetMapping(params = "ids")
+    public ResponseEntity<BatchResponse<AssignmentResponse>> getAssignments(@PathVariable Long courseId,
+                                                                           @RequestParam List<Long> ids) {
+        try {
+            return ResponseEntity.ok(BatchResponse.from(assignmentService.getByIdsWithCourse(courseId, ids), AssignmentResponse::from));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/{assignmentId}")
     public ResponseEntity<AssignmentResponse> getAssignment(@PathVariable Long courseId,
-                                                             @PathVariable Long assignmentId) {
-        Assignment assignment = assignmentService.getById(assignmentId);
-        return ResponseEntity.ok(AssignmentResponse.from(assignment));
+                                                             @PathVariable Long assignmentId,
+                                                             WebRequest request) {
+        if (VersionETags.notModified(request, () -> assignmentService.findVersion(assignmentId)
+                .map(version -> VersionETags.of(request, version.version(), version.courseVersion()))
+                .orElse(null))) {
+            return null;
+        }
+        Assignment assignment = assignmentService.getByIdWithCourse(assignmentId);
+        return VersionETags.ok(request, assignment.getVersion(), assignment.getCourse().getVersion())
+                .body(AssignmentResponse.from(assignment));
     }
 
     @PostMapping
@@ -0,0 +1,49 @@
+package com.krzelj.lms.web.api;
+
+import com.krzelj.lms.service.EntityCacheService;
+import com.krzelj.lms.service.ReportSingleFlight;
+import com.krzelj.lms.web.api.dto.CacheStatisticsResponse;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/cache")
+@PreAuthorize("hasRole('ADMIN')")
+public class CacheAdminApiController {
+
+    private final EntityCacheService entityCacheService;
+    private final ReportSingleFlight reportSingleFlight;
+
+    public CacheAdminApiController(EntityCacheService entityCacheService, ReportSingleFlight reportSingleFlight) {
+        this.entityCacheService = entityCacheService;
+        this.reportSingleFlight = reportSingleFlight;
+    }
+
+    @GetMapping("/statistics")
+    public ResponseEntity<CacheStatisticsResponse> statistics() {
+        return ResponseEntity.ok(entityCacheService.statistics());
+    }
+
+    @GetMapping("/reports")
+    public ResponseEntity<Map<String, ReportSingleFlight.Statistics>> reportStatistics() {
+        return ResponseEntity.ok(reportSingleFlight.statistics());
+    }
+
+    @DeleteMapping("/statistics")
+    public ResponseEntity<Void> resetStatistics() {
+        entityCacheService.resetStatistics();
+        return ResponseEntity.noContent().build();
+    }
+
+    @DeleteMapping
+    public ResponseEntity<Void> evictAll() {
+        entityCacheService.evictAll();
+        return ResponseEntity.noContent().build();
+    }
+}
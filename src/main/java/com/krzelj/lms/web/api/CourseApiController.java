@@ -1,21 +1,38 @@
 package com.krzelj.lms.web.api;
 
 import com.krzelj.lms.domain.Course;
+import com.krzelj.lms.repository.dto.CatalogCourse;
+import com.krzelj.lms.repository.jdbc.dto.EnrollmentBatchResult;
 import com.krzelj.lms.service.CourseService;
+import com.krzelj.lms.service.EnrollmentService;
+import com.krzelj.lms.service.SparseFieldService;
+import com.krzelj.lms.web.api.dto.BatchResponse;
+import com.krzelj.lms.web.api.dto.BulkEnrollmentRequest;
 import com.krzelj.lms.web.api.dto.CourseResponse;
 import com.krzelj.lms.web.api.dto.CreateCourseRequest;
+import com.krzelj.lms.web.api.dto.UpdateCapacityRequest;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 @RestController
@@ -23,29 +40,71 @@ import java.util.List;
 public class CourseApiController {
 
     private final CourseService courseService;
+    private final EnrollmentService enrollmentService;
+    private final SerializedResponseCache responseCache;
+    private final SparseFieldService sparseFieldService;
 
-    public CourseApiController(CourseService courseService) {
+    public CourseApiController(CourseService courseService, EnrollmentService enrollmentService,
+                               SerializedResponseCache responseCache, SparseFieldService sparseFieldService) {
         this.courseService = courseService;
+        this.enrollmentService = enrollmentService;
+        this.responseCache = responseCache;
+        this.sparseFieldService = sparseFieldService;
     }
 
     @GetMapping
-    public ResponseEntity<List<CourseResponse>> listCourses() {
-        List<Course> courses = courseService.findAll();
-        List<CourseResponse> response = courses.stream()
-                .map(CourseResponse::from)
-                .toList();
-        return ResponseEntity.ok(response);
+    public ResponseEntity<byte[]> listCourses(@RequestParam(required = false) String fields, WebRequest request) {
+        if (fields != null) {
+            List<String> selected;
+            try {
+                selected = sparseFieldService.courseFields(fields);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().build();
+            }
+            return responseCache.respond("courses", selected, courseService.catalogVersion(),
+                    () -> sparseFieldService.findCatalog(selected), request);
+        }
+        long version = courseService.catalogVersion();
+        return responseCache.respond("courses", "all", version, () -> {
+            List<CatalogCourse> courses = courseService.findCatalog();
+            return courses.stream()
+                    .map(CourseResponse::from)
+                    .toList();
+        }, request);
+    }
+
+    @GetMapping(params = "ids")
+    public ResponseEntity<BatchResponse<CourseResponse>> getCourses(@RequestParam List<Long> ids) {
+        try {
+            return ResponseEntity.ok(BatchResponse.from(courseService.getByIds(ids), CourseResponse::from));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<CourseResponse> getCourse(@PathVariable Long id) {
+    public ResponseEntity<CourseResponse> getCourse(@PathVariable Long id, WebRequest request) {
+        if (VersionETags.notModified(request, () -> courseService.findVersion(id)
+                .map(version -> VersionETags.of(request, version))
+                .orElse(null))) {
+            return null;
+        }
         Course course = courseService.getById(id);
-        return ResponseEntity.ok(CourseResponse.from(course));
+        return VersionETags.ok(request, course.getVersion())
+                .body(CourseResponse.from(course));
     }
 
     @GetMapping("/instructor/{instructorId}")
     @PreAuthorize("hasAnyRole('INSTRUCTOR', 'ADMIN')")
-    public ResponseEntity<List<CourseResponse>> getCoursesForInstructor(@PathVariable Long instructorId) {
+    public ResponseEntity<List<?>> getCoursesForInstructor(@PathVariable Long instructorId,
+                                                    @RequestParam(required = false) String fields) {
+        if (fields != null) {
+            try {
+                return ResponseEntity.ok(sparseFieldService.findCoursesForInstructor(instructorId, sparseFieldService.courseFields(fields)));
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().build();
+            }
+        }
         List<Course> courses = courseService.findForInstructor(instructorId);
         List<CourseResponse> response = courses.stream()
                 .map(CourseResponse::from)
@@ -55,7 +114,15 @@ public class CourseApiController {
 
     @GetMapping("/student/{studentId}")
     @PreAuthorize("hasAnyRole('STUDENT', 'ADMIN')")
-    public ResponseEntity<List<CourseResponse>> getCoursesForStudent(@PathVariable Long studentId) {
+    public ResponseEntity<List<?>> getCoursesForStudent(@PathVariable Long studentId,
+                                                    @RequestParam(required = false) String fields) {
+        if (fields != null) {
+            try {
+                return ResponseEntity.ok(sparseFieldService.findCoursesForStudent(studentId, sparseFieldService.courseFields(fields)));
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().build();
+            }
+        }
         List<Course> courses = courseService.findForStudent(studentId);
         List<CourseResponse> response = courses.stream()
                 .map(CourseResponse::from)
@@ -75,6 +142,30 @@ public class CourseApiController {
         return ResponseEntity.status(HttpStatus.CREATED).body(CourseResponse.from(course));
     }
 
+    @PutMapping("/{id}/capacity")
+    @PreAuthorize("hasAnyRole('INSTRUCTOR', 'ADMIN')")
+    public ResponseEntity<Void> updateCapacity(@PathVariable Long id,
+                                               @Valid @RequestBody UpdateCapacityRequest request) {
+        enrollmentService.updateCapacity(id, request.capacity());
+        return ResponseEntity.noContent().build();
+    }
+
+    @PostMapping(value = "/{id}/enrollments:batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("hasAnyRole('INSTRUCTOR', 'ADMIN')")
+    public ResponseEntity<EnrollmentBatchResult> enrollBatch(@PathVariable Long id,
+                                                             @Valid @RequestBody BulkEnrollmentRequest request) {
+        return ResponseEntity.ok(enrollmentService.enrollStudents(id, request.studentIds()));
+    }
+
+    @PostMapping(value = "/{id}/enrollments:import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("hasAnyRole('INSTRUCTOR', 'ADMIN')")
+    public ResponseEntity<EnrollmentBatchResult> importRoster(@PathVariable Long id,
+                                                              @RequestPart("file") MultipartFile file) throws IOException {
+        try (Reader reader = new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8)) {
+            return ResponseEntity.ok(enrollmentService.importRoster(id, reader));
+        }
+    }
+
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<Void> deleteCourse(@PathVariable Long id) {
@@ -3,19 +3,43 @@ package com.krzelj.lms.web.api;
 import com.krzelj.lms.repository.jdbc.GradeImportJdbcRepository;
 import com.krzelj.lms.repository.jdbc.ReportingJdbcRepository;
 import com.krzelj.lms.repository.jdbc.dto.AssignmentGradeReportRow;
+import com.krzelj.lms.repository.jdbc.dto.GradeImportOutcome;
+import com.krzelj.lms.repository.jdbc.dto.GradeImportResult;
 import com.krzelj.lms.repository.jdbc.dto.GradeImportRow;
+import com.krzelj.lms.service.ChunkedGradeImportResult;
+import com.krzelj.lms.service.ExportFormat;
+import com.krzelj.lms.service.ExportService;
+import com.krzelj.lms.service.GradebookMatrix;
+import com.krzelj.lms.service.GradeCsvImportService;
+import com.krzelj.lms.service.GradeDistributionCache;
+import com.krzelj.lms.service.GradebookService;
+import com.krzelj.lms.service.InstitutionReportService;
+import com.krzelj.lms.service.ParallelGradeImportService;
+import com.krzelj.lms.service.ReportSingleFlight;
+import com.krzelj.lms.web.api.dto.GradeDistributionResponse;
 import jakarta.validation.Valid;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 
 @RestController
@@ -24,11 +48,32 @@ public class GradingApiController {
 
     private final GradeImportJdbcRepository gradeImportJdbcRepository;
     private final ReportingJdbcRepository reportingJdbcRepository;
+    private final ExportService exportService;
+    private final GradebookService gradebookService;
+    private final GradeDistributionCache gradeDistributionCache;
+    private final InstitutionReportService institutionReportService;
+    private final ReportSingleFlight reportSingleFlight;
+    private final GradeCsvImportService gradeCsvImportService;
+    private final ParallelGradeImportService parallelGradeImportService;
 
     public GradingApiController(GradeImportJdbcRepository gradeImportJdbcRepository,
-                                ReportingJdbcRepository reportingJdbcRepository) {
+                                ReportingJdbcRepository reportingJdbcRepository,
+                                ExportService exportService,
+                                GradebookService gradebookService,
+                                GradeDistributionCache gradeDistributionCache,
+                                InstitutionReportService institutionReportService,
+                                ReportSingleFlight reportSingleFlight,
+                                GradeCsvImportService gradeCsvImportService,
+                                ParallelGradeImportService parallelGradeImportService) {
         this.gradeImportJdbcRepository = gradeImportJdbcRepository;
         this.reportingJdbcRepository = reportingJdbcRepository;
+        this.exportService = exportService;
+        this.gradebookService = gradebookService;
+        this.gradeDistributionCache = gradeDistributionCache;
+        this.institutionReportService = institutionReportService;
+        this.reportSingleFlight = reportSingleFlight;
+        this.gradeCsvImportService = gradeCsvImportService;
+        this.parallelGradeImportService = parallelGradeImportService;
     }
 
     @PostMapping("/bulk-import")
@@ -36,33 +81,166 @@ public class GradingApiController {
     public ResponseEntity<BulkImportResponse> bulkImportGrades(
             @RequestParam Long graderUserId,
             @Valid @RequestBody BulkGradeImportRequest request) {
+        return ResponseEntity.ok(BulkImportResponse.from(parallelGradeImportService.importGrades(request.grades(), graderUserId)));
+    }
 
-        int[][] updateCounts = gradeImportJdbcRepository.batchUpdateGrades(
-                request.grades(),
-                graderUserId,
-                Instant.now()
-        );
+    @PostMapping("/bulk-import/{importId}/retry")
+    @PreAuthorize("hasAnyRole('INSTRUCTOR', 'ADMIN')")
+    public ResponseEntity<BulkImportResponse> retryBulkImport(@PathVariable String importId) {
+        return parallelGradeImportService.retryFailedChunks(importId)
+                .map(result -> ResponseEntity.ok(BulkImportResponse.from(result)))
+                .orElse(ResponseEntity.notFound().build());
+    }
 
-        int totalUpdated = 0;
-        for (int[] batch : updateCounts) {
-            for (int count : batch) {
-                totalUpdated += count;
+    @PostMapping("/bulk-import/staged")
+    @PreAuthorize("hasAnyRole('INSTRUCTOR', 'ADMIN')")
+    public ResponseEntity<StagedImportResponse> stagedImportGrades(
+            @RequestParam Long graderUserId,
+            @RequestParam(defaultValue = "false") boolean upsert,
+            @Valid @RequestBody BulkGradeImportRequest request) {
+
+        GradeImportResult result = upsert
+                ? gradeImportJdbcRepository.upsertGradesViaStaging(request.grades(), graderUserId, Instant.now())
+                : gradeImportJdbcRepository.importGradesViaStaging(request.grades(), graderUserId, Instant.now());
+        gradeDistributionCache.invalidateAll(request.grades().stream().map(GradeImportRow::assignmentId).distinct().toList());
+
+        List<RejectedGradeRow> rejected = new ArrayList<>();
+        for (int i = 0; i < result.outcomes().size(); i++) {
+            GradeImportOutcome outcome = result.outcomes().get(i);
+            if (outcome != GradeImportOutcome.UPDATED && outcome != GradeImportOutcome.CREATED) {
+                GradeImportRow row = request.grades().get(i);
+                rejected.add(new RejectedGradeRow(i, row.assignmentId(), row.studentId(), outcome));
             }
         }
+        return ResponseEntity.ok(new StagedImportResponse(
+                result.count(GradeImportOutcome.UPDATED),
+                result.count(GradeImportOutcome.CREATED),
+                result.count(GradeImportOutcome.NO_SUBMISSION),
+                result.count(GradeImportOutcome.NOT_ENROLLED),
+                result.count(GradeImportOutcome.OUT_OF_RANGE),
+                result.count(GradeImportOutcome.SUPERSEDED),
+                rejected));
+    }
 
-        return ResponseEntity.ok(new BulkImportResponse(totalUpdated, request.grades().size()));
+    @PostMapping(value = "/assignments/{assignmentId}/grades:import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("hasAnyRole('INSTRUCTOR', 'ADMIN')")
+    public ResponseEntity<StreamingResponseBody> importGradesCsv(
+            @PathVariable Long assignmentId,
+            @RequestParam Long graderUserId,
+            @RequestParam(defaultValue = "false") boolean upsert,
+            @RequestPart("file") MultipartFile file) {
+        try {
+            gradeCsvImportService.checkAssignment(assignmentId);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(out -> {
+                    try (Reader csv = new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8)) {
+                        gradeCsvImportService.importGradesAsNdjson(assignmentId, csv, graderUserId, upsert, out);
+                    }
+                });
     }
 
     @GetMapping("/report/course/{courseId}")
     @PreAuthorize("hasAnyRole('INSTRUCTOR', 'ADMIN')")
     public ResponseEntity<List<AssignmentGradeReportRow>> getCourseGradeReport(@PathVariable Long courseId) {
-        List<AssignmentGradeReportRow> report = reportingJdbcRepository.assignmentGradeReportForCourse(courseId);
+        List<AssignmentGradeReportRow> report = reportSingleFlight.get("course-grade-report", courseId,
+                () -> List.copyOf(reportingJdbcRepository.assignmentGradeReportForCourse(courseId)));
         return ResponseEntity.ok(report);
     }
 
+    @GetMapping("/report/institution")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> getInstitutionGradeReport(
+            @RequestParam(required = false) List<Long> courseIds,
+            @RequestParam(required = false) Integer partitions) {
+        List<InstitutionReportService.Partition> plan;
+        try {
+            plan = institutionReportService.plan(courseIds, partitions);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> institutionReportService.writeReport(plan, out));
+    }
+
+    @GetMapping("/report/assignment/{assignmentId}/distribution")
+    @PreAuthorize("hasAnyRole('INSTRUCTOR', 'ADMIN')")
+    public ResponseEntity<GradeDistributionResponse> getAssignmentGradeDistribution(
+            @PathVariable Long assignmentId,
+            @RequestParam(defaultValue = "10") int buckets) {
+        try {
+            return ResponseEntity.ok(GradeDistributionResponse.from(gradeDistributionCache.get(assignmentId), buckets));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/gradebook/course/{courseId}")
+    @PreAuthorize("hasAnyRole('INSTRUCTOR', 'ADMIN')")
+    public ResponseEntity<StreamingResponseBody> getGradebook(
+            @PathVariable Long courseId,
+            @RequestParam(required = false) String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        boolean csv;
+        if (format == null) {
+            csv = accept != null && accept.contains("text/csv");
+        } else if (format.equalsIgnoreCase("csv") || format.equalsIgnoreCase("json")) {
+            csv = format.equalsIgnoreCase("csv");
+        } else {
+            return ResponseEntity.badRequest().build();
+        }
+
+        GradebookMatrix matrix = reportSingleFlight.get("gradebook-matrix", courseId, () -> gradebookService.build(courseId));
+        if (csv) {
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType("text/csv"))
+                    .body(out -> gradebookService.writeCsv(matrix, out));
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> gradebookService.writeJson(matrix, out));
+    }
+
+    @GetMapping("/export/course/{courseId}")
+    @PreAuthorize("hasAnyRole('INSTRUCTOR', 'ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportGradebook(
+            @PathVariable Long courseId,
+            @RequestParam(required = false) String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        ExportFormat exportFormat;
+        try {
+            exportFormat = ExportFormat.resolve(format, accept);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.mediaType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(exportFormat.fileName("course-" + courseId + "-gradebook"))
+                        .build().toString())
+                .body(out -> exportService.exportGradebook(courseId, exportFormat, out));
+    }
+
     public record BulkGradeImportRequest(List<GradeImportRow> grades) {
     }
 
-    public record BulkImportResponse(int gradesUpdated, int totalSubmitted) {
+    public record BulkImportResponse(int gradesUpdated, int totalSubmitted, String importId,
+                                     List<ChunkedGradeImportResult.Chunk> failedChunks) {
+
+        static BulkImportResponse from(ChunkedGradeImportResult result) {
+            return new BulkImportResponse(result.updated(), result.totalRows(), result.importId(), result.failedChunks());
+        }
+    }
+
+    public record StagedImportResponse(int updated, int created, int noSubmission, int notEnrolled, int outOfRange,
+                                       int superseded,
+                                       List<RejectedGradeRow> rejected) {
+    }
+
+    public record RejectedGradeRow(int row, long assignmentId, long studentId, GradeImportOutcome outcome) {
     }
 }
@@ -0,0 +1,212 @@
+package com.krzelj.lms.web.api;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+import tools.jackson.dataformat.smile.SmileMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Remembers successful responses of non-idempotent writes by (principal, operation, Idempotency-Key) so that a
+// retried request is answered from memory without running the write again. A key reused with a different payload
+// gets 422, a retry that arrives while the first request is still running gets 409. Responses are kept as status,
+// headers and the body encoded once per API format, so a replay honours the retry's Accept header the same way the
+// first response did; past app.idempotency.max-entries the least recently used completed entries are evicted.
+@Component
+public class IdempotencyStore {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyStore.class);
+
+    public static final String HEADER = "Idempotency-Key";
+    static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    static final int MAX_KEY_LENGTH = 255;
+
+    private record Key(String principal, String operation, String idempotencyKey) {
+    }
+
+    // bodies is empty when the response had no body
+    private record StoredResponse(HttpStatusCode status, HttpHeaders headers, Map<MediaType, byte[]> bodies) {
+    }
+
+    // response is null while the first request is in flight
+    private record Entry(String fingerprint, StoredResponse response, Instant expiresAt) {
+    }
+
+    private final Object lock = new Object();
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final AtomicLong replays = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong notStored = new AtomicLong();
+    private final Duration ttl;
+    private final int maxEntries;
+    private final Map<MediaType, ObjectMapper> mappers;
+
+    public IdempotencyStore(@Value("${app.idempotency.ttl-minutes:1440}") long ttlMinutes,
+                            @Value("${app.idempotency.max-entries:100000}") int maxEntries,
+                            JsonMapper jsonMapper, CBORMapper cborMapper, SmileMapper smileMapper) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("app.idempotency.max-entries must be at least 1");
+        }
+        this.ttl = Duration.ofMinutes(ttlMinutes);
+        this.maxEntries = maxEntries;
+        this.mappers = Map.of(
+                MediaType.APPLICATION_JSON, jsonMapper,
+                MediaType.APPLICATION_CBOR, cborMapper,
+                ApiMediaTypes.APPLICATION_SMILE, smileMapper);
+    }
+
+    public static String fingerprint(Object... parts) {
+        StringBuilder canonical = new StringBuilder();
+        for (Object part : parts) {
+            String value = String.valueOf(part);
+            canonical.append(value.length()).append(':').append(value);
+        }
+        return DigestUtils.md5DigestAsHex(canonical.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Runs {@code write} unless a response for the same key is stored. Without a key the write always runs.
+     * A replayed body is encoded in the format negotiated from {@code accept}.
+     */
+    public ResponseEntity<?> execute(String idempotencyKey, String principal, String operation, String fingerprint,
+                                     String accept, Supplier<? extends ResponseEntity<?>> write) {
+        if (idempotencyKey == null) {
+            return write.get();
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        Key key = new Key(principal, operation, idempotencyKey);
+        Instant now = Instant.now();
+        Entry inFlight = new Entry(fingerprint, null, now.plus(ttl));
+        Entry current;
+        synchronized (lock) {
+            current = entries.get(key);
+            if (current == null || current.expiresAt().isBefore(now)) {
+                current = inFlight;
+                entries.put(key, inFlight);
+            }
+        }
+        if (current != inFlight) {
+            if (!current.fingerprint().equals(fingerprint)) {
+                return ResponseEntity.status(HttpStatus.UNPROCESSABLE_CONTENT).build();
+            }
+            if (current.response() == null) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).build();
+            }
+            replays.incrementAndGet();
+            return replay(current.response(), ApiMediaTypes.negotiate(accept));
+        }
+
+        ResponseEntity<?> response;
+        try {
+            response = write.get();
+        } catch (RuntimeException | Error e) {
+            remove(key, inFlight);
+            throw e;
+        }
+        StoredResponse stored = response.getStatusCode().is2xxSuccessful() ? serialize(operation, response) : null;
+        synchronized (lock) {
+            if (stored == null) {
+                entries.remove(key, inFlight);
+            } else if (entries.replace(key, inFlight, new Entry(fingerprint, stored, Instant.now().plus(ttl)))) {
+                evictLeastRecentlyUsed();
+            }
+        }
+        return response;
+    }
+
+    @Scheduled(fixedDelayString = "${app.idempotency.cleanup-fixed-delay-ms:60000}")
+    public void purgeExpired() {
+        Instant now = Instant.now();
+        synchronized (lock) {
+            entries.values().removeIf(entry -> entry.response() != null && entry.expiresAt().isBefore(now));
+        }
+    }
+
+    int size() {
+        synchronized (lock) {
+            return entries.size();
+        }
+    }
+
+    long replays() {
+        return replays.get();
+    }
+
+    long evictions() {
+        return evictions.get();
+    }
+
+    long notStored() {
+        return notStored.get();
+    }
+
+    private StoredResponse serialize(String operation, ResponseEntity<?> response) {
+        try {
+            Map<MediaType, byte[]> bodies = new LinkedHashMap<>();
+            if (response.getBody() != null) {
+                for (Map.Entry<MediaType, ObjectMapper> mapper : mappers.entrySet()) {
+                    bodies.put(mapper.getKey(), mapper.getValue().writeValueAsBytes(response.getBody()));
+                }
+            }
+            HttpHeaders headers = new HttpHeaders();
+            headers.addAll(response.getHeaders());
+            headers.remove(HttpHeaders.CONTENT_TYPE);
+            return new StoredResponse(response.getStatusCode(), HttpHeaders.readOnlyHttpHeaders(headers), Map.copyOf(bodies));
+        } catch (JacksonException e) {
+            notStored.incrementAndGet();
+            log.warn("Idempotent response of {} could not be serialized and will not be replayed", operation, e);
+            return null;
+        }
+    }
+
+    private static ResponseEntity<byte[]> replay(StoredResponse response, MediaType mediaType) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.addAll(response.headers());
+        headers.set(REPLAYED_HEADER, "true");
+        byte[] body = response.bodies().get(mediaType);
+        if (body != null) {
+            headers.setContentType(mediaType);
+            headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        }
+        return new ResponseEntity<>(body, headers, response.status());
+    }
+
+    private void remove(Key key, Entry entry) {
+        synchronized (lock) {
+            entries.remove(key, entry);
+        }
+    }
+
+    // Entries still in flight are skipped: dropping one would let a concurrent retry run the write a second time.
+    private void evictLeastRecentlyUsed() {
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (entries.size() > maxEntries && eldest.hasNext()) {
+            if (eldest.next().response() != null) {
+                eldest.remove();
+                evictions.incrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.krzelj.lms.web.api;
+
+import com.krzelj.lms.service.ReportJob;
+import com.krzelj.lms.service.ReportJobService;
+import com.krzelj.lms.service.ReportJobStatus;
+import com.krzelj.lms.service.ReportJobType;
+import com.krzelj.lms.web.api.dto.CreateReportJobRequest;
+import com.krzelj.lms.web.api.dto.ReportJobResponse;
+import jakarta.validation.Valid;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.net.URI;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api/grading/jobs")
+@PreAuthorize("hasAnyRole('INSTRUCTOR', 'ADMIN')")
+public class ReportJobApiController {
+
+    private final ReportJobService reportJobService;
+
+    public ReportJobApiController(ReportJobService reportJobService) {
+        this.reportJobService = reportJobService;
+    }
+
+    @PostMapping
+    public ResponseEntity<ReportJobResponse> submitJob(@Valid @RequestBody CreateReportJobRequest request,
+                                                       Authentication authentication) {
+        if (request.type() == ReportJobType.INSTITUTION_REPORT && !isAdmin(authentication)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        ReportJob job;
+        try {
+            job = reportJobService.submit(authentication.getName(), request.type(), request.courseId(), request.courseIds(),
+                    request.partitions(), request.format());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "30").build();
+        }
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/grading/jobs/" + job.getId()))
+                .body(ReportJobResponse.from(job));
+    }
+
+    @GetMapping("/{jobId}")
+    public ResponseEntity<ReportJobResponse> getJob(@PathVariable String jobId, Authentication authentication) {
+        return reportJobService.find(jobId, authentication.getName(), isAdmin(authentication))
+                .map(job -> ResponseEntity.ok(ReportJobResponse.from(job)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/{jobId}/download")
+    public ResponseEntity<StreamingResponseBody> downloadJob(
+            @PathVariable String jobId,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            Authentication authentication) {
+        Optional<ReportJob> found = reportJobService.find(jobId, authentication.getName(), isAdmin(authentication));
+        if (found.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        ReportJob job = found.get();
+        if (job.getStatus() != ReportJobStatus.COMPLETED) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(job.getMediaType()))
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(job.getFileName())
+                        .build().toString());
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip").contentLength(job.getSizeBytes());
+        }
+        return response.body(out -> reportJobService.writeResult(job, gzip, out));
+    }
+
+    private static boolean isAdmin(Authentication authentication) {
+        return authentication.getAuthorities().stream()
+                .anyMatch(auth -> auth.getAuthority().equals("ROLE_ADMIN"));
+    }
+}
@@ -0,0 +1,93 @@
+package com.krzelj.lms.web.api;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.context.request.WebRequest;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+import tools.jackson.dataformat.smile.SmileMapper;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Keeps the encoded body of hot list endpoints, keyed by (endpoint, key, media type) and tagged with the data
+// version it was rendered from. A version mismatch drops the entry and re-renders. The bytes are handed back as a
+// ResponseEntity so the byte array converter writes them like any other controller result. Past MAX_ENTRIES the least
+// valuable entries are evicted one by one, so a full cache never empties all at once.
+@Component
+public class SerializedResponseCache {
+
+    static final int MAX_ENTRIES = 10_000;
+
+    private record Key(String endpoint, Object key, MediaType mediaType) {
+    }
+
+    private record Entry(long version, byte[] body, String etag) {
+    }
+
+    private final Cache<Key, Entry> entries = Caffeine.newBuilder().maximumSize(MAX_ENTRIES).build();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final Map<MediaType, ObjectMapper> mappers = new LinkedHashMap<>();
+
+    public SerializedResponseCache(JsonMapper jsonMapper, CBORMapper cborMapper, SmileMapper smileMapper) {
+        mappers.put(MediaType.APPLICATION_JSON, jsonMapper);
+        mappers.put(MediaType.APPLICATION_CBOR, cborMapper);
+        mappers.put(ApiMediaTypes.APPLICATION_SMILE, smileMapper);
+    }
+
+    public ResponseEntity<byte[]> respond(String endpoint, Object key, long version, Supplier<?> body, WebRequest request) {
+        MediaType mediaType = ApiMediaTypes.negotiate(request.getHeader(HttpHeaders.ACCEPT));
+        Entry entry = lookup(new Key(endpoint, key, mediaType), version, body);
+
+        if (VersionETags.matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), entry.etag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(entry.etag())
+                    .varyBy(HttpHeaders.ACCEPT)
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .eTag(entry.etag())
+                .varyBy(HttpHeaders.ACCEPT)
+                .contentType(mediaType)
+                .body(entry.body());
+    }
+
+    public long hitCount() {
+        return hits.get();
+    }
+
+    public long missCount() {
+        return misses.get();
+    }
+
+    public void clear() {
+        entries.invalidateAll();
+    }
+
+    private Entry lookup(Key key, long version, Supplier<?> body) {
+        Entry cached = entries.getIfPresent(key);
+        if (cached != null && cached.version() == version) {
+            hits.incrementAndGet();
+            return cached;
+        }
+        if (cached != null) {
+            entries.asMap().remove(key, cached);
+        }
+
+        misses.incrementAndGet();
+        byte[] bytes = mappers.get(key.mediaType()).writeValueAsBytes(body.get());
+        Entry rendered = new Entry(version, bytes, "\"" + DigestUtils.md5DigestAsHex(bytes) + "\"");
+        entries.asMap().merge(key, rendered, (current, next) -> next.version() >= current.version() ? next : current);
+        return rendered;
+    }
+}
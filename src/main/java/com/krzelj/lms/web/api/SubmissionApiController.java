@@ -2,13 +2,22 @@ package com.krzelj.lms.web.api;
 
 import com.krzelj.lms.domain.Submission;
 import com.krzelj.lms.domain.User;
+import com.krzelj.lms.service.ExportFormat;
+import com.krzelj.lms.service.ExportService;
+import com.krzelj.lms.service.SparseFieldService;
+import com.krzelj.lms.service.SubmissionReceipt;
 import com.krzelj.lms.service.SubmissionService;
+import com.krzelj.lms.service.SubmissionWriteBuffer;
 import com.krzelj.lms.service.UserService;
+import com.krzelj.lms.web.api.dto.BatchResponse;
 import com.krzelj.lms.web.api.dto.GradeSubmissionRequest;
 import com.krzelj.lms.web.api.dto.SubmissionResponse;
 import com.krzelj.lms.web.api.dto.SubmitWorkRequest;
 import jakarta.validation.Valid;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
@@ -17,11 +26,15 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/assignments/{assignmentId}/submissions")
@@ -29,15 +42,34 @@ public class SubmissionApiController {
 
     private final SubmissionService submissionService;
     private final UserService userService;
+    private final SparseFieldService sparseFieldService;
+    private final ExportService exportService;
+    private final IdempotencyStore idempotencyStore;
+    private final SubmissionWriteBuffer submissionWriteBuffer;
 
-    public SubmissionApiController(SubmissionService submissionService, UserService userService) {
+    public SubmissionApiController(SubmissionService submissionService, UserService userService,
+                                   SparseFieldService sparseFieldService, ExportService exportService,
+                                   IdempotencyStore idempotencyStore, SubmissionWriteBuffer submissionWriteBuffer) {
         this.submissionService = submissionService;
         this.userService = userService;
+        this.sparseFieldService = sparseFieldService;
+        this.exportService = exportService;
+        this.idempotencyStore = idempotencyStore;
+        this.submissionWriteBuffer = submissionWriteBuffer;
     }
 
     @GetMapping
     @PreAuthorize("hasAnyRole('INSTRUCTOR', 'ADMIN')")
-    public ResponseEntity<List<SubmissionResponse>> listSubmissions(@PathVariable Long assignmentId) {
+    public ResponseEntity<List<?>> listSubmissions(@PathVariable Long assignmentId,
+                                                   @RequestParam(required = false) String fields) {
+        if (fields != null) {
+            try {
+                return ResponseEntity.ok(sparseFieldService.findSubmissionsForAssignment(assignmentId,
+                        sparseFieldService.submissionFields(fields)));
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().build();
+            }
+        }
         List<Submission> submissions = submissionService.findForAssignment(assignmentId);
         List<SubmissionResponse> response = submissions.stream()
                 .map(SubmissionResponse::from)
@@ -45,48 +77,111 @@ public class SubmissionApiController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping(params = "ids")
+    @PreAuthorize("hasAnyRole('INSTRUCTOR', 'ADMIN')")
+    public ResponseEntity<BatchResponse<SubmissionResponse>> getSubmissions(@PathVariable Long assignmentId,
+                                                                           @RequestParam List<Long> ids) {
+        try {
+            return ResponseEntity.ok(BatchResponse.from(submissionService.getByIdsWithDetails(assignmentId, ids), SubmissionResponse::from));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/export")
+    @PreAuthorize("hasAnyRole('INSTRUCTOR', 'ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportSubmissions(
+            @PathVariable Long assignmentId,
+            @RequestParam(required = false) String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        ExportFormat exportFormat;
+        try {
+            exportFormat = ExportFormat.resolve(format, accept);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.mediaType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(exportFormat.fileName("assignment-" + assignmentId + "-submissions"))
+                        .build().toString())
+                .body(out -> exportService.exportSubmissions(assignmentId, exportFormat, out));
+    }
+
     @GetMapping("/{submissionId}")
     public ResponseEntity<SubmissionResponse> getSubmission(@PathVariable Long assignmentId,
-                                                             @PathVariable Long submissionId) {
-        Submission submission = submissionService.getById(submissionId);
-        return ResponseEntity.ok(SubmissionResponse.from(submission));
+                                                             @PathVariable Long submissionId,
+                                                             WebRequest request) {
+        if (VersionETags.notModified(request, () -> submissionService.findVersion(submissionId)
+                .map(version -> VersionETags.of(request, version))
+                .orElse(null))) {
+            return null;
+        }
+        Submission submission = submissionService.getByIdWithDetails(submissionId);
+        return VersionETags.ok(request, submission.getVersion())
+                .body(SubmissionResponse.from(submission));
     }
 
     @PostMapping
     @PreAuthorize("hasRole('STUDENT')")
-    public ResponseEntity<SubmissionResponse> submitWork(
+    public ResponseEntity<?> submitWork(
             @PathVariable Long assignmentId,
             @Valid @RequestBody SubmitWorkRequest request,
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
             Authentication authentication) {
-        User currentUser = userService.findByUsername(authentication.getName())
-                .orElseThrow(() -> new IllegalStateException("User not found"));
-        Submission submission = submissionService.submitWork(
-                assignmentId,
-                currentUser.getId(),
-                request.contentText()
-        );
-        return ResponseEntity.status(HttpStatus.CREATED).body(SubmissionResponse.from(submission));
+        return idempotencyStore.execute(idempotencyKey, authentication.getName(), "submit-work:" + assignmentId,
+                IdempotencyStore.fingerprint(request.contentText()), accept, () -> {
+                    User currentUser = userService.findByUsername(authentication.getName())
+                            .orElseThrow(() -> new IllegalStateException("User not found"));
+                    Optional<SubmissionReceipt> receipt = submissionWriteBuffer.tryAccept(
+                            assignmentId, currentUser.getId(), request.contentText());
+                    if (receipt.isPresent()) {
+                        return ResponseEntity.accepted().body(receipt.get());
+                    }
+                    Submission submission = submissionService.submitWork(
+                            assignmentId,
+                            currentUser.getId(),
+                            request.contentText()
+                    );
+                    return ResponseEntity.status(HttpStatus.CREATED).body(SubmissionResponse.from(submission));
+                });
     }
 
     @PutMapping("/{submissionId}/grade")
     @PreAuthorize("hasAnyRole('INSTRUCTOR', 'ADMIN')")
-    public ResponseEntity<SubmissionResponse> gradeSubmission(
+    public ResponseEntity<?> gradeSubmission(
             @PathVariable Long assignmentId,
             @PathVariable Long submissionId,
             @RequestParam Long graderUserId,
-            @Valid @RequestBody GradeSubmissionRequest request) {
-        Submission submission = submissionService.gradeSubmission(
-                submissionId,
-                graderUserId,
-                request.points()
-        );
-        return ResponseEntity.ok(SubmissionResponse.from(submission));
+            @Valid @RequestBody GradeSubmissionRequest request,
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            Authentication authentication) {
+        return idempotencyStore.execute(idempotencyKey, authentication.getName(), "grade-submission:" + submissionId,
+                IdempotencyStore.fingerprint(graderUserId, request.points()), accept, () -> {
+                    Submission submission = submissionService.gradeSubmission(
+                            submissionId,
+                            graderUserId,
+                            request.points()
+                    );
+                    return ResponseEntity.ok(SubmissionResponse.from(submission));
+                });
     }
 
     @GetMapping("/student/{studentId}")
     @PreAuthorize("hasAnyRole('STUDENT', 'ADMIN')")
-    public ResponseEntity<List<SubmissionResponse>> getSubmissionsForStudent(@PathVariable Long assignmentId,
-                                                                              @PathVariable Long studentId) {
+    public ResponseEntity<List<?>> getSubmissionsForStudent(@PathVariable Long assignmentId,
+                                                            @PathVariable Long studentId,
+                                                            @RequestParam(required = false) String fields) {
+        if (fields != null) {
+            try {
+                return ResponseEntity.ok(sparseFieldService.findSubmissionsForStudent(studentId,
+                        sparseFieldService.submissionFields(fields)));
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().build();
+            }
+        }
         List<Submission> submissions = submissionService.findForStudent(studentId);
         List<SubmissionResponse> response = submissions.stream()
                 .map(SubmissionResponse::from)
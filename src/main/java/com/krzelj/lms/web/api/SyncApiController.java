@@ -0,0 +1,43 @@
+package com.krzelj.lms.web.api;
+
+import com.krzelj.lms.domain.User;
+import com.krzelj.lms.service.SyncChanges;
+import com.krzelj.lms.service.SyncService;
+import com.krzelj.lms.service.UserService;
+import com.krzelj.lms.web.api.dto.SyncResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/sync")
+public class SyncApiController {
+
+    private final SyncService syncService;
+    private final UserService userService;
+
+    public SyncApiController(SyncService syncService, UserService userService) {
+        this.syncService = syncService;
+        this.userService = userService;
+    }
+
+    @GetMapping
+    public ResponseEntity<SyncResponse> sync(@RequestParam(required = false) String since,
+                                             Authentication authentication) {
+        User currentUser = userService.findByUsername(authentication.getName())
+                .orElseThrow(() -> new IllegalStateException("User not found"));
+        SyncChanges changes;
+        try {
+            changes = syncService.changesSince(currentUser, since);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .body(SyncResponse.from(changes));
+    }
+}
@@ -0,0 +1,61 @@
+package com.krzelj.lms.web.api;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.ETag;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+// Strong ETags derived from @Version columns. The version lookup only runs when the client sent If-None-Match.
+// JSON, CBOR and Smile bodies differ byte for byte, so each negotiated format gets its own validator.
+final class VersionETags {
+
+    private VersionETags() {
+    }
+
+    static String of(WebRequest request, Long... versions) {
+        String tag = ApiMediaTypes.tag(ApiMediaTypes.negotiate(request.getHeader(HttpHeaders.ACCEPT)));
+        return Arrays.stream(versions)
+                .map(version -> Objects.toString(version, "0"))
+                .collect(Collectors.joining(".", "\"", tag.isEmpty() ? "\"" : "+" + tag + "\""));
+    }
+
+    static ResponseEntity.BodyBuilder ok(WebRequest request, Long... versions) {
+        return ResponseEntity.ok()
+                .eTag(of(request, versions))
+                .varyBy(HttpHeaders.ACCEPT);
+    }
+
+    // If-None-Match uses weak comparison; a list matches if any member does and "*" matches any current representation.
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        ETag current = ETag.create(etag);
+        return ETag.parse(ifNoneMatch).stream()
+                .anyMatch(requested -> requested.isWildcard() || requested.compare(current, false));
+    }
+
+    static boolean notModified(WebRequest request, Supplier<String> currentETag) {
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) == null) {
+            return false;
+        }
+        String etag = currentETag.get();
+        if (etag == null || !request.checkNotModified(etag)) {
+            return false;
+        }
+        if (request instanceof NativeWebRequest nativeRequest) {
+            HttpServletResponse response = nativeRequest.getNativeResponse(HttpServletResponse.class);
+            if (response != null) {
+                response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+            }
+        }
+        return true;
+    }
+}
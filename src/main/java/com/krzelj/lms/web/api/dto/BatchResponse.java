@@ -0,0 +1,18 @@
+package com.krzelj.lms.web.api.dto;
+
+import com.krzelj.lms.service.BatchResult;
+
+import java.util.List;
+import java.util.function.Function;
+
+public record BatchResponse<T>(
+        List<T> items,
+        List<Long> notFound
+) {
+    public static <S, T> BatchResponse<T> from(BatchResult<S> result, Function<S, T> mapper) {
+        return new BatchResponse<>(
+                result.found().stream().map(mapper).toList(),
+                result.notFound()
+        );
+    }
+}
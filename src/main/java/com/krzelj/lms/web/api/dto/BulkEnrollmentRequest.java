@@ -0,0 +1,13 @@
+package com.krzelj.lms.web.api.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record BulkEnrollmentRequest(
+        @NotNull(message = "Student IDs are required")
+        @Size(max = 50000, message = "At most 50000 students per batch")
+        List<Long> studentIds
+) {
+}
@@ -0,0 +1,58 @@
+package com.krzelj.lms.web.api.dto;
+
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+
+import java.util.Arrays;
+import java.util.List;
+
+public record CacheStatisticsResponse(
+        long preparedStatementCount,
+        long queryExecutionCount,
+        long entityLoadCount,
+        long entityFetchCount,
+        long secondLevelCacheHitCount,
+        long secondLevelCacheMissCount,
+        long secondLevelCachePutCount,
+        long queryCacheHitCount,
+        long queryCacheMissCount,
+        long queryCachePutCount,
+        List<Region> regions
+) {
+    public record Region(
+            String name,
+            long hitCount,
+            long missCount,
+            long putCount,
+            long elementCountInMemory
+    ) {
+        static Region from(String name, CacheRegionStatistics stats) {
+            return new Region(name, stats.getHitCount(), stats.getMissCount(),
+                    stats.getPutCount(), stats.getElementCountInMemory());
+        }
+    }
+
+    public static CacheStatisticsResponse from(Statistics statistics) {
+        List<Region> regions = Arrays.stream(statistics.getSecondLevelCacheRegionNames())
+                .sorted()
+                .map(name -> {
+                    CacheRegionStatistics stats = statistics.getCacheRegionStatistics(name);
+                    return stats == null ? null : Region.from(name, stats);
+                })
+                .filter(region -> region != null)
+                .toList();
+        return new CacheStatisticsResponse(
+                statistics.getPrepareStatementCount(),
+                statistics.getQueryExecutionCount(),
+                statistics.getEntityLoadCount(),
+                statistics.getEntityFetchCount(),
+                statistics.getSecondLevelCacheHitCount(),
+                statistics.getSecondLevelCacheMissCount(),
+                statistics.getSecondLevelCachePutCount(),
+                statistics.getQueryCacheHitCount(),
+                statistics.getQueryCacheMissCount(),
+                statistics.getQueryCachePutCount(),
+                regions
+        );
+    }
+}
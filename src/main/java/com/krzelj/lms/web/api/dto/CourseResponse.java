@@ -1,6 +1,7 @@
 package com.krzelj.lms.web.api.dto;
 
 import com.krzelj.lms.domain.Course;
+import com.krzelj.lms.repository.dto.CatalogCourse;
 
 import java.time.Instant;
 
@@ -11,7 +12,8 @@ public record CourseResponse(
         String description,
         Long instructorId,
         String instructorName,
-        Instant createdAt
+        Instant createdAt,
+        Integer capacity
 ) {
     public static CourseResponse from(Course course) {
         return new CourseResponse(
@@ -21,7 +23,21 @@ public record CourseResponse(
                 course.getDescription(),
                 course.getInstructor().getId(),
                 course.getInstructor().getUsername(),
-                course.getCreatedAt()
+                course.getCreatedAt(),
+                course.getCapacity()
+        );
+    }
+
+    public static CourseResponse from(CatalogCourse course) {
+        return new CourseResponse(
+                course.id(),
+                course.code(),
+                course.title(),
+                course.description(),
+                course.instructorId(),
+                course.instructorUsername(),
+                course.createdAt(),
+                course.capacity()
         );
     }
 }
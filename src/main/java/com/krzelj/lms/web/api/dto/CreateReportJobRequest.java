@@ -0,0 +1,20 @@
+package com.krzelj.lms.web.api.dto;
+
+import com.krzelj.lms.service.ReportJobType;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+public record CreateReportJobRequest(
+        @NotNull(message = "Type is required")
+        ReportJobType type,
+
+        Long courseId,
+
+        List<Long> courseIds,
+
+        Integer partitions,
+
+        String format
+) {
+}
@@ -0,0 +1,36 @@
+package com.krzelj.lms.web.api.dto;
+
+import com.krzelj.lms.service.GradeDistribution;
+
+import java.util.List;
+
+public record GradeDistributionResponse(
+        long assignmentId,
+        int maxPoints,
+        int gradedCount,
+        Double mean,
+        Integer min,
+        Integer p25,
+        Integer median,
+        Integer p75,
+        Integer p90,
+        Integer max,
+        List<GradeDistribution.Bucket> histogram
+) {
+    public static GradeDistributionResponse from(GradeDistribution distribution, int buckets) {
+        double mean = distribution.mean();
+        return new GradeDistributionResponse(
+                distribution.assignmentId(),
+                distribution.maxPoints(),
+                distribution.gradedCount(),
+                Double.isNaN(mean) ? null : Math.round(mean * 100) / 100.0,
+                distribution.min(),
+                distribution.percentile(25),
+                distribution.percentile(50),
+                distribution.percentile(75),
+                distribution.percentile(90),
+                distribution.max(),
+                distribution.histogram(buckets)
+        );
+    }
+}
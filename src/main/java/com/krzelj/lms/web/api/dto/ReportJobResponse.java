@@ -0,0 +1,36 @@
+package com.krzelj.lms.web.api.dto;
+
+import com.krzelj.lms.service.ReportJob;
+import com.krzelj.lms.service.ReportJobStatus;
+import com.krzelj.lms.service.ReportJobType;
+
+import java.time.Instant;
+
+public record ReportJobResponse(
+        String id,
+        ReportJobType type,
+        ReportJobStatus status,
+        Instant createdAt,
+        Instant startedAt,
+        Instant completedAt,
+        String fileName,
+        Long compressedBytes,
+        String error,
+        String downloadUrl
+) {
+    public static ReportJobResponse from(ReportJob job) {
+        boolean completed = job.getStatus() == ReportJobStatus.COMPLETED;
+        return new ReportJobResponse(
+                job.getId(),
+                job.getType(),
+                job.getStatus(),
+                job.getCreatedAt(),
+                job.getStartedAt(),
+                job.getCompletedAt(),
+                job.getFileName(),
+                completed ? job.getSizeBytes() : null,
+                job.getError(),
+                completed ? "/api/grading/jobs/" + job.getId() + "/download" : null
+        );
+    }
+}
@@ -1,11 +1,12 @@
 package com.krzelj.lms.web.api.dto;
 
+import com.krzelj.lms.domain.Submission;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 
 public record SubmitWorkRequest(
         @NotBlank(message = "Content is required")
-        @Size(max = 10000, message = "Content must be at most 10000 characters")
+        @Size(max = Submission.MAX_CONTENT_LENGTH, message = "Content must be at most 10000 characters")
         String contentText
 ) {
 }
@@ -0,0 +1,31 @@
+package com.krzelj.lms.web.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.krzelj.lms.domain.SyncEntityType;
+import com.krzelj.lms.service.SyncChanges;
+
+import java.util.List;
+
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public record SyncResponse(
+        String token,
+        boolean fullResync,
+        List<CourseResponse> courses,
+        List<AssignmentResponse> assignments,
+        List<SubmissionResponse> submissions,
+        List<Deletion> deleted
+) {
+    public record Deletion(SyncEntityType type, Long id) {
+    }
+
+    public static SyncResponse from(SyncChanges changes) {
+        return new SyncResponse(
+                changes.token(),
+                changes.fullResync(),
+                changes.courses().stream().map(CourseResponse::from).toList(),
+                changes.assignments().stream().map(AssignmentResponse::from).toList(),
+                changes.submissions().stream().map(SubmissionResponse::from).toList(),
+                changes.deleted().stream().map(d -> new Deletion(d.type(), d.id())).toList()
+        );
+    }
+}
@@ -0,0 +1,9 @@
+package com.krzelj.lms.web.api.dto;
+
+import jakarta.validation.constraints.Min;
+
+public record UpdateCapacityRequest(
+        @Min(value = 1, message = "Capacity must be at least 1")
+        Integer capacity
+) {
+}
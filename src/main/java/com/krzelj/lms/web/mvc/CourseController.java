@@ -2,8 +2,15 @@ package com.krzelj.lms.web.mvc;
 
 import com.krzelj.lms.domain.Course;
 import com.krzelj.lms.domain.User;
+import com.krzelj.lms.repository.dto.CatalogCourse;
+import com.krzelj.lms.repository.dto.CourseSummary;
+import com.krzelj.lms.repository.dto.RosterEntry;
+import com.krzelj.lms.domain.EnrollmentOutcome;
 import com.krzelj.lms.service.CourseService;
+import com.krzelj.lms.service.EnrollmentService;
 import com.krzelj.lms.service.UserService;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -22,17 +29,21 @@ import java.util.List;
 @RequestMapping("/courses")
 public class CourseController {
 
+    private static final int MAX_ROSTER_PAGE_SIZE = 200;
+
     private final CourseService courseService;
+    private final EnrollmentService enrollmentService;
     private final UserService userService;
 
-    public CourseController(CourseService courseService, UserService userService) {
+    public CourseController(CourseService courseService, EnrollmentService enrollmentService, UserService userService) {
         this.courseService = courseService;
+        this.enrollmentService = enrollmentService;
         this.userService = userService;
     }
 
     @GetMapping
     public String listCourses(Model model) {
-        List<Course> courses = courseService.findAll();
+        List<CatalogCourse> courses = courseService.findCatalog();
         model.addAttribute("courses", courses);
         return "courses/list";
     }
@@ -42,26 +53,19 @@ public class CourseController {
                              @AuthenticationPrincipal UserDetails userDetails,
                              Model model) {
         try {
-            Course course = courseService.getById(id);
-
-            User instructor = course.getInstructor();
-            String instructorUsername = "Unknown";
-            Long instructorId = null;
-            if (instructor != null) {
-                instructorUsername = instructor.getUsername();
-                instructorId = instructor.getId();
-            }
+            CourseSummary course = courseService.getSummary(id);
 
-            java.util.Set<User> students = course.getStudents();
-            int studentCount = students != null ? students.size() : 0;
+            Long instructorId = course.instructorId();
+            String instructorUsername = course.instructorUsername() != null ? course.instructorUsername() : "Unknown";
 
             model.addAttribute("course", course);
-            model.addAttribute("instructor", instructor);
             model.addAttribute("instructorUsername", instructorUsername);
             model.addAttribute("instructorId", instructorId);
-            model.addAttribute("studentCount", studentCount);
+            model.addAttribute("studentCount", course.studentCount());
+            model.addAttribute("capacity", course.capacity());
 
             model.addAttribute("isEnrolled", false);
+            model.addAttribute("waitlistPosition", 0);
             model.addAttribute("isInstructor", false);
             model.addAttribute("isAdmin", false);
             model.addAttribute("isStudent", false);
@@ -73,12 +77,15 @@ public class CourseController {
                     model.addAttribute("currentUser", currentUser);
                     Long currentUserId = currentUser.getId();
 
-                    boolean isEnrolled = false;
-                    if (students != null) {
-                        isEnrolled = students.stream()
-                                .anyMatch(s -> s.getId().equals(currentUserId));
-                    }
+                    boolean isStudent = userDetails.getAuthorities().stream()
+                            .anyMatch(auth -> auth.getAuthority().equals("ROLE_STUDENT"));
+                    model.addAttribute("isStudent", isStudent);
+
+                    boolean isEnrolled = isStudent && courseService.isStudentEnrolled(id, currentUserId);
                     model.addAttribute("isEnrolled", isEnrolled);
+                    if (isStudent && !isEnrolled) {
+                        model.addAttribute("waitlistPosition", enrollmentService.waitlistPosition(id, currentUserId));
+                    }
 
                     boolean isInstructor = instructorId != null && instructorId.equals(currentUserId);
                     model.addAttribute("isInstructor", isInstructor);
@@ -86,10 +93,6 @@ public class CourseController {
                     boolean isAdmin = userDetails.getAuthorities().stream()
                             .anyMatch(auth -> auth.getAuthority().equals("ROLE_ADMIN"));
                     model.addAttribute("isAdmin", isAdmin);
-
-                    boolean isStudent = userDetails.getAuthorities().stream()
-                            .anyMatch(auth -> auth.getAuthority().equals("ROLE_STUDENT"));
-                    model.addAttribute("isStudent", isStudent);
                 }
             }
             
@@ -101,6 +104,19 @@ public class CourseController {
         }
     }
 
+    @GetMapping("/{id}/roster")
+    @PreAuthorize("hasAnyRole('INSTRUCTOR', 'ADMIN')")
+    public String viewRoster(@PathVariable Long id,
+                             @RequestParam(defaultValue = "0") int page,
+                             @RequestParam(defaultValue = "50") int size,
+                             Model model) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_ROSTER_PAGE_SIZE);
+        Page<RosterEntry> roster = courseService.findRoster(id, PageRequest.of(Math.max(page, 0), pageSize));
+        model.addAttribute("courseId", id);
+        model.addAttribute("roster", roster);
+        return "courses/roster :: roster";
+    }
+
     @GetMapping("/new")
     @PreAuthorize("hasAnyRole('INSTRUCTOR', 'ADMIN')")
     public String newCourseForm(Model model) {
@@ -145,8 +161,12 @@ public class CourseController {
         try {
             User student = userService.findByUsername(userDetails.getUsername())
                     .orElseThrow(() -> new IllegalArgumentException("User not found"));
-            courseService.enrollStudent(id, student.getId());
-            redirectAttributes.addFlashAttribute("success", "Successfully enrolled in course");
+            EnrollmentOutcome outcome = enrollmentService.enrollStudent(id, student.getId());
+            if (outcome == EnrollmentOutcome.WAITLISTED) {
+                redirectAttributes.addFlashAttribute("success", "Course is full, you have been added to the waitlist");
+            } else {
+                redirectAttributes.addFlashAttribute("success", "Successfully enrolled in course");
+            }
         } catch (Exception e) {
             redirectAttributes.addFlashAttribute("error", "Failed to enroll: " + e.getMessage());
         }
@@ -161,7 +181,7 @@ public class CourseController {
         try {
             User student = userService.findByUsername(userDetails.getUsername())
                     .orElseThrow(() -> new IllegalArgumentException("User not found"));
-            courseService.unenrollStudent(id, student.getId());
+            enrollmentService.unenrollStudent(id, student.getId());
             redirectAttributes.addFlashAttribute("success", "Successfully unenrolled from course");
         } catch (Exception e) {
             redirectAttributes.addFlashAttribute("error", "Failed to unenroll: " + e.getMessage());
@@ -21,7 +21,7 @@ public class HomeController {
         if (userDetails != null) {
             return "redirect:/dashboard";
         }
-        model.addAttribute("courses", courseService.findAll());
+        model.addAttribute("courses", courseService.findCatalog());
         return "home";
     }
 }
@@ -2,10 +2,11 @@ package com.krzelj.lms.web.mvc;
 
 import com.krzelj.lms.domain.Submission;
 import com.krzelj.lms.domain.User;
-import com.krzelj.lms.repository.jdbc.GradeImportJdbcRepository;
-import com.krzelj.lms.repository.jdbc.dto.GradeImportRow;
 import com.krzelj.lms.service.AssignmentService;
+import com.krzelj.lms.service.GradeCsvImportReport;
+import com.krzelj.lms.service.GradeCsvImportService;
 import com.krzelj.lms.service.SubmissionService;
+import com.krzelj.lms.service.SubmissionWriteBuffer;
 import com.krzelj.lms.service.UserService;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -17,27 +18,36 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
-import java.time.Instant;
-import java.util.ArrayList;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 @Controller
 @RequestMapping("/assignments/{assignmentId}/submissions")
 public class SubmissionController {
 
+    private static final int MAX_SHOWN_ERRORS = 20;
+
     private final SubmissionService submissionService;
     private final AssignmentService assignmentService;
     private final UserService userService;
-    private final GradeImportJdbcRepository gradeImportJdbcRepository;
+    private final GradeCsvImportService gradeCsvImportService;
+    private final SubmissionWriteBuffer submissionWriteBuffer;
 
     public SubmissionController(SubmissionService submissionService, AssignmentService assignmentService,
-                               UserService userService, GradeImportJdbcRepository gradeImportJdbcRepository) {
+                               UserService userService, GradeCsvImportService gradeCsvImportService,
+                               SubmissionWriteBuffer submissionWriteBuffer) {
         this.submissionService = submissionService;
         this.assignmentService = assignmentService;
         this.userService = userService;
-        this.gradeImportJdbcRepository = gradeImportJdbcRepository;
+        this.gradeCsvImportService = gradeCsvImportService;
+        this.submissionWriteBuffer = submissionWriteBuffer;
     }
 
     @GetMapping
@@ -72,12 +82,21 @@ public class SubmissionController {
     @PreAuthorize("hasRole('STUDENT')")
     public String submitWork(@PathVariable Long assignmentId,
                              @RequestParam String contentText,
-                             @AuthenticationPrincipal UserDetails userDetails) {
+                             @AuthenticationPrincipal UserDetails userDetails,
+                             RedirectAttributes redirectAttributes) {
+        var assignment = assignmentService.getByIdWithCourse(assignmentId);
+        String redirect = "redirect:/courses/" + assignment.getCourse().getId() + "/assignments/" + assignmentId;
+        if (contentText.length() > Submission.MAX_CONTENT_LENGTH) {
+            redirectAttributes.addFlashAttribute("error",
+                    "Content must be at most " + Submission.MAX_CONTENT_LENGTH + " characters");
+            return redirect;
+        }
         User currentUser = userService.findByUsername(userDetails.getUsername())
                 .orElseThrow(() -> new IllegalStateException("User not found"));
-        submissionService.submitWork(assignmentId, currentUser.getId(), contentText);
-        var assignment = assignmentService.getByIdWithCourse(assignmentId);
-        return "redirect:/courses/" + assignment.getCourse().getId() + "/assignments/" + assignmentId;
+        if (submissionWriteBuffer.tryAccept(assignmentId, currentUser.getId(), contentText).isEmpty()) {
+            submissionService.submitWork(assignmentId, currentUser.getId(), contentText);
+        }
+        return redirect;
     }
 
     @PostMapping("/{submissionId}/grade")
@@ -93,35 +112,35 @@ public class SubmissionController {
     @PostMapping("/bulk-grade")
     @PreAuthorize("hasAnyRole('INSTRUCTOR', 'ADMIN')")
     public String bulkGrade(@PathVariable Long assignmentId,
-                            @RequestParam String bulkGrades,
+                            @RequestParam(required = false) String bulkGrades,
+                            @RequestParam(required = false) MultipartFile file,
                             @AuthenticationPrincipal UserDetails userDetails,
-                            RedirectAttributes redirectAttributes) {
+                            RedirectAttributes redirectAttributes) throws IOException {
         User grader = userService.findByUsername(userDetails.getUsername())
                 .orElseThrow(() -> new IllegalStateException("User not found"));
-        List<GradeImportRow> rows = new ArrayList<>();
-        for (String line : bulkGrades.lines().toList()) {
-            String trimmed = line.trim();
-            if (trimmed.isEmpty()) continue;
-            String[] parts = trimmed.split("[, \t]+");
-            if (parts.length >= 2) {
-                try {
-                    long studentId = Long.parseLong(parts[0].trim());
-                    int points = Integer.parseInt(parts[1].trim());
-                    rows.add(new GradeImportRow(assignmentId, studentId, points));
-                } catch (NumberFormatException ignored) { }
-            }
+        Reader csv;
+        if (file != null && !file.isEmpty()) {
+            csv = new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8);
+        } else if (bulkGrades != null && !bulkGrades.isBlank()) {
+            csv = new StringReader(bulkGrades);
+        } else {
+            redirectAttributes.addFlashAttribute("bulkGradeError", "No grades given. Upload a CSV file or use: studentId,points (one per line).");
+            return "redirect:/assignments/" + assignmentId + "/submissions";
         }
-        if (rows.isEmpty()) {
-            redirectAttributes.addFlashAttribute("bulkGradeError", "No valid lines. Use: studentId,points (one per line).");
+
+        GradeCsvImportReport report;
+        try (csv) {
+            report = gradeCsvImportService.importGrades(assignmentId, csv, grader.getId(), false, progress -> { });
+        } catch (IllegalArgumentException e) {
+            redirectAttributes.addFlashAttribute("bulkGradeError", e.getMessage());
             return "redirect:/assignments/" + assignmentId + "/submissions";
         }
-        int[][] result = gradeImportJdbcRepository.batchUpdateGrades(rows, grader.getId(), Instant.now());
-        int updated = 0;
-        for (int[] batch : result) {
-            for (int c : batch) updated += c;
+        redirectAttributes.addFlashAttribute("bulkGradeSuccess", report.updated() + " grades updated, "
+                + report.rejected() + " lines rejected.");
+        if (!report.errors().isEmpty()) {
+            redirectAttributes.addFlashAttribute("bulkGradeErrors",
+                    report.errors().subList(0, Math.min(MAX_SHOWN_ERRORS, report.errors().size())));
         }
-        redirectAttributes.addFlashAttribute("bulkGradeSuccess", updated + " of " + rows.size() + " grades updated.");
         return "redirect:/assignments/" + assignmentId + "/submissions";
     }
 }
-
@@ -0,0 +1,20 @@
+-- Seat limits, an atomic enrolled-seat counter and an ordered waitlist per course
+
+alter table courses add column if not exists capacity integer null;
+alter table courses add column if not exists enrolled_count integer not null default 0;
+alter table courses add constraint ck_courses_capacity check (capacity is null or capacity > 0);
+
+update courses c
+set enrolled_count = (select count(*) from course_students cs where cs.course_id = c.id);
+
+create table if not exists course_waitlist (
+    id bigserial primary key,
+    course_id bigint not null,
+    student_id bigint not null,
+    requested_at timestamptz not null,
+    constraint uk_course_waitlist_course_student unique (course_id, student_id),
+    constraint fk_course_waitlist_course foreign key (course_id) references courses(id) on delete cascade,
+    constraint fk_course_waitlist_student foreign key (student_id) references users(id) on delete cascade
+);
+
+create index if not exists idx_course_waitlist_course_id on course_waitlist(course_id, id);
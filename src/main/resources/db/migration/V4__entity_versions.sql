@@ -0,0 +1,5 @@
+-- Optimistic-locking versions, also used as the basis for HTTP ETags
+
+alter table courses add column if not exists version bigint not null default 0;
+alter table assignments add column if not exists version bigint not null default 0;
+alter table submissions add column if not exists version bigint not null default 0;
@@ -0,0 +1,21 @@
+-- Change timestamps and tombstones backing the delta-sync API
+
+alter table courses add column if not exists updated_at timestamptz not null default now();
+alter table assignments add column if not exists updated_at timestamptz not null default now();
+alter table submissions add column if not exists updated_at timestamptz not null default now();
+
+create index if not exists idx_courses_updated_at on courses(updated_at);
+create index if not exists idx_assignments_course_updated_at on assignments(course_id, updated_at);
+create index if not exists idx_submissions_student_updated_at on submissions(student_id, updated_at);
+create index if not exists idx_submissions_assignment_updated_at on submissions(assignment_id, updated_at);
+
+create table if not exists sync_tombstones (
+    id bigserial primary key,
+    entity_type varchar(32) not null,
+    entity_id bigint not null,
+    course_id bigint not null,
+    student_id bigint null,
+    deleted_at timestamptz not null
+);
+
+create index if not exists idx_sync_tombstones_deleted_at on sync_tombstones(deleted_at);
@@ -0,0 +1,26 @@
+-- Per-assignment grade rollup so course reports read one row per assignment instead of scanning submissions
+
+create table if not exists assignment_grade_stats (
+    assignment_id bigint primary key,
+    submissions_count bigint not null default 0,
+    graded_count bigint not null default 0,
+    points_sum bigint not null default 0,
+    points_sum_squares bigint not null default 0,
+    min_points integer null,
+    max_points integer null,
+    constraint fk_assignment_grade_stats_assignment foreign key (assignment_id) references assignments(id) on delete cascade
+);
+
+insert into assignment_grade_stats (assignment_id, submissions_count, graded_count, points_sum, points_sum_squares, min_points, max_points)
+select
+    a.id,
+    count(s.id),
+    count(s.grade_points),
+    coalesce(sum(s.grade_points), 0),
+    coalesce(sum(s.grade_points::bigint * s.grade_points), 0),
+    min(s.grade_points),
+    max(s.grade_points)
+from assignments a
+left join submissions s on s.assignment_id = a.id
+group by a.id
+on conflict (assignment_id) do nothing;
@@ -0,0 +1,111 @@
+package com.krzelj.lms.repository.jdbc;
+
+import com.krzelj.lms.repository.jdbc.dto.EnrollmentBatchResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class EnrollmentJdbcRepositoryTest {
+
+    @Autowired
+    private EnrollmentJdbcRepository repository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM course_students");
+        jdbcTemplate.update("DELETE FROM course_waitlist");
+        jdbcTemplate.update("DELETE FROM submissions");
+        jdbcTemplate.update("DELETE FROM assignments");
+        jdbcTemplate.update("DELETE FROM courses");
+        jdbcTemplate.update("DELETE FROM user_roles");
+        jdbcTemplate.update("DELETE FROM refresh_tokens");
+        jdbcTemplate.update("DELETE FROM users");
+        jdbcTemplate.update("INSERT INTO users (id, username, password_hash, email, enabled, locale) VALUES (1, 'instructor', 'hash', 'instructor@test.com', true, 'en')");
+        jdbcTemplate.update("INSERT INTO users (id, username, password_hash, email, enabled, locale) VALUES (2, 'student1', 'hash', 'student1@test.com', true, 'en')");
+        jdbcTemplate.update("INSERT INTO users (id, username, password_hash, email, enabled, locale) VALUES (3, 'student2', 'hash', 'student2@test.com', true, 'en')");
+        jdbcTemplate.update("INSERT INTO users (id, username, password_hash, email, enabled, locale) VALUES (4, 'student3', 'hash', 'student3@test.com', true, 'en')");
+        jdbcTemplate.update("INSERT INTO courses (id, code, title, description, instructor_id, created_at) VALUES (1, 'CS101', 'Test Course', 'Description', 1, ?)", Instant.now());
+        jdbcTemplate.update("INSERT INTO course_students (course_id, student_id) VALUES (1, 4)");
+    }
+
+    @Test
+    void enrollByIds_ReportsInsertedDuplicateAndInvalidRows() {
+        EnrollmentBatchResult result = repository.enrollByIds(1L, List.of(2L, 3L, 2L, 4L, 999L), Integer.MAX_VALUE);
+
+        assertEquals(2, result.inserted());
+        assertEquals(2, result.duplicates());
+        assertEquals(1, result.invalid());
+        assertEquals(3, countEnrolled());
+    }
+
+    @Test
+    void enrollByUsernamesAndEmails_ResolveUsersInSql() {
+        EnrollmentBatchResult byUsername = repository.enrollByUsernames(1L, List.of("student1", "nobody"), Integer.MAX_VALUE);
+        EnrollmentBatchResult byEmail = repository.enrollByEmails(1L, List.of("student2@test.com", "student3@test.com"),
+                Integer.MAX_VALUE);
+
+        assertEquals(new EnrollmentBatchResult(1, 0, 1, 0), byUsername);
+        assertEquals(new EnrollmentBatchResult(1, 1, 0, 0), byEmail);
+        assertEquals(3, countEnrolled());
+    }
+
+    @Test
+    void enrollByIds_SpanningSeveralBatches_CountsEveryRow() {
+        List<Long> ids = new ArrayList<>();
+        for (long i = 0; i < EnrollmentJdbcRepository.BATCH_SIZE + 10; i++) {
+            ids.add(1000 + i);
+        }
+        ids.add(2L);
+
+        EnrollmentBatchResult result = repository.enrollByIds(1L, ids, Integer.MAX_VALUE);
+
+        assertEquals(1, result.inserted());
+        assertEquals(EnrollmentJdbcRepository.BATCH_SIZE + 10, result.invalid());
+    }
+
+    @Test
+    void enrollByIds_WithEmptyInput_ReturnsEmptyResult() {
+        assertEquals(EnrollmentBatchResult.empty(), repository.enrollByIds(1L, List.of(), 0));
+    }
+
+    @Test
+    void enrollByIds_BeyondFreeSeats_WaitlistsTheOverflowInInputOrder() {
+        jdbcTemplate.update("INSERT INTO users (id, username, password_hash, email, enabled, locale) VALUES (5, 'student4', 'hash', 'student4@test.com', true, 'en')");
+        jdbcTemplate.update("UPDATE courses SET capacity = 2, enrolled_count = 1 WHERE id = 1");
+        int seats = repository.remainingSeats(1L);
+
+        EnrollmentBatchResult result = repository.enrollByIds(1L, List.of(4L, 2L, 3L, 5L, 999L), seats);
+
+        assertEquals(1, seats);
+        assertEquals(new EnrollmentBatchResult(1, 1, 1, 2), result);
+        assertEquals(List.of(2L, 4L), jdbcTemplate.queryForList(
+                "SELECT student_id FROM course_students WHERE course_id = 1 ORDER BY student_id", Long.class));
+        assertEquals(List.of(3L, 5L), jdbcTemplate.queryForList(
+                "SELECT student_id FROM course_waitlist WHERE course_id = 1 ORDER BY id", Long.class));
+    }
+
+    @Test
+    void remainingSeats_WithoutCapacity_IsUnbounded() {
+        assertEquals(Integer.MAX_VALUE, repository.remainingSeats(1L));
+    }
+
+    private int countEnrolled() {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM course_students WHERE course_id = 1", Integer.class);
+    }
+}
@@ -0,0 +1,91 @@
+package com.krzelj.lms.repository.jdbc;
+
+import com.krzelj.lms.repository.jdbc.dto.GradeImportOutcome;
+import com.krzelj.lms.repository.jdbc.dto.GradeImportResult;
+import com.krzelj.lms.repository.jdbc.dto.GradeImportRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares the row-by-row batch UPDATE import with the staging-table import at 100k rows.
+ * Excluded from the default build; run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class GradeImportBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(GradeImportBenchmarkTest.class);
+
+    private static final int ASSIGNMENTS = 100;
+    private static final int STUDENTS = 1_000;
+    private static final long FIRST_STUDENT = 500_000L;
+    private static final long FIRST_ASSIGNMENT = 500_000L;
+    private static final long COURSE_ID = 500_000L;
+
+    @Autowired
+    private GradeImportJdbcRepository repository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        Timestamp now = Timestamp.from(Instant.now());
+        jdbcTemplate.update("INSERT INTO users (id, username, password_hash, email, enabled, locale) VALUES (?, 'bench_instructor', 'hash', 'bench@test.com', true, 'en')",
+                FIRST_STUDENT - 1);
+        jdbcTemplate.update("INSERT INTO courses (id, code, title, description, instructor_id, created_at) VALUES (?, 'BENCH', 'Bench', '', ?, ?)",
+                COURSE_ID, FIRST_STUDENT - 1, now);
+        jdbcTemplate.batchUpdate("INSERT INTO users (id, username, password_hash, email, enabled, locale) VALUES (?, ?, 'hash', ?, true, 'en')",
+                LongStream.range(0, STUDENTS).mapToObj(i -> new Object[] {
+                        FIRST_STUDENT + i, "bench_" + i, "bench_" + i + "@test.com"}).toList());
+        jdbcTemplate.batchUpdate("INSERT INTO assignments (id, course_id, title, description, due_at, max_points) VALUES (?, ?, ?, '', ?, 100)",
+                LongStream.range(0, ASSIGNMENTS).mapToObj(i -> new Object[] {
+                        FIRST_ASSIGNMENT + i, COURSE_ID, "Bench " + i, now}).toList());
+        jdbcTemplate.update("""
+                INSERT INTO submissions (assignment_id, student_id, content_text, submitted_at)
+                SELECT a.id, u.id, 'x', ?
+                FROM assignments a CROSS JOIN users u
+                WHERE a.course_id = ? AND u.id >= ?
+                """, now, COURSE_ID, FIRST_STUDENT);
+    }
+
+    @Test
+    void batchUpdateVersusStaging() {
+        List<GradeImportRow> rows = new ArrayList<>(ASSIGNMENTS * STUDENTS);
+        for (int a = 0; a < ASSIGNMENTS; a++) {
+            for (int s = 0; s < STUDENTS; s++) {
+                rows.add(new GradeImportRow(FIRST_ASSIGNMENT + a, FIRST_STUDENT + s, (a + s) % 101));
+            }
+        }
+
+        long start = System.nanoTime();
+        repository.batchUpdateGrades(rows, FIRST_STUDENT - 1, Instant.now());
+        double batchMillis = (System.nanoTime() - start) / 1_000_000.0;
+
+        start = System.nanoTime();
+        GradeImportResult result = repository.importGradesViaStaging(rows, FIRST_STUDENT - 1, Instant.now());
+        double stagingMillis = (System.nanoTime() - start) / 1_000_000.0;
+
+        log.info("grade import x{}  batch update {} ms  staging {} ms", rows.size(),
+                String.format("%.1f", batchMillis), String.format("%.1f", stagingMillis));
+        assertEquals(rows.size(), result.count(GradeImportOutcome.UPDATED));
+    }
+}
@@ -1,5 +1,7 @@
 package com.krzelj.lms.repository.jdbc;
 
+import com.krzelj.lms.repository.jdbc.dto.GradeImportOutcome;
+import com.krzelj.lms.repository.jdbc.dto.GradeImportResult;
 import com.krzelj.lms.repository.jdbc.dto.GradeImportRow;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -62,6 +64,7 @@ class GradeImportJdbcRepositoryTest {
         
         assertEquals(85, grade1);
         assertEquals(90, grade2);
+        assertEquals(1L, jdbcTemplate.queryForObject("SELECT version FROM submissions WHERE id = 1", Long.class));
     }
 
     @Test
@@ -89,4 +92,74 @@ class GradeImportJdbcRepositoryTest {
 
         assertNotNull(results);
     }
+
+    @Test
+    void importGradesViaStaging_ReportsPerRowOutcomes() {
+        List<GradeImportRow> rows = Arrays.asList(
+                new GradeImportRow(1L, 2L, 50),
+                new GradeImportRow(1L, 3L, 101),
+                new GradeImportRow(1L, 999L, 80),
+                new GradeImportRow(1L, 2L, 85),
+                new GradeImportRow(1L, 3L, -1)
+        );
+
+        GradeImportResult result = repository.importGradesViaStaging(rows, 1L, Instant.now());
+
+        assertEquals(List.of(GradeImportOutcome.SUPERSEDED, GradeImportOutcome.SUPERSEDED, GradeImportOutcome.NO_SUBMISSION,
+                GradeImportOutcome.UPDATED, GradeImportOutcome.OUT_OF_RANGE), result.outcomes());
+        assertEquals(1, result.count(GradeImportOutcome.UPDATED));
+        assertEquals(85, jdbcTemplate.queryForObject("SELECT grade_points FROM submissions WHERE id = 1", Integer.class));
+        assertEquals(1L, jdbcTemplate.queryForObject("SELECT version FROM submissions WHERE id = 1", Long.class));
+        assertEquals(1L, jdbcTemplate.queryForObject("SELECT graded_by_id FROM submissions WHERE id = 1", Long.class));
+        assertNull(jdbcTemplate.queryForObject("SELECT grade_points FROM submissions WHERE id = 2", Integer.class));
+        assertEquals(0L, jdbcTemplate.queryForObject("SELECT version FROM submissions WHERE id = 2", Long.class));
+        assertEquals(85L, jdbcTemplate.queryForObject("SELECT points_sum FROM assignment_grade_stats WHERE assignment_id = 1", Long.class));
+    }
+
+    @Test
+    void importGradesViaStaging_CanRunTwiceInOneTransaction() {
+        repository.importGradesViaStaging(List.of(new GradeImportRow(1L, 2L, 70)), 1L, Instant.now());
+        GradeImportResult result = repository.importGradesViaStaging(
+                List.of(new GradeImportRow(1L, 3L, 100), new GradeImportRow(1L, 2L, null)), 1L, Instant.now());
+
+        assertEquals(2, result.count(GradeImportOutcome.UPDATED));
+        assertNull(jdbcTemplate.queryForObject("SELECT grade_points FROM submissions WHERE id = 1", Integer.class));
+        assertEquals(100, jdbcTemplate.queryForObject("SELECT grade_points FROM submissions WHERE id = 2", Integer.class));
+    }
+
+    @Test
+    void upsertGradesViaStaging_CreatesSubmissionsForEnrolledStudents() {
+        jdbcTemplate.update("INSERT INTO users (id, username, password_hash, email, enabled, locale) VALUES (4, 'student3', 'hash', 'student3@test.com', true, 'en')");
+        jdbcTemplate.update("INSERT INTO users (id, username, password_hash, email, enabled, locale) VALUES (5, 'outsider', 'hash', 'outsider@test.com', true, 'en')");
+        jdbcTemplate.update("INSERT INTO course_students (course_id, student_id) VALUES (1, 2), (1, 3), (1, 4)");
+        jdbcTemplate.update("DELETE FROM submissions");
+        jdbcTemplate.update("INSERT INTO submissions (assignment_id, student_id, content_text, submitted_at) VALUES (1, 2, 'Submission 1', ?), (1, 3, 'Submission 2', ?)",
+                Instant.now(), Instant.now());
+        List<GradeImportRow> rows = Arrays.asList(
+                new GradeImportRow(1L, 2L, 60),
+                new GradeImportRow(1L, 4L, 75),
+                new GradeImportRow(1L, 5L, 80),
+                new GradeImportRow(1L, 4L, null),
+                new GradeImportRow(2L, 3L, 50),
+                new GradeImportRow(1L, 3L, 101)
+        );
+
+        GradeImportResult result = repository.upsertGradesViaStaging(rows, 1L, Instant.now());
+
+        assertEquals(List.of(GradeImportOutcome.UPDATED, GradeImportOutcome.SUPERSEDED, GradeImportOutcome.NOT_ENROLLED,
+                GradeImportOutcome.NO_SUBMISSION, GradeImportOutcome.NOT_ENROLLED, GradeImportOutcome.OUT_OF_RANGE), result.outcomes());
+        assertEquals(0, result.count(GradeImportOutcome.CREATED));
+
+        result = repository.upsertGradesViaStaging(List.of(new GradeImportRow(1L, 4L, 75), new GradeImportRow(1L, 3L, 90)),
+                1L, Instant.now());
+
+        assertEquals(List.of(GradeImportOutcome.CREATED, GradeImportOutcome.UPDATED), result.outcomes());
+        assertEquals(75, jdbcTemplate.queryForObject("SELECT grade_points FROM submissions WHERE assignment_id = 1 AND student_id = 4", Integer.class));
+        assertEquals(0L, jdbcTemplate.queryForObject("SELECT version FROM submissions WHERE assignment_id = 1 AND student_id = 4", Long.class));
+        assertNull(jdbcTemplate.queryForObject("SELECT submitted_at FROM submissions WHERE assignment_id = 1 AND student_id = 4", Instant.class));
+        assertEquals(1L, jdbcTemplate.queryForObject("SELECT version FROM submissions WHERE assignment_id = 1 AND student_id = 3", Long.class));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM submissions WHERE student_id = 5", Integer.class));
+        assertEquals(3, jdbcTemplate.queryForObject("SELECT submissions_count FROM assignment_grade_stats WHERE assignment_id = 1", Integer.class));
+        assertEquals(225L, jdbcTemplate.queryForObject("SELECT points_sum FROM assignment_grade_stats WHERE assignment_id = 1", Long.class));
+    }
 }
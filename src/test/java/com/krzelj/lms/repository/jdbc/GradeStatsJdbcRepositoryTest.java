@@ -0,0 +1,150 @@
+package com.krzelj.lms.repository.jdbc;
+
+import com.krzelj.lms.repository.jdbc.dto.AssignmentGradeReportRow;
+import com.krzelj.lms.repository.jdbc.dto.GradeImportRow;
+import com.krzelj.lms.service.SubmissionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class GradeStatsJdbcRepositoryTest {
+
+    private static final long INSTRUCTOR_ID = 96000L;
+    private static final long STUDENT_A = 96001L;
+    private static final long STUDENT_B = 96002L;
+    private static final long STUDENT_C = 96003L;
+    private static final long COURSE_ID = 9601L;
+    private static final long ASSIGNMENT_ID = 96101L;
+
+    @Autowired
+    private SubmissionService submissionService;
+
+    @Autowired
+    private GradeImportJdbcRepository gradeImportJdbcRepository;
+
+    @Autowired
+    private GradeStatsJdbcRepository gradeStatsJdbcRepository;
+
+    @Autowired
+    private ReportingJdbcRepository reportingJdbcRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        insertUser(INSTRUCTOR_ID, "stats_instructor");
+        insertUser(STUDENT_A, "stats_a");
+        insertUser(STUDENT_B, "stats_b");
+        insertUser(STUDENT_C, "stats_c");
+        jdbcTemplate.update("INSERT INTO courses (id, code, title, description, instructor_id, created_at) VALUES (?, 'STATS-1', 'Stats Course', '', ?, ?)",
+                COURSE_ID, INSTRUCTOR_ID, Timestamp.from(Instant.now()));
+        jdbcTemplate.update("INSERT INTO assignments (id, course_id, title, description, due_at, max_points) VALUES (?, ?, 'Stats', '', ?, 100)",
+                ASSIGNMENT_ID, COURSE_ID, Timestamp.from(Instant.now().plusSeconds(86400)));
+    }
+
+    @Test
+    void submitAndGrade_MaintainRollupIncrementally() {
+        long a = submissionService.submitWork(ASSIGNMENT_ID, STUDENT_A, "a").getId();
+        long b = submissionService.submitWork(ASSIGNMENT_ID, STUDENT_B, "b").getId();
+        submissionService.submitWork(ASSIGNMENT_ID, STUDENT_C, "c");
+        submissionService.submitWork(ASSIGNMENT_ID, STUDENT_A, "a resubmitted");
+        submissionService.gradeSubmission(a, INSTRUCTOR_ID, 60);
+        submissionService.gradeSubmission(b, INSTRUCTOR_ID, 90);
+
+        AssignmentGradeReportRow row = report();
+        assertEquals(3L, row.submissionsCount());
+        assertEquals(2L, row.gradedCount());
+        assertEquals(75.0, row.averagePoints(), 0.001);
+        assertEquals(15.0, row.stdDevPoints(), 0.001);
+        assertEquals(60, row.minPoints());
+        assertEquals(90, row.maxPoints());
+
+        submissionService.gradeSubmission(a, INSTRUCTOR_ID, 80);
+
+        row = report();
+        assertEquals(2L, row.gradedCount());
+        assertEquals(80, row.minPoints());
+        assertEquals(90, row.maxPoints());
+        assertRollupMatchesRebuild();
+    }
+
+    @Test
+    void batchUpdateGrades_AppliesDeltasForExistingSubmissionsOnly() {
+        submissionService.submitWork(ASSIGNMENT_ID, STUDENT_A, "a");
+        submissionService.submitWork(ASSIGNMENT_ID, STUDENT_B, "b");
+
+        gradeImportJdbcRepository.batchUpdateGrades(List.of(
+                new GradeImportRow(ASSIGNMENT_ID, STUDENT_A, 100),
+                new GradeImportRow(ASSIGNMENT_ID, STUDENT_B, 40),
+                new GradeImportRow(ASSIGNMENT_ID, STUDENT_C, 70)), INSTRUCTOR_ID, Instant.now());
+        gradeImportJdbcRepository.batchUpdateGrades(List.of(
+                new GradeImportRow(ASSIGNMENT_ID, STUDENT_A, null),
+                new GradeImportRow(ASSIGNMENT_ID, STUDENT_B, 50)), INSTRUCTOR_ID, Instant.now());
+
+        AssignmentGradeReportRow row = report();
+        assertEquals(2L, row.submissionsCount());
+        assertEquals(1L, row.gradedCount());
+        assertEquals(50.0, row.averagePoints(), 0.001);
+        assertEquals(0.0, row.stdDevPoints(), 0.001);
+        assertEquals(50, row.minPoints());
+        assertEquals(50, row.maxPoints());
+        assertRollupMatchesRebuild();
+    }
+
+    @Test
+    void report_WithoutRollupRow_ReturnsZeroCounts() {
+        AssignmentGradeReportRow row = report();
+
+        assertEquals(0L, row.submissionsCount());
+        assertEquals(0L, row.gradedCount());
+        assertNull(row.averagePoints());
+        assertNull(row.minPoints());
+    }
+
+    @Test
+    void rebuildForAssignments_RecomputesDriftedRowInPlaceAndSkipsUnknownAssignments() {
+        submissionService.submitWork(ASSIGNMENT_ID, STUDENT_A, "a");
+        jdbcTemplate.update("UPDATE assignment_grade_stats SET submissions_count = 42, points_sum = 7 WHERE assignment_id = ?", ASSIGNMENT_ID);
+
+        gradeStatsJdbcRepository.rebuildForAssignments(ASSIGNMENT_ID, 99999L);
+
+        assertEquals(1L, ((Number) stats().get("SUBMISSIONS_COUNT")).longValue());
+        assertEquals(0L, ((Number) stats().get("POINTS_SUM")).longValue());
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM assignment_grade_stats WHERE assignment_id = 99999", Integer.class));
+    }
+
+    private void assertRollupMatchesRebuild() {
+        Map<String, Object> incremental = stats();
+        gradeStatsJdbcRepository.rebuildForCourse(COURSE_ID);
+        assertEquals(stats(), incremental);
+    }
+
+    private Map<String, Object> stats() {
+        return jdbcTemplate.queryForMap("SELECT * FROM assignment_grade_stats WHERE assignment_id = ?", ASSIGNMENT_ID);
+    }
+
+    private AssignmentGradeReportRow report() {
+        return reportingJdbcRepository.assignmentGradeReportForCourse(COURSE_ID).get(0);
+    }
+
+    private void insertUser(long id, String username) {
+        jdbcTemplate.update("INSERT INTO users (id, username, password_hash, email, enabled, locale) VALUES (?, ?, 'hash', ?, true, 'en')",
+                id, username, username + "@test.com");
+    }
+}
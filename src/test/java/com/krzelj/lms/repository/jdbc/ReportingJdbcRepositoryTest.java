@@ -1,6 +1,7 @@
 package com.krzelj.lms.repository.jdbc;
 
 import com.krzelj.lms.repository.jdbc.dto.AssignmentGradeReportRow;
+import com.krzelj.lms.repository.jdbc.dto.CourseIdRange;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -22,6 +23,9 @@ class ReportingJdbcRepositoryTest {
     @Autowired
     private ReportingJdbcRepository repository;
 
+    @Autowired
+    private GradeStatsJdbcRepository gradeStatsJdbcRepository;
+
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
@@ -41,6 +45,7 @@ class ReportingJdbcRepositoryTest {
         jdbcTemplate.update("INSERT INTO submissions (id, assignment_id, student_id, content_text, submitted_at, grade_points) VALUES (1, 1, 2, 'Submission 1', ?, 85)", Instant.now());
         jdbcTemplate.update("INSERT INTO submissions (id, assignment_id, student_id, content_text, submitted_at, grade_points) VALUES (2, 1, 3, 'Submission 2', ?, 90)", Instant.now());
         jdbcTemplate.update("INSERT INTO submissions (id, assignment_id, student_id, content_text, submitted_at) VALUES (3, 2, 2, 'Submission 3', ?)", Instant.now());
+        gradeStatsJdbcRepository.rebuildForCourse(1L);
     }
 
     @Test
@@ -60,6 +65,9 @@ class ReportingJdbcRepositoryTest {
         assertEquals(2L, assignment1.submissionsCount());
         assertEquals(2L, assignment1.gradedCount());
         assertEquals(87.5, assignment1.averagePoints(), 0.1);
+        assertEquals(2.5, assignment1.stdDevPoints(), 0.001);
+        assertEquals(85, assignment1.minPoints());
+        assertEquals(90, assignment1.maxPoints());
         
         AssignmentGradeReportRow assignment2 = report.stream()
                 .filter(r -> r.assignmentId() == 2L)
@@ -70,6 +78,7 @@ class ReportingJdbcRepositoryTest {
         assertEquals(1L, assignment2.submissionsCount());
         assertEquals(0L, assignment2.gradedCount());
         assertNull(assignment2.averagePoints());
+        assertNull(assignment2.stdDevPoints());
     }
 
     @Test
@@ -85,4 +94,18 @@ class ReportingJdbcRepositoryTest {
         assertEquals(0L, report.get(0).submissionsCount());
         assertEquals(0L, report.get(0).gradedCount());
     }
+
+    @Test
+    void assignmentGradeReportForCourseRangeAndIds_CoverTheSelectedCourses() {
+        jdbcTemplate.update("INSERT INTO courses (id, code, title, description, instructor_id, created_at) VALUES (4, 'CS104', 'Other Course', 'Description', 1, ?)", Instant.now());
+        jdbcTemplate.update("INSERT INTO assignments (id, course_id, title, description, due_at, max_points) VALUES (4, 4, 'Assignment 4', 'Desc', ?, 100)", Instant.now().plusSeconds(86400));
+
+        assertEquals(new CourseIdRange(1L, 4L), repository.findCourseIdRange().orElseThrow());
+        assertEquals(List.of(1L, 2L, 4L), repository.assignmentGradeReportForCourseRange(1L, 4L).stream()
+                .map(AssignmentGradeReportRow::assignmentId).toList());
+        assertEquals(List.of(1L, 2L), repository.assignmentGradeReportForCourseRange(1L, 3L).stream()
+                .map(AssignmentGradeReportRow::assignmentId).toList());
+        assertEquals(List.of(4L), repository.assignmentGradeReportForCourses(List.of(4L, 99L)).stream()
+                .map(AssignmentGradeReportRow::assignmentId).toList());
+    }
 }
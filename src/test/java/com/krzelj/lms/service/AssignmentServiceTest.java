@@ -2,6 +2,7 @@ package com.krzelj.lms.service;
 
 import com.krzelj.lms.domain.Assignment;
 import com.krzelj.lms.domain.Course;
+import com.krzelj.lms.domain.SyncEntityType;
 import com.krzelj.lms.repository.AssignmentRepository;
 import com.krzelj.lms.repository.CourseRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -29,6 +30,15 @@ class AssignmentServiceTest {
     @Mock
     private CourseRepository courseRepository;
 
+    @Mock
+    private CourseContentVersions courseContentVersions;
+
+    @Mock
+    private SyncService syncService;
+
+    @Mock
+    private GradeDistributionCache gradeDistributionCache;
+
     @InjectMocks
     private AssignmentService assignmentService;
 
@@ -123,10 +133,12 @@ class AssignmentServiceTest {
 
     @Test
     void delete_Success() {
-        doNothing().when(assignmentRepository).deleteById(1L);
+        when(assignmentRepository.findById(1L)).thenReturn(Optional.of(testAssignment));
 
         assignmentService.delete(1L);
 
-        verify(assignmentRepository).deleteById(1L);
+        verify(assignmentRepository).delete(testAssignment);
+        verify(courseContentVersions).bump(1L);
+        verify(syncService).recordDeletion(SyncEntityType.ASSIGNMENT, 1L, 1L, null);
     }
 }
@@ -0,0 +1,44 @@
+package com.krzelj.lms.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchResultTest {
+
+    @Test
+    void load_ReturnsHitsInRequestOrderAndReportsMissingIds() {
+        BatchResult<Long> result = BatchResult.load(List.of(3L, 1L, 99L, 3L, 2L),
+                chunk -> chunk.stream().filter(id -> id < 10).toList(), Function.identity());
+
+        assertEquals(List.of(3L, 1L, 2L), result.found());
+        assertEquals(List.of(99L), result.notFound());
+    }
+
+    @Test
+    void load_SplitsLargeIdSetsIntoChunks() {
+        List<Long> ids = LongStream.rangeClosed(1, BatchResult.IN_CHUNK_SIZE + 1).boxed().toList();
+        List<Integer> chunkSizes = new ArrayList<>();
+
+        BatchResult<Long> result = BatchResult.load(ids, chunk -> {
+            chunkSizes.add(chunk.size());
+            return chunk;
+        }, Function.identity());
+
+        assertEquals(List.of(BatchResult.IN_CHUNK_SIZE, 1), chunkSizes);
+        assertEquals(ids, result.found());
+        assertTrue(result.notFound().isEmpty());
+    }
+
+    @Test
+    void load_WithTooManyIds_ThrowsException() {
+        List<Long> ids = LongStream.rangeClosed(1, BatchResult.MAX_IDS + 1).boxed().toList();
+
+        assertThrows(IllegalArgumentException.class, () -> BatchResult.load(ids, chunk -> chunk, Function.identity()));
+    }
+}
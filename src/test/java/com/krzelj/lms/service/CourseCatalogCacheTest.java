@@ -0,0 +1,82 @@
+package com.krzelj.lms.service;
+
+import com.krzelj.lms.repository.dto.CatalogCourse;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CourseCatalogCacheTest {
+
+    private final CourseCatalogCache cache = new CourseCatalogCache();
+
+    private final List<CatalogCourse> catalog = List.of(
+            new CatalogCourse(1L, "CS101", "Intro", null, Instant.now(), 1L, "instructor1", null));
+
+    @Test
+    void concurrentMisses_CollapseIntoOneLoad() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<List<CatalogCourse>>> futures = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                futures.add(pool.submit(() -> cache.get(() -> {
+                    loads.incrementAndGet();
+                    await(release);
+                    return catalog;
+                })));
+            }
+            Thread.sleep(100);
+            release.countDown();
+
+            for (Future<List<CatalogCourse>> future : futures) {
+                assertEquals(catalog, future.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void invalidate_BumpsVersionAndForcesReload() {
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(() -> { loads.incrementAndGet(); return catalog; });
+        cache.get(() -> { loads.incrementAndGet(); return catalog; });
+        long before = cache.version();
+        cache.invalidate();
+        cache.get(() -> { loads.incrementAndGet(); return catalog; });
+
+        assertEquals(before + 1, cache.version());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void failedLoad_IsNotCached() {
+        assertThrows(IllegalStateException.class, () -> cache.get(() -> {
+            throw new IllegalStateException("db down");
+        }));
+
+        assertEquals(catalog, cache.get(() -> catalog));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
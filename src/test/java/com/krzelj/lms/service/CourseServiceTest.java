@@ -3,18 +3,26 @@ package com.krzelj.lms.service;
 import com.krzelj.lms.domain.Course;
 import com.krzelj.lms.domain.Role;
 import com.krzelj.lms.domain.RoleName;
+import com.krzelj.lms.domain.SyncEntityType;
 import com.krzelj.lms.domain.User;
 import com.krzelj.lms.repository.CourseRepository;
 import com.krzelj.lms.repository.UserRepository;
+import com.krzelj.lms.repository.dto.CatalogCourse;
+import com.krzelj.lms.repository.dto.CourseSummary;
+import com.krzelj.lms.repository.dto.RosterEntry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 
+import java.time.Instant;
 import java.util.Arrays;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -32,6 +40,18 @@ class CourseServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private EntityCacheService entityCacheService;
+
+    @Spy
+    private CourseCatalogCache courseCatalogCache = new CourseCatalogCache();
+
+    @Mock
+    private CourseContentVersions courseContentVersions;
+
+    @Mock
+    private SyncService syncService;
+
     @InjectMocks
     private CourseService courseService;
 
@@ -66,25 +86,72 @@ class CourseServiceTest {
         verify(courseRepository).findAllWithInstructor();
     }
 
+    @Test
+    void findCatalog_LoadsOnceUntilCourseChanges() {
+        CatalogCourse entry = new CatalogCourse(1L, "CS101", "Introduction to Computer Science", "Test course",
+                Instant.now(), 1L, "instructor1", null);
+        when(courseRepository.findCatalog()).thenReturn(List.of(entry));
+        when(courseRepository.save(testCourse)).thenReturn(testCourse);
+
+        List<CatalogCourse> first = courseService.findCatalog();
+        List<CatalogCourse> second = courseService.findCatalog();
+        courseService.save(testCourse);
+        courseService.findCatalog();
+
+        assertSame(first, second);
+        assertThrows(UnsupportedOperationException.class, () -> first.add(entry));
+        verify(courseRepository, times(2)).findCatalog();
+    }
+
     @Test
     void getById_WhenExists_ReturnsCourse() {
-        when(courseRepository.findByIdWithInstructorAndStudents(1L)).thenReturn(Optional.of(testCourse));
+        when(courseRepository.findByIdWithInstructor(1L)).thenReturn(Optional.of(testCourse));
 
         Course result = courseService.getById(1L);
 
         assertNotNull(result);
         assertEquals(1L, result.getId());
-        verify(courseRepository).findByIdWithInstructorAndStudents(1L);
+        verify(courseRepository).findByIdWithInstructor(1L);
+        verify(courseRepository, never()).findByIdWithInstructorAndStudents(any());
     }
 
     @Test
     void getById_WhenNotExists_ThrowsException() {
-        when(courseRepository.findByIdWithInstructorAndStudents(999L)).thenReturn(Optional.empty());
         when(courseRepository.findByIdWithInstructor(999L)).thenReturn(Optional.empty());
 
         assertThrows(IllegalArgumentException.class, () -> courseService.getById(999L));
     }
 
+    @Test
+    void getSummary_WhenExists_ReturnsSummary() {
+        CourseSummary summary = new CourseSummary(1L, "CS101", "Title", "Desc", Instant.now(), 1L, "instructor1", 2000L, null);
+        when(courseRepository.findSummaryById(1L)).thenReturn(Optional.of(summary));
+
+        CourseSummary result = courseService.getSummary(1L);
+
+        assertEquals(2000L, result.studentCount());
+        verify(courseRepository, never()).findByIdWithInstructorAndStudents(any());
+    }
+
+    @Test
+    void getSummary_WhenNotExists_ThrowsException() {
+        when(courseRepository.findSummaryById(999L)).thenReturn(Optional.empty());
+
+        assertThrows(IllegalArgumentException.class, () -> courseService.getSummary(999L));
+    }
+
+    @Test
+    void findRoster_ReturnsPage() {
+        PageRequest pageable = PageRequest.of(0, 50);
+        Page<RosterEntry> page = new PageImpl<>(List.of(new RosterEntry(2L, "student1", "student@test.com")), pageable, 1);
+        when(courseRepository.findRosterByCourseId(1L, pageable)).thenReturn(page);
+
+        Page<RosterEntry> result = courseService.findRoster(1L, pageable);
+
+        assertEquals(1, result.getTotalElements());
+        assertEquals("student1", result.getContent().get(0).username());
+    }
+
     @Test
     void findForInstructor_ReturnsListOfCourses() {
         List<Course> courses = Arrays.asList(testCourse);
@@ -131,60 +198,19 @@ class CourseServiceTest {
         verify(courseRepository, never()).save(any());
     }
 
-    @Test
-    void enrollStudent_Success() {
-        testCourse.setStudents(new HashSet<>());
-        when(courseRepository.findById(1L)).thenReturn(Optional.of(testCourse));
-        when(userRepository.findById(2L)).thenReturn(Optional.of(testStudent));
-        when(courseRepository.save(any(Course.class))).thenReturn(testCourse);
-
-        courseService.enrollStudent(1L, 2L);
-
-        verify(courseRepository).findById(1L);
-        verify(userRepository).findById(2L);
-        verify(courseRepository).save(any(Course.class));
-    }
-
-    @Test
-    void enrollStudent_WhenAlreadyEnrolled_ThrowsException() {
-        testCourse.setStudents(new HashSet<>(Arrays.asList(testStudent)));
-        when(courseRepository.findById(1L)).thenReturn(Optional.of(testCourse));
-        when(userRepository.findById(2L)).thenReturn(Optional.of(testStudent));
-
-        assertThrows(IllegalArgumentException.class, () -> courseService.enrollStudent(1L, 2L));
-        verify(courseRepository, never()).save(any());
-    }
-
-    @Test
-    void unenrollStudent_Success() {
-        testCourse.setStudents(new HashSet<>(Arrays.asList(testStudent)));
-        when(courseRepository.findById(1L)).thenReturn(Optional.of(testCourse));
-        when(userRepository.findById(2L)).thenReturn(Optional.of(testStudent));
-        when(courseRepository.save(any(Course.class))).thenReturn(testCourse);
-
-        courseService.unenrollStudent(1L, 2L);
-
-        verify(courseRepository).findById(1L);
-        verify(userRepository).findById(2L);
-        verify(courseRepository).save(any(Course.class));
-    }
-
     @Test
     void isStudentEnrolled_WhenEnrolled_ReturnsTrue() {
-        testCourse.setStudents(new HashSet<>(Arrays.asList(testStudent)));
-        when(courseRepository.findByIdWithInstructorAndStudents(1L)).thenReturn(Optional.of(testCourse));
-        when(userRepository.findById(2L)).thenReturn(Optional.of(testStudent));
+        when(courseRepository.existsByIdAndStudentsId(1L, 2L)).thenReturn(true);
 
         boolean result = courseService.isStudentEnrolled(1L, 2L);
 
         assertTrue(result);
+        verify(courseRepository, never()).findByIdWithInstructorAndStudents(any());
     }
 
     @Test
     void isStudentEnrolled_WhenNotEnrolled_ReturnsFalse() {
-        testCourse.setStudents(new HashSet<>());
-        when(courseRepository.findByIdWithInstructorAndStudents(1L)).thenReturn(Optional.of(testCourse));
-        when(userRepository.findById(2L)).thenReturn(Optional.of(testStudent));
+        when(courseRepository.existsByIdAndStudentsId(1L, 2L)).thenReturn(false);
 
         boolean result = courseService.isStudentEnrolled(1L, 2L);
 
@@ -209,5 +235,7 @@ class CourseServiceTest {
         courseService.delete(1L);
 
         verify(courseRepository).deleteById(1L);
+        verify(entityCacheService).evictCourseCascade(1L);
+        verify(syncService).recordDeletion(SyncEntityType.COURSE, 1L, 1L, null);
     }
 }
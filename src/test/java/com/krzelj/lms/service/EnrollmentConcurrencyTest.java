@@ -0,0 +1,128 @@
+package com.krzelj.lms.service;
+
+import com.krzelj.lms.domain.EnrollmentOutcome;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class EnrollmentConcurrencyTest {
+
+    private static final long COURSE_ID = 9001L;
+    private static final long INSTRUCTOR_ID = 90000L;
+    private static final long FIRST_STUDENT_ID = 90001L;
+    private static final int STUDENTS = 1000;
+    private static final int CAPACITY = 50;
+
+    @Autowired
+    private EnrollmentService enrollmentService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        cleanUp();
+        jdbcTemplate.update("INSERT INTO users (id, username, password_hash, email, enabled, locale) VALUES (?, 'load_instructor', 'hash', 'load_instructor@test.com', true, 'en')", INSTRUCTOR_ID);
+        List<Object[]> students = new ArrayList<>();
+        for (int i = 0; i < STUDENTS; i++) {
+            long id = FIRST_STUDENT_ID + i;
+            students.add(new Object[]{id, "load_student_" + i, "load_student_" + i + "@test.com"});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (id, username, password_hash, email, enabled, locale) VALUES (?, ?, 'hash', ?, true, 'en')", students);
+        jdbcTemplate.update("INSERT INTO courses (id, code, title, description, instructor_id, created_at, capacity) VALUES (?, 'LOAD101', 'Load Course', '', ?, ?, ?)",
+                COURSE_ID, INSTRUCTOR_ID, Instant.now(), CAPACITY);
+    }
+
+    @AfterEach
+    void tearDown() {
+        cleanUp();
+    }
+
+    @Test
+    void parallelEnrollments_NeverOverbookTheCourse() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(32);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<EnrollmentOutcome>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < STUDENTS; i++) {
+                long studentId = FIRST_STUDENT_ID + i;
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    return enrollmentService.enrollStudent(COURSE_ID, studentId);
+                }));
+            }
+            start.countDown();
+
+            int enrolled = 0;
+            int waitlisted = 0;
+            for (Future<EnrollmentOutcome> future : futures) {
+                if (future.get(60, TimeUnit.SECONDS) == EnrollmentOutcome.ENROLLED) {
+                    enrolled++;
+                } else {
+                    waitlisted++;
+                }
+            }
+
+            assertEquals(CAPACITY, enrolled);
+            assertEquals(STUDENTS - CAPACITY, waitlisted);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(CAPACITY, count("SELECT count(*) FROM course_students WHERE course_id = ?"));
+        assertEquals(CAPACITY, count("SELECT enrolled_count FROM courses WHERE id = ?"));
+        assertEquals(STUDENTS - CAPACITY, count("SELECT count(*) FROM course_waitlist WHERE course_id = ?"));
+    }
+
+    @Test
+    void unenroll_PromotesOldestWaitlistedStudent() {
+        jdbcTemplate.update("UPDATE courses SET capacity = 1 WHERE id = ?", COURSE_ID);
+        long first = FIRST_STUDENT_ID;
+        long second = FIRST_STUDENT_ID + 1;
+        long third = FIRST_STUDENT_ID + 2;
+
+        assertEquals(EnrollmentOutcome.ENROLLED, enrollmentService.enrollStudent(COURSE_ID, first));
+        assertEquals(EnrollmentOutcome.WAITLISTED, enrollmentService.enrollStudent(COURSE_ID, second));
+        assertEquals(EnrollmentOutcome.WAITLISTED, enrollmentService.enrollStudent(COURSE_ID, third));
+        assertEquals(2, enrollmentService.waitlistPosition(COURSE_ID, third));
+
+        enrollmentService.unenrollStudent(COURSE_ID, first);
+
+        assertEquals(1, count("SELECT count(*) FROM course_students WHERE course_id = ? AND student_id = " + second));
+        assertEquals(1, count("SELECT enrolled_count FROM courses WHERE id = ?"));
+        assertEquals(1, enrollmentService.waitlistPosition(COURSE_ID, third));
+
+        enrollmentService.updateCapacity(COURSE_ID, 2);
+
+        assertEquals(2, count("SELECT enrolled_count FROM courses WHERE id = ?"));
+        assertEquals(0, count("SELECT count(*) FROM course_waitlist WHERE course_id = ?"));
+    }
+
+    private int count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Integer.class, COURSE_ID);
+    }
+
+    private void cleanUp() {
+        jdbcTemplate.update("DELETE FROM course_waitlist WHERE course_id = ?", COURSE_ID);
+        jdbcTemplate.update("DELETE FROM course_students WHERE course_id = ?", COURSE_ID);
+        jdbcTemplate.update("DELETE FROM courses WHERE id = ?", COURSE_ID);
+        jdbcTemplate.update("DELETE FROM users WHERE id >= ? AND id < ?", INSTRUCTOR_ID, FIRST_STUDENT_ID + STUDENTS);
+    }
+}
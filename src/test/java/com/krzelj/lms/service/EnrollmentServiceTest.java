@@ -0,0 +1,226 @@
+package com.krzelj.lms.service;
+
+import com.krzelj.lms.domain.EnrollmentOutcome;
+import com.krzelj.lms.repository.UserRepository;
+import com.krzelj.lms.repository.jdbc.EnrollmentJdbcRepository;
+import com.krzelj.lms.repository.jdbc.dto.EnrollmentBatchResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class EnrollmentServiceTest {
+
+    @Mock
+    private EnrollmentJdbcRepository enrollmentJdbcRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private EntityCacheService entityCacheService;
+
+    @InjectMocks
+    private EnrollmentService enrollmentService;
+
+    @BeforeEach
+    void setUp() {
+        when(enrollmentJdbcRepository.lockCourse(1L)).thenReturn(true);
+        when(userRepository.existsById(2L)).thenReturn(true);
+        when(enrollmentJdbcRepository.remainingSeats(1L)).thenReturn(Integer.MAX_VALUE);
+        when(enrollmentJdbcRepository.enrollByIds(eq(1L), anyCollection(), anyInt())).thenAnswer(EnrollmentServiceTest::fillSeats);
+        when(enrollmentJdbcRepository.enrollByUsernames(eq(1L), anyCollection(), anyInt())).thenAnswer(EnrollmentServiceTest::fillSeats);
+        when(enrollmentJdbcRepository.enrollByEmails(eq(1L), anyCollection(), anyInt())).thenAnswer(EnrollmentServiceTest::fillSeats);
+    }
+
+    @Test
+    void enrollStudents_CountsNullIdsAsInvalid() {
+        EnrollmentBatchResult result = enrollmentService.enrollStudents(1L, Arrays.asList(2L, null, 3L));
+
+        assertEquals(new EnrollmentBatchResult(2, 0, 1, 0), result);
+        verify(enrollmentJdbcRepository).enrollByIds(1L, List.of(2L, 3L), Integer.MAX_VALUE);
+        verify(enrollmentJdbcRepository).addSeats(1L, 2);
+        verify(enrollmentJdbcRepository).removeEnrolledFromWaitlist(1L);
+        verify(entityCacheService).evictCourse(1L);
+    }
+
+    @Test
+    void enrollStudents_WhenCourseNotFound_ThrowsException() {
+        when(enrollmentJdbcRepository.lockCourse(999L)).thenReturn(false);
+
+        assertThrows(IllegalArgumentException.class, () -> enrollmentService.enrollStudents(999L, List.of(2L)));
+        verify(enrollmentJdbcRepository, never()).enrollByIds(anyLong(), any(), anyInt());
+        verify(entityCacheService, never()).evictCourse(anyLong());
+    }
+
+    @Test
+    void importRoster_RoutesIdentifiersAndSkipsHeader() {
+        String csv = """
+                username,name
+                student1,Student One
+                "student2@test.com",Student Two
+                42
+
+                ,missing
+                """;
+
+        EnrollmentBatchResult result = enrollmentService.importRoster(1L, new StringReader(csv));
+
+        assertEquals(new EnrollmentBatchResult(3, 0, 1, 0), result);
+        verify(enrollmentJdbcRepository).enrollByUsernames(1L, List.of("student1"), Integer.MAX_VALUE - 1);
+        verify(enrollmentJdbcRepository).enrollByEmails(1L, List.of("student2@test.com"), Integer.MAX_VALUE - 2);
+        verify(enrollmentJdbcRepository).enrollByIds(1L, List.of(42L), Integer.MAX_VALUE);
+    }
+
+    @Test
+    void importRoster_FlushesInFixedSizeChunks() {
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < EnrollmentService.IMPORT_CHUNK_SIZE * 2 + 1; i++) {
+            csv.append("student").append(i).append('\n');
+        }
+
+        EnrollmentBatchResult result = enrollmentService.importRoster(1L, new StringReader(csv.toString()));
+
+        assertEquals(EnrollmentService.IMPORT_CHUNK_SIZE * 2 + 1, result.inserted());
+        verify(enrollmentJdbcRepository, times(3)).enrollByUsernames(eq(1L), anyCollection(), anyInt());
+    }
+
+    @Test
+    void enrollStudents_BeyondFreeSeats_OnlyTakesTheFreeSeats() {
+        when(enrollmentJdbcRepository.remainingSeats(1L)).thenReturn(1);
+
+        EnrollmentBatchResult result = enrollmentService.enrollStudents(1L, List.of(2L, 3L, 4L));
+
+        assertEquals(new EnrollmentBatchResult(1, 0, 0, 2), result);
+        verify(enrollmentJdbcRepository).addSeats(1L, 1);
+    }
+
+    @Test
+    void importRoster_CarriesRemainingSeatsAcrossChunks() {
+        when(enrollmentJdbcRepository.remainingSeats(1L)).thenReturn(EnrollmentService.IMPORT_CHUNK_SIZE + 5);
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < EnrollmentService.IMPORT_CHUNK_SIZE * 2; i++) {
+            csv.append("student").append(i).append('\n');
+        }
+
+        EnrollmentBatchResult result = enrollmentService.importRoster(1L, new StringReader(csv.toString()));
+
+        assertEquals(EnrollmentService.IMPORT_CHUNK_SIZE + 5, result.inserted());
+        assertEquals(EnrollmentService.IMPORT_CHUNK_SIZE - 5, result.waitlisted());
+        verify(enrollmentJdbcRepository).enrollByUsernames(eq(1L), anyCollection(), eq(5));
+        verify(enrollmentJdbcRepository).addSeats(1L, EnrollmentService.IMPORT_CHUNK_SIZE + 5);
+    }
+
+    @Test
+    void enrollStudent_WithFreeSeat_Enrolls() {
+        when(enrollmentJdbcRepository.tryTakeSeat(1L)).thenReturn(true);
+        when(enrollmentJdbcRepository.insertEnrollment(1L, 2L)).thenReturn(true);
+
+        assertEquals(EnrollmentOutcome.ENROLLED, enrollmentService.enrollStudent(1L, 2L));
+        verify(enrollmentJdbcRepository, never()).addToWaitlist(anyLong(), anyLong(), any());
+    }
+
+    @Test
+    void enrollStudent_WhenFull_AddsToWaitlist() {
+        when(enrollmentJdbcRepository.tryTakeSeat(1L)).thenReturn(false);
+        when(enrollmentJdbcRepository.isEnrolled(1L, 2L)).thenReturn(false);
+        when(enrollmentJdbcRepository.addToWaitlist(eq(1L), eq(2L), any())).thenReturn(true);
+
+        assertEquals(EnrollmentOutcome.WAITLISTED, enrollmentService.enrollStudent(1L, 2L));
+        verify(enrollmentJdbcRepository, never()).insertEnrollment(anyLong(), anyLong());
+    }
+
+    @Test
+    void enrollStudent_WhenAlreadyEnrolled_ThrowsException() {
+        when(enrollmentJdbcRepository.tryTakeSeat(1L)).thenReturn(true);
+        when(enrollmentJdbcRepository.insertEnrollment(1L, 2L)).thenReturn(false);
+
+        assertThrows(IllegalArgumentException.class, () -> enrollmentService.enrollStudent(1L, 2L));
+    }
+
+    @Test
+    void enrollStudent_WhenAlreadyWaitlisted_ThrowsException() {
+        when(enrollmentJdbcRepository.tryTakeSeat(1L)).thenReturn(false);
+        when(enrollmentJdbcRepository.addToWaitlist(eq(1L), eq(2L), any())).thenReturn(false);
+
+        assertThrows(IllegalArgumentException.class, () -> enrollmentService.enrollStudent(1L, 2L));
+    }
+
+    @Test
+    void enrollStudent_WhenStudentNotFound_ThrowsException() {
+        when(userRepository.existsById(999L)).thenReturn(false);
+
+        assertThrows(IllegalArgumentException.class, () -> enrollmentService.enrollStudent(1L, 999L));
+        verify(enrollmentJdbcRepository, never()).tryTakeSeat(anyLong());
+    }
+
+    @Test
+    void unenrollStudent_PromotesHeadOfWaitlist() {
+        when(enrollmentJdbcRepository.deleteEnrollment(1L, 2L)).thenReturn(true);
+        when(enrollmentJdbcRepository.nextWaitlisted(1L)).thenReturn(Optional.of(5L), Optional.of(6L));
+        when(enrollmentJdbcRepository.tryTakeSeat(1L)).thenReturn(true, false);
+        when(enrollmentJdbcRepository.insertEnrollment(1L, 5L)).thenReturn(true);
+
+        enrollmentService.unenrollStudent(1L, 2L);
+
+        verify(enrollmentJdbcRepository).releaseSeat(1L);
+        verify(enrollmentJdbcRepository).removeFromWaitlist(1L, 5L);
+        verify(enrollmentJdbcRepository).insertEnrollment(1L, 5L);
+        verify(enrollmentJdbcRepository, never()).insertEnrollment(1L, 6L);
+    }
+
+    @Test
+    void promoteFromWaitlist_LocksCourseAndFillsFreeSeats() {
+        when(enrollmentJdbcRepository.nextWaitlisted(1L)).thenReturn(Optional.of(5L), Optional.empty());
+        when(enrollmentJdbcRepository.tryTakeSeat(1L)).thenReturn(true);
+        when(enrollmentJdbcRepository.insertEnrollment(1L, 5L)).thenReturn(true);
+
+        enrollmentService.promoteFromWaitlist(1L);
+
+        verify(enrollmentJdbcRepository).lockCourse(1L);
+        verify(enrollmentJdbcRepository).removeFromWaitlist(1L, 5L);
+        verify(enrollmentJdbcRepository).insertEnrollment(1L, 5L);
+    }
+
+    @Test
+    void unenrollStudent_WhenOnlyWaitlisted_LeavesWaitlist() {
+        when(enrollmentJdbcRepository.deleteEnrollment(1L, 2L)).thenReturn(false);
+
+        enrollmentService.unenrollStudent(1L, 2L);
+
+        verify(enrollmentJdbcRepository).removeFromWaitlist(1L, 2L);
+        verify(enrollmentJdbcRepository, never()).releaseSeat(anyLong());
+    }
+
+    @Test
+    void updateCapacity_RejectsNonPositiveCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> enrollmentService.updateCapacity(1L, 0));
+        verify(enrollmentJdbcRepository, never()).updateCapacity(anyLong(), any());
+    }
+
+    private static EnrollmentBatchResult fillSeats(InvocationOnMock invocation) {
+        int size = ((Collection<?>) invocation.getArgument(1)).size();
+        int inserted = Math.min(size, invocation.<Integer>getArgument(2));
+        return new EnrollmentBatchResult(inserted, 0, 0, size - inserted);
+    }
+}
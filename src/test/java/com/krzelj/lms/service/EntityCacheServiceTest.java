@@ -0,0 +1,129 @@
+package com.krzelj.lms.service;
+
+import com.krzelj.lms.domain.Course;
+import com.krzelj.lms.domain.User;
+import com.krzelj.lms.repository.CourseRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class EntityCacheServiceTest {
+
+    private static final long COURSE_ID = 9101L;
+    private static final long INSTRUCTOR_ID = 91000L;
+    private static final long FIRST_ASSIGNMENT_ID = 91001L;
+    private static final int ASSIGNMENTS = 3;
+
+    @Autowired
+    private EntityCacheService entityCacheService;
+
+    @Autowired
+    private AssignmentService assignmentService;
+
+    @Autowired
+    private EnrollmentService enrollmentService;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        cleanUp();
+        jdbcTemplate.update("INSERT INTO users (id, username, password_hash, email, enabled, locale) VALUES (?, 'cache_instructor', 'hash', 'cache_instructor@test.com', true, 'en')", INSTRUCTOR_ID);
+        jdbcTemplate.update("INSERT INTO courses (id, code, title, description, instructor_id, created_at, capacity) VALUES (?, 'CACHE101', 'Cache Course', '', ?, ?, 10)",
+                COURSE_ID, INSTRUCTOR_ID, Instant.now());
+        for (int i = 0; i < ASSIGNMENTS; i++) {
+            jdbcTemplate.update("INSERT INTO assignments (id, course_id, title, description, due_at, max_points) VALUES (?, ?, ?, 'Desc', ?, 100)",
+                    FIRST_ASSIGNMENT_ID + i, COURSE_ID, "Cached " + i, Instant.now().plusSeconds(86400L * (i + 1)));
+        }
+        entityCacheService.evictAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        cleanUp();
+        entityCacheService.evictAll();
+    }
+
+    @Test
+    void repeatedCourseAndAssignmentReads_AreServedFromCache() {
+        readCourseAndAssignments();
+        long coldStatements = statistics.getPrepareStatementCount();
+        assertTrue(coldStatements > 0);
+
+        readCourseAndAssignments();
+
+        assertEquals(coldStatements, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getQueryCacheHitCount());
+        assertTrue(statistics.getSecondLevelCacheHitCount() > 0);
+    }
+
+    @Test
+    void jdbcCapacityChange_EvictsCachedCourse() {
+        assertEquals(10, loadCourse().getCapacity());
+
+        enrollmentService.updateCapacity(COURSE_ID, 25);
+
+        assertEquals(25, loadCourse().getCapacity());
+    }
+
+    @Test
+    void renamingAManagedInstructor_TouchesTheirCourses() {
+        Long versionBefore = jdbcTemplate.queryForObject("SELECT version FROM courses WHERE id = ?", Long.class, COURSE_ID);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            User instructor = userService.findById(INSTRUCTOR_ID).orElseThrow();
+            instructor.setUsername("cache_instructor_renamed");
+            userService.save(instructor);
+        });
+
+        assertEquals(versionBefore + 1, jdbcTemplate.queryForObject("SELECT version FROM courses WHERE id = ?", Long.class, COURSE_ID));
+    }
+
+    private void readCourseAndAssignments() {
+        transactionTemplate.executeWithoutResult(status -> {
+            assertEquals(ASSIGNMENTS, assignmentService.findForCourse(COURSE_ID).size());
+            assertTrue(courseRepository.findById(COURSE_ID).isPresent());
+        });
+    }
+
+    private Course loadCourse() {
+        return transactionTemplate.execute(status -> courseRepository.findById(COURSE_ID).orElseThrow());
+    }
+
+    private void cleanUp() {
+        jdbcTemplate.update("DELETE FROM assignments WHERE course_id = ?", COURSE_ID);
+        jdbcTemplate.update("DELETE FROM courses WHERE id = ?", COURSE_ID);
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", INSTRUCTOR_ID);
+    }
+}
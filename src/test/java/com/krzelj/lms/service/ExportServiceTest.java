@@ -0,0 +1,122 @@
+package com.krzelj.lms.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class ExportServiceTest {
+
+    private static final long INSTRUCTOR_ID = 94000L;
+    private static final long STUDENT_A = 94001L;
+    private static final long STUDENT_B = 94002L;
+    private static final long COURSE_ID = 9401L;
+    private static final long ASSIGNMENT_1 = 94101L;
+    private static final long ASSIGNMENT_2 = 94102L;
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JsonMapper jsonMapper;
+
+    @BeforeEach
+    void setUp() {
+        Timestamp now = Timestamp.from(Instant.now());
+        insertUser(INSTRUCTOR_ID, "export_instructor");
+        insertUser(STUDENT_A, "export_a");
+        insertUser(STUDENT_B, "export_b");
+        jdbcTemplate.update("INSERT INTO courses (id, code, title, description, instructor_id, created_at) VALUES (?, 'EXPORT-1', 'Export Course', '', ?, ?)",
+                COURSE_ID, INSTRUCTOR_ID, now);
+        jdbcTemplate.update("INSERT INTO course_students (course_id, student_id) VALUES (?, ?), (?, ?)",
+                COURSE_ID, STUDENT_A, COURSE_ID, STUDENT_B);
+        insertAssignment(ASSIGNMENT_1, "First", 1);
+        insertAssignment(ASSIGNMENT_2, "Second", 2);
+        jdbcTemplate.update("INSERT INTO submissions (id, assignment_id, student_id, content_text, submitted_at, grade_points, graded_at, graded_by_id) VALUES (94201, ?, ?, ?, ?, 80, ?, ?)",
+                ASSIGNMENT_1, STUDENT_A, "line one\nhas \"quotes\", commas", now, now, INSTRUCTOR_ID);
+        jdbcTemplate.update("INSERT INTO submissions (id, assignment_id, student_id, content_text, submitted_at) VALUES (94202, ?, ?, 'plain', ?)",
+                ASSIGNMENT_1, STUDENT_B, Timestamp.from(Instant.now().plusSeconds(1)));
+    }
+
+    @Test
+    void exportSubmissions_AsNdjson_WritesOneJsonObjectPerLine() {
+        String body = export(out -> exportService.exportSubmissions(ASSIGNMENT_1, ExportFormat.NDJSON, out));
+
+        List<String> lines = body.lines().toList();
+        assertEquals(2, lines.size());
+        assertTrue(body.endsWith("\n"));
+        JsonNode first = jsonMapper.readTree(lines.get(0));
+        assertEquals(94201L, first.get("id").asLong());
+        assertEquals("export_a", first.get("studentName").asString());
+        assertEquals(80, first.get("gradePoints").asInt());
+        assertEquals("export_instructor", first.get("gradedByName").asString());
+        assertTrue(jsonMapper.readTree(lines.get(1)).get("gradePoints").isNull());
+    }
+
+    @Test
+    void exportSubmissions_AsCsv_QuotesFieldsThatNeedIt() {
+        String body = export(out -> exportService.exportSubmissions(ASSIGNMENT_1, ExportFormat.CSV, out));
+
+        assertTrue(body.startsWith("id,assignmentId,assignmentTitle,studentId,studentName,submittedAt,gradePoints,gradedAt,gradedById,gradedByName,contentText\r\n"));
+        assertTrue(body.contains(",\"line one\nhas \"\"quotes\"\", commas\"\r\n"));
+        assertTrue(body.contains(",94002,export_b,"));
+        assertTrue(body.endsWith(",,,,plain\r\n"));
+    }
+
+    @Test
+    void exportGradebook_IncludesEveryStudentAssignmentPair() {
+        String body = export(out -> exportService.exportGradebook(COURSE_ID, ExportFormat.CSV, out));
+
+        List<String> lines = body.lines().toList();
+        assertEquals(5, lines.size());
+        assertTrue(lines.get(1).startsWith("94001,export_a,94101,First,100,94201,"));
+        assertTrue(lines.get(1).contains(",80,"));
+        assertEquals("94001,export_a,94102,Second,100,,,,", lines.get(2));
+        assertEquals("94002,export_b,94102,Second,100,,,,", lines.get(4));
+    }
+
+    @Test
+    void resolve_PrefersExplicitFormatOverAcceptHeader() {
+        assertEquals(ExportFormat.CSV, ExportFormat.resolve("csv", "application/x-ndjson"));
+        assertEquals(ExportFormat.CSV, ExportFormat.resolve(null, "text/csv"));
+        assertEquals(ExportFormat.NDJSON, ExportFormat.resolve(null, "*/*"));
+        assertThrows(IllegalArgumentException.class, () -> ExportFormat.resolve("xlsx", null));
+    }
+
+    private String export(Consumer<ByteArrayOutputStream> action) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        action.accept(out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private void insertUser(long id, String username) {
+        jdbcTemplate.update("INSERT INTO users (id, username, password_hash, email, enabled, locale) VALUES (?, ?, 'hash', ?, true, 'en')",
+                id, username, username + "@test.com");
+    }
+
+    private void insertAssignment(long id, String title, int dueInDays) {
+        jdbcTemplate.update("INSERT INTO assignments (id, course_id, title, description, due_at, max_points) VALUES (?, ?, ?, '', ?, 100)",
+                id, COURSE_ID, title, Timestamp.from(Instant.now().plus(Duration.ofDays(dueInDays))));
+    }
+}
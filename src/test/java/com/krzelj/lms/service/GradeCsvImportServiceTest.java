@@ -0,0 +1,157 @@
+package com.krzelj.lms.service;
+
+import com.krzelj.lms.repository.AssignmentRepository;
+import com.krzelj.lms.repository.jdbc.GradeImportJdbcRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class GradeCsvImportServiceTest {
+
+    private static final long INSTRUCTOR_ID = 97000L;
+    private static final long ALICE = 97001L;
+    private static final long BOB = 97002L;
+    private static final long CAROL = 97003L;
+    private static final long COURSE_ID = 9701L;
+    private static final long ASSIGNMENT_ID = 97101L;
+
+    @Autowired
+    private GradeImportJdbcRepository gradeImportJdbcRepository;
+
+    @Autowired
+    private AssignmentRepository assignmentRepository;
+
+    @Autowired
+    private GradeDistributionCache gradeDistributionCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JsonMapper jsonMapper;
+
+    private GradeCsvImportService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new GradeCsvImportService(gradeImportJdbcRepository, assignmentRepository, gradeDistributionCache, jsonMapper, 2);
+        Timestamp now = Timestamp.from(Instant.now());
+        insertUser(INSTRUCTOR_ID, "csv_instructor");
+        insertUser(ALICE, "alice97");
+        insertUser(BOB, "bob97");
+        insertUser(CAROL, "carol97");
+        jdbcTemplate.update("INSERT INTO courses (id, code, title, description, instructor_id, created_at) VALUES (?, 'CSV-1', 'CSV Course', '', ?, ?)",
+                COURSE_ID, INSTRUCTOR_ID, now);
+        jdbcTemplate.update("INSERT INTO course_students (course_id, student_id) VALUES (?, ?), (?, ?), (?, ?)",
+                COURSE_ID, ALICE, COURSE_ID, BOB, COURSE_ID, CAROL);
+        jdbcTemplate.update("INSERT INTO assignments (id, course_id, title, description, due_at, max_points) VALUES (?, ?, 'Exam', '', ?, 100)",
+                ASSIGNMENT_ID, COURSE_ID, Timestamp.from(Instant.now().plus(Duration.ofDays(1))));
+        jdbcTemplate.update("INSERT INTO submissions (id, assignment_id, student_id, content_text, submitted_at) VALUES (97201, ?, ?, 'a', ?), (97202, ?, ?, 'b', ?)",
+                ASSIGNMENT_ID, ALICE, now, ASSIGNMENT_ID, BOB, now);
+    }
+
+    @Test
+    void importGrades_WithHeader_ResolvesUsernamesInChunksAndReportsBadLines() {
+        String csv = """
+                "username";"points"
+                alice97;80
+                bob97;x
+                mallory;50
+                "bob97";90
+
+                carol97;70
+                bob97;150
+                """;
+        List<GradeCsvImportReport.Progress> progress = new ArrayList<>();
+
+        GradeCsvImportReport report = service.importGrades(ASSIGNMENT_ID, new StringReader(csv), INSTRUCTOR_ID, false, progress::add);
+
+        assertEquals(8, report.linesRead());
+        assertEquals(2, report.updated());
+        assertEquals(4, report.rejected());
+        assertEquals(List.of(
+                new GradeCsvImportReport.LineError(3, "bob97", GradeCsvImportReport.Reason.INVALID_POINTS),
+                new GradeCsvImportReport.LineError(4, "mallory", GradeCsvImportReport.Reason.UNKNOWN_STUDENT),
+                new GradeCsvImportReport.LineError(7, "carol97", GradeCsvImportReport.Reason.NO_SUBMISSION),
+                new GradeCsvImportReport.LineError(8, "bob97", GradeCsvImportReport.Reason.OUT_OF_RANGE)), report.errors());
+        assertEquals(2, progress.size());
+        assertEquals(new GradeCsvImportReport.Progress(4, 1, 0, 2), progress.get(0));
+        assertEquals(80, grade(ALICE));
+        assertEquals(90, grade(BOB));
+    }
+
+    @Test
+    void importGradesAsNdjson_WithoutHeader_DetectsIdentityAndCreatesMissingSubmissions() {
+        String csv = "alice97@test.com,55\n97003,65\n";
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        service.importGradesAsNdjson(ASSIGNMENT_ID, new StringReader(csv), INSTRUCTOR_ID, true, out);
+
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(2, lines.size());
+        JsonNode report = jsonMapper.readTree(lines.get(1));
+        assertEquals(1, report.get("updated").asInt());
+        assertEquals(1, report.get("created").asInt());
+        assertTrue(report.get("errors").isEmpty());
+        assertEquals(55, grade(ALICE));
+        assertEquals(65, grade(CAROL));
+    }
+
+    @Test
+    void importGrades_FirstLineWithPoints_IsDataEvenIfAFieldLooksLikeAHeader() {
+        GradeCsvImportReport report = service.importGrades(ASSIGNMENT_ID, new StringReader("username,70\nalice97,60\n"),
+                INSTRUCTOR_ID, false, progress -> { });
+
+        assertEquals(1, report.updated());
+        assertEquals(List.of(new GradeCsvImportReport.LineError(1, "username", GradeCsvImportReport.Reason.UNKNOWN_STUDENT)),
+                report.errors());
+        assertEquals(60, grade(ALICE));
+    }
+
+    @Test
+    void importGradesAsNdjson_WithHeaderMissingPoints_WritesError() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        service.importGradesAsNdjson(ASSIGNMENT_ID, new StringReader("email,comment\nalice97@test.com,ok\n"), INSTRUCTOR_ID, false, out);
+
+        assertEquals("CSV header has no points column", jsonMapper.readTree(out.toByteArray()).get("error").asString());
+        assertThrows(IllegalArgumentException.class,
+                () -> service.importGrades(97999L, new StringReader(""), INSTRUCTOR_ID, false, progress -> { }));
+    }
+
+    @Test
+    void split_HonoursQuotedFields() {
+        assertEquals(List.of("smith, j", "say \"hi\"", ""), GradeCsvImportService.split("\"smith, j\", \"say \"\"hi\"\"\",", ","));
+        assertEquals(List.of("5", "85"), GradeCsvImportService.split("  5   85 ", " "));
+    }
+
+    private Integer grade(long studentId) {
+        return jdbcTemplate.queryForObject("SELECT grade_points FROM submissions WHERE assignment_id = ? AND student_id = ?",
+                Integer.class, ASSIGNMENT_ID, studentId);
+    }
+
+    private void insertUser(long id, String username) {
+        jdbcTemplate.update("INSERT INTO users (id, username, password_hash, email, enabled, locale) VALUES (?, ?, 'hash', ?, true, 'en')",
+                id, username, username + "@test.com");
+    }
+}
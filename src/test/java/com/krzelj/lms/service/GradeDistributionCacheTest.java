@@ -0,0 +1,49 @@
+package com.krzelj.lms.service;
+
+import com.krzelj.lms.repository.jdbc.ReportingJdbcRepository;
+import com.krzelj.lms.repository.jdbc.dto.GradeCount;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class GradeDistributionCacheTest {
+
+    private final ReportingJdbcRepository reportingJdbcRepository = mock(ReportingJdbcRepository.class);
+    private final GradeDistributionCache cache = new GradeDistributionCache(reportingJdbcRepository);
+
+    @Test
+    void get_CachesUntilInvalidated() {
+        when(reportingJdbcRepository.findAssignmentMaxPoints(1L)).thenReturn(Optional.of(100));
+        when(reportingJdbcRepository.findGradeCountsForAssignment(1L))
+                .thenReturn(List.of(new GradeCount(80, 1)))
+                .thenReturn(List.of(new GradeCount(80, 1), new GradeCount(90, 1)));
+
+        assertEquals(1, cache.get(1L).gradedCount());
+        assertEquals(1, cache.get(1L).gradedCount());
+        cache.invalidate(1L);
+
+        assertEquals(2, cache.get(1L).gradedCount());
+        verify(reportingJdbcRepository, times(2)).findGradeCountsForAssignment(1L);
+    }
+
+    @Test
+    void get_WhenAGradeChangeLandsDuringTheLoad_DoesNotCacheTheStaleSnapshot() {
+        when(reportingJdbcRepository.findAssignmentMaxPoints(1L)).thenReturn(Optional.of(100));
+        when(reportingJdbcRepository.findGradeCountsForAssignment(1L))
+                .thenAnswer(invocation -> {
+                    cache.invalidate(1L);
+                    return List.of(new GradeCount(80, 1));
+                })
+                .thenReturn(List.of(new GradeCount(80, 1), new GradeCount(90, 1)));
+
+        assertEquals(1, cache.get(1L).gradedCount());
+
+        assertEquals(2, cache.get(1L).gradedCount());
+        assertEquals(2, cache.get(1L).gradedCount());
+        verify(reportingJdbcRepository, times(2)).findGradeCountsForAssignment(1L);
+    }
+}
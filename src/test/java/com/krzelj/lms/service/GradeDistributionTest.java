@@ -0,0 +1,49 @@
+package com.krzelj.lms.service;
+
+import com.krzelj.lms.repository.jdbc.dto.GradeCount;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GradeDistributionTest {
+
+    private final GradeDistribution distribution = GradeDistribution.of(1L, 100, List.of(
+            new GradeCount(40, 1), new GradeCount(60, 2), new GradeCount(75, 3), new GradeCount(90, 3), new GradeCount(100, 1)));
+
+    @Test
+    void percentile_UsesNearestRank() {
+        assertEquals(10, distribution.gradedCount());
+        assertEquals(40, distribution.min());
+        assertEquals(60, distribution.percentile(25));
+        assertEquals(75, distribution.percentile(50));
+        assertEquals(90, distribution.percentile(75));
+        assertEquals(90, distribution.percentile(90));
+        assertEquals(100, distribution.max());
+        assertEquals(75.5, distribution.mean(), 0.001);
+        assertThrows(IllegalArgumentException.class, () -> distribution.percentile(101));
+    }
+
+    @Test
+    void histogram_SplitsRangeIntoEqualBuckets() {
+        List<GradeDistribution.Bucket> buckets = distribution.histogram(4);
+
+        assertEquals(4, buckets.size());
+        assertEquals(new GradeDistribution.Bucket(0, 24, 0), buckets.get(0));
+        assertEquals(new GradeDistribution.Bucket(25, 49, 1), buckets.get(1));
+        assertEquals(new GradeDistribution.Bucket(50, 74, 2), buckets.get(2));
+        assertEquals(new GradeDistribution.Bucket(75, 100, 7), buckets.get(3));
+        assertThrows(IllegalArgumentException.class, () -> distribution.histogram(0));
+    }
+
+    @Test
+    void emptyDistribution_HasNoPercentiles() {
+        GradeDistribution empty = GradeDistribution.of(2L, 10, List.of());
+
+        assertEquals(0, empty.gradedCount());
+        assertNull(empty.percentile(50));
+        assertTrue(Double.isNaN(empty.mean()));
+        assertEquals(11, empty.histogram(11).size());
+    }
+}
@@ -0,0 +1,142 @@
+package com.krzelj.lms.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class GradebookServiceTest {
+
+    private static final long INSTRUCTOR_ID = 95000L;
+    private static final long STUDENT_A = 95001L;
+    private static final long STUDENT_B = 95002L;
+    private static final long OUTSIDER = 95003L;
+    private static final long COURSE_ID = 9501L;
+    private static final long ASSIGNMENT_1 = 95101L;
+    private static final long ASSIGNMENT_2 = 95102L;
+
+    @Autowired
+    private GradebookService gradebookService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JsonMapper jsonMapper;
+
+    @BeforeEach
+    void setUp() {
+        insertUser(INSTRUCTOR_ID, "gb_instructor");
+        insertUser(STUDENT_A, "gb_alice");
+        insertUser(STUDENT_B, "gb_bob");
+        insertUser(OUTSIDER, "gb_outsider");
+        jdbcTemplate.update("INSERT INTO courses (id, code, title, description, instructor_id, created_at) VALUES (?, 'GB-1', 'Gradebook Course', '', ?, ?)",
+                COURSE_ID, INSTRUCTOR_ID, Timestamp.from(Instant.now()));
+        jdbcTemplate.update("INSERT INTO course_students (course_id, student_id) VALUES (?, ?), (?, ?)",
+                COURSE_ID, STUDENT_A, COURSE_ID, STUDENT_B);
+        insertAssignment(ASSIGNMENT_1, "Essay, part 1", 1, 100);
+        insertAssignment(ASSIGNMENT_2, "Quiz", 2, 20);
+        insertSubmission(95201L, ASSIGNMENT_1, STUDENT_A, 80);
+        insertSubmission(95202L, ASSIGNMENT_2, STUDENT_A, 10);
+        insertSubmission(95203L, ASSIGNMENT_1, STUDENT_B, 60);
+        insertSubmission(95204L, ASSIGNMENT_2, STUDENT_B, null);
+        insertSubmission(95205L, ASSIGNMENT_1, OUTSIDER, 100);
+    }
+
+    @Test
+    void build_FillsDenseMatrixWithSentinelForMissingGrades() {
+        GradebookMatrix matrix = gradebookService.build(COURSE_ID);
+
+        assertEquals(2, matrix.studentCount());
+        assertEquals(2, matrix.assignmentCount());
+        assertEquals(STUDENT_A, matrix.studentId(0));
+        assertEquals(ASSIGNMENT_1, matrix.assignmentId(0));
+        assertEquals(80, matrix.grade(0, 0));
+        assertEquals(10, matrix.grade(0, 1));
+        assertEquals(60, matrix.grade(1, 0));
+        assertEquals(GradebookMatrix.MISSING, matrix.grade(1, 1));
+    }
+
+    @Test
+    void build_ComputesRowAndColumnAggregates() {
+        GradebookMatrix matrix = gradebookService.build(COURSE_ID);
+
+        assertEquals(2, matrix.gradedCount(0));
+        assertEquals(90, matrix.totalPoints(0));
+        assertEquals(120, matrix.possiblePoints(0));
+        assertEquals(75.0, matrix.percent(0), 1e-9);
+        assertEquals(60.0, matrix.percent(1), 1e-9);
+
+        assertEquals(70.0, matrix.columnAverage(0), 1e-9);
+        assertEquals(60, matrix.columnMin(0));
+        assertEquals(80, matrix.columnMax(0));
+        assertEquals(1, matrix.columnGradedCount(1));
+    }
+
+    @Test
+    void build_ForCourseWithoutStudents_IsEmpty() {
+        GradebookMatrix matrix = gradebookService.build(-1L);
+
+        assertEquals(0, matrix.studentCount());
+        assertEquals(0, matrix.assignmentCount());
+    }
+
+    @Test
+    void writeJson_UsesNullForMissingCells() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        gradebookService.writeJson(gradebookService.build(COURSE_ID), out);
+
+        JsonNode body = jsonMapper.readTree(out.toByteArray());
+        assertEquals(COURSE_ID, body.get("courseId").asLong());
+        assertEquals(70.0, body.get("assignments").get(0).get("average").asDouble());
+        JsonNode bob = body.get("students").get(1);
+        assertEquals("gb_bob", bob.get("username").asString());
+        assertEquals(60, bob.get("grades").get(0).asInt());
+        assertTrue(bob.get("grades").get(1).isNull());
+        assertEquals(60.0, bob.get("percent").asDouble());
+    }
+
+    @Test
+    void writeCsv_WritesMatrixWithAggregateFooter() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        gradebookService.writeCsv(gradebookService.build(COURSE_ID), out);
+
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals("studentId,studentName,\"Essay, part 1\",Quiz,graded,totalPoints,possiblePoints,percent", lines.get(0));
+        assertEquals("95001,gb_alice,80,10,2,90,120,75.0", lines.get(1));
+        assertEquals("95002,gb_bob,60,,1,60,100,60.0", lines.get(2));
+        assertEquals(",average,70.0,10.0,,,,", lines.get(5));
+    }
+
+    private void insertUser(long id, String username) {
+        jdbcTemplate.update("INSERT INTO users (id, username, password_hash, email, enabled, locale) VALUES (?, ?, 'hash', ?, true, 'en')",
+                id, username, username + "@test.com");
+    }
+
+    private void insertAssignment(long id, String title, int dueInDays, int maxPoints) {
+        jdbcTemplate.update("INSERT INTO assignments (id, course_id, title, description, due_at, max_points) VALUES (?, ?, ?, '', ?, ?)",
+                id, COURSE_ID, title, Timestamp.from(Instant.now().plus(Duration.ofDays(dueInDays))), maxPoints);
+    }
+
+    private void insertSubmission(long id, long assignmentId, long studentId, Integer gradePoints) {
+        jdbcTemplate.update("INSERT INTO submissions (id, assignment_id, student_id, content_text, submitted_at, grade_points) VALUES (?, ?, ?, 'work', ?, ?)",
+                id, assignmentId, studentId, Timestamp.from(Instant.now()), gradePoints);
+    }
+}
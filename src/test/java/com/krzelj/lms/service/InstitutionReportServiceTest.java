@@ -0,0 +1,105 @@
+package com.krzelj.lms.service;
+
+import com.krzelj.lms.repository.jdbc.ReportingJdbcRepository;
+import com.krzelj.lms.repository.jdbc.dto.AssignmentGradeReportRow;
+import com.krzelj.lms.repository.jdbc.dto.CourseIdRange;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class InstitutionReportServiceTest {
+
+    private final ReportingJdbcRepository reportingJdbcRepository = mock(ReportingJdbcRepository.class);
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+    private final InstitutionReportService service = new InstitutionReportService(reportingJdbcRepository, jsonMapper, 8, 4);
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void plan_SplitsCourseIdRangeIntoContiguousPartitions() {
+        when(reportingJdbcRepository.findCourseIdRange()).thenReturn(Optional.of(new CourseIdRange(1, 10)));
+
+        List<InstitutionReportService.Partition> plan = service.plan(null, 3);
+
+        assertEquals(3, plan.size());
+        assertEquals(new InstitutionReportService.Partition(0, 1, 4, null), plan.get(0));
+        assertEquals(new InstitutionReportService.Partition(1, 5, 7, null), plan.get(1));
+        assertEquals(new InstitutionReportService.Partition(2, 8, 10, null), plan.get(2));
+    }
+
+    @Test
+    void plan_WithCourseIds_PartitionsSortedDistinctIds() {
+        List<InstitutionReportService.Partition> plan = service.plan(List.of(9L, 2L, 5L, 2L), 8);
+
+        assertEquals(3, plan.size());
+        assertEquals(List.of(2L), plan.get(0).courseIds());
+        assertEquals(9L, plan.get(2).toCourseId());
+        verify(reportingJdbcRepository, never()).findCourseIdRange();
+    }
+
+    @Test
+    void plan_RejectsPartitionCountOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> service.plan(List.of(1L), 0));
+        assertThrows(IllegalArgumentException.class, () -> service.plan(List.of(1L), InstitutionReportService.MAX_PARTITIONS + 1));
+    }
+
+    @Test
+    void plan_WithNoCourses_IsEmpty() {
+        when(reportingJdbcRepository.findCourseIdRange()).thenReturn(Optional.empty());
+
+        assertTrue(service.plan(null, null).isEmpty());
+    }
+
+    @Test
+    void writeReport_RunsPartitionsInParallelAndMergesInOrder() throws Exception {
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        when(reportingJdbcRepository.assignmentGradeReportForCourseRange(1, 5)).thenAnswer(invocation -> {
+            bothStarted.countDown();
+            assertTrue(bothStarted.await(5, TimeUnit.SECONDS), "partitions did not run concurrently");
+            return List.of(row(11, 1), row(12, 3));
+        });
+        when(reportingJdbcRepository.assignmentGradeReportForCourseRange(6, 10)).thenAnswer(invocation -> {
+            bothStarted.countDown();
+            return List.of(row(21, 7));
+        });
+        when(reportingJdbcRepository.findCourseIdRange()).thenReturn(Optional.of(new CourseIdRange(1, 10)));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.writeReport(service.plan(null, 2), out);
+
+        JsonNode report = jsonMapper.readTree(out.toByteArray());
+        assertEquals(3, report.get("assignments").size());
+        assertEquals(11, report.get("assignments").get(0).get("assignmentId").asLong());
+        assertEquals(21, report.get("assignments").get(2).get("assignmentId").asLong());
+        assertEquals(2, report.get("partitions").size());
+        assertEquals(6, report.get("partitions").get(1).get("fromCourseId").asLong());
+        assertEquals(1, report.get("partitions").get(1).get("assignments").asInt());
+        assertTrue(report.get("partitions").get(0).has("millis"));
+        assertTrue(report.has("elapsedMillis"));
+    }
+
+    @Test
+    void writeReport_PropagatesPartitionFailure() {
+        when(reportingJdbcRepository.assignmentGradeReportForCourses(List.of(1L))).thenThrow(new IllegalStateException("boom"));
+
+        assertThrows(IllegalStateException.class,
+                () -> service.writeReport(service.plan(List.of(1L), 1), new ByteArrayOutputStream()));
+    }
+
+    private static AssignmentGradeReportRow row(long assignmentId, long courseId) {
+        return AssignmentGradeReportRow.fromSums(assignmentId, courseId, 2, 2, 150, 11_300, 70, 80);
+    }
+}
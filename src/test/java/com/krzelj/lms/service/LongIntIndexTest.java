@@ -0,0 +1,27 @@
+package com.krzelj.lms.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongIntIndexTest {
+
+    @Test
+    void indexOf_ReturnsPositionOfEveryId() {
+        long[] ids = LongStream.range(0, 10_000).map(i -> i * 1_024 + 7).toArray();
+        LongIntIndex index = new LongIntIndex(ids);
+
+        for (int i = 0; i < ids.length; i++) {
+            assertEquals(i, index.indexOf(ids[i]));
+        }
+        assertEquals(LongIntIndex.ABSENT, index.indexOf(8));
+        assertEquals(LongIntIndex.ABSENT, index.indexOf(0));
+    }
+
+    @Test
+    void indexOf_OnEmptyIndex_ReturnsAbsent() {
+        assertEquals(LongIntIndex.ABSENT, new LongIntIndex(new long[0]).indexOf(1));
+    }
+}
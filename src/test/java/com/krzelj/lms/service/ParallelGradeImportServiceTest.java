@@ -0,0 +1,108 @@
+package com.krzelj.lms.service;
+
+import com.krzelj.lms.repository.jdbc.GradeImportJdbcRepository;
+import com.krzelj.lms.repository.jdbc.GradeStatsJdbcRepository;
+import com.krzelj.lms.repository.jdbc.dto.GradeImportRow;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ParallelGradeImportServiceTest {
+
+    private final GradeImportJdbcRepository gradeImportJdbcRepository = mock(GradeImportJdbcRepository.class);
+    private final GradeStatsJdbcRepository gradeStatsJdbcRepository = mock(GradeStatsJdbcRepository.class);
+    private final GradeDistributionCache gradeDistributionCache = mock(GradeDistributionCache.class);
+    private final ParallelGradeImportService service = new ParallelGradeImportService(
+            gradeImportJdbcRepository, gradeStatsJdbcRepository, gradeDistributionCache, 2, 3, 10, 30);
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void importGrades_CommitsDeduplicatedChunksOnWorkerThreads() {
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        when(gradeImportJdbcRepository.batchUpdateGradesWithoutStats(anyList(), eq(7L), any())).thenAnswer(invocation -> {
+            threads.add(Thread.currentThread().getName());
+            List<GradeImportRow> chunk = invocation.getArgument(0);
+            return new int[][]{new int[chunk.size()]};
+        });
+
+        ChunkedGradeImportResult result = service.importGrades(List.of(
+                new GradeImportRow(1L, 1L, 10),
+                new GradeImportRow(1L, 2L, 20),
+                new GradeImportRow(1L, 1L, 30),
+                new GradeImportRow(2L, 3L, 40)), 7L);
+
+        assertEquals(4, result.totalRows());
+        assertEquals(1, result.superseded());
+        assertEquals(2, result.chunks().size());
+        assertNull(result.importId());
+        assertTrue(threads.stream().allMatch(name -> name.startsWith("grade-import-")));
+        verify(gradeImportJdbcRepository).batchUpdateGradesWithoutStats(
+                eq(List.of(new GradeImportRow(1L, 2L, 20), new GradeImportRow(1L, 1L, 30))), eq(7L), any());
+        verify(gradeStatsJdbcRepository).rebuildForAssignments(1L, 2L);
+    }
+
+    @Test
+    void retryFailedChunks_RerunsOnlyTheFailedChunk() {
+        AtomicBoolean failOnce = new AtomicBoolean(true);
+        when(gradeImportJdbcRepository.batchUpdateGradesWithoutStats(anyList(), eq(7L), any())).thenAnswer(invocation -> {
+            List<GradeImportRow> chunk = invocation.getArgument(0);
+            if (chunk.get(0).assignmentId() == 2L && failOnce.getAndSet(false)) {
+                throw new CannotAcquireLockException("lock timeout");
+            }
+            return new int[][]{{1, 1}};
+        });
+        List<GradeImportRow> rows = List.of(
+                new GradeImportRow(1L, 1L, 10), new GradeImportRow(1L, 2L, 20),
+                new GradeImportRow(2L, 1L, 30), new GradeImportRow(2L, 2L, 40));
+
+        ChunkedGradeImportResult first = service.importGrades(rows, 7L);
+
+        assertEquals(2, first.updated());
+        assertNotNull(first.importId());
+        assertEquals(List.of(new ChunkedGradeImportResult.Chunk(1, 2, 0, "CannotAcquireLockException")), first.failedChunks());
+        verify(gradeStatsJdbcRepository).rebuildForAssignments(1L);
+
+        ChunkedGradeImportResult retried = service.retryFailedChunks(first.importId()).orElseThrow();
+
+        assertEquals(2, retried.updated());
+        assertNull(retried.importId());
+        assertEquals(1, retried.chunks().size());
+        verify(gradeImportJdbcRepository, times(3)).batchUpdateGradesWithoutStats(anyList(), eq(7L), any());
+        verify(gradeStatsJdbcRepository).rebuildForAssignments(2L);
+        assertEquals(Optional.empty(), service.retryFailedChunks(first.importId()));
+    }
+
+    @Test
+    void importGrades_WhenStatsRebuildFails_StillReportsCommittedChunks() {
+        when(gradeImportJdbcRepository.batchUpdateGradesWithoutStats(anyList(), eq(7L), any())).thenReturn(new int[][]{{1}});
+        doThrow(new CannotAcquireLockException("lock timeout")).when(gradeStatsJdbcRepository).rebuildForAssignments(1L);
+
+        ChunkedGradeImportResult result = service.importGrades(List.of(new GradeImportRow(1L, 1L, 10)), 7L);
+
+        assertEquals(1, result.updated());
+        assertTrue(result.failedChunks().isEmpty());
+        verify(gradeDistributionCache).invalidateAll(Set.of(1L));
+    }
+
+    @Test
+    void parallelism_DefaultsToHalfThePoolAndLeavesOneConnectionFree() {
+        assertEquals(5, ParallelGradeImportService.parallelism(0, 10));
+        assertEquals(9, ParallelGradeImportService.parallelism(32, 10));
+        assertEquals(1, ParallelGradeImportService.parallelism(0, 1));
+        assertEquals(3, ParallelGradeImportService.parallelism(3, 10));
+    }
+}
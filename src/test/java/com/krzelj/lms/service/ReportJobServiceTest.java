@@ -0,0 +1,192 @@
+package com.krzelj.lms.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ReportJobServiceTest {
+
+    @TempDir
+    Path directory;
+
+    private final InstitutionReportService institutionReportService = mock(InstitutionReportService.class);
+    private final GradebookService gradebookService = mock(GradebookService.class);
+    private final ExportService exportService = mock(ExportService.class);
+    private ReportJobService service;
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void submit_WritesCompressedResultThatCanBeReadBothWays() throws Exception {
+        service = service(2, 10, 60);
+        doAnswer(invocation -> write(invocation.getArgument(2), "studentId,studentName\r\n1,ana\r\n"))
+                .when(exportService).exportGradebook(eq(7L), eq(ExportFormat.CSV), any());
+
+        ReportJob job = awaitFinished(service.submit("alice", ReportJobType.GRADEBOOK_EXPORT, 7L, null, null, "CSV"));
+
+        assertEquals(ReportJobStatus.COMPLETED, job.getStatus());
+        assertEquals("text/csv", job.getMediaType());
+        assertEquals("course-7-gradebook.csv", job.getFileName());
+        assertEquals(Files.size(job.getFile()), job.getSizeBytes());
+        assertEquals("studentId,studentName\r\n1,ana\r\n", read(job, false));
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        service.writeResult(job, true, compressed);
+        assertEquals("studentId,studentName\r\n1,ana\r\n", new String(
+                new GZIPInputStream(new ByteArrayInputStream(compressed.toByteArray())).readAllBytes(), StandardCharsets.UTF_8));
+        assertSame(job, service.find(job.getId(), "alice", false).orElseThrow());
+    }
+
+    @Test
+    void submit_DeduplicatesIdenticalInFlightRequests() throws Exception {
+        service = service(2, 10, 60);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return write(invocation.getArgument(2), "{}");
+        }).when(exportService).exportGradebook(anyLong(), any(), any());
+
+        ReportJob first = service.submit("alice", ReportJobType.GRADEBOOK_EXPORT, 7L, null, null, "ndjson");
+        ReportJob same = service.submit("alice", ReportJobType.GRADEBOOK_EXPORT, 7L, null, null, "NDJSON");
+        ReportJob other = service.submit("alice", ReportJobType.GRADEBOOK_EXPORT, 8L, null, null, "ndjson");
+        release.countDown();
+        awaitFinished(first);
+        awaitFinished(other);
+
+        assertSame(first, same);
+        assertNotEquals(first.getId(), other.getId());
+        ReportJob rerun = service.submit("alice", ReportJobType.GRADEBOOK_EXPORT, 7L, null, null, "ndjson");
+        assertNotEquals(first.getId(), rerun.getId());
+        awaitFinished(rerun);
+    }
+
+    @Test
+    void submit_KeepsJobsOfDifferentUsersApart() throws Exception {
+        service = service(2, 10, 60);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return write(invocation.getArgument(2), "{}");
+        }).when(exportService).exportGradebook(anyLong(), any(), any());
+
+        ReportJob alices = service.submit("alice", ReportJobType.GRADEBOOK_EXPORT, 7L, null, null, "ndjson");
+        ReportJob bobs = service.submit("bob", ReportJobType.GRADEBOOK_EXPORT, 7L, null, null, "ndjson");
+        release.countDown();
+        awaitFinished(alices);
+        awaitFinished(bobs);
+
+        assertNotEquals(alices.getId(), bobs.getId());
+        assertTrue(service.find(alices.getId(), "bob", false).isEmpty());
+        assertSame(alices, service.find(alices.getId(), "alice", false).orElseThrow());
+        assertSame(alices, service.find(alices.getId(), "admin", true).orElseThrow());
+    }
+
+    @Test
+    void submit_RejectsInvalidRequests() {
+        service = service(1, 1, 60);
+
+        assertThrows(IllegalArgumentException.class, () -> service.submit("alice", null, 1L, null, null, null));
+        assertThrows(IllegalArgumentException.class, () -> service.submit("alice", ReportJobType.GRADEBOOK, null, null, null, null));
+        assertThrows(IllegalArgumentException.class, () -> service.submit("alice", ReportJobType.GRADEBOOK, 1L, null, null, "xlsx"));
+        assertThrows(IllegalArgumentException.class, () -> service.submit("alice", ReportJobType.GRADEBOOK_EXPORT, 1L, null, null, "xml"));
+    }
+
+    @Test
+    void submit_WhenQueueIsFull_ThrowsIllegalState() throws Exception {
+        service = service(1, 1, 60);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch running = new CountDownLatch(1);
+        when(institutionReportService.plan(any(), any())).thenReturn(List.of());
+        doAnswer(invocation -> {
+            running.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return write(invocation.getArgument(1), "{}");
+        }).when(institutionReportService).writeReport(any(), any());
+
+        ReportJob first = service.submit("alice", ReportJobType.INSTITUTION_REPORT, null, List.of(1L), null, null);
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        ReportJob queued = service.submit("alice", ReportJobType.INSTITUTION_REPORT, null, List.of(2L), null, null);
+        assertThrows(IllegalStateException.class,
+                () -> service.submit("alice", ReportJobType.INSTITUTION_REPORT, null, List.of(3L), null, null));
+        release.countDown();
+
+        assertEquals(ReportJobStatus.COMPLETED, awaitFinished(first).getStatus());
+        assertEquals(ReportJobStatus.COMPLETED, awaitFinished(queued).getStatus());
+    }
+
+    @Test
+    void failedJob_RecordsErrorAndRemovesPartialFile() throws Exception {
+        service = service(1, 5, 60);
+        doThrow(new IllegalStateException("database unavailable"))
+                .when(exportService).exportGradebook(anyLong(), any(), any());
+
+        ReportJob job = awaitFinished(service.submit("alice", ReportJobType.GRADEBOOK_EXPORT, 7L, null, null, null));
+
+        assertEquals(ReportJobStatus.FAILED, job.getStatus());
+        assertEquals("Report generation failed", job.getError());
+        try (var files = Files.list(directory)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void purgeExpired_RemovesFinishedJobsAndOrphanFiles() throws Exception {
+        service = service(1, 5, 0);
+        doAnswer(invocation -> write(invocation.getArgument(2), "{}"))
+                .when(exportService).exportGradebook(anyLong(), any(), any());
+        ReportJob job = awaitFinished(service.submit("alice", ReportJobType.GRADEBOOK_EXPORT, 7L, null, null, null));
+        Path orphan = Files.writeString(directory.resolve("left-over.gz"), "x");
+        Files.setLastModifiedTime(orphan, java.nio.file.attribute.FileTime.fromMillis(0));
+        Thread.sleep(5);
+
+        service.purgeExpired();
+
+        assertTrue(service.find(job.getId(), "alice", false).isEmpty());
+        assertFalse(Files.exists(job.getFile()));
+        assertFalse(Files.exists(orphan));
+    }
+
+    private ReportJobService service(int threads, int queueCapacity, long ttlMinutes) {
+        return new ReportJobService(institutionReportService, gradebookService, exportService,
+                directory.toString(), threads, queueCapacity, ttlMinutes);
+    }
+
+    private static Object write(OutputStream out, String body) throws IOException {
+        out.write(body.getBytes(StandardCharsets.UTF_8));
+        return null;
+    }
+
+    private String read(ReportJob job, boolean gzip) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.writeResult(job, gzip, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private static ReportJob awaitFinished(ReportJob job) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!job.isFinished()) {
+            assertTrue(System.nanoTime() < deadline, "job did not finish");
+            Thread.sleep(10);
+        }
+        return job;
+    }
+}
@@ -0,0 +1,150 @@
+package com.krzelj.lms.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReportSingleFlightTest {
+
+    @Test
+    void concurrentCallers_ShareOneInFlightLoad() throws Exception {
+        ReportSingleFlight singleFlight = new ReportSingleFlight(60_000, 10_000);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(20);
+        try {
+            List<Future<List<String>>> futures = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                futures.add(pool.submit(() -> singleFlight.get("course-grade-report", 1L, () -> {
+                    loads.incrementAndGet();
+                    await(release);
+                    return List.of("row");
+                })));
+            }
+            Thread.sleep(100);
+            release.countDown();
+
+            for (Future<List<String>> future : futures) {
+                assertEquals(List.of("row"), future.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(1, loads.get());
+        ReportSingleFlight.Statistics stats = singleFlight.statistics().get("course-grade-report");
+        assertEquals(1, stats.loads());
+        assertEquals(19, stats.inFlightHits() + stats.cachedHits());
+    }
+
+    @Test
+    void completedResult_IsReusedWithinTtlPerParameters() {
+        ReportSingleFlight singleFlight = new ReportSingleFlight(60_000, 10_000);
+        AtomicInteger loads = new AtomicInteger();
+
+        singleFlight.get("gradebook-matrix", 1L, loads::incrementAndGet);
+        singleFlight.get("gradebook-matrix", 1L, loads::incrementAndGet);
+        singleFlight.get("gradebook-matrix", 2L, loads::incrementAndGet);
+        singleFlight.get("course-grade-report", 1L, loads::incrementAndGet);
+
+        assertEquals(3, loads.get());
+        assertEquals(1, singleFlight.statistics().get("gradebook-matrix").cachedHits());
+    }
+
+    @Test
+    void expiredResult_IsReloaded() {
+        ReportSingleFlight singleFlight = new ReportSingleFlight(0, 10_000);
+        AtomicInteger loads = new AtomicInteger();
+
+        singleFlight.get("course-grade-report", 1L, loads::incrementAndGet);
+        singleFlight.get("course-grade-report", 1L, loads::incrementAndGet);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void failures_AreNotCached() {
+        ReportSingleFlight singleFlight = new ReportSingleFlight(60_000, 10_000);
+
+        assertThrows(IllegalStateException.class, () -> singleFlight.get("course-grade-report", 1L, () -> {
+            throw new IllegalStateException("boom");
+        }));
+        assertEquals("ok", singleFlight.get("course-grade-report", 1L, () -> "ok"));
+
+        ReportSingleFlight.Statistics stats = singleFlight.statistics().get("course-grade-report");
+        assertEquals(2, stats.loads());
+        assertEquals(1, stats.failures());
+    }
+
+    @Test
+    void errorsThrownByTheLoader_AreHandedToWaiters() throws Exception {
+        ReportSingleFlight singleFlight = new ReportSingleFlight(60_000, 10_000);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<Object> leader = pool.submit(() -> singleFlight.get("course-grade-report", 1L, () -> {
+                loading.countDown();
+                await(release);
+                throw new AssertionError("boom");
+            }));
+            await(loading);
+            Future<Object> waiter = pool.submit(() -> singleFlight.get("course-grade-report", 1L, () -> "unused"));
+            Thread.sleep(100);
+            release.countDown();
+
+            ExecutionException leaderFailure = assertThrows(ExecutionException.class, () -> leader.get(10, TimeUnit.SECONDS));
+            ExecutionException waiterFailure = assertThrows(ExecutionException.class, () -> waiter.get(10, TimeUnit.SECONDS));
+            assertInstanceOf(AssertionError.class, leaderFailure.getCause());
+            assertInstanceOf(AssertionError.class, waiterFailure.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void waiters_StopWaitingForAStuckLoadAndLoadThemselves() throws Exception {
+        ReportSingleFlight singleFlight = new ReportSingleFlight(60_000, 200);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            pool.submit(() -> singleFlight.get("course-grade-report", 1L, () -> {
+                loading.countDown();
+                await(release);
+                return "stuck";
+            }));
+            await(loading);
+
+            assertEquals("own", singleFlight.get("course-grade-report", 1L, () -> "own"));
+            Thread.sleep(250);
+            assertEquals("next", singleFlight.get("course-grade-report", 1L, () -> "next"));
+
+            ReportSingleFlight.Statistics stats = singleFlight.statistics().get("course-grade-report");
+            assertEquals(1, stats.timeouts());
+            assertEquals(3, stats.loads());
+        } finally {
+            release.countDown();
+            pool.shutdownNow();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.krzelj.lms.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class SparseFieldServiceTest {
+
+    private static final long INSTRUCTOR_ID = 93000L;
+    private static final long STUDENT_ID = 93001L;
+    private static final long COURSE_ID = 9301L;
+    private static final long ASSIGNMENT_ID = 93101L;
+
+    @Autowired
+    private SparseFieldService sparseFieldService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        Timestamp now = Timestamp.from(Instant.now());
+        jdbcTemplate.update("INSERT INTO users (id, username, password_hash, email, enabled, locale) VALUES (?, 'sparse_instructor', 'hash', 'sparse_instructor@test.com', true, 'en')", INSTRUCTOR_ID);
+        jdbcTemplate.update("INSERT INTO users (id, username, password_hash, email, enabled, locale) VALUES (?, 'sparse_student', 'hash', 'sparse_student@test.com', true, 'en')", STUDENT_ID);
+        jdbcTemplate.update("INSERT INTO courses (id, code, title, description, instructor_id, created_at) VALUES (?, 'SPARSE-1', 'Sparse Course', 'Long description', ?, ?)",
+                COURSE_ID, INSTRUCTOR_ID, now);
+        jdbcTemplate.update("INSERT INTO course_students (course_id, student_id) VALUES (?, ?)", COURSE_ID, STUDENT_ID);
+        jdbcTemplate.update("INSERT INTO assignments (id, course_id, title, description, due_at, max_points) VALUES (?, ?, 'Sparse Assignment', 'Desc', ?, 50)",
+                ASSIGNMENT_ID, COURSE_ID, Timestamp.from(Instant.now().plus(Duration.ofDays(7))));
+        jdbcTemplate.update("INSERT INTO submissions (id, assignment_id, student_id, content_text, submitted_at, grade_points, graded_at, graded_by_id) VALUES (93201, ?, ?, 'work', ?, 42, ?, ?)",
+                ASSIGNMENT_ID, STUDENT_ID, now, now, INSTRUCTOR_ID);
+    }
+
+    @Test
+    void parse_KeepsDeclarationOrderAndAlwaysIncludesId() {
+        assertEquals(List.of("id", "code", "title"), sparseFieldService.courseFields("title, code"));
+        assertEquals(List.of("id"), sparseFieldService.submissionFields(""));
+    }
+
+    @Test
+    void parse_RejectsUnknownFields() {
+        assertThrows(IllegalArgumentException.class, () -> sparseFieldService.courseFields("title,password"));
+    }
+
+    @Test
+    void findCoursesForInstructor_ReturnsOnlyRequestedFields() {
+        List<Map<String, Object>> courses = sparseFieldService.findCoursesForInstructor(INSTRUCTOR_ID,
+                sparseFieldService.courseFields("code,instructorName"));
+
+        assertEquals(1, courses.size());
+        assertEquals(Map.of("id", COURSE_ID, "code", "SPARSE-1", "instructorName", "sparse_instructor"), courses.get(0));
+    }
+
+    @Test
+    void findCoursesForStudent_ReturnsEnrolledCourses() {
+        List<Map<String, Object>> courses = sparseFieldService.findCoursesForStudent(STUDENT_ID,
+                sparseFieldService.courseFields("title"));
+
+        assertEquals(List.of(Map.of("id", COURSE_ID, "title", "Sparse Course")), courses);
+    }
+
+    @Test
+    void findAssignmentsForCourse_JoinsCourseOnlyWhenRequested() {
+        List<Map<String, Object>> assignments = sparseFieldService.findAssignmentsForCourse(COURSE_ID,
+                sparseFieldService.assignmentFields("courseTitle,maxPoints"));
+
+        assertEquals(List.of(Map.of("id", ASSIGNMENT_ID, "courseTitle", "Sparse Course", "maxPoints", 50)), assignments);
+    }
+
+    @Test
+    void findSubmissions_OmitsContentTextUnlessRequested() {
+        List<Map<String, Object>> submissions = sparseFieldService.findSubmissionsForAssignment(ASSIGNMENT_ID,
+                sparseFieldService.submissionFields("studentId,gradePoints,gradedByName"));
+
+        assertEquals(1, submissions.size());
+        Map<String, Object> row = submissions.get(0);
+        assertEquals(List.of("id", "studentId", "gradePoints", "gradedByName"), List.copyOf(row.keySet()));
+        assertEquals(STUDENT_ID, row.get("studentId"));
+        assertEquals(42, row.get("gradePoints"));
+        assertEquals("sparse_instructor", row.get("gradedByName"));
+
+        List<Map<String, Object>> forStudent = sparseFieldService.findSubmissionsForStudent(STUDENT_ID,
+                sparseFieldService.submissionFields("contentText"));
+        assertEquals("work", forStudent.get(0).get("contentText"));
+    }
+}
@@ -0,0 +1,115 @@
+package com.krzelj.lms.service;
+
+import com.krzelj.lms.domain.Submission;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class SubmissionConcurrencyTest {
+
+    private static final long COURSE_ID = 9801L;
+    private static final long ASSIGNMENT_ID = 98101L;
+    private static final long INSTRUCTOR_ID = 98000L;
+    private static final long FIRST_STUDENT_ID = 98001L;
+    private static final int STUDENTS = 100;
+    private static final int SUBMITS_PER_STUDENT = 10;
+
+    @Autowired
+    private SubmissionService submissionService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        cleanUp();
+        jdbcTemplate.update("INSERT INTO users (id, username, password_hash, email, enabled, locale) VALUES (?, 'burst_instructor', 'hash', 'burst_instructor@test.com', true, 'en')", INSTRUCTOR_ID);
+        List<Object[]> students = new ArrayList<>();
+        for (int i = 0; i < STUDENTS; i++) {
+            students.add(new Object[]{FIRST_STUDENT_ID + i, "burst_student_" + i, "burst_student_" + i + "@test.com"});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (id, username, password_hash, email, enabled, locale) VALUES (?, ?, 'hash', ?, true, 'en')", students);
+        jdbcTemplate.update("INSERT INTO courses (id, code, title, description, instructor_id, created_at) VALUES (?, 'BURST101', 'Burst Course', '', ?, ?)",
+                COURSE_ID, INSTRUCTOR_ID, Instant.now());
+        jdbcTemplate.update("INSERT INTO assignments (id, course_id, title, description, due_at, max_points) VALUES (?, ?, 'Deadline', '', ?, 100)",
+                ASSIGNMENT_ID, COURSE_ID, Instant.now().plusSeconds(60));
+    }
+
+    @AfterEach
+    void tearDown() {
+        cleanUp();
+    }
+
+    @Test
+    void parallelSubmits_KeepOneSubmissionPerStudent() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(32);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Submission>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < STUDENTS * SUBMITS_PER_STUDENT; i++) {
+                long studentId = FIRST_STUDENT_ID + i % STUDENTS;
+                String content = "attempt " + i;
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    return submissionService.submitWork(ASSIGNMENT_ID, studentId, content);
+                }));
+            }
+            start.countDown();
+
+            Map<Long, Long> submissionIdByStudent = new HashMap<>();
+            for (Future<Submission> future : futures) {
+                Submission submission = future.get(60, TimeUnit.SECONDS);
+                Long previous = submissionIdByStudent.putIfAbsent(submission.getStudent().getId(), submission.getId());
+                assertTrue(previous == null || previous.equals(submission.getId()));
+            }
+            assertEquals(STUDENTS, submissionIdByStudent.size());
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(STUDENTS, count("SELECT count(*) FROM submissions WHERE assignment_id = ?"));
+        assertEquals(STUDENTS * (SUBMITS_PER_STUDENT - 1),
+                count("SELECT sum(version) FROM submissions WHERE assignment_id = ?"));
+        assertEquals(STUDENTS, count("SELECT submissions_count FROM assignment_grade_stats WHERE assignment_id = ?"));
+    }
+
+    @Test
+    void submitWork_WithUnknownStudent_ReportsMissingStudent() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> submissionService.submitWork(ASSIGNMENT_ID, INSTRUCTOR_ID - 1, "x"));
+
+        assertEquals("Student not found: " + (INSTRUCTOR_ID - 1), e.getMessage());
+        assertEquals(0, count("SELECT count(*) FROM submissions WHERE assignment_id = ?"));
+    }
+
+    private int count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Integer.class, ASSIGNMENT_ID);
+    }
+
+    private void cleanUp() {
+        jdbcTemplate.update("DELETE FROM assignment_grade_stats WHERE assignment_id = ?", ASSIGNMENT_ID);
+        jdbcTemplate.update("DELETE FROM submissions WHERE assignment_id = ?", ASSIGNMENT_ID);
+        jdbcTemplate.update("DELETE FROM assignments WHERE id = ?", ASSIGNMENT_ID);
+        jdbcTemplate.update("DELETE FROM courses WHERE id = ?", COURSE_ID);
+        jdbcTemplate.update("DELETE FROM users WHERE id >= ? AND id < ?", INSTRUCTOR_ID, FIRST_STUDENT_ID + STUDENTS);
+    }
+}
@@ -7,6 +7,11 @@ import com.krzelj.lms.domain.User;
 import com.krzelj.lms.repository.AssignmentRepository;
 import com.krzelj.lms.repository.SubmissionRepository;
 import com.krzelj.lms.repository.UserRepository;
+import com.krzelj.lms.repository.jdbc.GradeStatsDelta;
+import com.krzelj.lms.repository.jdbc.GradeStatsJdbcRepository;
+import com.krzelj.lms.repository.jdbc.SubmissionJdbcRepository;
+import com.krzelj.lms.repository.jdbc.dto.SubmissionUpsertResult;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -21,6 +26,7 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -35,6 +41,18 @@ class SubmissionServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private GradeStatsJdbcRepository gradeStatsJdbcRepository;
+
+    @Mock
+    private GradeDistributionCache gradeDistributionCache;
+
+    @Mock
+    private SubmissionJdbcRepository submissionJdbcRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
     @InjectMocks
     private SubmissionService submissionService;
 
@@ -105,6 +123,16 @@ class SubmissionServiceTest {
         verify(submissionRepository).findByStudentIdOrderBySubmittedAtDesc(1L);
     }
 
+    @Test
+    void getByIdsWithDetails_OnlyLoadsSubmissionsOfTheAssignment() {
+        when(submissionRepository.findAllByIdWithDetails(1L, List.of(1L, 7L))).thenReturn(List.of(testSubmission));
+
+        BatchResult<Submission> result = submissionService.getByIdsWithDetails(1L, List.of(1L, 7L));
+
+        assertEquals(List.of(testSubmission), result.found());
+        assertEquals(List.of(7L), result.notFound());
+    }
+
     @Test
     void findByAssignmentAndStudent_WhenExists_ReturnsSubmission() {
         when(submissionRepository.findByAssignmentIdAndStudentId(1L, 1L)).thenReturn(Optional.of(testSubmission));
@@ -118,47 +146,58 @@ class SubmissionServiceTest {
 
     @Test
     void submitWork_NewSubmission_Success() {
-        when(assignmentRepository.findById(1L)).thenReturn(Optional.of(testAssignment));
-        when(userRepository.findById(1L)).thenReturn(Optional.of(testStudent));
-        when(submissionRepository.findByAssignmentIdAndStudentId(1L, 1L)).thenReturn(Optional.empty());
-        when(submissionRepository.save(any(Submission.class))).thenReturn(testSubmission);
+        when(submissionJdbcRepository.upsertSubmission(eq(1L), eq(1L), eq("New content"), any(Instant.class)))
+                .thenReturn(Optional.of(new SubmissionUpsertResult(1L, 0L)));
+        when(submissionRepository.findByIdWithDetails(1L)).thenReturn(Optional.of(testSubmission));
 
         Submission result = submissionService.submitWork(1L, 1L, "New content");
 
-        assertNotNull(result);
-        verify(assignmentRepository).findById(1L);
-        verify(userRepository).findById(1L);
-        verify(submissionRepository).save(any(Submission.class));
+        assertSame(testSubmission, result);
+        verify(gradeStatsJdbcRepository).apply(eq(1L), any(GradeStatsDelta.class));
+        verify(submissionRepository, never()).save(any());
+        verify(submissionRepository, never()).findByAssignmentIdAndStudentId(any(), any());
     }
 
     @Test
     void submitWork_UpdateExistingSubmission_Success() {
-        when(assignmentRepository.findById(1L)).thenReturn(Optional.of(testAssignment));
-        when(userRepository.findById(1L)).thenReturn(Optional.of(testStudent));
-        when(submissionRepository.findByAssignmentIdAndStudentId(1L, 1L)).thenReturn(Optional.of(testSubmission));
-        when(submissionRepository.save(any(Submission.class))).thenReturn(testSubmission);
+        when(submissionJdbcRepository.upsertSubmission(eq(1L), eq(1L), eq("Updated content"), any(Instant.class)))
+                .thenReturn(Optional.of(new SubmissionUpsertResult(1L, 1L)));
+        when(submissionRepository.findByIdWithDetails(1L)).thenReturn(Optional.of(testSubmission));
 
         Submission result = submissionService.submitWork(1L, 1L, "Updated content");
 
-        assertNotNull(result);
-        verify(submissionRepository).save(any(Submission.class));
+        assertSame(testSubmission, result);
+        verifyNoInteractions(gradeStatsJdbcRepository);
     }
 
     @Test
     void submitWork_WhenAssignmentNotFound_ThrowsException() {
-        when(assignmentRepository.findById(999L)).thenReturn(Optional.empty());
+        when(submissionJdbcRepository.upsertSubmission(eq(999L), eq(1L), eq("Content"), any(Instant.class)))
+                .thenReturn(Optional.empty());
+        when(assignmentRepository.existsById(999L)).thenReturn(false);
 
-        assertThrows(IllegalArgumentException.class, () ->
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () ->
                 submissionService.submitWork(999L, 1L, "Content"));
-        verify(assignmentRepository).findById(999L);
-        verify(submissionRepository, never()).save(any());
+        assertEquals("Assignment not found: 999", e.getMessage());
+        verifyNoInteractions(gradeStatsJdbcRepository);
+    }
+
+    @Test
+    void submitWork_WhenStudentNotFound_ThrowsException() {
+        when(submissionJdbcRepository.upsertSubmission(eq(1L), eq(999L), eq("Content"), any(Instant.class)))
+                .thenReturn(Optional.empty());
+        when(assignmentRepository.existsById(1L)).thenReturn(true);
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () ->
+                submissionService.submitWork(1L, 999L, "Content"));
+        assertEquals("Student not found: 999", e.getMessage());
     }
 
     @Test
     void gradeSubmission_Success() {
         when(submissionRepository.findById(1L)).thenReturn(Optional.of(testSubmission));
         when(userRepository.findById(2L)).thenReturn(Optional.of(testGrader));
-        when(submissionRepository.save(any(Submission.class))).thenReturn(testSubmission);
+        when(submissionRepository.saveAndFlush(any(Submission.class))).thenReturn(testSubmission);
 
         Submission result = submissionService.gradeSubmission(1L, 2L, 85);
 
@@ -166,7 +205,9 @@ class SubmissionServiceTest {
         assertEquals(85, result.getGradePoints());
         assertNotNull(result.getGradedAt());
         assertEquals(testGrader, result.getGradedBy());
-        verify(submissionRepository).save(any(Submission.class));
+        verify(submissionRepository).saveAndFlush(any(Submission.class));
+        verify(gradeStatsJdbcRepository).apply(eq(1L), any());
+        verify(gradeDistributionCache).invalidate(1L);
     }
 
     @Test
@@ -188,6 +229,6 @@ class SubmissionServiceTest {
         assertThrows(IllegalArgumentException.class, () ->
                 submissionService.gradeSubmission(999L, 2L, 85));
         verify(submissionRepository).findById(999L);
-        verify(submissionRepository, never()).save(any());
+        verify(submissionRepository, never()).saveAndFlush(any());
     }
 }
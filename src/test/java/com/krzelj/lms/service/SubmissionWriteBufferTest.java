@@ -0,0 +1,251 @@
+package com.krzelj.lms.service;
+
+import com.krzelj.lms.domain.Submission;
+import com.krzelj.lms.repository.AssignmentRepository;
+import com.krzelj.lms.repository.jdbc.SubmissionJdbcRepository;
+import com.krzelj.lms.repository.jdbc.dto.BufferedSubmission;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class SubmissionWriteBufferTest {
+
+    private static final long INSTRUCTOR_ID = 98200L;
+    private static final long ALICE = 98201L;
+    private static final long BOB = 98202L;
+    private static final long COURSE_ID = 9821L;
+    private static final long DUE_SOON = 98301L;
+    private static final long DUE_NEXT_WEEK = 98302L;
+
+    @Autowired
+    private SubmissionJdbcRepository submissionJdbcRepository;
+
+    @Autowired
+    private AssignmentRepository assignmentRepository;
+
+    @Autowired
+    private JsonMapper jsonMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @TempDir
+    private Path tempDir;
+
+    private final List<SubmissionWriteBuffer> buffers = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        cleanUp();
+        insertUser(INSTRUCTOR_ID, "wb_instructor");
+        insertUser(ALICE, "wb_alice");
+        insertUser(BOB, "wb_bob");
+        jdbcTemplate.update("INSERT INTO courses (id, code, title, description, instructor_id, created_at) VALUES (?, 'WB-1', 'Buffer Course', '', ?, ?)",
+                COURSE_ID, INSTRUCTOR_ID, Timestamp.from(Instant.now()));
+        insertAssignment(DUE_SOON, Instant.now().plus(2, ChronoUnit.MINUTES));
+        insertAssignment(DUE_NEXT_WEEK, Instant.now().plus(7, ChronoUnit.DAYS));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (SubmissionWriteBuffer buffer : buffers) {
+            buffer.shutdown();
+        }
+        cleanUp();
+    }
+
+    @Test
+    void tryAccept_NearDeadline_AcknowledgesBeforeStoringAndKeepsAcceptedAt() throws Exception {
+        SubmissionWriteBuffer buffer = buffer();
+
+        SubmissionReceipt receipt = buffer.tryAccept(DUE_SOON, ALICE, "final answer").orElseThrow();
+
+        assertFalse(receipt.late());
+        assertEquals(0, submissions());
+        assertTrue(Files.size(logFile()) > 0);
+
+        buffer.flush();
+
+        assertEquals(1, submissions());
+        assertEquals(receipt.acceptedAt().truncatedTo(ChronoUnit.MILLIS), jdbcTemplate.queryForObject(
+                "SELECT submitted_at FROM submissions WHERE assignment_id = ? AND student_id = ?", Timestamp.class, DUE_SOON, ALICE)
+                .toInstant().truncatedTo(ChronoUnit.MILLIS));
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT submissions_count FROM assignment_grade_stats WHERE assignment_id = ?", Integer.class, DUE_SOON));
+        assertEquals(0, Files.size(logFile()));
+    }
+
+    @Test
+    void tryAccept_FarFromDeadlineOrUnknownAssignment_IsNotBuffered() {
+        SubmissionWriteBuffer buffer = buffer();
+
+        assertTrue(buffer.tryAccept(DUE_NEXT_WEEK, ALICE, "early").isEmpty());
+        assertTrue(buffer.tryAccept(99999L, ALICE, "unknown").isEmpty());
+        assertEquals(0, buffer.pendingCount());
+    }
+
+    @Test
+    void flush_KeepsTheLatestSubmissionPerStudent() {
+        SubmissionWriteBuffer buffer = buffer();
+        buffer.tryAccept(DUE_SOON, ALICE, "first");
+        buffer.tryAccept(DUE_SOON, BOB, "bob");
+        buffer.tryAccept(DUE_SOON, ALICE, "second");
+
+        buffer.flush();
+
+        assertEquals(2, submissions());
+        assertEquals("second", jdbcTemplate.queryForObject(
+                "SELECT content_text FROM submissions WHERE assignment_id = ? AND student_id = ?", String.class, DUE_SOON, ALICE));
+    }
+
+    @Test
+    void recover_ReplaysAcknowledgedSubmissionsAndIgnoresTornTail() throws Exception {
+        SubmissionWriteBuffer crashed = buffer();
+        crashed.tryAccept(DUE_SOON, ALICE, "alice before crash");
+        crashed.tryAccept(DUE_SOON, BOB, "bob before crash");
+        Files.writeString(logFile(), "{\"sequence\":3,\"assignmentId\":", StandardOpenOption.APPEND);
+
+        buffer();
+
+        assertEquals(2, submissions());
+        assertEquals(0, Files.size(logFile()));
+    }
+
+    @Test
+    void recover_DoesNotOverwriteANewerSubmission() throws Exception {
+        SubmissionWriteBuffer crashed = buffer();
+        crashed.tryAccept(DUE_SOON, ALICE, "buffered");
+        jdbcTemplate.update("INSERT INTO submissions (assignment_id, student_id, content_text, submitted_at) VALUES (?, ?, 'newer', ?)",
+                DUE_SOON, ALICE, Timestamp.from(Instant.now().plusSeconds(1)));
+
+        buffer();
+
+        assertEquals("newer", jdbcTemplate.queryForObject(
+                "SELECT content_text FROM submissions WHERE assignment_id = ? AND student_id = ?", String.class, DUE_SOON, ALICE));
+        assertFalse(new String(Files.readAllBytes(logFile()), StandardCharsets.UTF_8).contains("buffered"));
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM assignment_grade_stats WHERE assignment_id = ? AND submissions_count > 0", Integer.class, DUE_SOON));
+    }
+
+    @Test
+    void flush_CountsOnlyNewlyCreatedSubmissionsInGradeStats() {
+        SubmissionWriteBuffer buffer = buffer();
+        buffer.tryAccept(DUE_SOON, ALICE, "first");
+        buffer.flush();
+        buffer.tryAccept(DUE_SOON, ALICE, "second");
+        buffer.tryAccept(DUE_SOON, BOB, "bob");
+        buffer.flush();
+
+        assertEquals(2, jdbcTemplate.queryForObject(
+                "SELECT submissions_count FROM assignment_grade_stats WHERE assignment_id = ?", Integer.class, DUE_SOON));
+    }
+
+    @Test
+    void flush_SetsAsideARowTheDatabaseRejectsAndStoresTheRest() throws Exception {
+        SubmissionWriteBuffer crashed = buffer();
+        crashed.tryAccept(DUE_SOON, ALICE, "alice");
+        Files.writeString(logFile(), jsonMapper.writeValueAsString(new BufferedSubmission(2, DUE_SOON, BOB,
+                "x".repeat(Submission.MAX_CONTENT_LENGTH + 1), Instant.now())) + "\n", StandardOpenOption.APPEND);
+
+        SubmissionWriteBuffer recovered = buffer();
+
+        assertEquals(1, submissions());
+        assertEquals(1, recovered.rejectedCount());
+        assertEquals(0, recovered.pendingCount());
+        assertEquals(0, Files.size(logFile()));
+        assertTrue(Files.readString(tempDir.resolve("submissions.log.rejected")).contains("\"sequence\":2"));
+    }
+
+    @Test
+    void tryAccept_WithContentOverTheLimit_IsNotBuffered() {
+        SubmissionWriteBuffer buffer = buffer();
+
+        assertTrue(buffer.tryAccept(DUE_SOON, ALICE, "x".repeat(Submission.MAX_CONTENT_LENGTH + 1)).isEmpty());
+        assertEquals(0, buffer.pendingCount());
+    }
+
+    @Test
+    void recover_StartsTheBackgroundFlushOnlyWhenEnabled() throws Exception {
+        SubmissionWriteBuffer disabled = new SubmissionWriteBuffer(submissionJdbcRepository, assignmentRepository,
+                jsonMapper, false, 10, 1000, 5, "");
+        disabled.recover();
+        SubmissionWriteBuffer buffer = new SubmissionWriteBuffer(submissionJdbcRepository, assignmentRepository,
+                jsonMapper, true, 10, 1000, 5, logFile().toString());
+        buffer.recover();
+        buffers.add(buffer);
+
+        assertTrue(disabled.tryAccept(DUE_SOON, BOB, "direct").isEmpty());
+        buffer.tryAccept(DUE_SOON, ALICE, "flushed in the background");
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (submissions() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, submissions());
+    }
+
+    @Test
+    void constructor_WhenEnabledWithoutLogFile_IsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new SubmissionWriteBuffer(submissionJdbcRepository,
+                assignmentRepository, jsonMapper, true, 10, 1000, 5, ""));
+    }
+
+    private SubmissionWriteBuffer buffer() {
+        SubmissionWriteBuffer buffer = new SubmissionWriteBuffer(submissionJdbcRepository, assignmentRepository,
+                jsonMapper, true, 10, 1000, 60_000, logFile().toString());
+        try {
+            buffer.recover();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        buffers.add(buffer);
+        return buffer;
+    }
+
+    private Path logFile() {
+        return tempDir.resolve("submissions.log");
+    }
+
+    private int submissions() {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM submissions WHERE assignment_id = ?", Integer.class, DUE_SOON);
+    }
+
+    private void insertUser(long id, String username) {
+        jdbcTemplate.update("INSERT INTO users (id, username, password_hash, email, enabled, locale) VALUES (?, ?, 'hash', ?, true, 'en')",
+                id, username, username + "@test.com");
+    }
+
+    private void insertAssignment(long id, Instant dueAt) {
+        jdbcTemplate.update("INSERT INTO assignments (id, course_id, title, description, due_at, max_points) VALUES (?, ?, 'Buffered', '', ?, 100)",
+                id, COURSE_ID, Timestamp.from(dueAt));
+    }
+
+    private void cleanUp() {
+        jdbcTemplate.update("DELETE FROM assignment_grade_stats WHERE assignment_id IN (?, ?)", DUE_SOON, DUE_NEXT_WEEK);
+        jdbcTemplate.update("DELETE FROM submissions WHERE assignment_id IN (?, ?)", DUE_SOON, DUE_NEXT_WEEK);
+        jdbcTemplate.update("DELETE FROM assignments WHERE id IN (?, ?)", DUE_SOON, DUE_NEXT_WEEK);
+        jdbcTemplate.update("DELETE FROM courses WHERE id = ?", COURSE_ID);
+        jdbcTemplate.update("DELETE FROM users WHERE id IN (?, ?, ?)", INSTRUCTOR_ID, ALICE, BOB);
+    }
+}
@@ -0,0 +1,165 @@
+package com.krzelj.lms.service;
+
+import com.krzelj.lms.domain.Role;
+import com.krzelj.lms.domain.RoleName;
+import com.krzelj.lms.domain.SyncEntityType;
+import com.krzelj.lms.domain.User;
+import com.krzelj.lms.repository.jdbc.SyncJdbcRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class SyncServiceTest {
+
+    private static final long INSTRUCTOR_ID = 92000L;
+    private static final long STUDENT_ID = 92001L;
+    private static final long COURSE_A = 9201L;
+    private static final long COURSE_B = 9202L;
+
+    @Autowired
+    private SyncService syncService;
+
+    @Autowired
+    private AssignmentService assignmentService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockitoBean
+    private SyncJdbcRepository syncJdbcRepository;
+
+    private Timestamp longAgo;
+    private User student;
+
+    @BeforeEach
+    void setUp() {
+        longAgo = Timestamp.from(Instant.now().minus(Duration.ofHours(1)));
+        jdbcTemplate.update("INSERT INTO users (id, username, password_hash, email, enabled, locale) VALUES (?, 'sync_instructor', 'hash', 'sync_instructor@test.com', true, 'en')", INSTRUCTOR_ID);
+        jdbcTemplate.update("INSERT INTO users (id, username, password_hash, email, enabled, locale) VALUES (?, 'sync_student', 'hash', 'sync_student@test.com', true, 'en')", STUDENT_ID);
+        insertCourse(COURSE_A, "SYNC-A");
+        insertCourse(COURSE_B, "SYNC-B");
+        insertAssignment(92101L, COURSE_A);
+        insertAssignment(92102L, COURSE_A);
+        insertAssignment(92201L, COURSE_B);
+        jdbcTemplate.update("INSERT INTO course_students (course_id, student_id) VALUES (?, ?)", COURSE_A, STUDENT_ID);
+        jdbcTemplate.update("INSERT INTO submissions (id, assignment_id, student_id, content_text, submitted_at, updated_at) VALUES (92301, 92101, ?, 'work', ?, ?)",
+                STUDENT_ID, longAgo, longAgo);
+
+        student = new User("sync_student", "hash", "sync_student@test.com");
+        student.setId(STUDENT_ID);
+        student.setRoles(Set.of(new Role(RoleName.STUDENT)));
+    }
+
+    @Test
+    void initialSync_ReturnsEverythingVisibleToTheStudent() {
+        SyncChanges changes = syncService.changesSince(student, null);
+
+        assertFalse(changes.fullResync());
+        assertEquals(1, changes.courses().size());
+        assertEquals(COURSE_A, changes.courses().get(0).getId());
+        assertEquals(2, changes.assignments().size());
+        assertEquals(1, changes.submissions().size());
+        assertTrue(changes.deleted().isEmpty());
+    }
+
+    @Test
+    void followUpSync_WithNoChanges_IsEmpty() {
+        String token = syncService.changesSince(student, null).token();
+
+        SyncChanges changes = syncService.changesSince(student, token);
+
+        assertTrue(changes.isEmpty());
+    }
+
+    @Test
+    void followUpSync_ReturnsOnlyTouchedRows() {
+        String token = syncService.changesSince(student, null).token();
+        jdbcTemplate.update("UPDATE assignments SET title = 'Renamed', updated_at = ? WHERE id = 92102", Timestamp.from(Instant.now()));
+
+        SyncChanges changes = syncService.changesSince(student, token);
+
+        assertTrue(changes.courses().isEmpty());
+        assertEquals(1, changes.assignments().size());
+        assertEquals(92102L, changes.assignments().get(0).getId());
+    }
+
+    @Test
+    void followUpSync_ReturnsRowsWrittenBeforeTheTokenButCommittedAfterIt() {
+        Instant slowWriteStart = Instant.now().minus(Duration.ofMinutes(2));
+        when(syncJdbcRepository.findOldestOpenWriteStart()).thenReturn(Optional.of(slowWriteStart));
+        String token = syncService.changesSince(student, null).token();
+        jdbcTemplate.update("UPDATE assignments SET title = 'Slow commit', updated_at = ? WHERE id = 92102",
+                Timestamp.from(slowWriteStart.plus(Duration.ofMinutes(1))));
+
+        SyncChanges changes = syncService.changesSince(student, token);
+
+        assertEquals(1, changes.assignments().size());
+        assertEquals(92102L, changes.assignments().get(0).getId());
+    }
+
+    @Test
+    void enrollmentChanges_AddNewCourseContentAndRemoveOldCourse() {
+        String token = syncService.changesSince(student, null).token();
+        jdbcTemplate.update("DELETE FROM course_students WHERE course_id = ? AND student_id = ?", COURSE_A, STUDENT_ID);
+        jdbcTemplate.update("INSERT INTO course_students (course_id, student_id) VALUES (?, ?)", COURSE_B, STUDENT_ID);
+
+        SyncChanges changes = syncService.changesSince(student, token);
+
+        assertEquals(1, changes.courses().size());
+        assertEquals(COURSE_B, changes.courses().get(0).getId());
+        assertEquals(1, changes.assignments().size());
+        assertEquals(new SyncChanges.Deletion(SyncEntityType.COURSE, COURSE_A), changes.deleted().get(0));
+    }
+
+    @Test
+    void deletedAssignment_IsReportedAsTombstone() {
+        String token = syncService.changesSince(student, null).token();
+
+        assignmentService.delete(92102L);
+        SyncChanges changes = syncService.changesSince(student, token);
+
+        assertTrue(changes.deleted().contains(new SyncChanges.Deletion(SyncEntityType.ASSIGNMENT, 92102L)));
+    }
+
+    @Test
+    void expiredToken_ForcesFullResync() {
+        String stale = new SyncToken(Instant.now().minus(Duration.ofDays(400)), Set.of(COURSE_A)).encode();
+
+        SyncChanges changes = syncService.changesSince(student, stale);
+
+        assertTrue(changes.fullResync());
+        assertEquals(2, changes.assignments().size());
+    }
+
+    @Test
+    void malformedToken_IsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> syncService.changesSince(student, "not-a-token"));
+    }
+
+    private void insertCourse(long id, String code) {
+        jdbcTemplate.update("INSERT INTO courses (id, code, title, description, instructor_id, created_at, updated_at) VALUES (?, ?, 'Sync Course', '', ?, ?, ?)",
+                id, code, INSTRUCTOR_ID, longAgo, longAgo);
+    }
+
+    private void insertAssignment(long id, long courseId) {
+        jdbcTemplate.update("INSERT INTO assignments (id, course_id, title, description, due_at, max_points, updated_at) VALUES (?, ?, 'Sync Assignment', 'Desc', ?, 100, ?)",
+                id, courseId, Timestamp.from(Instant.now().plus(Duration.ofDays(7))), longAgo);
+    }
+}
@@ -3,12 +3,17 @@ package com.krzelj.lms.service;
 import com.krzelj.lms.domain.Role;
 import com.krzelj.lms.domain.RoleName;
 import com.krzelj.lms.domain.User;
+import com.krzelj.lms.repository.CourseRepository;
 import com.krzelj.lms.repository.RoleRepository;
 import com.krzelj.lms.repository.UserRepository;
+import com.krzelj.lms.repository.jdbc.EnrollmentJdbcRepository;
+import com.krzelj.lms.repository.jdbc.GradeStatsJdbcRepository;
+import com.krzelj.lms.repository.jdbc.SubmissionJdbcRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
@@ -20,6 +25,7 @@ import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -31,6 +37,33 @@ class UserServiceTest {
     @Mock
     private RoleRepository roleRepository;
 
+    @Mock
+    private EnrollmentJdbcRepository enrollmentJdbcRepository;
+
+    @Mock
+    private EntityCacheService entityCacheService;
+
+    @Mock
+    private SyncService syncService;
+
+    @Mock
+    private SubmissionJdbcRepository submissionJdbcRepository;
+
+    @Mock
+    private GradeStatsJdbcRepository gradeStatsJdbcRepository;
+
+    @Mock
+    private GradeDistributionCache gradeDistributionCache;
+
+    @Mock
+    private CourseRepository courseRepository;
+
+    @Mock
+    private CourseCatalogCache courseCatalogCache;
+
+    @Mock
+    private EnrollmentService enrollmentService;
+
     @InjectMocks
     private UserService userService;
 
@@ -105,13 +138,78 @@ class UserServiceTest {
         verify(userRepository).save(testUser);
     }
 
+    @Test
+    void save_WhenUsernameChanged_RefreshesCoursesOfTheInstructor() {
+        when(userRepository.findUsernameById(1L)).thenReturn(Optional.of("oldname"));
+        when(userRepository.save(testUser)).thenReturn(testUser);
+
+        userService.save(testUser);
+
+        verify(courseRepository).touchByInstructorId(eq(1L), any());
+        verify(entityCacheService).evictCourses();
+        verify(courseCatalogCache).invalidate();
+    }
+
+    @Test
+    void save_WhenUsernameUnchanged_LeavesCoursesAlone() {
+        when(userRepository.findUsernameById(1L)).thenReturn(Optional.of("testuser"));
+        when(userRepository.save(testUser)).thenReturn(testUser);
+
+        userService.save(testUser);
+
+        verifyNoInteractions(courseRepository, courseCatalogCache);
+    }
+
+    @Test
+    void updateUserRoles_WhenUsernameChanged_InvalidatesCatalog() {
+        when(userRepository.findUsernameById(1L)).thenReturn(Optional.of("oldname"));
+        when(roleRepository.findByName(RoleName.STUDENT)).thenReturn(Optional.of(studentRole));
+        when(userRepository.save(testUser)).thenReturn(testUser);
+
+        userService.updateUserRoles(testUser, Set.of(RoleName.STUDENT));
+
+        verify(courseRepository).touchByInstructorId(eq(1L), any());
+        verify(courseCatalogCache).invalidate();
+    }
+
     @Test
     void delete_Success() {
         doNothing().when(userRepository).deleteById(1L);
 
         userService.delete(1L);
 
+        verify(enrollmentJdbcRepository).releaseSeatsForStudent(1L);
+        verify(entityCacheService).evictCourses();
+        verify(syncService).recordStudentDeletion(1L);
         verify(userRepository).deleteById(1L);
+        verifyNoInteractions(gradeStatsJdbcRepository, gradeDistributionCache, enrollmentService);
+    }
+
+    @Test
+    void delete_WhenEnrolled_PromotesFromTheWaitlistsOfFreedCourses() {
+        when(enrollmentJdbcRepository.findCourseIdsForStudent(1L)).thenReturn(List.of(5L, 6L));
+
+        userService.delete(1L);
+
+        InOrder inOrder = inOrder(enrollmentJdbcRepository, userRepository, enrollmentService);
+        inOrder.verify(enrollmentJdbcRepository).releaseSeatsForStudent(1L);
+        inOrder.verify(userRepository).deleteById(1L);
+        inOrder.verify(userRepository).flush();
+        inOrder.verify(enrollmentService).promoteFromWaitlist(5L);
+        inOrder.verify(enrollmentService).promoteFromWaitlist(6L);
+    }
+
+    @Test
+    void delete_WithSubmissions_RecomputesGradeStatsOfTheirAssignments() {
+        when(submissionJdbcRepository.findAssignmentIdsForStudent(1L)).thenReturn(List.of(3L, 4L));
+
+        userService.delete(1L);
+
+        InOrder inOrder = inOrder(userRepository, gradeStatsJdbcRepository);
+        inOrder.verify(userRepository).deleteById(1L);
+        inOrder.verify(userRepository).flush();
+        inOrder.verify(gradeStatsJdbcRepository).rebuildForAssignments(3L, 4L);
+        verify(gradeDistributionCache).invalidateAll(List.of(3L, 4L));
     }
 
     @Test
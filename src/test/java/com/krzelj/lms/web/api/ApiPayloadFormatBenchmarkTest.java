@@ -0,0 +1,86 @@
+package com.krzelj.lms.web.api;
+
+import com.krzelj.lms.web.api.dto.CourseResponse;
+import com.krzelj.lms.web.api.dto.SubmissionResponse;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+import tools.jackson.dataformat.smile.SmileMapper;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares payload size and serialization time of JSON, CBOR and Smile for large API listings.
+ * Excluded from the default build; run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class ApiPayloadFormatBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ApiPayloadFormatBenchmarkTest.class);
+
+    private static final int WARMUP_ITERATIONS = 10;
+    private static final int MEASURED_ITERATIONS = 30;
+
+    private final Map<String, ObjectMapper> mappers = new LinkedHashMap<>();
+
+    ApiPayloadFormatBenchmarkTest() {
+        mappers.put("json", JsonMapper.builder().build());
+        mappers.put("cbor", CBORMapper.builder().build());
+        mappers.put("smile", SmileMapper.builder().build());
+    }
+
+    @Test
+    void submissionListing() {
+        Instant now = Instant.now();
+        List<SubmissionResponse> submissions = LongStream.rangeClosed(1, 5_000)
+                .mapToObj(id -> new SubmissionResponse(id, id % 40, "Assignment " + id % 40, 10_000 + id,
+                        "student" + id, now, (int) (id % 100), now, 7L, "instructor7", "answer ".repeat(60)))
+                .toList();
+
+        compare("submissions x5000", submissions);
+    }
+
+    @Test
+    void courseCatalogListing() {
+        Instant now = Instant.now();
+        List<CourseResponse> courses = LongStream.rangeClosed(1, 2_000)
+                .mapToObj(id -> new CourseResponse(id, "CS" + id, "Course " + id, "d".repeat(4_000),
+                        id % 50, "instructor" + id % 50, now, 120))
+                .toList();
+
+        compare("courses x2000", courses);
+    }
+
+    private void compare(String label, Object listing) {
+        int jsonSize = 0;
+        for (Map.Entry<String, ObjectMapper> format : mappers.entrySet()) {
+            ObjectMapper mapper = format.getValue();
+            byte[] body = mapper.writeValueAsBytes(listing);
+            for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+                mapper.writeValueAsBytes(listing);
+            }
+            long start = System.nanoTime();
+            for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+                mapper.writeValueAsBytes(listing);
+            }
+            double millis = (System.nanoTime() - start) / 1_000_000.0 / MEASURED_ITERATIONS;
+
+            if (jsonSize == 0) {
+                jsonSize = body.length;
+            }
+            log.info("{} {} {} bytes ({}% of json) {} ms", label, format.getKey(), body.length,
+                    String.format("%.1f", 100.0 * body.length / jsonSize), String.format("%.2f", millis));
+            assertTrue(body.length <= jsonSize, format.getKey() + " payload larger than json");
+        }
+    }
+}
@@ -2,11 +2,14 @@ package com.krzelj.lms.web.api;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.krzelj.lms.config.ApiFormatsConfig;
 import com.krzelj.lms.config.SecurityConfig;
 import com.krzelj.lms.domain.Assignment;
 import com.krzelj.lms.domain.Course;
+import com.krzelj.lms.repository.dto.AssignmentVersion;
 import com.krzelj.lms.security.jwt.JwtService;
 import com.krzelj.lms.service.AssignmentService;
+import com.krzelj.lms.service.SparseFieldService;
 import com.krzelj.lms.web.api.dto.CreateAssignmentRequest;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -23,15 +26,18 @@ import org.springframework.test.web.servlet.MockMvc;
 import java.time.Instant;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(AssignmentApiController.class)
-@Import({SecurityConfig.class, ApiControllerTestSecurityConfig.class})
+@Import({SecurityConfig.class, ApiControllerTestSecurityConfig.class, ApiFormatsConfig.class, SerializedResponseCache.class})
 @AutoConfigureJsonTesters
 @ActiveProfiles("test")
 class AssignmentApiControllerTest {
@@ -39,12 +45,18 @@ class AssignmentApiControllerTest {
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private SerializedResponseCache responseCache;
+
     @MockitoBean
     private AssignmentService assignmentService;
 
     @MockitoBean
     private JwtService jwtService;
 
+    @MockitoBean
+    private SparseFieldService sparseFieldService;
+
     private ObjectMapper objectMapper;
 
     private Assignment testAssignment;
@@ -52,6 +64,7 @@ class AssignmentApiControllerTest {
 
     @BeforeEach
     void setUp() {
+        responseCache.clear();
         objectMapper = new ObjectMapper();
         objectMapper.registerModule(new JavaTimeModule()); // Register JavaTimeModule for Instant serialization
         
@@ -77,17 +90,71 @@ class AssignmentApiControllerTest {
         verify(assignmentService).findForCourse(1L);
     }
 
+    @Test
+    @WithMockUser
+    void listAssignments_ServesCachedBytesUntilVersionChanges() throws Exception {
+        when(assignmentService.findForCourse(1L)).thenReturn(List.of(testAssignment));
+        when(assignmentService.listVersion(1L)).thenReturn(3L);
+
+        String etag = mockMvc.perform(get("/api/courses/1/assignments"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        mockMvc.perform(get("/api/courses/1/assignments"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", etag))
+                .andExpect(jsonPath("$[0].title").value("Homework 1"));
+        mockMvc.perform(get("/api/courses/1/assignments").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/courses/1/assignments").header("If-None-Match", "\"stale\", W/" + etag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/courses/1/assignments").header("If-None-Match", "*"))
+                .andExpect(status().isNotModified());
+        verify(assignmentService, times(1)).findForCourse(1L);
+
+        when(assignmentService.listVersion(1L)).thenReturn(4L);
+        mockMvc.perform(get("/api/courses/1/assignments"))
+                .andExpect(status().isOk());
+        verify(assignmentService, times(2)).findForCourse(1L);
+    }
+
     @Test
     @WithMockUser
     void getAssignment_WhenExists_ReturnsAssignment() throws Exception {
-        when(assignmentService.getById(1L)).thenReturn(testAssignment);
+        when(assignmentService.getByIdWithCourse(1L)).thenReturn(testAssignment);
 
         mockMvc.perform(get("/api/courses/1/assignments/1"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.id").value(1L))
                 .andExpect(jsonPath("$.title").value("Homework 1"));
 
-        verify(assignmentService).getById(1L);
+        verify(assignmentService).getByIdWithCourse(1L);
+    }
+
+    @Test
+    @WithMockUser
+    void getAssignment_WhenETagMatches_ReturnsNotModified() throws Exception {
+        when(assignmentService.findVersion(1L)).thenReturn(Optional.of(new AssignmentVersion(3L, 7L)));
+
+        mockMvc.perform(get("/api/courses/1/assignments/1").header("If-None-Match", "\"3.7\""))
+                .andExpect(status().isNotModified());
+
+        verify(assignmentService, never()).getByIdWithCourse(anyLong());
+    }
+
+    @Test
+    @WithMockUser
+    void getAssignment_WhenOnlyTheJsonETagMatches_ReturnsSmileBody() throws Exception {
+        when(assignmentService.findVersion(1L)).thenReturn(Optional.of(new AssignmentVersion(0L, 0L)));
+        when(assignmentService.getByIdWithCourse(1L)).thenReturn(testAssignment);
+
+        mockMvc.perform(get("/api/courses/1/assignments/1")
+                        .accept("application/x-jackson-smile")
+                        .header("If-None-Match", "\"0.0\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"0.0+smile\""))
+                .andExpect(header().string("Vary", "Accept"));
+
+        verify(assignmentService).getByIdWithCourse(1L);
     }
 
     @Test
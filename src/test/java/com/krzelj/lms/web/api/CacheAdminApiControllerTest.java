@@ -0,0 +1,87 @@
+package com.krzelj.lms.web.api;
+
+import com.krzelj.lms.config.SecurityConfig;
+import com.krzelj.lms.security.jwt.JwtService;
+import com.krzelj.lms.service.EntityCacheService;
+import com.krzelj.lms.service.ReportSingleFlight;
+import com.krzelj.lms.web.api.dto.CacheStatisticsResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(CacheAdminApiController.class)
+@Import({SecurityConfig.class, ApiControllerTestSecurityConfig.class})
+@ActiveProfiles("test")
+class CacheAdminApiControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private EntityCacheService entityCacheService;
+
+    @MockitoBean
+    private ReportSingleFlight reportSingleFlight;
+
+    @MockitoBean
+    private JwtService jwtService;
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void statistics_WithAdminRole_ReturnsCounters() throws Exception {
+        when(entityCacheService.statistics()).thenReturn(new CacheStatisticsResponse(
+                12, 4, 3, 0, 20, 3, 3, 5, 1, 1,
+                List.of(new CacheStatisticsResponse.Region("courses", 20, 3, 3, 3))));
+
+        mockMvc.perform(get("/api/admin/cache/statistics"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.preparedStatementCount").value(12))
+                .andExpect(jsonPath("$.secondLevelCacheHitCount").value(20))
+                .andExpect(jsonPath("$.regions[0].name").value("courses"));
+    }
+
+    @Test
+    @WithMockUser(roles = "INSTRUCTOR")
+    void statistics_WithInstructorRole_ReturnsForbidden() throws Exception {
+        mockMvc.perform(get("/api/admin/cache/statistics"))
+                .andExpect(status().isForbidden());
+
+        verify(entityCacheService, never()).statistics();
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void evictAll_WithAdminRole_ReturnsNoContent() throws Exception {
+        mockMvc.perform(delete("/api/admin/cache"))
+                .andExpect(status().isNoContent());
+
+        verify(entityCacheService).evictAll();
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void reportStatistics_WithAdminRole_ReturnsCoalescingCounters() throws Exception {
+        when(reportSingleFlight.statistics()).thenReturn(Map.of(
+                "course-grade-report", new ReportSingleFlight.Statistics(2, 19, 5, 0, 0)));
+
+        mockMvc.perform(get("/api/admin/cache/reports"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$['course-grade-report'].loads").value(2))
+                .andExpect(jsonPath("$['course-grade-report'].inFlightHits").value(19))
+                .andExpect(jsonPath("$['course-grade-report'].cachedHits").value(5));
+    }
+}
@@ -2,13 +2,20 @@ package com.krzelj.lms.web.api;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.krzelj.lms.config.ApiFormatsConfig;
 import com.krzelj.lms.config.SecurityConfig;
 import com.krzelj.lms.domain.Course;
 import com.krzelj.lms.domain.Role;
 import com.krzelj.lms.domain.RoleName;
 import com.krzelj.lms.domain.User;
 import com.krzelj.lms.security.jwt.JwtService;
+import com.krzelj.lms.repository.dto.CatalogCourse;
+import com.krzelj.lms.repository.jdbc.dto.EnrollmentBatchResult;
+import com.krzelj.lms.service.BatchResult;
 import com.krzelj.lms.service.CourseService;
+import com.krzelj.lms.service.EnrollmentService;
+import com.krzelj.lms.service.SparseFieldService;
+import com.krzelj.lms.web.api.dto.BulkEnrollmentRequest;
 import com.krzelj.lms.web.api.dto.CreateCourseRequest;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -17,23 +24,38 @@ import org.springframework.boot.test.autoconfigure.json.AutoConfigureJsonTesters
 import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
 import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.dataformat.cbor.CBORMapper;
+import tools.jackson.dataformat.smile.SmileMapper;
 
+import java.time.Instant;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(CourseApiController.class)
-@Import({SecurityConfig.class, ApiControllerTestSecurityConfig.class})
+@Import({SecurityConfig.class, ApiControllerTestSecurityConfig.class, ApiFormatsConfig.class, SerializedResponseCache.class})
 @AutoConfigureJsonTesters
 @ActiveProfiles("test")
 class CourseApiControllerTest {
@@ -41,12 +63,21 @@ class CourseApiControllerTest {
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private SerializedResponseCache responseCache;
+
     @MockitoBean
     private CourseService courseService;
 
+    @MockitoBean
+    private EnrollmentService enrollmentService;
+
     @MockitoBean
     private JwtService jwtService;
 
+    @MockitoBean
+    private SparseFieldService sparseFieldService;
+
     private ObjectMapper objectMapper;
 
     private Course testCourse;
@@ -54,6 +85,7 @@ class CourseApiControllerTest {
 
     @BeforeEach
     void setUp() {
+        responseCache.clear();
         objectMapper = new ObjectMapper();
         objectMapper.registerModule(new JavaTimeModule()); // Register JavaTimeModule for Instant serialization
         
@@ -69,8 +101,9 @@ class CourseApiControllerTest {
     @Test
     @WithMockUser
     void listCourses_ReturnsListOfCourses() throws Exception {
-        List<Course> courses = Arrays.asList(testCourse);
-        when(courseService.findAll()).thenReturn(courses);
+        List<CatalogCourse> courses = List.of(
+                new CatalogCourse(1L, "CS101", "Introduction to Computer Science", "Test course", Instant.now(), 1L, "instructor1", null));
+        when(courseService.findCatalog()).thenReturn(courses);
 
         mockMvc.perform(get("/api/courses"))
                 .andExpect(status().isOk())
@@ -78,7 +111,41 @@ class CourseApiControllerTest {
                 .andExpect(jsonPath("$[0].id").value(1L))
                 .andExpect(jsonPath("$[0].code").value("CS101"));
 
-        verify(courseService).findAll();
+        verify(courseService).findCatalog();
+    }
+
+    @Test
+    @WithMockUser
+    void listCourses_WithSmileAccept_ReturnsSmileWithItsOwnETag() throws Exception {
+        List<CatalogCourse> courses = List.of(
+                new CatalogCourse(1L, "CS101", "Introduction to Computer Science", "Test course", Instant.now(), 1L, "instructor1", null));
+        when(courseService.findCatalog()).thenReturn(courses);
+
+        String jsonETag = mockMvc.perform(get("/api/courses"))
+                .andReturn().getResponse().getHeader("ETag");
+        MvcResult result = mockMvc.perform(get("/api/courses").accept("application/x-jackson-smile"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-jackson-smile"))
+                .andExpect(header().string("Vary", "Accept"))
+                .andReturn();
+
+        assertNotEquals(jsonETag, result.getResponse().getHeader("ETag"));
+        JsonNode body = new SmileMapper().readTree(result.getResponse().getContentAsByteArray());
+        assertEquals("CS101", body.get(0).get("code").asString());
+    }
+
+    @Test
+    @WithMockUser
+    void getCourse_WithCborAccept_ReturnsCbor() throws Exception {
+        when(courseService.getById(1L)).thenReturn(testCourse);
+
+        MvcResult result = mockMvc.perform(get("/api/courses/1").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn();
+
+        JsonNode body = new CBORMapper().readTree(result.getResponse().getContentAsByteArray());
+        assertEquals("CS101", body.get("code").asString());
     }
 
     @Test
@@ -89,7 +156,41 @@ class CourseApiControllerTest {
         mockMvc.perform(get("/api/courses/1"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.id").value(1L))
-                .andExpect(jsonPath("$.code").value("CS101"));
+                .andExpect(jsonPath("$.code").value("CS101"))
+                .andExpect(header().string("ETag", "\"0\""))
+                .andExpect(header().string("Vary", "Accept"));
+
+        verify(courseService).getById(1L);
+        verify(courseService, never()).findVersion(anyLong());
+    }
+
+    @Test
+    @WithMockUser
+    void getCourse_WhenETagMatches_ReturnsNotModifiedWithoutLoading() throws Exception {
+        when(courseService.findVersion(1L)).thenReturn(Optional.of(4L));
+
+        mockMvc.perform(get("/api/courses/1").header("If-None-Match", "\"4\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"4\""));
+
+        verify(courseService, never()).getById(anyLong());
+    }
+
+    @Test
+    @WithMockUser
+    void getCourse_WithCbor_UsesAFormatSpecificETag() throws Exception {
+        when(courseService.getById(1L)).thenReturn(testCourse);
+        when(courseService.findVersion(1L)).thenReturn(Optional.of(0L));
+
+        mockMvc.perform(get("/api/courses/1").accept(MediaType.APPLICATION_CBOR).header("If-None-Match", "\"0\""))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andExpect(header().string("ETag", "\"0+cbor\""))
+                .andExpect(header().string("Vary", "Accept"));
+
+        mockMvc.perform(get("/api/courses/1").accept(MediaType.APPLICATION_CBOR).header("If-None-Match", "\"0+cbor\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("Vary", "Accept"));
 
         verify(courseService).getById(1L);
     }
@@ -107,6 +208,72 @@ class CourseApiControllerTest {
         verify(courseService).findForInstructor(1L);
     }
 
+    @Test
+    @WithMockUser
+    void getCourses_WithIds_ReturnsFoundCoursesAndMissingIds() throws Exception {
+        when(courseService.getByIds(List.of(1L, 404L)))
+                .thenReturn(new BatchResult<>(List.of(testCourse), List.of(404L)));
+
+        mockMvc.perform(get("/api/courses").param("ids", "1,404"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(1L))
+                .andExpect(jsonPath("$.notFound[0]").value(404L));
+
+        verify(courseService, never()).findCatalog();
+    }
+
+    @Test
+    @WithMockUser
+    void getCourses_WithTooManyIds_ReturnsBadRequest() throws Exception {
+        when(courseService.getByIds(any())).thenThrow(new IllegalArgumentException("Too many ids"));
+
+        mockMvc.perform(get("/api/courses").param("ids", "1,2"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser
+    void listCourses_WithFields_ReturnsSparseCatalog() throws Exception {
+        List<String> fields = List.of("id", "code");
+        when(sparseFieldService.courseFields("code")).thenReturn(fields);
+        when(sparseFieldService.findCatalog(fields)).thenReturn(List.of(Map.of("id", 1L, "code", "CS101")));
+
+        mockMvc.perform(get("/api/courses").param("fields", "code"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andExpect(jsonPath("$[0].code").value("CS101"))
+                .andExpect(jsonPath("$[0].description").doesNotExist());
+
+        verify(courseService, never()).findCatalog();
+    }
+
+    @Test
+    @WithMockUser
+    void listCourses_WithFieldsAndSmile_ReturnsSparseCatalogInSmile() throws Exception {
+        List<String> fields = List.of("id", "code");
+        when(sparseFieldService.courseFields("code")).thenReturn(fields);
+        when(sparseFieldService.findCatalog(fields)).thenReturn(List.of(Map.of("id", 1L, "code", "CS101")));
+
+        MvcResult result = mockMvc.perform(get("/api/courses").param("fields", "code").accept("application/x-jackson-smile"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-jackson-smile"))
+                .andExpect(header().string("Vary", "Accept"))
+                .andReturn();
+
+        JsonNode body = new SmileMapper().readTree(result.getResponse().getContentAsByteArray());
+        assertEquals("CS101", body.get(0).get("code").asString());
+        assertNull(body.get(0).get("description"));
+    }
+
+    @Test
+    @WithMockUser
+    void listCourses_WithUnknownField_ReturnsBadRequest() throws Exception {
+        when(sparseFieldService.courseFields("secret")).thenThrow(new IllegalArgumentException("Unknown field: secret"));
+
+        mockMvc.perform(get("/api/courses").param("fields", "secret"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     @WithMockUser(roles = "STUDENT")
     void getCoursesForInstructor_WithStudentRole_ReturnsForbidden() throws Exception {
@@ -177,4 +344,65 @@ class CourseApiControllerTest {
 
         verify(courseService, never()).delete(any());
     }
+
+    @Test
+    @WithMockUser(roles = "INSTRUCTOR")
+    void enrollBatch_WithInstructorRole_ReturnsCounts() throws Exception {
+        when(enrollmentService.enrollStudents(1L, List.of(2L, 3L, 4L)))
+                .thenReturn(new EnrollmentBatchResult(2, 1, 0, 0));
+
+        mockMvc.perform(post("/api/courses/1/enrollments:batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new BulkEnrollmentRequest(List.of(2L, 3L, 4L)))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.inserted").value(2))
+                .andExpect(jsonPath("$.duplicates").value(1))
+                .andExpect(jsonPath("$.invalid").value(0));
+    }
+
+    @Test
+    @WithMockUser(roles = "STUDENT")
+    void enrollBatch_WithStudentRole_ReturnsForbidden() throws Exception {
+        mockMvc.perform(post("/api/courses/1/enrollments:batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new BulkEnrollmentRequest(List.of(2L)))))
+                .andExpect(status().isForbidden());
+
+        verify(enrollmentService, never()).enrollStudents(any(), any());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void importRoster_WithCsvFile_ReturnsCounts() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "roster.csv", "text/csv",
+                "username\nstudent1\nstudent2\n".getBytes());
+        when(enrollmentService.importRoster(eq(1L), any())).thenReturn(new EnrollmentBatchResult(1, 0, 1, 0));
+
+        mockMvc.perform(multipart("/api/courses/1/enrollments:import").file(file))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.inserted").value(1))
+                .andExpect(jsonPath("$.invalid").value(1));
+    }
+
+    @Test
+    @WithMockUser(roles = "INSTRUCTOR")
+    void updateCapacity_WithInstructorRole_ReturnsNoContent() throws Exception {
+        mockMvc.perform(put("/api/courses/1/capacity")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"capacity\": 40}"))
+                .andExpect(status().isNoContent());
+
+        verify(enrollmentService).updateCapacity(1L, 40);
+    }
+
+    @Test
+    @WithMockUser(roles = "INSTRUCTOR")
+    void updateCapacity_WithZeroCapacity_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(put("/api/courses/1/capacity")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"capacity\": 0}"))
+                .andExpect(status().isBadRequest());
+
+        verify(enrollmentService, never()).updateCapacity(any(), any());
+    }
 }
@@ -6,33 +6,58 @@ import com.krzelj.lms.config.SecurityConfig;
 import com.krzelj.lms.repository.jdbc.GradeImportJdbcRepository;
 import com.krzelj.lms.repository.jdbc.ReportingJdbcRepository;
 import com.krzelj.lms.repository.jdbc.dto.AssignmentGradeReportRow;
+import com.krzelj.lms.repository.jdbc.dto.GradeCount;
+import com.krzelj.lms.repository.jdbc.dto.GradeImportOutcome;
+import com.krzelj.lms.repository.jdbc.dto.GradeImportResult;
 import com.krzelj.lms.repository.jdbc.dto.GradeImportRow;
 import com.krzelj.lms.security.jwt.JwtService;
+import com.krzelj.lms.service.ChunkedGradeImportResult;
+import com.krzelj.lms.service.ExportService;
+import com.krzelj.lms.service.GradeCsvImportService;
+import com.krzelj.lms.service.GradeDistribution;
+import com.krzelj.lms.service.GradeDistributionCache;
+import com.krzelj.lms.service.GradebookMatrix;
+import com.krzelj.lms.service.GradebookService;
+import com.krzelj.lms.service.InstitutionReportService;
+import com.krzelj.lms.service.ParallelGradeImportService;
+import com.krzelj.lms.service.ReportSingleFlight;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.json.AutoConfigureJsonTesters;
 import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.OutputStream;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(GradingApiController.class)
-@Import({SecurityConfig.class, ApiControllerTestSecurityConfig.class})
+@Import({SecurityConfig.class, ApiControllerTestSecurityConfig.class, ReportSingleFlight.class})
 @AutoConfigureJsonTesters
 @ActiveProfiles("test")
+@TestPropertySource(properties = "app.reporting.single-flight-ttl-ms=0")
 class GradingApiControllerTest {
 
     @Autowired
@@ -44,6 +69,24 @@ class GradingApiControllerTest {
     @MockitoBean
     private ReportingJdbcRepository reportingJdbcRepository;
 
+    @MockitoBean
+    private ExportService exportService;
+
+    @MockitoBean
+    private GradebookService gradebookService;
+
+    @MockitoBean
+    private GradeDistributionCache gradeDistributionCache;
+
+    @MockitoBean
+    private InstitutionReportService institutionReportService;
+
+    @MockitoBean
+    private GradeCsvImportService gradeCsvImportService;
+
+    @MockitoBean
+    private ParallelGradeImportService parallelGradeImportService;
+
     @MockitoBean
     private JwtService jwtService;
 
@@ -62,8 +105,8 @@ class GradingApiControllerTest {
                 new GradeImportRow(1L, 2L, 85),
                 new GradeImportRow(1L, 3L, 90)
         );
-        when(gradeImportJdbcRepository.batchUpdateGrades(any(), eq(1L), any()))
-                .thenReturn(new int[][] { { 1 }, { 1 } });
+        when(parallelGradeImportService.importGrades(grades, 1L))
+                .thenReturn(new ChunkedGradeImportResult(null, 2, 2, 0, List.of(new ChunkedGradeImportResult.Chunk(0, 2, 2, null))));
 
         GradingApiController.BulkGradeImportRequest request =
                 new GradingApiController.BulkGradeImportRequest(grades);
@@ -74,9 +117,80 @@ class GradingApiControllerTest {
                         .content(objectMapper.writeValueAsString(request)))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.gradesUpdated").value(2))
-                .andExpect(jsonPath("$.totalSubmitted").value(2));
+                .andExpect(jsonPath("$.totalSubmitted").value(2))
+                .andExpect(jsonPath("$.failedChunks").isEmpty());
+
+        verify(parallelGradeImportService).importGrades(grades, 1L);
+    }
+
+    @Test
+    @WithMockUser(roles = "INSTRUCTOR")
+    void retryBulkImport_ReturnsRetriedChunksOrNotFound() throws Exception {
+        when(parallelGradeImportService.retryFailedChunks("abc"))
+                .thenReturn(Optional.of(new ChunkedGradeImportResult(null, 1000, 1000, 0,
+                        List.of(new ChunkedGradeImportResult.Chunk(3, 1000, 1000, null)))));
+        when(parallelGradeImportService.retryFailedChunks("gone")).thenReturn(Optional.empty());
 
-        verify(gradeImportJdbcRepository).batchUpdateGrades(any(), eq(1L), any());
+        mockMvc.perform(post("/api/grading/bulk-import/abc/retry"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.gradesUpdated").value(1000));
+        mockMvc.perform(post("/api/grading/bulk-import/gone/retry"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @WithMockUser(roles = "INSTRUCTOR")
+    void stagedImportGrades_ReturnsCountsAndRejectedRows() throws Exception {
+        List<GradeImportRow> grades = Arrays.asList(
+                new GradeImportRow(1L, 2L, 85),
+                new GradeImportRow(1L, 3L, 120),
+                new GradeImportRow(1L, 4L, 70)
+        );
+        when(gradeImportJdbcRepository.importGradesViaStaging(any(), eq(1L), any()))
+                .thenReturn(new GradeImportResult(List.of(GradeImportOutcome.UPDATED, GradeImportOutcome.OUT_OF_RANGE,
+                        GradeImportOutcome.NO_SUBMISSION)));
+
+        mockMvc.perform(post("/api/grading/bulk-import/staged")
+                        .param("graderUserId", "1")
+                        .contentType(org.springframework.http.MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new GradingApiController.BulkGradeImportRequest(grades))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated").value(1))
+                .andExpect(jsonPath("$.outOfRange").value(1))
+                .andExpect(jsonPath("$.noSubmission").value(1))
+                .andExpect(jsonPath("$.rejected.length()").value(2))
+                .andExpect(jsonPath("$.rejected[0].row").value(1))
+                .andExpect(jsonPath("$.rejected[0].outcome").value("OUT_OF_RANGE"))
+                .andExpect(jsonPath("$.rejected[1].studentId").value(4));
+
+        verify(gradeDistributionCache).invalidateAll(List.of(1L));
+    }
+
+    @Test
+    @WithMockUser(roles = "INSTRUCTOR")
+    void stagedImportGrades_WithUpsert_CountsCreatedRowsAsAccepted() throws Exception {
+        List<GradeImportRow> grades = Arrays.asList(
+                new GradeImportRow(1L, 2L, 85),
+                new GradeImportRow(1L, 4L, 70),
+                new GradeImportRow(1L, 9L, 60)
+        );
+        when(gradeImportJdbcRepository.upsertGradesViaStaging(any(), eq(1L), any()))
+                .thenReturn(new GradeImportResult(List.of(GradeImportOutcome.UPDATED, GradeImportOutcome.CREATED,
+                        GradeImportOutcome.NOT_ENROLLED)));
+
+        mockMvc.perform(post("/api/grading/bulk-import/staged")
+                        .param("graderUserId", "1")
+                        .param("upsert", "true")
+                        .contentType(org.springframework.http.MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new GradingApiController.BulkGradeImportRequest(grades))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated").value(1))
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.notEnrolled").value(1))
+                .andExpect(jsonPath("$.rejected.length()").value(1))
+                .andExpect(jsonPath("$.rejected[0].studentId").value(9));
+
+        verify(gradeImportJdbcRepository, never()).importGradesViaStaging(any(), anyLong(), any());
     }
 
     @Test
@@ -92,14 +206,14 @@ class GradingApiControllerTest {
                         .content(objectMapper.writeValueAsString(request)))
                 .andExpect(status().isForbidden());
 
-        verify(gradeImportJdbcRepository, never()).batchUpdateGrades(any(), anyLong(), any());
+        verifyNoInteractions(parallelGradeImportService);
     }
 
     @Test
     @WithMockUser(roles = "ADMIN")
     void getCourseGradeReport_WithAdminRole_ReturnsReport() throws Exception {
         List<AssignmentGradeReportRow> report = Arrays.asList(
-                new AssignmentGradeReportRow(1L, 1L, 10, 8, 82.5)
+                new AssignmentGradeReportRow(1L, 1L, 10, 8, 82.5, 6.2, 70, 95)
         );
         when(reportingJdbcRepository.assignmentGradeReportForCourse(1L)).thenReturn(report);
 
@@ -108,11 +222,113 @@ class GradingApiControllerTest {
                 .andExpect(jsonPath("$").isArray())
                 .andExpect(jsonPath("$[0].assignmentId").value(1))
                 .andExpect(jsonPath("$[0].submissionsCount").value(10))
-                .andExpect(jsonPath("$[0].gradedCount").value(8));
+                .andExpect(jsonPath("$[0].gradedCount").value(8))
+                .andExpect(jsonPath("$[0].stdDevPoints").value(6.2));
 
         verify(reportingJdbcRepository).assignmentGradeReportForCourse(1L);
     }
 
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void getInstitutionGradeReport_StreamsReportForPlannedPartitions() throws Exception {
+        List<InstitutionReportService.Partition> plan = List.of(new InstitutionReportService.Partition(0, 1, 2, List.of(1L, 2L)));
+        when(institutionReportService.plan(List.of(1L, 2L), 2)).thenReturn(plan);
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(1);
+            out.write("{\"assignments\":[]}".getBytes());
+            return null;
+        }).when(institutionReportService).writeReport(eq(plan), any());
+
+        MvcResult result = mockMvc.perform(get("/api/grading/report/institution")
+                        .param("courseIds", "1", "2")
+                        .param("partitions", "2"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.assignments").isArray());
+    }
+
+    @Test
+    @WithMockUser(roles = "INSTRUCTOR")
+    void importGradesCsv_StreamsProgressAsNdjson() throws Exception {
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(4);
+            out.write("{\"linesRead\":1000}\n{\"linesRead\":1200,\"errors\":[]}\n".getBytes());
+            return null;
+        }).when(gradeCsvImportService).importGradesAsNdjson(eq(1L), any(), eq(7L), eq(true), any());
+
+        MvcResult result = mockMvc.perform(multipart("/api/grading/assignments/1/grades:import")
+                        .file(new MockMultipartFile("file", "grades.csv", "text/csv", "alice,85\n".getBytes()))
+                        .param("graderUserId", "7")
+                        .param("upsert", "true"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/x-ndjson"))
+                .andExpect(content().string(containsString("\"errors\":[]")));
+    }
+
+    @Test
+    @WithMockUser(roles = "INSTRUCTOR")
+    void importGradesCsv_WithUnknownAssignment_ReturnsBadRequest() throws Exception {
+        doThrow(new IllegalArgumentException("Assignment not found: 99")).when(gradeCsvImportService).checkAssignment(99L);
+
+        mockMvc.perform(multipart("/api/grading/assignments/99/grades:import")
+                        .file(new MockMultipartFile("file", "grades.csv", "text/csv", "alice,85\n".getBytes()))
+                        .param("graderUserId", "7"))
+                .andExpect(status().isBadRequest());
+
+        verify(gradeCsvImportService, never()).importGradesAsNdjson(anyLong(), any(), anyLong(), anyBoolean(), any());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void getInstitutionGradeReport_WithInvalidPartitions_ReturnsBadRequest() throws Exception {
+        when(institutionReportService.plan(null, 0)).thenThrow(new IllegalArgumentException("Partitions must be between 1 and 64: 0"));
+
+        mockMvc.perform(get("/api/grading/report/institution").param("partitions", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(roles = "INSTRUCTOR")
+    void getInstitutionGradeReport_WithInstructorRole_ReturnsForbidden() throws Exception {
+        mockMvc.perform(get("/api/grading/report/institution"))
+                .andExpect(status().isForbidden());
+
+        verify(institutionReportService, never()).plan(any(), any());
+    }
+
+    @Test
+    @WithMockUser(roles = "INSTRUCTOR")
+    void getAssignmentGradeDistribution_ReturnsPercentilesAndHistogram() throws Exception {
+        when(gradeDistributionCache.get(5L)).thenReturn(GradeDistribution.of(5L, 10,
+                List.of(new GradeCount(4, 1), new GradeCount(7, 2), new GradeCount(10, 1))));
+
+        mockMvc.perform(get("/api/grading/report/assignment/5/distribution").param("buckets", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.gradedCount").value(4))
+                .andExpect(jsonPath("$.median").value(7))
+                .andExpect(jsonPath("$.p90").value(10))
+                .andExpect(jsonPath("$.mean").value(7.0))
+                .andExpect(jsonPath("$.histogram.length()").value(2))
+                .andExpect(jsonPath("$.histogram[1].lowerBound").value(5))
+                .andExpect(jsonPath("$.histogram[1].count").value(3));
+    }
+
+    @Test
+    @WithMockUser(roles = "INSTRUCTOR")
+    void getAssignmentGradeDistribution_WithUnknownAssignment_ReturnsBadRequest() throws Exception {
+        when(gradeDistributionCache.get(6L)).thenThrow(new IllegalArgumentException("Assignment not found: 6"));
+
+        mockMvc.perform(get("/api/grading/report/assignment/6/distribution"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     @WithMockUser(roles = "INSTRUCTOR")
     void getCourseGradeReport_WithInstructorRole_ReturnsReport() throws Exception {
@@ -133,4 +349,37 @@ class GradingApiControllerTest {
 
         verify(reportingJdbcRepository, never()).assignmentGradeReportForCourse(anyLong());
     }
+
+    @Test
+    @WithMockUser(roles = "INSTRUCTOR")
+    void getGradebook_WithCsvFormat_StreamsCsv() throws Exception {
+        GradebookMatrix matrix = new GradebookMatrix(1L, List.of(), List.of());
+        when(gradebookService.build(1L)).thenReturn(matrix);
+
+        MvcResult result = mockMvc.perform(get("/api/grading/gradebook/course/1").param("format", "csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "text/csv"));
+        verify(gradebookService).writeCsv(eq(matrix), any());
+        verify(gradebookService, never()).writeJson(any(), any());
+    }
+
+    @Test
+    @WithMockUser(roles = "INSTRUCTOR")
+    void getGradebook_WithUnknownFormat_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/grading/gradebook/course/1").param("format", "xml"))
+                .andExpect(status().isBadRequest());
+
+        verify(gradebookService, never()).build(anyLong());
+    }
+
+    @Test
+    @WithMockUser(roles = "STUDENT")
+    void getGradebook_WithStudentRole_ReturnsForbidden() throws Exception {
+        mockMvc.perform(get("/api/grading/gradebook/course/1"))
+                .andExpect(status().isForbidden());
+    }
 }
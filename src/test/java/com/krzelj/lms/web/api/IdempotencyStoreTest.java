@@ -0,0 +1,156 @@
+package com.krzelj.lms.web.api;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+import tools.jackson.dataformat.smile.SmileMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyStoreTest {
+
+    private static final JsonMapper JSON = JsonMapper.builder().build();
+    private static final CBORMapper CBOR = CBORMapper.builder().build();
+    private static final SmileMapper SMILE = SmileMapper.builder().build();
+
+    private final IdempotencyStore store = new IdempotencyStore(60, 100, JSON, CBOR, SMILE);
+    private final AtomicInteger writes = new AtomicInteger();
+
+    @Test
+    void execute_WithSameKeyAndPayload_ReplaysStoredResponse() {
+        ResponseEntity<?> first = store.execute("k1", "alice", "op", "f", null, this::write);
+        ResponseEntity<?> second = store.execute("k1", "alice", "op", "f", null, this::write);
+
+        assertEquals(1, writes.get());
+        assertEquals(HttpStatus.CREATED, second.getStatusCode());
+        assertEquals("\"submission-1\"", new String((byte[]) second.getBody(), StandardCharsets.UTF_8));
+        assertEquals(MediaType.APPLICATION_JSON, second.getHeaders().getContentType());
+        assertEquals("submission-1", first.getBody());
+        assertEquals("true", second.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER));
+        assertNull(first.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER));
+        assertEquals(1, store.replays());
+    }
+
+    @Test
+    void execute_ReplaysInTheFormatTheRetryAccepts() {
+        store.execute("k1", "alice", "op", "f", null, this::write);
+
+        ResponseEntity<?> cbor = store.execute("k1", "alice", "op", "f", "application/cbor", this::write);
+        ResponseEntity<?> smile = store.execute("k1", "alice", "op", "f", "application/x-jackson-smile;q=0.9, */*;q=0.1",
+                this::write);
+
+        assertEquals(1, writes.get());
+        assertEquals(MediaType.APPLICATION_CBOR, cbor.getHeaders().getContentType());
+        assertEquals("submission-1", CBOR.readValue((byte[]) cbor.getBody(), String.class));
+        assertEquals(ApiMediaTypes.APPLICATION_SMILE, smile.getHeaders().getContentType());
+        assertEquals("submission-1", SMILE.readValue((byte[]) smile.getBody(), String.class));
+        assertEquals("Accept", smile.getHeaders().getFirst("Vary"));
+    }
+
+    @Test
+    void execute_ScopesKeysByPrincipalAndOperation() {
+        store.execute("k1", "alice", "op", "f", null, this::write);
+        store.execute("k1", "bob", "op", "f", null, this::write);
+        store.execute("k1", "alice", "other", "f", null, this::write);
+        store.execute(null, "alice", "op", "f", null, this::write);
+
+        assertEquals(4, writes.get());
+        assertEquals(3, store.size());
+    }
+
+    @Test
+    void execute_WithDifferentPayload_IsRejected() {
+        store.execute("k1", "alice", "op", "f", null, this::write);
+
+        assertEquals(HttpStatus.UNPROCESSABLE_CONTENT, store.execute("k1", "alice", "op", "g", null, this::write).getStatusCode());
+        assertEquals(1, writes.get());
+    }
+
+    @Test
+    void execute_WhileFirstRequestIsInFlight_ReturnsConflict() {
+        ResponseEntity<?> nested = store.execute("k1", "alice", "op", "f", null,
+                () -> store.execute("k1", "alice", "op", "f", null, this::write));
+
+        assertEquals(HttpStatus.CONFLICT, nested.getStatusCode());
+        assertEquals(0, writes.get());
+    }
+
+    @Test
+    void execute_DoesNotStoreFailures() {
+        assertThrows(IllegalArgumentException.class, () -> store.execute("k1", "alice", "op", "f", null, () -> {
+            throw new IllegalArgumentException("Submission not found: 1");
+        }));
+        store.execute("k2", "alice", "op", "f", null, () -> ResponseEntity.badRequest().build());
+
+        assertEquals(0, store.size());
+        assertEquals(HttpStatus.CREATED, store.execute("k1", "alice", "op", "f", null, this::write).getStatusCode());
+        assertEquals(1, writes.get());
+    }
+
+    @Test
+    void execute_WithInvalidKey_ReturnsBadRequest() {
+        assertEquals(HttpStatus.BAD_REQUEST, store.execute(" ", "alice", "op", "f", null, this::write).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, store.execute("x".repeat(IdempotencyStore.MAX_KEY_LENGTH + 1), "alice", "op", "f", null,
+                this::write).getStatusCode());
+        assertEquals(0, writes.get());
+    }
+
+    @Test
+    void purgeExpired_DropsEntriesPastTheirTtl() {
+        IdempotencyStore expiring = new IdempotencyStore(0, 100, JSON, CBOR, SMILE);
+        expiring.execute("k1", "alice", "op", "f", null, this::write);
+
+        expiring.purgeExpired();
+
+        assertEquals(0, expiring.size());
+        expiring.execute("k1", "alice", "op", "f", null, this::write);
+        assertEquals(2, writes.get());
+    }
+
+    @Test
+    void execute_WhenFull_EvictsLeastRecentlyUsedEntry() {
+        IdempotencyStore small = new IdempotencyStore(60, 2, JSON, CBOR, SMILE);
+        small.execute("k1", "alice", "op", "f", null, this::write);
+        small.execute("k2", "alice", "op", "f", null, this::write);
+        small.execute("k1", "alice", "op", "f", null, this::write);
+        small.execute("k3", "alice", "op", "f", null, this::write);
+
+        assertEquals(2, small.size());
+        assertEquals(1, small.evictions());
+        assertEquals("true", small.execute("k1", "alice", "op", "f", null, this::write)
+                .getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER));
+        small.execute("k2", "alice", "op", "f", null, this::write);
+        assertEquals(4, writes.get());
+    }
+
+    @Test
+    void execute_WhenBodyCannotBeSerialized_CountsItAsNotStored() {
+        ResponseEntity<?> response = store.execute("k1", "alice", "op", "f", null, () -> ResponseEntity.ok(new Unserializable()));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(0, store.size());
+        assertEquals(1, store.notStored());
+    }
+
+    @Test
+    void fingerprint_DistinguishesArgumentBoundaries() {
+        assertEquals(IdempotencyStore.fingerprint(1L, 85), IdempotencyStore.fingerprint(1L, 85));
+        assertNotEquals(IdempotencyStore.fingerprint("1, 2"), IdempotencyStore.fingerprint("1", "2"));
+    }
+
+    private static final class Unserializable {
+        public String getValue() {
+            throw new IllegalStateException("not serializable");
+        }
+    }
+
+    private ResponseEntity<String> write() {
+        return ResponseEntity.status(HttpStatus.CREATED).body("submission-" + writes.incrementAndGet());
+    }
+}
@@ -0,0 +1,194 @@
+package com.krzelj.lms.web.api;
+
+import com.krzelj.lms.config.SecurityConfig;
+import com.krzelj.lms.security.jwt.JwtService;
+import com.krzelj.lms.service.ReportJob;
+import com.krzelj.lms.service.ReportJobService;
+import com.krzelj.lms.service.ReportJobStatus;
+import com.krzelj.lms.service.ReportJobType;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(ReportJobApiController.class)
+@Import({SecurityConfig.class, ApiControllerTestSecurityConfig.class})
+@ActiveProfiles("test")
+class ReportJobApiControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private ReportJobService reportJobService;
+
+    @MockitoBean
+    private JwtService jwtService;
+
+    @Test
+    @WithMockUser(roles = "INSTRUCTOR")
+    void submitJob_ReturnsAcceptedWithLocation() throws Exception {
+        ReportJob job = job("job-1", ReportJobStatus.QUEUED);
+        when(reportJobService.submit("user", ReportJobType.GRADEBOOK, 3L, null, null, "csv")).thenReturn(job);
+
+        mockMvc.perform(post("/api/grading/jobs")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"type\":\"GRADEBOOK\",\"courseId\":3,\"format\":\"csv\"}"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/api/grading/jobs/job-1"))
+                .andExpect(jsonPath("$.status").value("QUEUED"))
+                .andExpect(jsonPath("$.downloadUrl").doesNotExist());
+    }
+
+    @Test
+    @WithMockUser(roles = "INSTRUCTOR")
+    void submitJob_InstitutionReportRequiresAdmin() throws Exception {
+        mockMvc.perform(post("/api/grading/jobs")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"type\":\"INSTITUTION_REPORT\"}"))
+                .andExpect(status().isForbidden());
+
+        verify(reportJobService, never()).submit(any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void submitJob_WhenQueueIsFull_ReturnsServiceUnavailable() throws Exception {
+        when(reportJobService.submit(eq("user"), eq(ReportJobType.INSTITUTION_REPORT), any(), eq(List.of(1L, 2L)), eq(4), any()))
+                .thenThrow(new IllegalStateException("Report job queue is full"));
+
+        mockMvc.perform(post("/api/grading/jobs")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"type\":\"INSTITUTION_REPORT\",\"courseIds\":[1,2],\"partitions\":4}"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().exists("Retry-After"));
+    }
+
+    @Test
+    @WithMockUser(roles = "INSTRUCTOR")
+    void submitJob_WithInvalidRequest_ReturnsBadRequest() throws Exception {
+        when(reportJobService.submit("user", ReportJobType.GRADEBOOK, null, null, null, null))
+                .thenThrow(new IllegalArgumentException("courseId is required for GRADEBOOK"));
+
+        mockMvc.perform(post("/api/grading/jobs")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"type\":\"GRADEBOOK\"}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(roles = "INSTRUCTOR")
+    void getJob_ReturnsStatusOrNotFound() throws Exception {
+        ReportJob job = job("job-2", ReportJobStatus.COMPLETED);
+        when(reportJobService.find("job-2", "user", false)).thenReturn(Optional.of(job));
+        when(reportJobService.find("missing", "user", false)).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/grading/jobs/job-2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("COMPLETED"))
+                .andExpect(jsonPath("$.compressedBytes").value(42))
+                .andExpect(jsonPath("$.downloadUrl").value("/api/grading/jobs/job-2/download"));
+        mockMvc.perform(get("/api/grading/jobs/missing"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @WithMockUser(roles = "INSTRUCTOR")
+    void downloadJob_BeforeCompletion_ReturnsConflict() throws Exception {
+        ReportJob job = job("job-3", ReportJobStatus.RUNNING);
+        when(reportJobService.find("job-3", "user", false)).thenReturn(Optional.of(job));
+
+        mockMvc.perform(get("/api/grading/jobs/job-3/download"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    @WithMockUser(roles = "INSTRUCTOR")
+    void downloadJob_WithGzipAccepted_StreamsStoredFile() throws Exception {
+        ReportJob job = job("job-4", ReportJobStatus.COMPLETED);
+        when(reportJobService.find("job-4", "user", false)).thenReturn(Optional.of(job));
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(2);
+            out.write(invocation.<Boolean>getArgument(1) ? "gz".getBytes() : "plain".getBytes());
+            return null;
+        }).when(reportJobService).writeResult(eq(job), anyBoolean(), any());
+
+        MvcResult result = mockMvc.perform(get("/api/grading/jobs/job-4/download").header("Accept-Encoding", "gzip, br"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(header().string("Content-Type", "text/csv"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"course-3-gradebook.csv\""))
+                .andExpect(content().string("gz"));
+    }
+
+    @Test
+    @WithMockUser(username = "other", roles = "INSTRUCTOR")
+    void getJob_OfAnotherUser_ReturnsNotFound() throws Exception {
+        when(reportJobService.find("job-5", "other", false)).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/grading/jobs/job-5"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/grading/jobs/job-5/download"))
+                .andExpect(status().isNotFound());
+
+        verify(reportJobService, never()).writeResult(any(), anyBoolean(), any());
+    }
+
+    @Test
+    @WithMockUser(username = "root", roles = "ADMIN")
+    void getJob_AsAdmin_LooksUpAnyUsersJob() throws Exception {
+        ReportJob job = job("job-6", ReportJobStatus.QUEUED);
+        when(reportJobService.find("job-6", "root", true)).thenReturn(Optional.of(job));
+
+        mockMvc.perform(get("/api/grading/jobs/job-6"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("QUEUED"));
+    }
+
+    @Test
+    @WithMockUser(roles = "STUDENT")
+    void getJob_WithStudentRole_ReturnsForbidden() throws Exception {
+        mockMvc.perform(get("/api/grading/jobs/job-1"))
+                .andExpect(status().isForbidden());
+    }
+
+    private static ReportJob job(String id, ReportJobStatus status) {
+        ReportJob job = mock(ReportJob.class);
+        when(job.getId()).thenReturn(id);
+        when(job.getType()).thenReturn(ReportJobType.GRADEBOOK);
+        when(job.getStatus()).thenReturn(status);
+        when(job.getCreatedAt()).thenReturn(Instant.now());
+        when(job.getMediaType()).thenReturn("text/csv");
+        when(job.getFileName()).thenReturn("course-3-gradebook.csv");
+        when(job.getSizeBytes()).thenReturn(42L);
+        return job;
+    }
+}
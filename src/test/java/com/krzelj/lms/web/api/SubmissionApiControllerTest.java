@@ -1,13 +1,20 @@
 package com.krzelj.lms.web.api;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.krzelj.lms.config.ApiFormatsConfig;
 import com.krzelj.lms.config.SecurityConfig;
 import com.krzelj.lms.domain.Assignment;
 import com.krzelj.lms.domain.Course;
 import com.krzelj.lms.domain.Submission;
 import com.krzelj.lms.domain.User;
 import com.krzelj.lms.security.jwt.JwtService;
+import com.krzelj.lms.service.BatchResult;
+import com.krzelj.lms.service.ExportFormat;
+import com.krzelj.lms.service.ExportService;
+import com.krzelj.lms.service.SparseFieldService;
+import com.krzelj.lms.service.SubmissionReceipt;
 import com.krzelj.lms.service.SubmissionService;
+import com.krzelj.lms.service.SubmissionWriteBuffer;
 import com.krzelj.lms.service.UserService;
 import com.krzelj.lms.web.api.dto.GradeSubmissionRequest;
 import com.krzelj.lms.web.api.dto.SubmitWorkRequest;
@@ -21,20 +28,30 @@ import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.dataformat.cbor.CBORMapper;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(SubmissionApiController.class)
-@Import({SecurityConfig.class, ApiControllerTestSecurityConfig.class})
+@Import({SecurityConfig.class, ApiControllerTestSecurityConfig.class, ApiFormatsConfig.class, IdempotencyStore.class})
 @AutoConfigureJsonTesters
 @ActiveProfiles("test")
 class SubmissionApiControllerTest {
@@ -48,6 +65,15 @@ class SubmissionApiControllerTest {
     @MockitoBean
     private UserService userService;
 
+    @MockitoBean
+    private SparseFieldService sparseFieldService;
+
+    @MockitoBean
+    private ExportService exportService;
+
+    @MockitoBean
+    private SubmissionWriteBuffer submissionWriteBuffer;
+
     @MockitoBean
     private JwtService jwtService;
 
@@ -91,6 +117,90 @@ class SubmissionApiControllerTest {
         verify(submissionService).findForAssignment(1L);
     }
 
+    @Test
+    @WithMockUser(roles = "INSTRUCTOR")
+    void getSubmissions_WithIds_ReturnsFoundSubmissionsAndMissingIds() throws Exception {
+        when(submissionService.getByIdsWithDetails(1L, List.of(1L, 7L)))
+                .thenReturn(new BatchResult<>(List.of(testSubmission), List.of(7L)));
+
+        mockMvc.perform(get("/api/assignments/1/submissions").param("ids", "1,7"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(1))
+                .andExpect(jsonPath("$.items[0].studentId").value(2))
+                .andExpect(jsonPath("$.notFound[0]").value(7));
+    }
+
+    @Test
+    @WithMockUser(roles = "STUDENT")
+    void getSubmissions_WithIdsAsStudent_ReturnsForbidden() throws Exception {
+        mockMvc.perform(get("/api/assignments/1/submissions").param("ids", "1,7"))
+                .andExpect(status().isForbidden());
+
+        verify(submissionService, never()).getByIdsWithDetails(anyLong(), any());
+    }
+
+    @Test
+    @WithMockUser(roles = "INSTRUCTOR")
+    void listSubmissions_WithFields_ReturnsOnlyRequestedFields() throws Exception {
+        List<String> fields = List.of("id", "studentId", "gradePoints");
+        when(sparseFieldService.submissionFields("studentId,gradePoints")).thenReturn(fields);
+        when(sparseFieldService.findSubmissionsForAssignment(1L, fields))
+                .thenReturn(List.of(Map.of("id", 1L, "studentId", 2L, "gradePoints", 90)));
+
+        mockMvc.perform(get("/api/assignments/1/submissions").param("fields", "studentId,gradePoints"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].studentId").value(2))
+                .andExpect(jsonPath("$[0].gradePoints").value(90))
+                .andExpect(jsonPath("$[0].contentText").doesNotExist());
+
+        verify(submissionService, never()).findForAssignment(anyLong());
+    }
+
+    @Test
+    @WithMockUser(roles = "INSTRUCTOR")
+    void listSubmissions_WithUnknownField_ReturnsBadRequest() throws Exception {
+        when(sparseFieldService.submissionFields("password")).thenThrow(new IllegalArgumentException("Unknown field: password"));
+
+        mockMvc.perform(get("/api/assignments/1/submissions").param("fields", "password"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(roles = "INSTRUCTOR")
+    void exportSubmissions_WithCsvAccept_StreamsCsvAttachment() throws Exception {
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(2);
+            out.write("id,studentId\r\n1,2\r\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(exportService).exportSubmissions(eq(1L), eq(ExportFormat.CSV), any());
+
+        MvcResult result = mockMvc.perform(get("/api/assignments/1/submissions/export").accept("text/csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "text/csv"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"assignment-1-submissions.csv\""))
+                .andExpect(content().string("id,studentId\r\n1,2\r\n"));
+    }
+
+    @Test
+    @WithMockUser(roles = "INSTRUCTOR")
+    void exportSubmissions_WithUnknownFormat_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/assignments/1/submissions/export").param("format", "xlsx"))
+                .andExpect(status().isBadRequest());
+
+        verify(exportService, never()).exportSubmissions(anyLong(), any(), any());
+    }
+
+    @Test
+    @WithMockUser(roles = "STUDENT")
+    void exportSubmissions_WithStudentRole_ReturnsForbidden() throws Exception {
+        mockMvc.perform(get("/api/assignments/1/submissions/export"))
+                .andExpect(status().isForbidden());
+    }
+
     @Test
     @WithMockUser(roles = "STUDENT")
     void listSubmissions_WithStudentRole_ReturnsForbidden() throws Exception {
@@ -103,7 +213,7 @@ class SubmissionApiControllerTest {
     @Test
     @WithMockUser
     void getSubmission_WhenExists_ReturnsSubmission() throws Exception {
-        when(submissionService.getById(1L)).thenReturn(testSubmission);
+        when(submissionService.getByIdWithDetails(1L)).thenReturn(testSubmission);
 
         mockMvc.perform(get("/api/assignments/1/submissions/1"))
                 .andExpect(status().isOk())
@@ -111,7 +221,20 @@ class SubmissionApiControllerTest {
                 .andExpect(jsonPath("$.assignmentTitle").value("Homework 1"))
                 .andExpect(jsonPath("$.studentName").value("student1"));
 
-        verify(submissionService).getById(1L);
+        verify(submissionService).getByIdWithDetails(1L);
+    }
+
+    @Test
+    @WithMockUser
+    void getSubmission_WhenETagIsStale_ReturnsFreshBody() throws Exception {
+        when(submissionService.findVersion(1L)).thenReturn(Optional.of(2L));
+        when(submissionService.getByIdWithDetails(1L)).thenReturn(testSubmission);
+
+        mockMvc.perform(get("/api/assignments/1/submissions/1").header("If-None-Match", "\"1\""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(1));
+
+        verify(submissionService).getByIdWithDetails(1L);
     }
 
     @Test
@@ -133,6 +256,103 @@ class SubmissionApiControllerTest {
         verify(submissionService).submitWork(eq(1L), eq(2L), eq("My content"));
     }
 
+    @Test
+    @WithMockUser(username = "student1", roles = "STUDENT")
+    void submitWork_NearDeadline_ReturnsAcceptedReceiptFromWriteBuffer() throws Exception {
+        when(userService.findByUsername("student1")).thenReturn(Optional.of(testStudent));
+        when(submissionWriteBuffer.tryAccept(1L, 2L, "Last minute"))
+                .thenReturn(Optional.of(new SubmissionReceipt(1L, 2L, Instant.parse("2026-01-15T23:59:58Z"), false)));
+
+        mockMvc.perform(post("/api/assignments/1/submissions")
+                        .contentType(org.springframework.http.MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new SubmitWorkRequest("Last minute"))))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.studentId").value(2))
+                .andExpect(jsonPath("$.late").value(false));
+
+        verify(submissionService, never()).submitWork(anyLong(), anyLong(), any());
+    }
+
+    @Test
+    @WithMockUser(username = "student1", roles = "STUDENT")
+    void submitWork_WithRepeatedIdempotencyKey_ReplaysWithoutCallingService() throws Exception {
+        when(userService.findByUsername("student1")).thenReturn(Optional.of(testStudent));
+        when(submissionService.submitWork(eq(1L), eq(2L), eq("Retried content")))
+                .thenReturn(testSubmission);
+        String body = objectMapper.writeValueAsString(new SubmitWorkRequest("Retried content"));
+
+        for (int attempt = 0; attempt < 2; attempt++) {
+            mockMvc.perform(post("/api/assignments/1/submissions")
+                            .header(IdempotencyStore.HEADER, "retry-1")
+                            .contentType(org.springframework.http.MediaType.APPLICATION_JSON)
+                            .content(body))
+                    .andExpect(status().isCreated())
+                    .andExpect(jsonPath("$.id").value(1));
+        }
+        mockMvc.perform(post("/api/assignments/1/submissions")
+                        .header(IdempotencyStore.HEADER, "retry-1")
+                        .contentType(org.springframework.http.MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new SubmitWorkRequest("Other content"))))
+                .andExpect(status().isUnprocessableContent());
+
+        verify(userService, times(1)).findByUsername("student1");
+        verify(submissionService, times(1)).submitWork(anyLong(), anyLong(), any());
+    }
+
+    @Test
+    @WithMockUser(roles = "INSTRUCTOR")
+    void gradeSubmission_WithRepeatedIdempotencyKey_ReplaysStoredResponse() throws Exception {
+        testSubmission.setGradePoints(70);
+        when(submissionService.gradeSubmission(eq(1L), eq(2L), eq(70))).thenReturn(testSubmission);
+        String body = objectMapper.writeValueAsString(new GradeSubmissionRequest(70));
+
+        mockMvc.perform(put("/api/assignments/1/submissions/1/grade")
+                        .param("graderUserId", "2")
+                        .header(IdempotencyStore.HEADER, "grade-1")
+                        .contentType(org.springframework.http.MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk());
+        mockMvc.perform(put("/api/assignments/1/submissions/1/grade")
+                        .param("graderUserId", "2")
+                        .header(IdempotencyStore.HEADER, "grade-1")
+                        .contentType(org.springframework.http.MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andExpect(jsonPath("$.gradePoints").value(70));
+
+        verify(submissionService, times(1)).gradeSubmission(anyLong(), anyLong(), any());
+    }
+
+    @Test
+    @WithMockUser(roles = "INSTRUCTOR")
+    void gradeSubmission_WhenRetryAcceptsCbor_ReplaysCbor() throws Exception {
+        testSubmission.setGradePoints(70);
+        when(submissionService.gradeSubmission(eq(1L), eq(2L), eq(70))).thenReturn(testSubmission);
+        String body = objectMapper.writeValueAsString(new GradeSubmissionRequest(70));
+
+        mockMvc.perform(put("/api/assignments/1/submissions/1/grade")
+                        .param("graderUserId", "2")
+                        .header(IdempotencyStore.HEADER, "grade-cbor")
+                        .contentType(org.springframework.http.MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk());
+        MvcResult replay = mockMvc.perform(put("/api/assignments/1/submissions/1/grade")
+                        .param("graderUserId", "2")
+                        .header(IdempotencyStore.HEADER, "grade-cbor")
+                        .accept(org.springframework.http.MediaType.APPLICATION_CBOR)
+                        .contentType(org.springframework.http.MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andExpect(content().contentType(org.springframework.http.MediaType.APPLICATION_CBOR))
+                .andReturn();
+
+        JsonNode replayed = new CBORMapper().readTree(replay.getResponse().getContentAsByteArray());
+        assertEquals(70, replayed.get("gradePoints").asInt());
+        verify(submissionService, times(1)).gradeSubmission(anyLong(), anyLong(), any());
+    }
+
     @Test
     @WithMockUser(roles = "INSTRUCTOR")
     void submitWork_WithInstructorRole_ReturnsForbidden() throws Exception {
@@ -0,0 +1,89 @@
+package com.krzelj.lms.web.api;
+
+import com.krzelj.lms.config.SecurityConfig;
+import com.krzelj.lms.domain.SyncEntityType;
+import com.krzelj.lms.domain.User;
+import com.krzelj.lms.security.jwt.JwtService;
+import com.krzelj.lms.service.SyncChanges;
+import com.krzelj.lms.service.SyncService;
+import com.krzelj.lms.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(SyncApiController.class)
+@Import({SecurityConfig.class, ApiControllerTestSecurityConfig.class})
+@ActiveProfiles("test")
+class SyncApiControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private SyncService syncService;
+
+    @MockitoBean
+    private UserService userService;
+
+    @MockitoBean
+    private JwtService jwtService;
+
+    private User student;
+
+    @BeforeEach
+    void setUp() {
+        student = new User("student1", "hash", "student@test.com");
+        student.setId(2L);
+        when(userService.findByUsername("student1")).thenReturn(Optional.of(student));
+    }
+
+    @Test
+    @WithMockUser(username = "student1", roles = "STUDENT")
+    void sync_WithNothingChanged_ReturnsOnlyTheNextToken() throws Exception {
+        when(syncService.changesSince(student, "abc"))
+                .thenReturn(new SyncChanges("next", false, List.of(), List.of(), List.of(), List.of()));
+
+        mockMvc.perform(get("/api/sync").param("since", "abc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token").value("next"))
+                .andExpect(jsonPath("$.courses").doesNotExist())
+                .andExpect(jsonPath("$.deleted").doesNotExist());
+    }
+
+    @Test
+    @WithMockUser(username = "student1", roles = "STUDENT")
+    void sync_ReportsDeletions() throws Exception {
+        when(syncService.changesSince(eq(student), any())).thenReturn(new SyncChanges("next", false,
+                List.of(), List.of(), List.of(), List.of(new SyncChanges.Deletion(SyncEntityType.ASSIGNMENT, 7L))));
+
+        mockMvc.perform(get("/api/sync"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted[0].type").value("ASSIGNMENT"))
+                .andExpect(jsonPath("$.deleted[0].id").value(7));
+    }
+
+    @Test
+    @WithMockUser(username = "student1", roles = "STUDENT")
+    void sync_WithMalformedToken_ReturnsBadRequest() throws Exception {
+        when(syncService.changesSince(student, "garbage")).thenThrow(new IllegalArgumentException("Invalid sync token"));
+
+        mockMvc.perform(get("/api/sync").param("since", "garbage"))
+                .andExpect(status().isBadRequest());
+    }
+}
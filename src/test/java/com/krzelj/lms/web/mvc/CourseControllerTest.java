@@ -5,8 +5,13 @@ import com.krzelj.lms.domain.Course;
 import com.krzelj.lms.domain.Role;
 import com.krzelj.lms.domain.RoleName;
 import com.krzelj.lms.domain.User;
+import com.krzelj.lms.repository.dto.CatalogCourse;
+import com.krzelj.lms.repository.dto.CourseSummary;
+import com.krzelj.lms.repository.dto.RosterEntry;
 import com.krzelj.lms.security.jwt.JwtService;
+import com.krzelj.lms.domain.EnrollmentOutcome;
 import com.krzelj.lms.service.CourseService;
+import com.krzelj.lms.service.EnrollmentService;
 import com.krzelj.lms.service.UserService;
 import com.krzelj.lms.web.api.ApiControllerTestSecurityConfig;
 import org.junit.jupiter.api.BeforeEach;
@@ -14,17 +19,23 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.Instant;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
@@ -42,6 +53,9 @@ class CourseControllerTest {
     @MockitoBean
     private CourseService courseService;
 
+    @MockitoBean
+    private EnrollmentService enrollmentService;
+
     @MockitoBean
     private UserService userService;
 
@@ -51,6 +65,7 @@ class CourseControllerTest {
     private User testInstructor;
     private User testStudent;
     private Course testCourse;
+    private CourseSummary testSummary;
 
     @BeforeEach
     void setUp() {
@@ -65,33 +80,64 @@ class CourseControllerTest {
         testCourse = new Course("CS101", "Test Course", testInstructor);
         testCourse.setId(1L);
         testCourse.setStudents(new HashSet<>());
+
+        testSummary = new CourseSummary(1L, "CS101", "Test Course", "", Instant.now(), 1L, "instructor1", 2000L, null);
     }
 
     @Test
     @WithMockUser(roles = "STUDENT")
     void listCourses_ReturnsListView() throws Exception {
-        when(courseService.findAll()).thenReturn(List.of(testCourse));
+        when(courseService.findCatalog()).thenReturn(List.of(
+                new CatalogCourse(1L, "CS101", "Introduction to Computer Science", null, Instant.now(), 1L, "instructor1", null)));
 
         mockMvc.perform(get("/courses"))
                 .andExpect(status().isOk())
                 .andExpect(view().name("courses/list"))
                 .andExpect(model().attributeExists("courses"));
 
-        verify(courseService).findAll();
+        verify(courseService).findCatalog();
     }
 
     @Test
     @WithMockUser(username = "student1", roles = "STUDENT")
     void viewCourse_ReturnsDetailView() throws Exception {
-        when(courseService.getById(1L)).thenReturn(testCourse);
+        when(courseService.getSummary(1L)).thenReturn(testSummary);
         when(userService.findByUsername("student1")).thenReturn(Optional.of(testStudent));
+        when(courseService.isStudentEnrolled(1L, 2L)).thenReturn(true);
 
         mockMvc.perform(get("/courses/1"))
                 .andExpect(status().isOk())
                 .andExpect(view().name("courses/detail"))
-                .andExpect(model().attributeExists("course"));
+                .andExpect(model().attributeExists("course"))
+                .andExpect(model().attribute("studentCount", 2000L))
+                .andExpect(model().attribute("isEnrolled", true));
 
-        verify(courseService).getById(1L);
+        verify(courseService).getSummary(1L);
+        verify(courseService, never()).getById(any());
+    }
+
+    @Test
+    @WithMockUser(username = "instructor1", roles = "INSTRUCTOR")
+    void viewRoster_AsInstructor_ReturnsRosterFragment() throws Exception {
+        Page<RosterEntry> roster = new PageImpl<>(
+                List.of(new RosterEntry(2L, "student1", "stud@test.com")), PageRequest.of(1, 25), 60);
+        when(courseService.findRoster(eq(1L), any(Pageable.class))).thenReturn(roster);
+
+        mockMvc.perform(get("/courses/1/roster").param("page", "1").param("size", "25"))
+                .andExpect(status().isOk())
+                .andExpect(view().name("courses/roster :: roster"))
+                .andExpect(model().attribute("roster", roster));
+
+        verify(courseService).findRoster(1L, PageRequest.of(1, 25));
+    }
+
+    @Test
+    @WithMockUser(username = "student1", roles = "STUDENT")
+    void viewRoster_AsStudent_ReturnsForbidden() throws Exception {
+        mockMvc.perform(get("/courses/1/roster"))
+                .andExpect(status().isForbidden());
+
+        verify(courseService, never()).findRoster(any(), any());
     }
 
     @Test
@@ -135,28 +181,56 @@ class CourseControllerTest {
     @WithMockUser(username = "student1", roles = "STUDENT")
     void enrollInCourse_AsStudent_RedirectsToCourse() throws Exception {
         when(userService.findByUsername("student1")).thenReturn(Optional.of(testStudent));
-        doNothing().when(courseService).enrollStudent(1L, 2L);
+        when(enrollmentService.enrollStudent(1L, 2L)).thenReturn(EnrollmentOutcome.ENROLLED);
 
         mockMvc.perform(post("/courses/1/enroll")
                         .with(csrf()))
                 .andExpect(status().is3xxRedirection())
-                .andExpect(redirectedUrl("/courses/1"));
+                .andExpect(redirectedUrl("/courses/1"))
+                .andExpect(flash().attribute("success", "Successfully enrolled in course"));
 
-        verify(courseService).enrollStudent(1L, 2L);
+        verify(enrollmentService).enrollStudent(1L, 2L);
+    }
+
+    @Test
+    @WithMockUser(username = "student1", roles = "STUDENT")
+    void enrollInCourse_WhenFull_ReportsWaitlist() throws Exception {
+        when(userService.findByUsername("student1")).thenReturn(Optional.of(testStudent));
+        when(enrollmentService.enrollStudent(1L, 2L)).thenReturn(EnrollmentOutcome.WAITLISTED);
+
+        mockMvc.perform(post("/courses/1/enroll")
+                        .with(csrf()))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(flash().attribute("success", "Course is full, you have been added to the waitlist"));
+    }
+
+    @Test
+    @WithMockUser(username = "student1", roles = "STUDENT")
+    void viewCourse_WhenWaitlisted_ExposesPosition() throws Exception {
+        when(courseService.getSummary(1L)).thenReturn(
+                new CourseSummary(1L, "CS101", "Test Course", "", Instant.now(), 1L, "instructor1", 30L, 30));
+        when(userService.findByUsername("student1")).thenReturn(Optional.of(testStudent));
+        when(courseService.isStudentEnrolled(1L, 2L)).thenReturn(false);
+        when(enrollmentService.waitlistPosition(1L, 2L)).thenReturn(3);
+
+        mockMvc.perform(get("/courses/1"))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("capacity", 30))
+                .andExpect(model().attribute("waitlistPosition", 3));
     }
 
     @Test
     @WithMockUser(username = "student1", roles = "STUDENT")
     void unenrollFromCourse_AsStudent_RedirectsToCourse() throws Exception {
         when(userService.findByUsername("student1")).thenReturn(Optional.of(testStudent));
-        doNothing().when(courseService).unenrollStudent(1L, 2L);
+        doNothing().when(enrollmentService).unenrollStudent(1L, 2L);
 
         mockMvc.perform(post("/courses/1/unenroll")
                         .with(csrf()))
                 .andExpect(status().is3xxRedirection())
                 .andExpect(redirectedUrl("/courses/1"));
 
-        verify(courseService).unenrollStudent(1L, 2L);
+        verify(enrollmentService).unenrollStudent(1L, 2L);
     }
 
     @Test
@@ -1,8 +1,7 @@
 package com.krzelj.lms.web.mvc;
 
 import com.krzelj.lms.config.SecurityConfig;
-import com.krzelj.lms.domain.Course;
-import com.krzelj.lms.domain.User;
+import com.krzelj.lms.repository.dto.CatalogCourse;
 import com.krzelj.lms.security.jwt.JwtService;
 import com.krzelj.lms.service.CourseService;
 import com.krzelj.lms.web.api.ApiControllerTestSecurityConfig;
@@ -15,6 +14,7 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.Instant;
 import java.util.List;
 
 import static org.mockito.Mockito.*;
@@ -37,16 +37,15 @@ class HomeControllerTest {
 
     @Test
     void home_WhenNotAuthenticated_ReturnsHomeViewWithCourses() throws Exception {
-        User instructor = new User("inst", "hash", "inst@test.com");
-        Course course = new Course("CS101", "Test", instructor);
-        when(courseService.findAll()).thenReturn(List.of(course));
+        CatalogCourse course = new CatalogCourse(1L, "CS101", "Test", null, Instant.now(), 1L, "inst", null);
+        when(courseService.findCatalog()).thenReturn(List.of(course));
 
         mockMvc.perform(get("/"))
                 .andExpect(status().isOk())
                 .andExpect(view().name("home"))
                 .andExpect(model().attributeExists("courses"));
 
-        verify(courseService).findAll();
+        verify(courseService).findCatalog();
     }
 
     @Test
@@ -56,6 +55,6 @@ class HomeControllerTest {
                 .andExpect(status().is3xxRedirection())
                 .andExpect(redirectedUrl("/dashboard"));
 
-        verify(courseService, never()).findAll();
+        verify(courseService, never()).findCatalog();
     }
 }
@@ -7,10 +7,12 @@ import com.krzelj.lms.domain.Role;
 import com.krzelj.lms.domain.RoleName;
 import com.krzelj.lms.domain.Submission;
 import com.krzelj.lms.domain.User;
-import com.krzelj.lms.repository.jdbc.GradeImportJdbcRepository;
 import com.krzelj.lms.security.jwt.JwtService;
 import com.krzelj.lms.service.AssignmentService;
+import com.krzelj.lms.service.GradeCsvImportReport;
+import com.krzelj.lms.service.GradeCsvImportService;
 import com.krzelj.lms.service.SubmissionService;
+import com.krzelj.lms.service.SubmissionWriteBuffer;
 import com.krzelj.lms.service.UserService;
 import com.krzelj.lms.web.api.ApiControllerTestSecurityConfig;
 import org.junit.jupiter.api.BeforeEach;
@@ -18,11 +20,13 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
@@ -30,11 +34,11 @@ import java.util.Optional;
 import java.util.Set;
 
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -56,7 +60,10 @@ class SubmissionControllerTest {
     private UserService userService;
 
     @MockitoBean
-    private GradeImportJdbcRepository gradeImportJdbcRepository;
+    private GradeCsvImportService gradeCsvImportService;
+
+    @MockitoBean
+    private SubmissionWriteBuffer submissionWriteBuffer;
 
     @MockitoBean
     private JwtService jwtService;
@@ -134,6 +141,22 @@ class SubmissionControllerTest {
         verify(submissionService).submitWork(1L, 2L, "My work");
     }
 
+    @Test
+    @WithMockUser(username = "student1", roles = "STUDENT")
+    void submitWork_WithContentOverTheLimit_IsRejectedBeforeStoring() throws Exception {
+        when(assignmentService.getByIdWithCourse(1L)).thenReturn(testAssignment);
+
+        mockMvc.perform(post("/assignments/1/submissions/submit")
+                        .param("contentText", "x".repeat(Submission.MAX_CONTENT_LENGTH + 1))
+                        .with(csrf()))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrl("/courses/1/assignments/1"))
+                .andExpect(flash().attributeExists("error"));
+
+        verifyNoInteractions(submissionWriteBuffer);
+        verify(submissionService, never()).submitWork(anyLong(), anyLong(), any());
+    }
+
     @Test
     @WithMockUser(username = "instructor1", roles = "INSTRUCTOR")
     void gradeSubmission_AsInstructor_RedirectsToSubmissions() throws Exception {
@@ -153,16 +176,34 @@ class SubmissionControllerTest {
     @WithMockUser(username = "instructor1", roles = "INSTRUCTOR")
     void bulkGrade_WithValidData_RedirectsWithSuccess() throws Exception {
         when(userService.findByUsername("instructor1")).thenReturn(Optional.of(testInstructor));
-        when(gradeImportJdbcRepository.batchUpdateGrades(any(), eq(1L), any(Instant.class)))
-                .thenReturn(new int[][]{{1}});
+        when(gradeCsvImportService.importGrades(eq(1L), any(), eq(1L), eq(false), any()))
+                .thenReturn(new GradeCsvImportReport(1, 1, 0, 0, List.of(), false));
 
         mockMvc.perform(post("/assignments/1/submissions/bulk-grade")
                         .param("bulkGrades", "2,85")
                         .with(csrf()))
                 .andExpect(status().is3xxRedirection())
-                .andExpect(redirectedUrl("/assignments/1/submissions"));
+                .andExpect(redirectedUrl("/assignments/1/submissions"))
+                .andExpect(flash().attribute("bulkGradeSuccess", "1 grades updated, 0 lines rejected."));
+
+        verify(gradeCsvImportService).importGrades(eq(1L), any(), eq(1L), eq(false), any());
+    }
 
-        verify(gradeImportJdbcRepository).batchUpdateGrades(any(), eq(1L), any(Instant.class));
+    @Test
+    @WithMockUser(username = "instructor1", roles = "INSTRUCTOR")
+    void bulkGrade_WithCsvFile_ReportsRejectedLines() throws Exception {
+        when(userService.findByUsername("instructor1")).thenReturn(Optional.of(testInstructor));
+        List<GradeCsvImportReport.LineError> errors = List.of(
+                new GradeCsvImportReport.LineError(3, "mallory", GradeCsvImportReport.Reason.UNKNOWN_STUDENT));
+        when(gradeCsvImportService.importGrades(eq(1L), any(), eq(1L), eq(false), any()))
+                .thenReturn(new GradeCsvImportReport(3, 1, 0, 1, errors, false));
+
+        mockMvc.perform(multipart("/assignments/1/submissions/bulk-grade")
+                        .file(new MockMultipartFile("file", "grades.csv", "text/csv",
+                                "username,points\nalice,85\nmallory,90\n".getBytes(StandardCharsets.UTF_8)))
+                        .with(csrf()))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(flash().attribute("bulkGradeErrors", errors));
     }
 
     @Test
@@ -176,7 +217,7 @@ class SubmissionControllerTest {
                 .andExpect(status().is3xxRedirection())
                 .andExpect(redirectedUrl("/assignments/1/submissions"));
 
-        verify(gradeImportJdbcRepository, never()).batchUpdateGrades(any(), anyLong(), any());
+        verifyNoInteractions(gradeCsvImportService);
     }
 
     @Test